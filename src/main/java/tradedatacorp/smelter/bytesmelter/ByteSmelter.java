@@ -0,0 +1,74 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.bytesmelter;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+
+/**
+ * Enables the creation of byte representations of raw data elements, in memory or streamed to a channel.
+ * The byte format is defined by the implementing class, typically the same bytes a matching file smelter would write.
+ * @param <T> the type of a single data instance this smelter processes.
+ */
+public interface ByteSmelter<T>{
+    /**
+     * Processes a single data element to a byte array.
+     *
+     * @param rawDataElement the data element to process
+     * @return The byte representation of a collection containing a single element.
+     */
+    public byte[] smeltToBytes(T rawDataElement);
+
+    /**
+     * Processes an array of data elements to a byte array.
+     *
+     * @param rawDataArray the array of data elements to process
+     * @return The byte representation of an array of elements.
+     */
+    public byte[] smeltToBytes(T[] rawDataArray);
+
+    /**
+     * Processes a collection of data elements to a byte array.
+     *
+     * @param rawDataCollection the collection of data elements to process
+     * @return The byte representation of a collection of elements.
+     */
+    public byte[] smeltToBytes(Collection<T> rawDataCollection);
+
+    /**
+     * Processes an array of data elements to a byte buffer.
+     *
+     * @param rawDataArray the array of data elements to process
+     * @return The byte representation of an array of elements, from position 0 to the limit.
+     */
+    public ByteBuffer smeltToByteBuffer(T[] rawDataArray);
+
+    /**
+     * Processes a collection of data elements to a byte buffer.
+     *
+     * @param rawDataCollection the collection of data elements to process
+     * @return The byte representation of a collection of elements, from position 0 to the limit.
+     */
+    public ByteBuffer smeltToByteBuffer(Collection<T> rawDataCollection);
+
+    /**
+     * Streams the byte representation of an array of data elements to {@code destination}.
+     * The channel is not closed.
+     *
+     * @param rawDataArray the array of data elements to process
+     * @param destination the channel the bytes are written to
+     */
+    public void smeltToChannel(T[] rawDataArray, WritableByteChannel destination);
+
+    /**
+     * Streams the byte representation of a collection of data elements to {@code destination}.
+     * The channel is not closed.
+     *
+     * @param rawDataCollection the collection of data elements to process
+     * @param destination the channel the bytes are written to
+     */
+    public void smeltToChannel(Collection<T> rawDataCollection, WritableByteChannel destination);
+}
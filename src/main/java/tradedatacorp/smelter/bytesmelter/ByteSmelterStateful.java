@@ -0,0 +1,34 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.bytesmelter;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The purpose of this interface is to enable the creation of byte representations from collections of raw data elements.
+ * This is intended for a stateful class where the data of the implementing class is not directly passed in as a parameter.
+ * @param <T> the type of data element this smelter processes.
+ */
+public interface ByteSmelterStateful<T> extends ByteSmelter<T>{
+    /**
+     * Processes data elements to a byte array. The data is handled by the state of implementing class.
+     * @return the byte representation of collection of data.
+     */
+    public byte[] smeltToBytes();
+
+    /**
+     * Processes data elements to a byte buffer. The data is handled by the state of implementing class.
+     * @return the byte representation of collection of data, from position 0 to the limit.
+     */
+    public ByteBuffer smeltToByteBuffer();
+
+    /**
+     * Streams the byte representation of data elements to {@code destination}. The data is handled by the state of implementing class.
+     * The channel is not closed.
+     * @param destination the channel the bytes are written to
+     */
+    public void smeltToChannel(WritableByteChannel destination);
+}
@@ -0,0 +1,26 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.bytesmelter;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Collection;
+
+/**
+ * Decodes data elements from the byte content of a file held in memory or read from a stream.
+ * Sources are not closed, their remaining bytes after the data elements are not read.
+ * @param <RefinedT> the type of a single data instance this unsmelter returns.
+ */
+public interface ByteUnsmelter<RefinedT>{
+    public Collection<RefinedT> unsmeltBytesToCollection(byte[] originalBytes);
+    public RefinedT[] unsmeltBytesToArray(byte[] originalBytes);
+    public Collection<RefinedT> unsmeltBufferToCollection(ByteBuffer originalBuffer);
+    public RefinedT[] unsmeltBufferToArray(ByteBuffer originalBuffer);
+    public Collection<RefinedT> unsmeltStreamToCollection(InputStream originalStream);
+    public RefinedT[] unsmeltStreamToArray(InputStream originalStream);
+    public Collection<RefinedT> unsmeltChannelToCollection(ReadableByteChannel originalChannel);
+    public RefinedT[] unsmeltChannelToArray(ReadableByteChannel originalChannel);
+}
@@ -0,0 +1,33 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.filesmelter;
+
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * The purpose of this interface is to read the data elements of a file that fall within a UTC time range, without reading the whole file.
+ * Data elements within the file must be stored in ascending UTC order.
+ * @param <RefinedT> the type of data element this unsmelter returns.
+ */
+public interface FileUnsmelterTimeRange<RefinedT>{
+    /**
+     * Returns all data elements with a UTC value between {@code utcStart} and {@code utcEnd} (inclusive).
+     * @param originalBinaryFile The path to the file.
+     * @param utcStart The earliest UTC value (inclusive).
+     * @param utcEnd The latest UTC value (inclusive).
+     * @return A collection of data elements within the UTC range.
+     */
+    public Collection<RefinedT> unsmeltFileToCollectionFromUTC(Path originalBinaryFile, long utcStart, long utcEnd);
+
+    /**
+     * Returns all data elements with a UTC value between {@code utcStart} and {@code utcEnd} (inclusive).
+     * @param originalBinaryFile The path to the file.
+     * @param utcStart The earliest UTC value (inclusive).
+     * @param utcEnd The latest UTC value (inclusive).
+     * @return An array of data elements within the UTC range.
+     */
+    public RefinedT[] unsmeltFileToArrayFromUTC(Path originalBinaryFile, long utcStart, long utcEnd);
+}
@@ -0,0 +1,212 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.filesmelter;
+
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLayout;
+import tradedatacorp.tools.stick.primitive.StickDouble;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A multi-producer staging area of packed data points, one {@link OHLCV_BinaryPackedCrucible} lane per producer thread.
+ * <p>Each thread packs into its own lane, so producers never wait on each other: the lane lock is only ever shared with a drain,
+ * which holds it just long enough to swap the lane buffer for an empty one.
+ * {@link #drainTo} then merges the swapped buffers into a single destination without decoding any data point.</p>
+ * <p>The data points of each producer keep the order they were added in. Lanes are merged by UTC (ties go to the lane registered first),
+ * so if every producer adds data points in UTC order the drained data points are in UTC order.</p>
+ */
+public class OHLCV_BinaryConcurrentCrucible{
+    private final OHLCV_BinaryLayout layout;
+    private final boolean isDirect;
+    private final ThreadLocal<Lane> threadLane;
+    private final ConcurrentLinkedQueue<Lane> lanes;
+    private final Object drainLock;
+    private long nextLaneOrder; //Guarded by lanes registration, see getLane.
+
+    /**
+     * Constructs an empty crucible.
+     *
+     * @param layout The layout every data point is packed with.
+     * @param isDirect If true every lane buffer is allocated off-heap.
+     */
+    public OHLCV_BinaryConcurrentCrucible(OHLCV_BinaryLayout layout, boolean isDirect){
+        this.layout = layout;
+        this.isDirect = isDirect;
+        threadLane = new ThreadLocal<Lane>();
+        lanes = new ConcurrentLinkedQueue<Lane>();
+        drainLock = new Object();
+        nextLaneOrder = 0;
+    }
+
+    /**
+     * Packs {@code dataStick} into the lane of the calling thread.
+     * @param dataStick The data point to add.
+     */
+    public void add(StickDouble dataStick){
+        Lane lane = getLane();
+        synchronized(lane){lane.current.add(dataStick);}
+    }
+
+    /**
+     * Packs every {@code dataStickArray} element into the lane of the calling thread in order.
+     * @param dataStickArray The data points to add.
+     */
+    public void add(StickDouble[] dataStickArray){
+        Lane lane = getLane();
+        synchronized(lane){lane.current.add(dataStickArray);}
+    }
+
+    /**
+     * Packs every {@code dataStickCollection} element into the lane of the calling thread in iteration order.
+     * @param dataStickCollection The data points to add.
+     */
+    public void add(Collection<? extends StickDouble> dataStickCollection){
+        Lane lane = getLane();
+        synchronized(lane){lane.current.add(dataStickCollection);}
+    }
+
+    /**
+     * Returns the number of data points staged in every lane. Concurrent adds may or may not be counted.
+     * @return the number of staged data points.
+     */
+    public int size(){
+        long size = 0;
+        for(Lane lane : lanes){
+            synchronized(lane){size += lane.current.size();}
+        }
+        return (int)Math.min(Integer.MAX_VALUE, size);
+    }
+
+    /**
+     * Returns the number of producer lanes.
+     * @return the number of producer lanes.
+     */
+    public int getLaneCount(){return lanes.size();}
+
+    /**
+     * Moves every staged data point to the end of {@code destination}, merging the lanes by UTC.
+     * Data points added concurrently with the drain either are moved by it or remain staged for the next drain.
+     * Lanes of threads that have terminated are released once they are empty.
+     *
+     * @param destination The crucible that receives the data points. It must use the same layout.
+     * @return the number of data points moved.
+     */
+    public int drainTo(OHLCV_BinaryPackedCrucible destination){
+        synchronized(drainLock){
+            //1. Swap out the buffer of every lane, producers continue into the spare buffer.
+            ArrayList<LaneCursor> cursors = new ArrayList<LaneCursor>();
+            Iterator<Lane> laneIterator = lanes.iterator();
+            while(laneIterator.hasNext()){
+                Lane lane = laneIterator.next();
+                OHLCV_BinaryPackedCrucible staged;
+                synchronized(lane){
+                    staged = lane.swap();
+                    if(staged == null && !lane.owner.isAlive()) laneIterator.remove();
+                }
+                if(staged != null) cursors.add(new LaneCursor(lane, staged));
+            }
+
+            //2. Merge the swapped buffers by UTC.
+            int moved = 0;
+            PriorityQueue<LaneCursor> merge = new PriorityQueue<LaneCursor>(Math.max(1, cursors.size()));
+            merge.addAll(cursors);
+            while(!merge.isEmpty()){
+                LaneCursor cursor = merge.poll();
+                destination.addPacked(cursor.view, cursor.getBitIndex());
+                ++moved;
+                if(cursor.next()) merge.add(cursor);
+            }
+
+            //3. Return the drained buffers to their lanes for reuse.
+            for(LaneCursor cursor : cursors){
+                synchronized(cursor.lane){cursor.lane.recycle(cursor.staged);}
+            }
+            return moved;
+        }
+    }
+
+    private Lane getLane(){
+        Lane lane = threadLane.get();
+        if(lane == null){
+            synchronized(lanes){lane = new Lane(Thread.currentThread(), nextLaneOrder++);}
+            lanes.add(lane);
+            threadLane.set(lane);
+        }
+        return lane;
+    }
+
+    /**
+     * The buffers of a single producer thread. Both buffers start packing at bit 0.
+     */
+    private class Lane{
+        final Thread owner;
+        final long order;
+        OHLCV_BinaryPackedCrucible current;
+        OHLCV_BinaryPackedCrucible spare;
+
+        Lane(Thread owner, long order){
+            this.owner = owner;
+            this.order = order;
+            current = new OHLCV_BinaryPackedCrucible(layout, 0, OHLCV_BinaryPackedCrucible.DEFAULT_INITIAL_CAPACITY, isDirect);
+            spare = null;
+        }
+
+        //Returns the staged buffer and replaces it with the spare, null if nothing is staged. Caller holds the lane lock.
+        OHLCV_BinaryPackedCrucible swap(){
+            if(current.isEmpty()) return null;
+            OHLCV_BinaryPackedCrucible staged = current;
+            current = spare != null ? spare : new OHLCV_BinaryPackedCrucible(layout, 0, OHLCV_BinaryPackedCrucible.DEFAULT_INITIAL_CAPACITY, isDirect);
+            spare = null;
+            return staged;
+        }
+
+        //Caller holds the lane lock.
+        void recycle(OHLCV_BinaryPackedCrucible drained){
+            drained.clear();
+            if(spare == null) spare = drained;
+        }
+    }
+
+    /**
+     * The next data point of a swapped lane buffer, ordered by UTC then lane order.
+     */
+    private class LaneCursor implements Comparable<LaneCursor>{
+        final Lane lane;
+        final OHLCV_BinaryPackedCrucible staged;
+        final ByteBuffer view;
+        final int size;
+        int index;
+        long utc;
+
+        LaneCursor(Lane lane, OHLCV_BinaryPackedCrucible staged){
+            this.lane = lane;
+            this.staged = staged;
+            view = staged.genPackedView((byte)0);
+            size = staged.size();
+            index = 0;
+            utc = layout.getUTCPacked(view, 0);
+        }
+
+        long getBitIndex(){return (long)index * layout.getDataBitLength();}
+
+        //Moves to the next data point, false if there is none.
+        boolean next(){
+            if(++index >= size) return false;
+            utc = layout.getUTCPacked(view, getBitIndex());
+            return true;
+        }
+
+        @Override
+        public int compareTo(LaneCursor other){
+            if(utc != other.utc) return Long.compare(utc, other.utc);
+            return Long.compare(lane.order, other.lane.order);
+        }
+    }
+}
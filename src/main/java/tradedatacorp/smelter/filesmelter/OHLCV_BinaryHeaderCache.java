@@ -0,0 +1,156 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.filesmelter;
+
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryHeader;
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLexical;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A thread safe cache of parsed {@link OHLCV_BinaryHeader} instances of {@link OHLCV_BinaryLexical} files.
+ * <p>Entries are keyed by the absolute, normalized path of the file and are only returned while the size and last modified time of the file
+ * still match the values observed before the header was read, and the data count field of the file still holds the cached data count.
+ * The data count bits (a few bytes) are re-read on every hit, so a count commit of an {@link OHLCV_BinaryLexicalPreallocatedFile}, which keeps the size
+ * and possibly the modified time, is detected by every cache and every process. Any other rewrite or append changes the size or modified time.
+ * A rewrite of the other header fields that keeps the same size within the resolution of the file system clock is not detected, {@link #invalidate} such files explicitly.</p>
+ * <p>When the cache holds {@code capacity} entries an arbitrary entry is evicted for each new entry.</p>
+ */
+public final class OHLCV_BinaryHeaderCache{
+    /**
+     * The default maximum number of entries.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final OHLCV_BinaryHeaderCache SHARED_CACHE = new OHLCV_BinaryHeaderCache(DEFAULT_CAPACITY);
+
+    private final ConcurrentHashMap<Path, CacheEntry> entries;
+    private final int capacity;
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param capacity The maximum number of entries, must be positive.
+     */
+    public OHLCV_BinaryHeaderCache(int capacity){
+        if(capacity < 1) throw new IllegalArgumentException("capacity must be positive: "+capacity);
+        this.capacity = capacity;
+        entries = new ConcurrentHashMap<Path, CacheEntry>();
+    }
+
+    /**
+     * Returns the cache shared by every {@link OHLCV_BinaryLexicalFileUnsmelter} constructed without an explicit cache.
+     * @return the shared cache.
+     */
+    public static OHLCV_BinaryHeaderCache getSharedCache(){return SHARED_CACHE;}
+
+    /**
+     * Returns the header of {@code binaryFile}, reading and caching it if there is no valid entry.
+     * Only the data count bytes of the file are read on a hit and only the header bytes on a miss.
+     *
+     * @param binaryFile The path to the {@link OHLCV_BinaryLexical} file.
+     * @return the parsed header, null if the file could not be read or is shorter than its header.
+     */
+    public OHLCV_BinaryHeader getHeader(Path binaryFile){
+        Path key = binaryFile.toAbsolutePath().normalize();
+        BasicFileAttributes attributes;
+        try{attributes = Files.readAttributes(key, BasicFileAttributes.class);}
+        catch(Exception err){
+            entries.remove(key);
+            err.printStackTrace();
+            return null;
+        }
+
+        CacheEntry entry = entries.get(key);
+        if(entry != null && entry.isValid(attributes) && readDataCount(key, entry.header) == entry.header.getDataCount()) return entry.header;
+
+        //The attributes are observed before the read, so a concurrent write leaves a stale key rather than a stale header.
+        OHLCV_BinaryHeader header = readHeader(key);
+        if(header == null){
+            entries.remove(key);
+            return null;
+        }
+
+        if(!entries.containsKey(key)) evictIfFull();
+        entries.put(key, new CacheEntry(attributes.size(), attributes.lastModifiedTime(), header));
+        return header;
+    }
+
+    /**
+     * Removes the entry of {@code binaryFile}, if any.
+     * @param binaryFile The path to the {@link OHLCV_BinaryLexical} file.
+     */
+    public void invalidate(Path binaryFile){entries.remove(binaryFile.toAbsolutePath().normalize());}
+
+    /**
+     * Removes every entry.
+     */
+    public void clear(){entries.clear();}
+
+    /**
+     * Returns the current number of entries.
+     * @return the current number of entries.
+     */
+    public int size(){return entries.size();}
+
+    /**
+     * Returns the maximum number of entries.
+     * @return the maximum number of entries.
+     */
+    public int getCapacity(){return capacity;}
+
+    private void evictIfFull(){
+        Iterator<Path> keys = entries.keySet().iterator();
+        while(entries.size() >= capacity && keys.hasNext()){
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    //Returns -1 if the data count field can not be read, which never matches a cached data count.
+    private static long readDataCount(Path binaryFile, OHLCV_BinaryHeader header){
+        try(FileChannel channel = FileChannel.open(binaryFile, StandardOpenOption.READ)){
+            return OHLCV_BinaryLexicalFileSmelter.readPackedDataCount(channel, header);
+        }catch(Exception err){return -1;}
+    }
+
+    private static OHLCV_BinaryHeader readHeader(Path binaryFile){
+        ByteBuffer headerBytes = ByteBuffer.allocate(OHLCV_BinaryHeader.MAX_BYTE_LENGTH);
+        try(FileChannel channel = FileChannel.open(binaryFile, StandardOpenOption.READ)){
+            while(headerBytes.hasRemaining() && channel.read(headerBytes) > 0);
+        }catch(Exception err){
+            err.printStackTrace();
+            return null;
+        }
+
+        int readCount = headerBytes.position();
+        if(readCount < OHLCV_BinaryHeader.H1_BYTE_LENGTH || readCount < OHLCV_BinaryHeader.getByteLengthFromH1(headerBytes)) return null;
+        return OHLCV_BinaryHeader.genHeaderFromPackedBytes(headerBytes, 0);
+    }
+
+    private static class CacheEntry{
+        final long size;
+        final FileTime lastModifiedTime;
+        final OHLCV_BinaryHeader header;
+
+        CacheEntry(long size, FileTime lastModifiedTime, OHLCV_BinaryHeader header){
+            this.size = size;
+            this.lastModifiedTime = lastModifiedTime;
+            this.header = header;
+        }
+
+        boolean isValid(BasicFileAttributes attributes){
+            return size == attributes.size() && lastModifiedTime.equals(attributes.lastModifiedTime());
+        }
+    }
+}
@@ -6,17 +6,28 @@ package tradedatacorp.smelter.filesmelter;
 
 import tradedatacorp.tools.stick.primitive.StickDouble;
 import tradedatacorp.tools.binarytools.BinaryTools;
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryHeader;
 import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLexical;
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLayout;
 import tradedatacorp.smelter.filesmelter.FileSmelterStateful;
+import tradedatacorp.smelter.bytesmelter.ByteSmelterStateful;
 import tradedatacorp.smelter.stringsmelter.StringSmelterStateful;
 
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Iterator;
 
 import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.time.Instant;
 import java.time.Duration;
 
@@ -25,11 +36,20 @@ import java.time.Duration;
  * This class has a preset Path that represents the file location and name of where the file will be written.
  * This class has a {@link OHLCV_BinaryLexical} that specifies the bit compression formats of OHLCV Stick data.
  */
-public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<StickDouble>, FileSmelterStateful<StickDouble>{
+public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<StickDouble>, FileSmelterStateful<StickDouble>, ByteSmelterStateful<StickDouble>{
     private OHLCV_BinaryLexical binaryTranslator; //Translates from ? to flattened bin (type boolean[])
+    private OHLCV_BinaryLayout layout; //Immutable data point layout of binaryTranslator, shared by packed writes and encode tasks without locks.
     private Path targetFile;
-    private ArrayDeque<boolean[]> crucible;
+    private OHLCV_BinaryConcurrentCrucible stagingCrucible; //Sticks staged by addData, one packed lane per producer thread.
+    private OHLCV_BinaryPackedCrucible crucible; //stagingCrucible drained at smelt time, packed to directly follow the header.
     private int fileWriteByteChunkSize = 64;
+    private ByteBuffer packedChunk; //Reusable chunk for single pass writes, also the lock for single pass writes.
+    private static final int PACKED_CHUNK_SIZE = 1 << 16;
+
+    /**
+     * The number of data points each parallel encode task packs into its own segment.
+     */
+    public static final int PARALLEL_ENCODE_SEGMENT_SIZE = 16384;
 
     //Constructor
     /**
@@ -37,23 +57,34 @@ public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<Sti
      * This will not use this classes {@link OHLCV_BinaryLexical}.
      * 
      * @param originalTranslator The binary lexical translator used to define the bit compression format for output files.
+     * @param isOffHeapCrucible If true the sticks staged by {@code addData} are packed into off-heap buffers.
      */
-    public OHLCV_BinaryLexicalFileSmelter(OHLCV_BinaryLexical originalTranslator){
+    public OHLCV_BinaryLexicalFileSmelter(OHLCV_BinaryLexical originalTranslator, boolean isOffHeapCrucible){
         binaryTranslator = originalTranslator.clone();
+        layout = binaryTranslator.getLayout();
         targetFile = null;
-        crucible = new ArrayDeque<boolean[]>();
+        stagingCrucible = new OHLCV_BinaryConcurrentCrucible(layout, isOffHeapCrucible);
+        crucible = new OHLCV_BinaryPackedCrucible(binaryTranslator, isOffHeapCrucible);
+        packedChunk = ByteBuffer.allocate(PACKED_CHUNK_SIZE);
     }
 
+    /**
+     * Constructs an {@code OHLCV_BinaryLexicalFileSmelter} using the provided {@link OHLCV_BinaryLexical} translator and an on-heap crucible.
+     * 
+     * @param originalTranslator The binary lexical translator used to define the bit compression format for output files.
+     */
+    public OHLCV_BinaryLexicalFileSmelter(OHLCV_BinaryLexical originalTranslator){this(originalTranslator, false);}
+
     //SmelterStateful Overrides
     /**
      * Adds a single {@link StickDouble} instance to this class's crucible for later processing.
+     * The stick is packed immediately into the lane of the calling thread, see {@link OHLCV_BinaryConcurrentCrucible}.
+     * Sticks from different threads are merged by UTC when smelted.
      *
      * @param dataStick the {@link StickDouble} element to add to the crucible.
      */
     @Override
-    public void addData(StickDouble dataStick){
-        synchronized(crucible){crucible.add(binaryTranslator.getBinaryDataFlat(dataStick));}
-    }
+    public void addData(StickDouble dataStick){stagingCrucible.add(dataStick);}
 
     /**
      * Adds an array of {@link StickDouble} instances to this class's crucible for later processing.
@@ -62,9 +93,7 @@ public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<Sti
      */
     @Override
     public void addData(StickDouble[] dataStickArray){
-        for(StickDouble dataStick : dataStickArray){
-            crucible.add(binaryTranslator.getBinaryDataFlat(dataStick));
-        }
+        synchronized(dataStickArray){stagingCrucible.add(dataStickArray);}
     }
 
     /**
@@ -74,11 +103,15 @@ public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<Sti
      */
     @Override
     public void addData(Collection<StickDouble> dataStickCollection){
-        for(StickDouble dataStick : dataStickCollection){
-            crucible.add(binaryTranslator.getBinaryDataFlat(dataStick));
-        }
+        synchronized(dataStickCollection){stagingCrucible.add(dataStickCollection);}
     }
 
+    /**
+     * Returns the number of sticks staged in the crucible.
+     * @return the number of sticks staged in the crucible.
+     */
+    public int getCrucibleSize(){return stagingCrucible.size();}
+
     //FileSmelter Overrides from FileSmelterStateful
     /**
      * Writes a file to the preset target path using the preset {@link OHLCV_BinaryLexical}, containing exactly one data point represented by the given {@code dataStick}.
@@ -89,12 +122,7 @@ public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<Sti
      */
     @Override
     public void smeltToFile(StickDouble dataStick, Path destinationPathName){
-        ArrayDeque<boolean[]> rawDataQueue;
-        synchronized(dataStick){
-            rawDataQueue = new ArrayDeque<>(1);
-            rawDataQueue.add(binaryTranslator.getBinaryDataFlat(dataStick));
-        }
-        writeDataToNewFile(destinationPathName, rawDataQueue, true);
+        writePackedSticksToNewFile(destinationPathName, new StickDouble[]{dataStick}, true);
     }
 
     /**
@@ -107,13 +135,7 @@ public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<Sti
      */
     @Override
     public void smeltToFile(StickDouble[] dataStickArray, Path destinationPathName){
-        synchronized(dataStickArray){
-            ArrayDeque<boolean[]> hotCrucible = new ArrayDeque<boolean[]>(dataStickArray.length);
-            for(int i=0; i<dataStickArray.length; ++i){
-                hotCrucible.add(binaryTranslator.getBinaryDataFlat(dataStickArray[i]));
-            }
-            writeDataToNewFile(destinationPathName, hotCrucible, true);
-        }
+        synchronized(dataStickArray){writePackedSticksToNewFile(destinationPathName, dataStickArray, true);}
     }
 
     /**
@@ -129,18 +151,7 @@ public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<Sti
         boolean isQueue;
         synchronized(rawDataCollection){isQueue = (rawDataCollection instanceof ArrayDeque<StickDouble>);}
         if(isQueue) smeltQueueToFile(destinationPathName,(ArrayDeque<StickDouble>)rawDataCollection);
-
-        ArrayDeque<boolean[]> hotCrucible;
-        synchronized(rawDataCollection){
-            hotCrucible = new ArrayDeque<boolean[]>(rawDataCollection.size());
-            Iterator<StickDouble> it = rawDataCollection.iterator();
-            StickDouble next;
-            while(it.hasNext()){
-                next = it.next();
-                hotCrucible.add(binaryTranslator.getBinaryDataFlat(next));
-            }
-        }
-        writeDataToNewFile(destinationPathName,hotCrucible,true);
+        else synchronized(rawDataCollection){writePackedSticksToNewFile(destinationPathName, rawDataCollection, true);}
     }
 
     //FileSmelterStateful Overrides
@@ -154,10 +165,10 @@ public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<Sti
     public void smeltToFile(Collection<StickDouble> rawDataCollection){smeltToFile(rawDataCollection,targetFile);}
 
     @Override
-    public void smeltToFile(Path destinationPathName){writeDataToNewFile(destinationPathName,crucible,true);}
+    public void smeltToFile(Path destinationPathName){writePackedCrucibleToNewFile(destinationPathName,true);}
 
     @Override
-    public void smeltToFile(){writeDataToNewFile(targetFile,crucible,true);}
+    public void smeltToFile(){writePackedCrucibleToNewFile(targetFile,true);}
 
     //StringSmelter Overides from StringSmelterStateful
     /**
@@ -170,12 +181,7 @@ public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<Sti
      */
     @Override
     public String smeltToString(StickDouble dataStick){
-        ArrayDeque<boolean[]> rawDataQueue;
-        synchronized(dataStick){
-            rawDataQueue = new ArrayDeque<>(1);
-            rawDataQueue.add(binaryTranslator.getBinaryDataFlat(dataStick));
-        }
-        return writeDataToNewFile(targetFile, rawDataQueue, false);
+        return writePackedSticksToNewFile(targetFile, new StickDouble[]{dataStick}, false);
     }
 
     /**
@@ -188,13 +194,7 @@ public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<Sti
      */
     @Override
     public String smeltToString(StickDouble[] rawDataArray){
-        synchronized(rawDataArray){
-            ArrayDeque<boolean[]> hotCrucible = new ArrayDeque<boolean[]>(rawDataArray.length);
-            for(int i=0; i<rawDataArray.length; ++i){
-                hotCrucible.add(binaryTranslator.getBinaryDataFlat(rawDataArray[i]));
-            }
-            return writeDataToNewFile(targetFile, hotCrucible, false);
-        }
+        synchronized(rawDataArray){return writePackedSticksToNewFile(targetFile, rawDataArray, false);}
     }
 
     /**
@@ -206,21 +206,7 @@ public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<Sti
      * NOTE: Java primitive char's are 16 bits but should be treated as 8 bits.
      */
     public String smeltToString(Collection<StickDouble> rawDataCollection){
-        boolean isQueue;
-        synchronized(rawDataCollection){isQueue = (rawDataCollection instanceof ArrayDeque<StickDouble>);}
-        if(isQueue) smeltQueueToFile(targetFile,(ArrayDeque<StickDouble>)rawDataCollection);
-
-        ArrayDeque<boolean[]> hotCrucible;
-        synchronized(rawDataCollection){
-            hotCrucible = new ArrayDeque<boolean[]>(rawDataCollection.size());
-            Iterator<StickDouble> it = rawDataCollection.iterator();
-            StickDouble next;
-            while(it.hasNext()){
-                next = it.next();
-                hotCrucible.add(binaryTranslator.getBinaryDataFlat(next));
-            }
-        }
-        return writeDataToNewFile(targetFile,hotCrucible,false);
+        synchronized(rawDataCollection){return writePackedSticksToNewFile(targetFile, rawDataCollection, false);}
     }
 
     //StringSmelterStateful Overrides
@@ -231,7 +217,134 @@ public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<Sti
      * NOTE: Java primitive char's are 16 bits but should be treated as 8 bits.
      */
     @Override
-    public String smeltToString(){return writeDataToNewFile(targetFile,crucible,false);}
+    public String smeltToString(){return writePackedCrucibleToNewFile(targetFile,false);}
+
+    //ByteSmelter Overrides from ByteSmelterStateful
+    /**
+     * Packs a single data element directly into a new byte array holding the content of the binary file.
+     *
+     * @param dataStick the data element to process
+     * @return The content of the binary file.
+     */
+    @Override
+    public byte[] smeltToBytes(StickDouble dataStick){return packSticksToBytes(Arrays.asList(dataStick));}
+
+    /**
+     * Packs an array of data elements directly into a new byte array holding the content of the binary file.
+     * The array is sized exactly from the data count, so the sticks are packed without intermediate copies.
+     *
+     * @param rawDataArray the array of data elements to process
+     * @return The content of the binary file.
+     */
+    @Override
+    public byte[] smeltToBytes(StickDouble[] rawDataArray){
+        synchronized(rawDataArray){return packSticksToBytes(Arrays.asList(rawDataArray));}
+    }
+
+    /**
+     * Packs a collection of data elements directly into a new byte array holding the content of the binary file.
+     *
+     * @param rawDataCollection the collection of data elements to process
+     * @return The content of the binary file.
+     */
+    @Override
+    public byte[] smeltToBytes(Collection<StickDouble> rawDataCollection){
+        synchronized(rawDataCollection){return packSticksToBytes(rawDataCollection);}
+    }
+
+    /**
+     * Returns {@link #smeltToBytes(StickDouble[])} wrapped in a heap {@link ByteBuffer}, the bytes are not copied.
+     *
+     * @param rawDataArray the array of data elements to process
+     * @return The content of the binary file, from position 0 to the limit.
+     */
+    @Override
+    public ByteBuffer smeltToByteBuffer(StickDouble[] rawDataArray){return ByteBuffer.wrap(smeltToBytes(rawDataArray));}
+
+    /**
+     * Returns {@link #smeltToBytes(Collection)} wrapped in a heap {@link ByteBuffer}, the bytes are not copied.
+     *
+     * @param rawDataCollection the collection of data elements to process
+     * @return The content of the binary file, from position 0 to the limit.
+     */
+    @Override
+    public ByteBuffer smeltToByteBuffer(Collection<StickDouble> rawDataCollection){return ByteBuffer.wrap(smeltToBytes(rawDataCollection));}
+
+    /**
+     * Streams the content of the binary file of an array of data elements to {@code destination}.
+     * The sticks are packed into a reusable chunk that is written whenever it is nearly full, so memory use does not grow with the array.
+     * The channel is not closed.
+     *
+     * @param rawDataArray the array of data elements to process
+     * @param destination the channel the bytes are written to
+     */
+    @Override
+    public void smeltToChannel(StickDouble[] rawDataArray, WritableByteChannel destination){
+        synchronized(rawDataArray){writePackedSticksToChannel(Arrays.asList(rawDataArray), destination);}
+    }
+
+    /**
+     * Streams the content of the binary file of a collection of data elements to {@code destination}.
+     * @see #smeltToChannel(StickDouble[], WritableByteChannel)
+     *
+     * @param rawDataCollection the collection of data elements to process
+     * @param destination the channel the bytes are written to
+     */
+    @Override
+    public void smeltToChannel(Collection<StickDouble> rawDataCollection, WritableByteChannel destination){
+        synchronized(rawDataCollection){writePackedSticksToChannel(rawDataCollection, destination);}
+    }
+
+    //ByteSmelterStateful Overrides
+    /**
+     * Empties the crucible into a new byte array holding the content of the binary file.
+     * The crucible sticks are already packed, so they are copied once in bulk after the header.
+     * @return The content of the binary file.
+     */
+    @Override
+    public byte[] smeltToBytes(){
+        synchronized(packedChunk){
+            synchronized(crucible){
+                ByteBuffer data = genPackedCrucibleView();
+                int headerByteLength = packedChunk.remaining();
+                byte[] bytes = new byte[headerByteLength + data.remaining()];
+                packedChunk.get(bytes, 0, headerByteLength);
+                data.get(bytes, headerByteLength, data.remaining());
+
+                packedChunk.clear();
+                crucible.clear();
+                return bytes;
+            }
+        }
+    }
+
+    /**
+     * Returns {@link #smeltToBytes()} wrapped in a heap {@link ByteBuffer}, the bytes are not copied.
+     * @return The content of the binary file, from position 0 to the limit.
+     */
+    @Override
+    public ByteBuffer smeltToByteBuffer(){return ByteBuffer.wrap(smeltToBytes());}
+
+    /**
+     * Empties the crucible to {@code destination}. The header bytes are written, then the packed crucible bytes are written as is.
+     * The channel is not closed.
+     * @param destination the channel the bytes are written to
+     */
+    @Override
+    public void smeltToChannel(WritableByteChannel destination){
+        synchronized(packedChunk){
+            synchronized(crucible){
+                ByteBuffer data = genPackedCrucibleView();
+                try{
+                    while(packedChunk.hasRemaining()) destination.write(packedChunk);
+                    while(data.hasRemaining()) destination.write(data);
+                }catch(IOException err){err.printStackTrace();}
+
+                packedChunk.clear();
+                crucible.clear();
+            }
+        }
+    }
 
     //OHLCV_BinaryLexicalFileSmelter methods
     /**
@@ -261,6 +374,81 @@ public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<Sti
      */
     public void setAbsoluteTargetFile(String absolutePathName){targetFile = Paths.get(absolutePathName);}
 
+    /**
+     * Writes a file containing all {@code dataStickArray} elements, packing segments of the array in parallel on {@code pool}.
+     * The bit offset of every data point is known in advance ({@code header + i * dataBitLength}),
+     * so each segment is packed independently into its own zeroed buffer starting at its bit offset within its first byte.
+     * Segments are then written in order and the partial bytes shared by neighbouring segments are OR-merged.
+     * The output is byte identical to {@link #smeltToFile(StickDouble[], Path)}.
+     * Segments are packed in batches of a few per worker so memory use is bounded regardless of the array size.
+     *
+     * @param dataStickArray the array of {@link StickDouble} instances to serialize and write to the file.
+     * @param destinationPathName The resultant file that will be created.
+     * @param pool The pool that will execute the encode tasks.
+     * An exception thrown while packing a segment, such as from a null stick, propagates after the file is deleted.
+     * A failure to open or write the file is printed and the file is deleted.
+     */
+    public void smeltToFileParallel(StickDouble[] dataStickArray, Path destinationPathName, ForkJoinPool pool){
+        //1. Pack the header into its own segment.
+        OHLCV_BinaryHeader header = OHLCV_BinaryHeader.genHeaderFromLexical(binaryTranslator);
+        ByteBuffer headerSegment = ByteBuffer.allocate(header.getHeaderByteLength());
+        long headerBitLength = header.setPackedHeader(headerSegment, 0, dataStickArray.length);
+
+        //The file is only kept once every segment is written, a failed encode task or write leaves no truncated file behind.
+        boolean isComplete = false;
+        try(FileChannel channel = FileChannel.open(destinationPathName, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            SegmentStitcher stitcher = new SegmentStitcher(channel);
+            stitcher.write(headerSegment, headerBitLength);
+
+            //2. Pack and write data segments in batches.
+            int segmentCount = (dataStickArray.length + PARALLEL_ENCODE_SEGMENT_SIZE - 1) / PARALLEL_ENCODE_SEGMENT_SIZE;
+            int batchSize = Math.max(1, pool.getParallelism() << 2);
+            ByteBuffer[] segments = new ByteBuffer[Math.min(batchSize, Math.max(1, segmentCount))];
+            EncodeSegmentTask[] tasks = new EncodeSegmentTask[segments.length];
+
+            for(int firstSegment=0; firstSegment<segmentCount; firstSegment += batchSize){
+                int batchCount = Math.min(batchSize, segmentCount - firstSegment);
+                for(int i=0; i<batchCount; ++i){
+                    tasks[i] = new EncodeSegmentTask(dataStickArray, headerBitLength, firstSegment + i, segments, i);
+                    pool.execute(tasks[i]);
+                }
+
+                try{
+                    for(int i=0; i<batchCount; ++i){
+                        tasks[i].join();
+                        stitcher.write(segments[i], tasks[i].getEndBitIndex());
+                        segments[i] = null;
+                    }
+                }
+                finally{
+                    //Running tasks still hold the segment array, let the batch settle before the file is closed and removed.
+                    for(int i=0; i<batchCount; ++i){tasks[i].quietlyJoin();}
+                }
+            }
+
+            stitcher.finalizeData();
+            isComplete = true;
+        }
+        catch(IOException err){err.printStackTrace();}
+        finally{
+            if(!isComplete){
+                try{Files.deleteIfExists(destinationPathName);}
+                catch(IOException err){err.printStackTrace();}
+            }
+        }
+    }
+
+    /**
+     * Writes a file containing all {@code dataStickArray} elements, packing segments in parallel on the common {@link ForkJoinPool}.
+     * @see #smeltToFileParallel(StickDouble[], Path, ForkJoinPool)
+     *
+     * @param dataStickArray the array of {@link StickDouble} instances to serialize and write to the file.
+     * @param destinationPathName The resultant file that will be created.
+     */
+    public void smeltToFileParallel(StickDouble[] dataStickArray, Path destinationPathName){
+        smeltToFileParallel(dataStickArray, destinationPathName, ForkJoinPool.commonPool());
+    }
+
     /**
      * Processes all {@link StickDouble} data sticks contained in the provided queue and writes them to a file at the specified destination path.
      * Each data stick is converted to a binary representation using the preset {@link OHLCV_BinaryLexical}, then written sequentially to the output file.
@@ -269,16 +457,259 @@ public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<Sti
      * @param stickQueue the queue of {@link StickDouble} instances to process and write.
      */
     public void smeltQueueToFile(Path destinationPathName, ArrayDeque<StickDouble> stickQueue){
-        ArrayDeque<boolean[]> hotCrucible;
-        synchronized(stickQueue){
-            hotCrucible = new ArrayDeque<boolean[]>(stickQueue.size());
-            while(!stickQueue.isEmpty()){
-                synchronized(binaryTranslator){
-                    hotCrucible.add(binaryTranslator.getBinaryDataFlat(stickQueue.remove()));
+        synchronized(packedChunk){
+            PackedDataWriter writer = new PackedDataWriter(destinationPathName, true);
+            synchronized(stickQueue){
+                writer.writeHeader(stickQueue.size());
+                while(!stickQueue.isEmpty()){writer.writeStick(stickQueue.remove());}
+            }
+            writer.finalizeData();
+        }
+    }
+
+    /**
+     * Appends a single {@link StickDouble} to the end of an existing {@link OHLCV_BinaryLexical} file in place.
+     * @see #appendToFile(StickDouble[], Path)
+     *
+     * @param dataStick The {@link StickDouble} instance to append.
+     * @param destinationPathName The file that will be appended to, or created if it does not exist.
+     */
+    public void appendToFile(StickDouble dataStick, Path destinationPathName){
+        appendPackedSticksToFile(destinationPathName, new StickDouble[]{dataStick});
+    }
+
+    /**
+     * Appends {@code dataStickArray} to the end of an existing {@link OHLCV_BinaryLexical} file in place, the existing data points are not rewritten.
+     * The new data points are packed starting at the bit after the last existing data point, merged into the partial last byte,
+     * then the data count (h2_data_ct) of the header is patched in place. The data is written before the data count,
+     * so an interrupted append leaves the previous data count valid.
+     * Bytes past the new last data point, such as the free slots of an {@link OHLCV_BinaryLexicalPreallocatedFile}, are left in place.
+     * If the file does not exist it is created the same as {@link #smeltToFile(StickDouble[], Path)}.
+     *
+     * @param dataStickArray The {@link StickDouble} instances to append in order.
+     * @param destinationPathName The file that will be appended to, or created if it does not exist.
+     * @throws IllegalArgumentException if the data layout of the file does not match this smelter's lexical,
+     * or the new data count does not fit within the data count field of the file.
+     */
+    public void appendToFile(StickDouble[] dataStickArray, Path destinationPathName){
+        synchronized(dataStickArray){appendPackedSticksToFile(destinationPathName, dataStickArray);}
+    }
+
+    /**
+     * Appends {@code dataStickCollection} to the end of an existing {@link OHLCV_BinaryLexical} file in place.
+     * @see #appendToFile(StickDouble[], Path)
+     *
+     * @param dataStickCollection The {@link StickDouble} instances to append in iteration order.
+     * @param destinationPathName The file that will be appended to, or created if it does not exist.
+     */
+    public void appendToFile(Collection<StickDouble> dataStickCollection, Path destinationPathName){
+        StickDouble[] dataStickArray;
+        synchronized(dataStickCollection){dataStickArray = dataStickCollection.toArray(new StickDouble[0]);}
+        appendPackedSticksToFile(destinationPathName, dataStickArray);
+    }
+
+    /**
+     * Appends {@code dataStickArray} to {@code file} in place.
+     * @see #appendToFile(StickDouble[], Path)
+     */
+    private void appendPackedSticksToFile(Path file, StickDouble[] dataStickArray){
+        if(!Files.exists(file)){
+            writePackedSticksToNewFile(file, dataStickArray, true);
+            return;
+        }
+        if(dataStickArray.length == 0) return;
+
+        synchronized(packedChunk){
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)){
+                //1. Read the header of the file and check it can hold the new data points.
+                OHLCV_BinaryHeader header = readPackedHeader(channel, file);
+                if(!layout.equals(header.getLayout()))
+                    throw new IllegalArgumentException("The data layout of "+file+" does not match the lexical of this smelter.");
+
+                long dataCount = (long)header.getDataCount() + dataStickArray.length;
+                if(dataCount >= (1L << header.getDataCountBitLength()))
+                    throw new IllegalArgumentException("The data count "+dataCount+" does not fit within "+header.getDataCountBitLength()+" bits of "+file);
+
+                //2. Pack the new data points starting at the bit after the last data point, keeping the used bits of the partial last byte.
+                long endBitIndex = header.getHeaderBitLength() + (long)header.getDataCount() * layout.getDataBitLength();
+                long endByteIndex = endBitIndex >>> 3;
+                int partialBitCount = (int)(endBitIndex & 7);
+                byte partialByte = 0;
+                if(partialBitCount != 0){
+                    ByteBuffer lastByte = ByteBuffer.allocate(1);
+                    channel.read(lastByte, endByteIndex);
+                    partialByte = (byte)(lastByte.get(0) & (0xFF << (8 - partialBitCount)));
                 }
-            }   
+
+                channel.position(endByteIndex);
+                PackedDataWriter writer = new PackedDataWriter(channel, partialBitCount, partialByte);
+                for(StickDouble stick : dataStickArray){writer.writeStick(stick);}
+                writer.emitRemaining();
+
+                //3. Patch the data count last.
+                setPackedDataCount(channel, header, dataCount);
+            }catch(IOException err){err.printStackTrace();}
         }
-        writeDataToNewFile(destinationPathName, hotCrucible, true);
+        OHLCV_BinaryHeaderCache.getSharedCache().invalidate(file);
+    }
+
+    /**
+     * Reads and parses the header bytes of {@code channel} without moving its position.
+     */
+    static OHLCV_BinaryHeader readPackedHeader(FileChannel channel, Path file) throws IOException{
+        ByteBuffer headerBytes = ByteBuffer.allocate(OHLCV_BinaryHeader.MAX_BYTE_LENGTH);
+        while(headerBytes.hasRemaining() && channel.read(headerBytes, headerBytes.position()) > 0);
+
+        int readCount = headerBytes.position();
+        if(readCount < OHLCV_BinaryHeader.H1_BYTE_LENGTH || readCount < OHLCV_BinaryHeader.getByteLengthFromH1(headerBytes))
+            throw new IllegalArgumentException(file+" is shorter than an OHLCV_BinaryLexical header.");
+        return OHLCV_BinaryHeader.genHeaderFromPackedBytes(headerBytes, 0);
+    }
+
+    /**
+     * Reads only the bits of the data count field (h2_data_ct) of the header of {@code channel}, a few bytes rather than the whole header.
+     */
+    static long readPackedDataCount(FileChannel channel, OHLCV_BinaryHeader header) throws IOException{
+        long byteIndex = header.getDataCountBitIndex() >>> 3;
+        int bitOffset = header.getDataCountBitIndex() & 7;
+        ByteBuffer countBytes = ByteBuffer.allocate((bitOffset + header.getDataCountBitLength() + 7) >>> 3);
+        while(countBytes.hasRemaining() && channel.read(countBytes, byteIndex + countBytes.position()) > 0);
+        if(countBytes.hasRemaining()) throw new IOException("The data count field ends past the end of the file.");
+        return BinaryTools.toUnsignedLongFromByteBufferSubset(countBytes, bitOffset, header.getDataCountBitLength());
+    }
+
+    /**
+     * Overwrites only the bits of the data count field (h2_data_ct) of the header of {@code channel}, neighbouring bits are preserved.
+     */
+    static void setPackedDataCount(FileChannel channel, OHLCV_BinaryHeader header, long dataCount) throws IOException{
+        long byteIndex = header.getDataCountBitIndex() >>> 3;
+        int bitOffset = header.getDataCountBitIndex() & 7;
+        ByteBuffer countBytes = ByteBuffer.allocate((bitOffset + header.getDataCountBitLength() + 7) >>> 3);
+        while(countBytes.hasRemaining() && channel.read(countBytes, byteIndex + countBytes.position()) > 0);
+
+        BinaryTools.setByteBufferSubsetUnsignedLong(bitOffset, header.getDataCountBitLength(), dataCount, countBytes);
+        countBytes.clear();
+        while(countBytes.hasRemaining()) channel.write(countBytes, byteIndex + countBytes.position());
+    }
+
+    /**
+     * Writes all {@code dataStickArray} elements to {@code file} in a single pass.
+     * Each stick is packed directly into a reusable byte chunk which is flushed whenever it is nearly full.
+     * No per bit or per byte objects are created and no worker threads are used.
+     *
+     * @param file the target file {@link Path} where binary data will be written; the file will be created or overwritten.
+     * This will have no relevance if {@code toFile} is false.
+     * @param dataStickArray the sticks that will be written in order.
+     * @param toFile will write to specified file if true, otherwise will return content of file as string
+     * @return The content of the binary file. If {@code toFile} is true then will return null
+     */
+    private String writePackedSticksToNewFile(Path file, StickDouble[] dataStickArray, boolean toFile){
+        synchronized(packedChunk){
+            PackedDataWriter writer = new PackedDataWriter(file, toFile);
+            writer.writeHeader(dataStickArray.length);
+            for(StickDouble stick : dataStickArray){writer.writeStick(stick);}
+            return writer.finalizeData();
+        }
+    }
+
+    /**
+     * Writes all {@code dataStickCollection} elements to {@code file} in a single pass.
+     * @see #writePackedSticksToNewFile(Path, StickDouble[], boolean)
+     *
+     * @param file the target file {@link Path} where binary data will be written; the file will be created or overwritten.
+     * @param dataStickCollection the sticks that will be written in iteration order.
+     * @param toFile will write to specified file if true, otherwise will return content of file as string
+     * @return The content of the binary file. If {@code toFile} is true then will return null
+     */
+    private String writePackedSticksToNewFile(Path file, Collection<StickDouble> dataStickCollection, boolean toFile){
+        synchronized(packedChunk){
+            PackedDataWriter writer = new PackedDataWriter(file, toFile);
+            writer.writeHeader(dataStickCollection.size());
+            for(StickDouble stick : dataStickCollection){writer.writeStick(stick);}
+            return writer.finalizeData();
+        }
+    }
+
+    /**
+     * Writes the header and every element of {@code dataStickCollection} directly into a new byte array sized exactly for them.
+     * The caller must hold the {@code dataStickCollection} lock.
+     */
+    private byte[] packSticksToBytes(Collection<StickDouble> dataStickCollection){
+        boolean[] header = binaryTranslator.genBinaryHeaderFlat(dataStickCollection.size());
+        long byteLength = (header.length + (long)dataStickCollection.size() * layout.getDataBitLength() + 7) >>> 3;
+        if(byteLength > Integer.MAX_VALUE) throw new IllegalArgumentException(dataStickCollection.size()+" data points exceed the maximum byte array size.");
+
+        ByteBuffer packed = ByteBuffer.allocate((int)byteLength);
+        long bitIndex = 0;
+        while(bitIndex < header.length){
+            int length = (int)Math.min(64, header.length - bitIndex);
+            BinaryTools.setByteBufferSubsetUnsignedLong(bitIndex, length, BinaryTools.toUnsignedLongFromBoolSubset(header, (int)bitIndex, length), packed);
+            bitIndex += length;
+        }
+        for(StickDouble stick : dataStickCollection){
+            layout.setPackedDataStick(stick, packed, bitIndex);
+            bitIndex += layout.getDataBitLength();
+        }
+        return packed.array();
+    }
+
+    /**
+     * Streams the header and every element of {@code dataStickCollection} to {@code destination} in a single pass, see {@link PackedDataWriter}.
+     * The caller must hold the {@code dataStickCollection} lock. {@code destination} is not closed.
+     */
+    private void writePackedSticksToChannel(Collection<StickDouble> dataStickCollection, WritableByteChannel destination){
+        synchronized(packedChunk){
+            PackedDataWriter writer = new PackedDataWriter(destination, 0, (byte)0);
+            writer.writeHeader(dataStickCollection.size());
+            for(StickDouble stick : dataStickCollection){writer.writeStick(stick);}
+            writer.emitRemaining();
+        }
+    }
+
+    /**
+     * Drains the lanes of {@code stagingCrucible} into {@code crucible} and packs the full header bytes into {@code packedChunk}, from position 0 to the limit.
+     * The sticks are already packed, so only the header is packed here.
+     * The caller must hold the {@code packedChunk} and {@code crucible} locks, and clear both once the bytes are consumed.
+     *
+     * @return The crucible bytes, with the partial last header byte merged into the first crucible byte.
+     */
+    private ByteBuffer genPackedCrucibleView(){
+        stagingCrucible.drainTo(crucible);
+
+        boolean[] header = binaryTranslator.genBinaryHeaderFlat(crucible.size());
+        int fullHeaderBytes = header.length >>> 3;
+        int partialHeaderBits = header.length & 7;
+        packedChunk.clear();
+        for(int i=0; i<fullHeaderBytes; ++i){packedChunk.put(i, (byte)BinaryTools.toUnsignedIntFromBoolSubset(header, i << 3, 8));}
+        packedChunk.limit(fullHeaderBytes);
+
+        byte leadingByte = 0;
+        if(partialHeaderBits != 0){
+            leadingByte = (byte)(BinaryTools.toUnsignedIntFromBoolSubset(header, fullHeaderBytes << 3, partialHeaderBits) << (8 - partialHeaderBits));
+        }
+        return crucible.genPackedView(leadingByte);
+    }
+
+    /**
+     * Empties the {@code stagingCrucible} to {@code file}.
+     * @see #smeltToChannel(WritableByteChannel)
+     *
+     * @param file the target file {@link Path} where binary data will be written; the file will be created or overwritten.
+     * @param toFile will write to specified file if true, otherwise will return content of file as string
+     * @return The content of the binary file. If {@code toFile} is true then will return null
+     */
+    private String writePackedCrucibleToNewFile(Path file, boolean toFile){
+        if(toFile){
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+                smeltToChannel(channel);
+            }catch(Exception err){err.printStackTrace();}
+            return null;
+        }
+
+        byte[] bytes = smeltToBytes();
+        StringBuilder strbldr = new StringBuilder(bytes.length);
+        for(byte b : bytes){strbldr.append((char)b);}
+        return strbldr.toString();
     }
 
     /**
@@ -322,14 +753,11 @@ public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<Sti
         boolean[] header;
         byte[] moltenByteChunk = new byte[fileWriteByteChunkSize]; //Chunk to be actively written when full.
 
-        synchronized(binaryTranslator){
-            //2. Set boolean[] header based on binaryLexical settings and localCrubible size.
-            synchronized(dataQueue){
-                hotCrucible = new ArrayDeque<boolean[]>(dataQueue.size());
-                binaryTranslator.setDataCount(dataQueue.size());
-                header = binaryTranslator.getBinaryHeaderFlat();
-                moltenData = new ArrayDeque<Byte>(((dataQueue.size() + header.length + 1) >>> 3));
-            }
+        //2. Set boolean[] header based on binaryLexical settings and localCrubible size.
+        synchronized(dataQueue){
+            hotCrucible = new ArrayDeque<boolean[]>(dataQueue.size());
+            header = binaryTranslator.genBinaryHeaderFlat(dataQueue.size());
+            moltenData = new ArrayDeque<Byte>(((dataQueue.size() + header.length + 1) >>> 3));
         }
 
         //3. Add full bytes of header to molten data.
@@ -340,7 +768,7 @@ public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<Sti
         for(int i=fullHeaderBytes << 3; i<header.length; ++i){bitAligner.add(Boolean.valueOf(header[i]));}
 
         //5. Start the data point assembly line
-        CrucibleToHotCrucible worker1 = new CrucibleToHotCrucible(hotCrucible);
+        CrucibleToHotCrucible worker1 = new CrucibleToHotCrucible(dataQueue, hotCrucible);
         HotCrucibleToBitAligner worker2 = new HotCrucibleToBitAligner(worker1, hotCrucible, bitAligner);
         BitAlignerToMoltenData worker3 = new BitAlignerToMoltenData(worker2, bitAligner, moltenData);
         MoltenDataToFile worker4 = new MoltenDataToFile(worker3, moltenData, returnData, fileWriteByteChunkSize,500);
@@ -370,6 +798,194 @@ public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<Sti
         return returnData.finalizeData();
     }
 
+    /**
+     * Packs a header followed by data points into {@code packedChunk} and flushes complete bytes to a {@link WritableByteChannel} or string.
+     * Only the bytes preceding the current bit are flushed, the partial byte is carried to the start of the chunk.
+     * The last byte is padded with 0s on the right the same as {@link #writeDataToNewFile}.
+     * The caller must hold the {@code packedChunk} lock for the life of the instance.
+     */
+    private class PackedDataWriter{
+        private WritableByteChannel channel;
+        private StringBuilder strbldr;
+        private long nextBitIndex; //Bit index relative to the start of packedChunk.
+        private final long flushBitThreshold;
+
+        private PackedDataWriter(Path file, boolean toFile){
+            if(toFile){
+                try{channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);}
+                catch(Exception err){err.printStackTrace();}
+            }
+            else strbldr = new StringBuilder();
+
+            nextBitIndex = 0;
+            flushBitThreshold = ((long)packedChunk.capacity() << 3) - layout.getDataBitLength() - 64;
+            packedChunk.clear();
+        }
+
+        /**
+         * Continues writing at the current position of {@code channel}, which holds the byte {@code partialByte} with {@code partialBitCount} used bits.
+         * The caller owns {@code channel}, use {@link #emitRemaining} instead of {@link #finalizeData}.
+         */
+        private PackedDataWriter(WritableByteChannel channel, int partialBitCount, byte partialByte){
+            this.channel = channel;
+            flushBitThreshold = ((long)packedChunk.capacity() << 3) - layout.getDataBitLength() - 64;
+            packedChunk.clear();
+            packedChunk.put(0, partialByte);
+            nextBitIndex = partialBitCount;
+        }
+
+        private void writeHeader(int dataCount){writeBits(binaryTranslator.genBinaryHeaderFlat(dataCount));}
+
+        private void writeStick(StickDouble stick){
+            if(nextBitIndex > flushBitThreshold) flush();
+            layout.setPackedDataStick(stick, packedChunk, nextBitIndex);
+            nextBitIndex += layout.getDataBitLength();
+        }
+
+        //Packs up to 64 bits at a time from a flattened boolean representation.
+        private void writeBits(boolean[] bits){
+            if(nextBitIndex > flushBitThreshold) flush();
+            int i = 0;
+            while(i < bits.length){
+                int length = Math.min(64, bits.length - i);
+                long value = 0;
+                for(int j=0; j<length; ++j){value = (value << 1) | (bits[i + j] ? 1 : 0);}
+                BinaryTools.setByteBufferSubsetUnsignedLong(nextBitIndex, length, value, packedChunk);
+                nextBitIndex += length;
+                i += length;
+                if(nextBitIndex > flushBitThreshold) flush();
+            }
+        }
+
+        private void flush(){
+            int fullBytes = (int)(nextBitIndex >>> 3);
+            emit(fullBytes);
+            if((nextBitIndex & 7) != 0) packedChunk.put(0, packedChunk.get(fullBytes));
+            nextBitIndex &= 7;
+        }
+
+        private void emit(int byteCount){
+            if(channel != null){
+                packedChunk.limit(byteCount).position(0);
+                try{while(packedChunk.hasRemaining()) channel.write(packedChunk);}
+                catch(Exception err){err.printStackTrace();}
+                packedChunk.clear();
+            }
+            else if(strbldr != null){
+                for(int i=0; i<byteCount; ++i){strbldr.append((char)packedChunk.get(i));}
+            }
+        }
+
+        //Emits every remaining byte, the last byte is padded with 0s on the right.
+        private void emitRemaining(){
+            int remainingBits = (int)(nextBitIndex & 7);
+            int byteCount = (int)((nextBitIndex + 7) >>> 3);
+            if(remainingBits != 0){
+                int lastIndex = byteCount - 1;
+                packedChunk.put(lastIndex, (byte)(packedChunk.get(lastIndex) & (0xFF << (8 - remainingBits))));
+            }
+            emit(byteCount);
+            nextBitIndex = 0;
+        }
+
+        private String finalizeData(){
+            emitRemaining();
+
+            if(channel != null){
+                try{channel.close();}
+                catch(Exception err){err.printStackTrace();}
+                return null;
+            }
+            return strbldr == null ? null : strbldr.toString();
+        }
+    }
+
+    /**
+     * Packs a single segment of data points into a new zeroed buffer.
+     * Bit 0 of the buffer is the first bit of the byte that contains the first bit of the segment.
+     */
+    private class EncodeSegmentTask extends RecursiveAction{
+        private final StickDouble[] dataStickArray;
+        private final long headerBitLength;
+        private final int segmentIndex;
+        private final ByteBuffer[] result;
+        private final int resultIndex;
+
+        private EncodeSegmentTask(StickDouble[] dataStickArray, long headerBitLength, int segmentIndex, ByteBuffer[] result, int resultIndex){
+            this.dataStickArray = dataStickArray;
+            this.headerBitLength = headerBitLength;
+            this.segmentIndex = segmentIndex;
+            this.result = result;
+            this.resultIndex = resultIndex;
+        }
+
+        private int getFromIndex(){return segmentIndex * PARALLEL_ENCODE_SEGMENT_SIZE;}
+
+        private int getToIndex(){return Math.min(dataStickArray.length, getFromIndex() + PARALLEL_ENCODE_SEGMENT_SIZE);}
+
+        //Absolute file bit index after the last bit of this segment.
+        private long getEndBitIndex(){return headerBitLength + (long)getToIndex() * layout.getDataBitLength();}
+
+        @Override
+        protected void compute(){
+            int dataBitLength = layout.getDataBitLength();
+            long startBitIndex = headerBitLength + (long)getFromIndex() * dataBitLength;
+            long bitIndex = startBitIndex & 7;
+            int toIndex = getToIndex();
+
+            ByteBuffer segment = ByteBuffer.allocate((int)((bitIndex + (long)(toIndex - getFromIndex()) * dataBitLength + 7) >>> 3));
+            for(int i=getFromIndex(); i<toIndex; ++i){
+                layout.setPackedDataStick(dataStickArray[i], segment, bitIndex);
+                bitIndex += dataBitLength;
+            }
+            result[resultIndex] = segment;
+        }
+    }
+
+    /**
+     * Writes consecutive segments to a {@link FileChannel}, OR-merging the partial byte at the end of a segment with the first byte of the next segment.
+     */
+    private class SegmentStitcher{
+        private FileChannel channel;
+        private byte carry;
+        private boolean hasCarry;
+
+        private SegmentStitcher(FileChannel channel){
+            this.channel = channel;
+            hasCarry = false;
+        }
+
+        /**
+         * @param segment The packed segment, unused trailing bits must be 0.
+         * @param endBitIndex The absolute file bit index after the last bit of the segment.
+         * @throws IOException if the channel fails to write.
+         */
+        private void write(ByteBuffer segment, long endBitIndex) throws IOException{
+            int length = segment.capacity();
+            if(length == 0) return;
+            if(hasCarry) segment.put(0, (byte)(segment.get(0) | carry));
+
+            hasCarry = (endBitIndex & 7) != 0;
+            if(hasCarry){
+                --length;
+                carry = segment.get(length);
+            }
+
+            segment.limit(length).position(0);
+            while(segment.hasRemaining()) channel.write(segment);
+        }
+
+        /**
+         * Writes the partial byte of the last segment. The channel is left open for its owner to close.
+         */
+        private void finalizeData() throws IOException{
+            if(hasCarry){
+                ByteBuffer lastByte = ByteBuffer.wrap(new byte[]{carry});
+                while(lastByte.hasRemaining()) channel.write(lastByte);
+            }
+        }
+    }
+
     private abstract class DataWriter{
         protected abstract void writeBytes(byte[] nextBytes);
         protected abstract void writeBytes(byte[] nextBytes, int startIndex, int length);
@@ -444,25 +1060,27 @@ public class OHLCV_BinaryLexicalFileSmelter implements StringSmelterStateful<Sti
     }
 
     /**
-     * Responsible for moving data from the core {@code crucible} object to a local {@code hotCrucible} queue.
+     * Responsible for copying data from the {@code dataQueue} of {@link #writeDataToNewFile} to a local {@code hotCrucible} queue.
      * This operation is performed with synchronization to ensure thread safety, allowing subsequent pipeline stages
-     * to operate on a thread-local copy of the data.
-     * Resource locks: {@code this.crucible}, local {@code hotCrucible}
+     * to operate on a thread-local copy of the data. The source queue is not modified.
+     * Resource locks: source {@code dataQueue}, local {@code hotCrucible}
      * Used internally as the first stage of the file writing pipeline.
      */
     private class CrucibleToHotCrucible extends TempAssemblyWorker implements Runnable{
+        private ArrayDeque<boolean[]> dataQueue;
         private ArrayDeque<boolean[]> hotCrucible;
-        private CrucibleToHotCrucible(ArrayDeque<boolean[]> product){
+        private CrucibleToHotCrucible(ArrayDeque<boolean[]> productSource, ArrayDeque<boolean[]> product){
             super();
+            dataQueue = productSource;
             hotCrucible = product;
         }
 
         @Override
         public void run(){
-            synchronized(crucible){
-                while(!crucible.isEmpty()){
+            synchronized(dataQueue){
+                for(boolean[] data : dataQueue){
                     synchronized(hotCrucible){
-                        hotCrucible.add(crucible.remove());
+                        hotCrucible.add(data);
                         hotCrucible.notifyAll();
                     }
                 }
@@ -4,39 +4,70 @@
  */
 package tradedatacorp.smelter.filesmelter;
 
+import tradedatacorp.smelter.bytesmelter.ByteUnsmelter;
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryHeader;
 import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLexical;
-import tradedatacorp.tools.binarytools.BitByteTrack;
-import tradedatacorp.tools.binarytools.BinaryTools;
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLayout;
+import tradedatacorp.tools.stick.StickColumns;
 import tradedatacorp.tools.stick.primitive.StickDouble;
 
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 /**
  * Reads binary files encoded with {@link OHLCV_BinaryLexical}.
  * Capable of returning the binary header IAW {@link OHLCV_BinaryLexical}
  * Capable of returning a collection of data from the file.
+ * Parsed headers are kept in an {@link OHLCV_BinaryHeaderCache} keyed by path, size and modified time, so repeated reads of a file skip header parsing.
+ * The same file content can also be decoded from memory or a stream, see {@link ByteUnsmelter}.
  */
 public class OHLCV_BinaryLexicalFileUnsmelter implements
     FileBinaryHeaderUnsmelter,
     FileUnsmelter<StickDouble>,
     FileUnsmelterCachedHeader<StickDouble>,
     FileUnsmelterPartial<StickDouble>,
-    FileUnsmelterPartialCachedHeader<StickDouble>
+    FileUnsmelterPartialCachedHeader<StickDouble>,
+    FileUnsmelterTimeRange<StickDouble>,
+    ByteUnsmelter<StickDouble>
 {
+    /**
+     * The maximum number of mapped views kept by a single unsmelter, see {@link #getMappedFile}.
+     */
+    public static final int MAPPED_FILE_CACHE_CAPACITY = 16;
+
     private int fileReadByteChunkSize;
+    private OHLCV_BinaryHeaderCache headerCache;
+    private final ConcurrentHashMap<Path, OHLCV_BinaryLexicalMappedFile> mappedFiles = new ConcurrentHashMap<Path, OHLCV_BinaryLexicalMappedFile>();
 
     /**
-     * Constructs an unsmelter with a specified byte chunk size for file reading.
+     * Constructs an unsmelter with a specified byte chunk size for file reading and header cache.
      *
      * @param defaultFileReadByteChunkSize the byte chunk size to use for reading the file; if negative, defaults to 64 bytes.
+     * @param headerCache the cache consulted for the header of each file; if null, the header is read from the file every time.
      */
-    public OHLCV_BinaryLexicalFileUnsmelter(int defaultFileReadByteChunkSize){
+    public OHLCV_BinaryLexicalFileUnsmelter(int defaultFileReadByteChunkSize, OHLCV_BinaryHeaderCache headerCache){
         if(defaultFileReadByteChunkSize < 0) fileReadByteChunkSize = 64;
         else fileReadByteChunkSize = defaultFileReadByteChunkSize;
+        this.headerCache = headerCache;
+    }
+
+    /**
+     * Constructs an unsmelter with a specified byte chunk size for file reading and the shared header cache.
+     *
+     * @param defaultFileReadByteChunkSize the byte chunk size to use for reading the file; if negative, defaults to 64 bytes.
+     */
+    public OHLCV_BinaryLexicalFileUnsmelter(int defaultFileReadByteChunkSize){
+        this(defaultFileReadByteChunkSize, OHLCV_BinaryHeaderCache.getSharedCache());
     }
 
     /**
@@ -54,10 +85,24 @@ public class OHLCV_BinaryLexicalFileUnsmelter implements
      */
     @Override
     public boolean[][] unsmeltFileHeader(Path originalBinaryFile){
+        return unsmeltFileTypedHeader(originalBinaryFile).getBinaryHeader();
+    }
+
+    /**
+     * Reads and returns the typed header of an {@link OHLCV_BinaryLexical} file, from the header cache when it is still valid.
+     *
+     * @param originalBinaryFile The path to the binary file.
+     * @return The parsed, immutable header.
+     */
+    public OHLCV_BinaryHeader unsmeltFileTypedHeader(Path originalBinaryFile){
+        OHLCV_BinaryHeader header = getCachedHeader(originalBinaryFile);
+        if(header != null) return header;
+
         FileReader dataReader = new FileReader(originalBinaryFile);
         HeaderReaderHelperBundle headerReader = new HeaderReaderHelperBundle(dataReader);
         headerReader.readHeader();
-        return headerReader.lexical.getBinaryHeader();
+        dataReader.finalizeData();
+        return headerReader.header;
     }
 
     //FileSmelter<StickDouble> Overrides
@@ -96,7 +141,7 @@ public class OHLCV_BinaryLexicalFileUnsmelter implements
      */
     @Override
     public Collection<StickDouble> unsmeltFileToCollection(Path originalBinaryFile, boolean[][] cachedHeader){
-        StickCollectionListManager stickManager = (StickCollectionListManager)unsmelt(originalBinaryFile, true, cachedHeader);
+        StickCollectionListManager stickManager = (StickCollectionListManager)unsmelt(originalBinaryFile, true, toTypedHeader(cachedHeader));
         return stickManager.getListRef();
     }
 
@@ -109,7 +154,7 @@ public class OHLCV_BinaryLexicalFileUnsmelter implements
      */
     @Override
     public StickDouble[] unsmeltFileToArray(Path originalBinaryFile, boolean[][] cachedHeader){
-        StickArrayListManager stickManager = (StickArrayListManager)unsmelt(originalBinaryFile, false, cachedHeader);
+        StickArrayListManager stickManager = (StickArrayListManager)unsmelt(originalBinaryFile, false, toTypedHeader(cachedHeader));
         return stickManager.getListRef();
     }
 
@@ -188,7 +233,7 @@ public class OHLCV_BinaryLexicalFileUnsmelter implements
      */
     @Override
     public Collection<StickDouble> unsmeltFileToCollectionFromTo(Path originalBinaryFile, int fromIndex, int toIndex, boolean isFile, boolean[][] cachedHeader){
-        StickCollectionListManager stickManager = (StickCollectionListManager)unsmeltFromQuantity(originalBinaryFile, fromIndex, toIndex-fromIndex+1, isFile, true, cachedHeader);
+        StickCollectionListManager stickManager = (StickCollectionListManager)unsmeltFromQuantity(originalBinaryFile, fromIndex, toIndex-fromIndex+1, isFile, true, toTypedHeader(cachedHeader));
         return stickManager.getListRef();
     }
 
@@ -204,7 +249,7 @@ public class OHLCV_BinaryLexicalFileUnsmelter implements
      */
     @Override
     public Collection<StickDouble> unsmeltFileToCollectionFromQuantity(Path originalBinaryFile, int fromIndex, int quantity, boolean isFile, boolean[][] cachedHeader){
-        StickCollectionListManager stickManager = (StickCollectionListManager)unsmeltFromQuantity(originalBinaryFile, fromIndex, quantity, isFile, true, cachedHeader);
+        StickCollectionListManager stickManager = (StickCollectionListManager)unsmeltFromQuantity(originalBinaryFile, fromIndex, quantity, isFile, true, toTypedHeader(cachedHeader));
         return stickManager.getListRef();
     }
 
@@ -220,7 +265,7 @@ public class OHLCV_BinaryLexicalFileUnsmelter implements
      */
     @Override
     public StickDouble[] unsmeltFileToArrayFromTo(Path originalBinaryFile, int fromIndex, int toIndex, boolean isFile, boolean[][] cachedHeader){
-        StickArrayListManager stickManager = (StickArrayListManager)unsmeltFromQuantity(originalBinaryFile, fromIndex, toIndex-fromIndex+1, isFile, false, cachedHeader);
+        StickArrayListManager stickManager = (StickArrayListManager)unsmeltFromQuantity(originalBinaryFile, fromIndex, toIndex-fromIndex+1, isFile, false, toTypedHeader(cachedHeader));
         return stickManager.getListRef();
     }
 
@@ -236,10 +281,320 @@ public class OHLCV_BinaryLexicalFileUnsmelter implements
      */
     @Override
     public StickDouble[] unsmeltFileToArrayFromQuantity(Path originalBinaryFile, int fromIndex, int quantity, boolean isFile, boolean[][] cachedHeader){
-        StickArrayListManager stickManager = (StickArrayListManager)unsmeltFromQuantity(originalBinaryFile, fromIndex, quantity, isFile, false, cachedHeader);
+        StickArrayListManager stickManager = (StickArrayListManager)unsmeltFromQuantity(originalBinaryFile, fromIndex, quantity, isFile, false, toTypedHeader(cachedHeader));
+        return stickManager.getListRef();
+    }
+
+    //Typed header methods
+    /**
+     * Reads all candlestick data from the file using a typed header, as returned by {@link #unsmeltFileTypedHeader}.
+     *
+     * @param originalBinaryFile The path to the {@link OHLCV_BinaryLexical} file.
+     * @param cachedHeader The header of the file. This will not be checked for correctness. This must matched within the file.
+     * @return an array of all {@link StickDouble} elements.
+     */
+    public StickDouble[] unsmeltFileToArray(Path originalBinaryFile, OHLCV_BinaryHeader cachedHeader){
+        StickArrayListManager stickManager = (StickArrayListManager)unsmelt(originalBinaryFile, false, cachedHeader);
+        return stickManager.getListRef();
+    }
+
+    /**
+     * Reads a specified quantity of candlestick data, starting at a given index, using a typed header, and returns an array.
+     *
+     * @param originalBinaryFile The path to the {@link OHLCV_BinaryLexical} file.
+     * @param fromIndex The starting data index.
+     * @param quantity The number of data points to read.
+     * @param cachedHeader The header of the file, as returned by {@link #unsmeltFileTypedHeader}.
+     * @return An array of {@link StickDouble} objects for the specified range.
+     */
+    public StickDouble[] unsmeltFileToArrayFromQuantity(Path originalBinaryFile, int fromIndex, int quantity, OHLCV_BinaryHeader cachedHeader){
+        StickArrayListManager stickManager = (StickArrayListManager)unsmeltFromQuantity(originalBinaryFile, fromIndex, quantity, true, false, cachedHeader);
+        return stickManager.getListRef();
+    }
+
+    //FileUnsmelterTimeRange<StickDouble> Overrides
+    /**
+     * Reads candlestick data with a UTC value between {@code utcStart} and {@code utcEnd} (inclusive).
+     * The UTC fields of the mapped view of the file ({@link #getMappedFile}) are binary searched, see {@link OHLCV_BinaryLexicalMappedFile#getArrayFromUTC}.
+     *
+     * @param originalBinaryFile The path to the {@link OHLCV_BinaryLexical} file.
+     * @param utcStart The earliest UTC value (inclusive).
+     * @param utcEnd The latest UTC value (inclusive).
+     * @return A {@link Collection} of {@link StickDouble} objects within the UTC range.
+     */
+    @Override
+    public Collection<StickDouble> unsmeltFileToCollectionFromUTC(Path originalBinaryFile, long utcStart, long utcEnd){
+        StickDouble[] stickArray = unsmeltFileToArrayFromUTC(originalBinaryFile, utcStart, utcEnd);
+        ArrayList<StickDouble> stickList = new ArrayList<StickDouble>(stickArray.length);
+        for(StickDouble stick : stickArray){stickList.add(stick);}
+        return stickList;
+    }
+
+    /**
+     * Reads candlestick data with a UTC value between {@code utcStart} and {@code utcEnd} (inclusive) and returns an array.
+     * The UTC fields of the mapped view of the file ({@link #getMappedFile}) are binary searched, see {@link OHLCV_BinaryLexicalMappedFile#getArrayFromUTC}.
+     *
+     * @param originalBinaryFile The path to the {@link OHLCV_BinaryLexical} file.
+     * @param utcStart The earliest UTC value (inclusive).
+     * @param utcEnd The latest UTC value (inclusive).
+     * @return An array of {@link StickDouble} elements within the UTC range.
+     */
+    @Override
+    public StickDouble[] unsmeltFileToArrayFromUTC(Path originalBinaryFile, long utcStart, long utcEnd){
+        OHLCV_BinaryLexicalMappedFile mappedFile = getMappedFile(originalBinaryFile);
+        return mappedFile == null ? new StickDouble[0] : mappedFile.getArrayFromUTC(utcStart, utcEnd);
+    }
+
+    //Parallel methods
+    /**
+     * Extracts all candlestick data into a primitive array, decoding index ranges of the file in parallel on {@code pool}.
+     * The mapped view of the file ({@link #getMappedFile}) is reused across calls, see {@link OHLCV_BinaryLexicalMappedFile#getArrayFromQuantityParallel}.
+     *
+     * @param originalBinaryFile The path to the {@link OHLCV_BinaryLexical} file.
+     * @param pool The pool that will execute the decode tasks.
+     * @return an array of all {@link StickDouble} elements in file order.
+     */
+    public StickDouble[] unsmeltFileToArrayParallel(Path originalBinaryFile, ForkJoinPool pool){
+        OHLCV_BinaryLexicalMappedFile mappedFile = getMappedFile(originalBinaryFile);
+        return mappedFile == null ? new StickDouble[0] : mappedFile.getArrayFromQuantityParallel(0, mappedFile.size(), pool);
+    }
+
+    /**
+     * Extracts all candlestick data into a primitive array, decoding index ranges of the file in parallel on the common {@link ForkJoinPool}.
+     *
+     * @param originalBinaryFile The path to the {@link OHLCV_BinaryLexical} file.
+     * @return an array of all {@link StickDouble} elements in file order.
+     */
+    public StickDouble[] unsmeltFileToArrayParallel(Path originalBinaryFile){
+        return unsmeltFileToArrayParallel(originalBinaryFile, ForkJoinPool.commonPool());
+    }
+
+    //Stream methods
+    /**
+     * Returns a lazily decoded stream of all candlestick data in the file.
+     * Each data point of the mapped view of the file ({@link #getMappedFile}) is decoded only when consumed, see {@link OHLCV_BinaryLexicalMappedFile#streamFromQuantity}.
+     * Use {@code .parallel()} to decode index ranges of the file on separate threads.
+     *
+     * @param originalBinaryFile The path to the {@link OHLCV_BinaryLexical} file.
+     * @return a sequential stream of all {@link StickDouble} elements in file order.
+     */
+    public Stream<StickDouble> unsmeltFileToStream(Path originalBinaryFile){
+        OHLCV_BinaryLexicalMappedFile mappedFile = getMappedFile(originalBinaryFile);
+        return mappedFile == null ? Stream.empty() : mappedFile.stream();
+    }
+
+    /**
+     * Returns a lazily decoded stream of a specified quantity of candlestick data, starting at a given index.
+     *
+     * @param originalBinaryFile The path to the {@link OHLCV_BinaryLexical} file.
+     * @param fromIndex The starting data index (inclusive).
+     * @param quantity The number of data points to stream. If the range exceeds available data, streams as many as possible.
+     * @return a sequential stream of {@link StickDouble} elements from the specified range.
+     * @throws IllegalArgumentException if {@code fromIndex} or {@code quantity} is negative.
+     */
+    public Stream<StickDouble> unsmeltFileToStreamFromQuantity(Path originalBinaryFile, int fromIndex, int quantity){
+        OHLCV_BinaryLexicalMappedFile mappedFile = getMappedFile(originalBinaryFile);
+        return mappedFile == null ? Stream.empty() : mappedFile.streamFromQuantity(fromIndex, quantity);
+    }
+
+    //Columnar methods
+    /**
+     * Extracts all candlestick data directly into a columnar {@link StickColumns}. No stick objects are created.
+     *
+     * @param originalBinaryFile The path to the {@link OHLCV_BinaryLexical} file.
+     * @return All extracted candlestick data as a {@link StickColumns}.
+     */
+    public StickColumns unsmeltFileToColumns(Path originalBinaryFile){
+        return unsmeltFileToColumns(originalBinaryFile, StickColumns.MASK_ALL);
+    }
+
+    /**
+     * Extracts only the fields of {@code fieldMask} of all candlestick data directly into a columnar {@link StickColumns}.
+     * The other fields are skipped by their known bit offsets and their columns are 0.
+     *
+     * @param originalBinaryFile The path to the {@link OHLCV_BinaryLexical} file.
+     * @param fieldMask An OR of the {@code StickColumns.MASK_*} constants, such as {@code MASK_UTC | MASK_C}.
+     * @return All extracted candlestick data as a {@link StickColumns}.
+     * @throws IllegalArgumentException if {@code fieldMask} is not a valid field mask.
+     */
+    public StickColumns unsmeltFileToColumns(Path originalBinaryFile, int fieldMask){
+        StickColumns.checkFieldMask(fieldMask);
+        FileReader dataReader = new FileReader(originalBinaryFile);
+        HeaderReaderHelperBundle headerReader = openHeader(dataReader, originalBinaryFile, null);
+
+        StickColumnsListManager stickManager = new StickColumnsListManager(headerReader.header.getDataCount(), fieldMask);
+        readPackedData(headerReader, 0, headerReader.header.getDataCount(), stickManager);
+        dataReader.finalizeData();
+
+        return stickManager.getListRef();
+    }
+
+    /**
+     * Reads a specified quantity of candlestick data from the file, starting at a given index, directly into a columnar {@link StickColumns}.
+     *
+     * @param originalBinaryFile The path to the {@link OHLCV_BinaryLexical} file.
+     * @param fromIndex The starting data index (inclusive).
+     * @param quantity The number of data points to read. If the range exceeds available data, returns as many as possible.
+     * @return A {@link StickColumns} of the specified range, null if {@code fromIndex} or {@code quantity} is negative.
+     */
+    public StickColumns unsmeltFileToColumnsFromQuantity(Path originalBinaryFile, int fromIndex, int quantity){
+        return unsmeltFileToColumnsFromQuantity(originalBinaryFile, fromIndex, quantity, StickColumns.MASK_ALL);
+    }
+
+    /**
+     * Reads only the fields of {@code fieldMask} of a specified quantity of candlestick data, starting at a given index, directly into a columnar {@link StickColumns}.
+     * The other fields are skipped by their known bit offsets and their columns are 0.
+     *
+     * @param originalBinaryFile The path to the {@link OHLCV_BinaryLexical} file.
+     * @param fromIndex The starting data index (inclusive).
+     * @param quantity The number of data points to read. If the range exceeds available data, returns as many as possible.
+     * @param fieldMask An OR of the {@code StickColumns.MASK_*} constants, such as {@code MASK_UTC | MASK_C}.
+     * @return A {@link StickColumns} of the specified range, null if {@code fromIndex} or {@code quantity} is negative.
+     * @throws IllegalArgumentException if {@code fieldMask} is not a valid field mask.
+     */
+    public StickColumns unsmeltFileToColumnsFromQuantity(Path originalBinaryFile, int fromIndex, int quantity, int fieldMask){
+        StickColumns.checkFieldMask(fieldMask);
+        if(fromIndex < 0 || quantity < 0) return null;
+
+        FileReader dataReader = new FileReader(originalBinaryFile);
+        HeaderReaderHelperBundle headerReader = openHeader(dataReader, originalBinaryFile, null);
+
+        int dataCount = headerReader.header.getDataCount();
+        if(quantity + fromIndex > dataCount) quantity = Math.max(0, dataCount - fromIndex);
+
+        StickColumnsListManager stickManager = new StickColumnsListManager(quantity, fieldMask);
+        if(quantity > 0) readPackedData(headerReader, fromIndex, quantity, stickManager);
+        dataReader.finalizeData();
+
+        return stickManager.getListRef();
+    }
+
+    //ByteUnsmelter<StickDouble> Overrides
+    /**
+     * Extracts all candlestick data from the content of an {@link OHLCV_BinaryLexical} file into a {@link Collection}.
+     *
+     * @param originalBytes The content of the file.
+     * @return All extracted candlestick data as a {@link Collection} of {@link StickDouble} objects.
+     */
+    @Override
+    public Collection<StickDouble> unsmeltBytesToCollection(byte[] originalBytes){
+        return unsmeltBufferToCollection(ByteBuffer.wrap(originalBytes));
+    }
+
+    /**
+     * Extracts all candlestick data from the content of an {@link OHLCV_BinaryLexical} file into a primitive array.
+     *
+     * @param originalBytes The content of the file.
+     * @return an array of all {@link StickDouble} elements.
+     */
+    @Override
+    public StickDouble[] unsmeltBytesToArray(byte[] originalBytes){
+        return unsmeltBufferToArray(ByteBuffer.wrap(originalBytes));
+    }
+
+    /**
+     * Extracts all candlestick data from the content of an {@link OHLCV_BinaryLexical} file held from the position to the limit of {@code originalBuffer}.
+     * Each data point is decoded in place from the buffer, heap or direct, without copying its bytes.
+     * The position, limit and mark of the buffer are not altered.
+     *
+     * @param originalBuffer The content of the file.
+     * @return All extracted candlestick data as a {@link Collection} of {@link StickDouble} objects.
+     */
+    @Override
+    public Collection<StickDouble> unsmeltBufferToCollection(ByteBuffer originalBuffer){
+        StickCollectionListManager stickManager = (StickCollectionListManager)unsmeltBuffer(originalBuffer, 0, Integer.MAX_VALUE, true);
+        return stickManager.getListRef();
+    }
+
+    /**
+     * Extracts all candlestick data from the content of an {@link OHLCV_BinaryLexical} file held in {@code originalBuffer} into a primitive array.
+     * @see #unsmeltBufferToCollection(ByteBuffer)
+     *
+     * @param originalBuffer The content of the file.
+     * @return an array of all {@link StickDouble} elements.
+     */
+    @Override
+    public StickDouble[] unsmeltBufferToArray(ByteBuffer originalBuffer){
+        StickArrayListManager stickManager = (StickArrayListManager)unsmeltBuffer(originalBuffer, 0, Integer.MAX_VALUE, false);
+        return stickManager.getListRef();
+    }
+
+    /**
+     * Reads all candlestick data of an {@link OHLCV_BinaryLexical} file from {@code originalStream} into a {@link Collection}.
+     * The stream is read in chunks of the file read chunk size and is not closed.
+     *
+     * @param originalStream The stream positioned at the first byte of the file content.
+     * @return All extracted candlestick data as a {@link Collection} of {@link StickDouble} objects.
+     */
+    @Override
+    public Collection<StickDouble> unsmeltStreamToCollection(InputStream originalStream){
+        StickCollectionListManager stickManager = (StickCollectionListManager)unsmeltStream(new StreamReader(originalStream), true);
+        return stickManager.getListRef();
+    }
+
+    /**
+     * Reads all candlestick data of an {@link OHLCV_BinaryLexical} file from {@code originalStream} into a primitive array.
+     * @see #unsmeltStreamToCollection(InputStream)
+     *
+     * @param originalStream The stream positioned at the first byte of the file content.
+     * @return an array of all {@link StickDouble} elements.
+     */
+    @Override
+    public StickDouble[] unsmeltStreamToArray(InputStream originalStream){
+        StickArrayListManager stickManager = (StickArrayListManager)unsmeltStream(new StreamReader(originalStream), false);
         return stickManager.getListRef();
     }
 
+    /**
+     * Reads all candlestick data of an {@link OHLCV_BinaryLexical} file from {@code originalChannel} into a {@link Collection}.
+     * The channel is read in chunks of the file read chunk size and is not closed.
+     *
+     * @param originalChannel The channel positioned at the first byte of the file content.
+     * @return All extracted candlestick data as a {@link Collection} of {@link StickDouble} objects.
+     */
+    @Override
+    public Collection<StickDouble> unsmeltChannelToCollection(ReadableByteChannel originalChannel){
+        StickCollectionListManager stickManager = (StickCollectionListManager)unsmeltStream(new ChannelReader(originalChannel), true);
+        return stickManager.getListRef();
+    }
+
+    /**
+     * Reads all candlestick data of an {@link OHLCV_BinaryLexical} file from {@code originalChannel} into a primitive array.
+     * @see #unsmeltChannelToCollection(ReadableByteChannel)
+     *
+     * @param originalChannel The channel positioned at the first byte of the file content.
+     * @return an array of all {@link StickDouble} elements.
+     */
+    @Override
+    public StickDouble[] unsmeltChannelToArray(ReadableByteChannel originalChannel){
+        StickArrayListManager stickManager = (StickArrayListManager)unsmeltStream(new ChannelReader(originalChannel), false);
+        return stickManager.getListRef();
+    }
+
+    //In-memory methods
+    /**
+     * Parses the header of the content of an {@link OHLCV_BinaryLexical} file held in {@code originalBuffer}.
+     * The position, limit and mark of the buffer are not altered.
+     *
+     * @param originalBuffer The content of the file, at least the header bytes.
+     * @return The parsed, immutable header.
+     */
+    public OHLCV_BinaryHeader unsmeltBufferTypedHeader(ByteBuffer originalBuffer){return readBufferHeader(originalBuffer.slice());}
+
+    /**
+     * Extracts a specified quantity of candlestick data, starting at a given index, from the content of an {@link OHLCV_BinaryLexical} file held in {@code originalBuffer}.
+     * Only the requested data points are decoded, in place.
+     *
+     * @param originalBuffer The content of the file.
+     * @param fromIndex The starting data index (inclusive).
+     * @param quantity The number of data points to read. If the range exceeds available data, returns as many as possible.
+     * @return An array of {@link StickDouble} elements from the specified range, null if {@code fromIndex} or {@code quantity} is negative.
+     */
+    public StickDouble[] unsmeltBufferToArrayFromQuantity(ByteBuffer originalBuffer, int fromIndex, int quantity){
+        StickArrayListManager stickManager = (StickArrayListManager)unsmeltBuffer(originalBuffer, fromIndex, quantity, false);
+        return stickManager == null ? null : stickManager.getListRef();
+    }
+
     //Original methods
     /**
      * Core function to read all candlestick data from a binary OHLCV file.
@@ -250,70 +605,100 @@ public class OHLCV_BinaryLexicalFileUnsmelter implements
      *
      * @param originalBinaryFile The path to the binary file to read.
      * @param isCollection If true, use a dynamic collection (ArrayList); if false, use a fixed-size array.
-     * @param cachedHeader Optional. If provided, uses this pre-parsed header instead of reading from the file. 
+     * @param cachedHeader Optional. If provided, uses this pre-parsed header instead of the header cache or reading from the file.
      *                     Must match the file, or data will be misinterpreted.
      * @return A StickDataListManager (either backed by a collection or array), containing all parsed StickDouble records.
      *
      * Implementation notes:
      * - Reads the header and determines the data bit structure.
-     * - Buffers file input and processes a bit queue to reconstruct each stick.
-     * - Handles any bit misalignment after the header.
+     * - Decodes each record directly from the byte chunk by bit offset, see {@link #readPackedData}.
      * - Closes the file upon completion.
      */
-    private StickDataListManager<? extends Object> unsmelt(Path originalBinaryFile, boolean isCollection, boolean[][] cachedHeader){
+    private StickDataListManager<? extends Object> unsmelt(Path originalBinaryFile, boolean isCollection, OHLCV_BinaryHeader cachedHeader){
         //1. Construct and read header bytes into file
         FileReader dataReader = new FileReader(originalBinaryFile);
-        HeaderReaderHelperBundle headerReader = new HeaderReaderHelperBundle(dataReader);
-        if(cachedHeader != null) headerReader.readHeader(cachedHeader);
-        else headerReader.readHeader();
+        HeaderReaderHelperBundle headerReader = openHeader(dataReader, originalBinaryFile, cachedHeader);
+
+        //2. Read the data points the header counts, bytes after them (such as preallocated slots) are ignored.
+        StickDataListManager<? extends Object> stickManager = readAllPackedData(headerReader, isCollection);
+
+        //3. Close file and return
+        dataReader.finalizeData();
 
-        OHLCV_BinaryLexical lexical = headerReader.lexical;
+        return stickManager;
+    }
 
-        byte[] byteArray = new byte[fileReadByteChunkSize];
-        boolean[] dataBinArray = new boolean[lexical.getDataBitLength()];
-        int byteCount;
-        ArrayDeque<Boolean> bitQueue = new ArrayDeque<Boolean>(fileReadByteChunkSize << 3);
+    /**
+     * Core function to read all candlestick data from a stream source. The header is always parsed from the stream.
+     * The source is not closed.
+     *
+     * @param dataReader The reader of the source, positioned at the first byte of the file content.
+     * @param isCollection If true, use a dynamic collection (ArrayList); if false, use a fixed-size array.
+     * @return A StickDataListManager (either backed by a collection or array), containing all parsed StickDouble records.
+     * @throws IllegalArgumentException if the source ends within the header.
+     */
+    private StickDataListManager<? extends Object> unsmeltStream(DataReader dataReader, boolean isCollection){
+        HeaderReaderHelperBundle headerReader = new HeaderReaderHelperBundle(dataReader);
+        if(!headerReader.readHeader()) throw new IllegalArgumentException("The source is shorter than an OHLCV_BinaryLexical header.");
+        return readAllPackedData(headerReader, isCollection);
+    }
+
+    //Decodes the data points the header counts, decoding also stops at the end of the reader.
+    private StickDataListManager<? extends Object> readAllPackedData(HeaderReaderHelperBundle headerReader, boolean isCollection){
+        int dataCount = headerReader.header.getDataCount();
         StickDataListManager<? extends Object> stickManager;
-        if(isCollection) stickManager = new StickCollectionListManager(lexical.getDataCount());
-        else stickManager = new StickArrayListManager(lexical.getDataCount());
-
-        //2. Fill in excess bits into the bitQueue (if any)
-        if(headerReader.firstDataBitIndex != 0){
-            int value = headerReader.lastByteValue & 0xFF;
-            for(int i=headerReader.firstDataBitIndex; i<8; ++i){
-                bitQueue.add(Boolean.valueOf(((value >>> (8-i-1)) & 1) == 1));
-            }
-        }
+        if(isCollection) stickManager = new StickCollectionListManager(dataCount);
+        else stickManager = new StickArrayListManager(dataCount);
 
-        //Main loop for gathering data
-        byteCount = dataReader.readBytes(byteArray);
-        do{
-            //3. Set all bits from byteCHunk
-            for(int i=0; i<byteCount; ++i){
-                int tmp=byteArray[i] & 0xFF;
-                for(int j=0; j<8; ++j){bitQueue.add(Boolean.valueOf(((tmp >>> (8-j-1)) & 1) == 1));}
-            }
+        readPackedData(headerReader, 0, dataCount, stickManager);
+        return stickManager;
+    }
 
-            //4. Read in datapoints to final collection
-            while(bitQueue.size() >= lexical.getDataBitLength()){
-                //4.1 Set data point bits
-                for(int i=0; i<lexical.getDataBitLength(); ++i){
-                    dataBinArray[i]=bitQueue.remove().booleanValue();
-                }
+    /**
+     * Core function to decode candlestick data from the content of a file held in a buffer.
+     * The buffer is sliced, so the content starts at its position and ends at its limit, and each data point is decoded in place.
+     * Unlike the stream readers, no bytes are copied and data points before {@code fromIndex} are not visited.
+     *
+     * @param originalBuffer The content of the file.
+     * @param fromIndex The zero-based index of the first data record to read (inclusive).
+     * @param quantity The number of records to extract. If the range exceeds available data, returns as many as possible.
+     * @param isCollection If true, return as a collection manager; if false, as an array manager.
+     * @return A StickDataListManager containing the requested StickDouble records, null if {@code fromIndex} or {@code quantity} is negative.
+     * @throws IllegalArgumentException if the buffer is shorter than the header.
+     */
+    private StickDataListManager<? extends Object> unsmeltBuffer(ByteBuffer originalBuffer, int fromIndex, int quantity, boolean isCollection){
+        if(fromIndex < 0 || quantity < 0) return null;
 
-                //4.2 Add data point to collection
-                stickManager.addStick(lexical.getRefinedDataFlat(dataBinArray));
-            }
+        ByteBuffer content = originalBuffer.slice();
+        OHLCV_BinaryHeader header = readBufferHeader(content);
+        OHLCV_BinaryLayout layout = header.getLayout();
+        long headerBitLength = header.getHeaderBitLength();
+        int dataBitLength = layout.getDataBitLength();
 
-            byteCount = dataReader.readBytes(byteArray);
-        }while(byteCount != -1 || bitQueue.size() >= lexical.getDataBitLength());
+        //The header count is trusted only as far as the buffer holds complete data points.
+        long availableCount = (((long)content.limit() << 3) - headerBitLength) / dataBitLength;
+        int dataCount = (int)Math.min(header.getDataCount(), Math.max(0, availableCount));
+        quantity = (int)Math.max(0, Math.min((long)quantity, (long)dataCount - fromIndex));
 
-        //5. Close file and return
-        dataReader.finalizeData();
+        StickDataListManager<? extends Object> stickManager;
+        if(isCollection) stickManager = new StickCollectionListManager(quantity);
+        else stickManager = new StickArrayListManager(quantity);
 
+        long bitIndex = headerBitLength + (long)fromIndex * dataBitLength;
+        for(int i=0; i<quantity; ++i){
+            stickManager.addPackedStick(layout, content, bitIndex);
+            bitIndex += dataBitLength;
+        }
         return stickManager;
     }
 
+    //Parses the header at absolute index 0 of content.
+    private static OHLCV_BinaryHeader readBufferHeader(ByteBuffer content){
+        if(content.limit() < OHLCV_BinaryHeader.H1_BYTE_LENGTH || content.limit() < OHLCV_BinaryHeader.getByteLengthFromH1(content))
+            throw new IllegalArgumentException("The buffer is shorter than an OHLCV_BinaryLexical header.");
+        return OHLCV_BinaryHeader.genHeaderFromPackedBytes(content, 0);
+    }
+
     /**
      * Core function to read a partial range of candlestick data from a binary OHLCV file.
      *
@@ -325,16 +710,16 @@ public class OHLCV_BinaryLexicalFileUnsmelter implements
      * @param quantity The number of records to extract. If the range exceeds available data, returns as many as possible.
      * @param isFile True if reading from a file; false for string source (not implemented).
      * @param isCollection If true, return as a collection manager; if false, as an array manager.
-     * @param cachedHeader Optional. If provided, uses this pre-parsed header instead of reading from the file.
+     * @param cachedHeader Optional. If provided, uses this pre-parsed header instead of the header cache or reading from the file.
      * @return A StickDataListManager containing the requested StickDouble records as a collection or array.
      *
      * Implementation notes:
-     * - Carefully skips to the correct bit offset for the fromIndex using BitByteTrack.
+     * - Skips whole bytes up to the byte containing the first bit of {@code fromIndex}.
      * - Reads only as many bytes as required for the range.
      * - Handles edge cases such as negative indices or quantity, and zero-length requests.
      * - Closes the file upon completion.
      */
-    private StickDataListManager<? extends Object> unsmeltFromQuantity(Path originalBinaryFile, int fromIndex, int quantity, boolean isFile, boolean isCollection, boolean[][] cachedHeader){
+    private StickDataListManager<? extends Object> unsmeltFromQuantity(Path originalBinaryFile, int fromIndex, int quantity, boolean isFile, boolean isCollection, OHLCV_BinaryHeader cachedHeader){
         if(fromIndex < 0 || quantity < 0) return null;
         if(quantity == 0){
             if(isCollection) return new StickCollectionListManager(0);
@@ -343,113 +728,146 @@ public class OHLCV_BinaryLexicalFileUnsmelter implements
 
         //1. Construct and read header bytes into file
         DataReader dataReader = new FileReader(originalBinaryFile);
-        HeaderReaderHelperBundle headerReader = new HeaderReaderHelperBundle(dataReader);
-        if(cachedHeader != null) headerReader.readHeader(cachedHeader);
-        else headerReader.readHeader();
-        OHLCV_BinaryLexical lexical = headerReader.lexical;
-        byte[] byteArray = new byte[fileReadByteChunkSize];
-        boolean[] dataBinArray = new boolean[lexical.getDataBitLength()];
-
-        int byteCount;
-        int tmpByteValue; //Leave as int to avoid implicity bit shift promotion to an unsigned value.
-        int tmpIndex;
-        ArrayDeque<Boolean> bitQueue = new ArrayDeque<Boolean>(fileReadByteChunkSize << 3);
+        HeaderReaderHelperBundle headerReader = openHeader(dataReader, originalBinaryFile, cachedHeader);
+        OHLCV_BinaryHeader header = headerReader.header;
 
         //Check valid quantity
-        if(quantity + fromIndex > lexical.getDataCount()) quantity = lexical.getDataCount() - fromIndex;
+        if(quantity + fromIndex > header.getDataCount()) quantity = Math.max(0, header.getDataCount() - fromIndex);
 
         StickDataListManager<? extends Object> stickManager;
-        if(isCollection) stickManager = new StickCollectionListManager(lexical.getDataCount());
-        else stickManager = new StickArrayListManager(lexical.getDataCount());
-
-        BitByteTrack multiplier = new BitByteTrack(lexical.getDataBitLength()); //used to jump to Byte and Bit of from index.
-        //NOTE: For firstDataPoint byteIndex only, 0 index indicates current index, 1 indicates next index in file.
-        //This is NOT the same throughout the rest of index use.
-        BitByteTrack firstDataPoint = new BitByteTrack(
-            1,
-            headerReader.firstDataBitIndex == 0 ? 1 : 0,
-            headerReader.firstDataBitIndex
-        );
-        BitByteTrack nextDataPoint = null;
-        BitByteTrack lastDataPoint;
-
-        //2. Update from Byte Index after header read. skip to point in file with relative index and bit value
-        if(firstDataPoint.getByteIndex() == 0 && fromIndex == 0){ //First firstDatapoint IS the starting target data point.
-            for(int i=firstDataPoint.getBitIndex(); i<8; ++i){
-                bitQueue.add(Boolean.valueOf(((headerReader.lastByteValue >>> (7-i)) & 1) == 1 ? true : false));
-            }
-            nextDataPoint = new BitByteTrack();
-        }else if(firstDataPoint.getByteIndex() == 1 && fromIndex == 0){ //First firstDatapoint IS the starting target data point and byte aligned.
-            //Should now jump to readBytes until data is full
-        }else{ //Will need to skip up to the first target data point.
-            nextDataPoint = new BitByteTrack(firstDataPoint);
-            nextDataPoint.addMultiple(fromIndex, multiplier);
-
-            int bytesToSkip = (int)nextDataPoint.getByteIndex();
-            if(firstDataPoint.getBitIndex() == 0) bytesToSkip = (int)nextDataPoint.getByteIndex();
-            else bytesToSkip = (int)(nextDataPoint.getByteIndex() - 1);
-
-            if(bytesToSkip == -1){ //Rare case, if targetByte is still in the first byte with header.
-                //Nothing to do here.
-            }else if (bytesToSkip == 0){ //target byte is in next header.
-                //Nothing to do here.
-            }else{
-                dataReader.skip(bytesToSkip);
-            }
+        if(isCollection) stickManager = new StickCollectionListManager(quantity);
+        else stickManager = new StickArrayListManager(quantity);
 
-            nextDataPoint.clearBytes();
-        }
+        //2. Skip to and read the requested data points
+        readPackedData(headerReader, fromIndex, quantity, stickManager);
 
-        //3. Read in first batch of bits and handle first
-        lastDataPoint = new BitByteTrack(nextDataPoint);
-        lastDataPoint.addMultiple(quantity - 1, multiplier);
+        //3. Clean and return
+        dataReader.finalizeData();
 
-        multiplier.subtractMultiple(1); //reducing by 1 bit to jump to last relevant bit.
-        lastDataPoint.addMultiple(multiplier); //Last relevant bit on lastDataPoint
-        lastDataPoint.roundUp();
+        return stickManager;
+    }
 
-        byteCount = (int)lastDataPoint.getByteIndex(); //Maximum number of bytes to read
+    /**
+     * Positions {@code dataReader} after the header of {@code originalBinaryFile}.
+     * The header is taken from {@code cachedHeader}, else from the header cache, else parsed from the bytes of the reader.
+     *
+     * @param dataReader The reader of the file, positioned at the first byte.
+     * @param originalBinaryFile The path of the file, used as the header cache key.
+     * @param cachedHeader Optional. A header provided by the caller.
+     * @return the header bundle that has read the header.
+     */
+    private HeaderReaderHelperBundle openHeader(DataReader dataReader, Path originalBinaryFile, OHLCV_BinaryHeader cachedHeader){
+        HeaderReaderHelperBundle headerReader = new HeaderReaderHelperBundle(dataReader);
+        if(cachedHeader == null) cachedHeader = getCachedHeader(originalBinaryFile);
 
-        byteCount = byteCount < fileReadByteChunkSize ? byteCount : fileReadByteChunkSize;
-        byteCount = dataReader.readBytes(byteArray, 0, byteCount);
+        if(cachedHeader != null) headerReader.readHeader(cachedHeader);
+        else headerReader.readHeader();
+        return headerReader;
+    }
 
-        //4. Add relevant bits from first byte with appropriate offset.
-        tmpByteValue = byteArray[0];
-        for(int i=nextDataPoint.getBitIndex(); i<8; ++i){
-            bitQueue.add(Boolean.valueOf(((tmpByteValue >>> (7-i)) & 1) == 1));
+    /**
+     * Returns the mapped view of {@code originalBinaryFile} kept by this unsmelter, mapping the file only if there is no view of it
+     * or the view is no longer current (see {@link OHLCV_BinaryLexicalMappedFile#isCurrent}).
+     * Views are keyed by the absolute, normalized path. When {@link #MAPPED_FILE_CACHE_CAPACITY} views are kept an arbitrary view is dropped for each new view.
+     *
+     * @param originalBinaryFile The path to the {@link OHLCV_BinaryLexical} file.
+     * @return the mapped view, null if the file could not be mapped (the stack trace is printed).
+     */
+    public OHLCV_BinaryLexicalMappedFile getMappedFile(Path originalBinaryFile){
+        Path key = originalBinaryFile.toAbsolutePath().normalize();
+        OHLCV_BinaryLexicalMappedFile mappedFile = mappedFiles.get(key);
+        if(mappedFile != null && mappedFile.isCurrent()) return mappedFile;
+
+        try{mappedFile = new OHLCV_BinaryLexicalMappedFile(key);}
+        catch(IOException err){
+            mappedFiles.remove(key);
+            err.printStackTrace();
+            return null;
         }
 
-        //5. Read remaining bytes and generate sticks
-        tmpIndex = 1; // Index of byte array
-        while(stickManager.getSize() < quantity){
-            while(tmpIndex < byteCount){
-                tmpByteValue=byteArray[tmpIndex];
-                for(int i=0; i<8; ++i){
-                    bitQueue.add(Boolean.valueOf(((tmpByteValue >>> (7-i)) & 1) == 1 ? true : false));
-                }
-                ++tmpIndex;
+        if(!mappedFiles.containsKey(key)){
+            Iterator<Path> keys = mappedFiles.keySet().iterator();
+            while(mappedFiles.size() >= MAPPED_FILE_CACHE_CAPACITY && keys.hasNext()){
+                keys.next();
+                keys.remove();
             }
+        }
+        mappedFiles.put(key, mappedFile);
+        return mappedFile;
+    }
 
-            while(stickManager.getSize() < quantity && bitQueue.size() >= lexical.getDataBitLength()){
-                for(int i=0; i<lexical.getDataBitLength(); ++i){
-                    dataBinArray[i] = bitQueue.remove().booleanValue();
-                }
-                stickManager.addStick(lexical.getRefinedDataFlat(dataBinArray));
-            }
-            tmpIndex = 0;
-            byteCount = dataReader.readBytes(byteArray);
+    private OHLCV_BinaryHeader getCachedHeader(Path originalBinaryFile){
+        if(headerCache == null) return null;
+        return headerCache.getHeader(originalBinaryFile);
+    }
+
+    private static OHLCV_BinaryHeader toTypedHeader(boolean[][] cachedHeader){
+        if(cachedHeader == null) return null;
+        return OHLCV_BinaryHeader.genHeaderFromBinaryHeader(cachedHeader);
+    }
+
+    /**
+     * Decodes up to {@code quantity} data points starting at data index {@code fromIndex} directly from the bytes of the reader.
+     * Each field is extracted from a byte chunk by its bit offset and width, no intermediate bit queue is used.
+     * Bytes of a data point that straddle the end of the chunk are moved to the front of the chunk before the next read.
+     * The reader must be positioned immediately after the byte {@code headerReader.lastByteValue}.
+     *
+     * @param headerReader The header bundle that has already read the header.
+     * @param fromIndex The zero-based index of the first data point to decode.
+     * @param quantity The maximum number of data points to decode. Decoding also stops at the end of the reader.
+     * @param stickManager The destination of each decoded data point.
+     */
+    private void readPackedData(HeaderReaderHelperBundle headerReader, long fromIndex, long quantity, StickDataListManager<? extends Object> stickManager){
+        OHLCV_BinaryLayout layout = headerReader.header.getLayout();
+        DataReader dataReader = headerReader.reader;
+        int dataBitLength = layout.getDataBitLength();
+        long headerBitLength = headerReader.header.getHeaderBitLength();
+        long nextByteIndex = (headerBitLength + 7) >>> 3; //File byte index of the reader
+        long startBitIndex = headerBitLength + fromIndex * dataBitLength; //File bit index of the first data point
+
+        byte[] byteArray = new byte[Math.max(fileReadByteChunkSize, (dataBitLength >>> 3) + 2)];
+        ByteBuffer byteChunk = ByteBuffer.wrap(byteArray);
+        int byteCount = 0;
+        long bitIndex = startBitIndex & 7; //Bit index relative to byteArray
+        long decoded = 0;
+
+        //1. Start from the last header byte if it contains the first data bit, otherwise skip ahead.
+        if((startBitIndex >>> 3) < nextByteIndex){
+            byteArray[0] = headerReader.lastByteValue;
+            byteCount = 1;
+        }else if((startBitIndex >>> 3) > nextByteIndex){
+            dataReader.skip((startBitIndex >>> 3) - nextByteIndex);
         }
 
-        //6. Clean and return
-        dataReader.finalizeData();
+        //2. Decode as many data points as are in the chunk, then refill the chunk.
+        while(decoded < quantity){
+            byteChunk.limit(byteCount);
+            while(decoded < quantity && ((long)byteCount << 3) - bitIndex >= dataBitLength){
+                stickManager.addPackedStick(layout, byteChunk, bitIndex);
+                bitIndex += dataBitLength;
+                ++decoded;
+            }
+            if(decoded == quantity) break;
 
-        return stickManager;
+            int consumedBytes = (int)(bitIndex >>> 3);
+            System.arraycopy(byteArray, consumedBytes, byteArray, 0, byteCount - consumedBytes);
+            byteCount -= consumedBytes;
+            bitIndex &= 7;
+
+            int readCount = dataReader.readBytes(byteArray, byteCount, byteArray.length - byteCount);
+            if(readCount <= 0) break;
+            byteCount += readCount;
+        }
     }
 
     private abstract class StickDataListManager<ListT>{
         abstract void addStick(StickDouble stick);
         abstract int getSize();
         abstract ListT getListRef();
+
+        void addPackedStick(OHLCV_BinaryLayout layout, ByteBuffer byteChunk, long startBitIndex){
+            addStick(layout.getRefinedDataPacked(byteChunk, startBitIndex));
+        }
     }
 
     private class StickArrayListManager extends StickDataListManager<StickDouble[]>{
@@ -491,6 +909,30 @@ public class OHLCV_BinaryLexicalFileUnsmelter implements
         ArrayList<StickDouble> getListRef(){return stickList;}
     }
 
+    private class StickColumnsListManager extends StickDataListManager<StickColumns>{
+        StickColumns stickList;
+        int fieldMask;
+
+        StickColumnsListManager(int size, int fieldMask){
+            stickList = new StickColumns(size);
+            this.fieldMask = fieldMask;
+        }
+
+        @Override
+        void addStick(StickDouble stick){stickList.add(stick);}
+
+        @Override
+        void addPackedStick(OHLCV_BinaryLayout layout, ByteBuffer byteChunk, long startBitIndex){
+            layout.addRefinedDataPacked(byteChunk, startBitIndex, stickList, fieldMask);
+        }
+
+        @Override
+        int getSize(){return stickList.getSize();}
+
+        @Override
+        StickColumns getListRef(){return stickList;}
+    }
+
     private abstract class DataReader{
         protected abstract int readBytes(byte[] nextBytes);
         protected abstract int readBytes(byte[] nextBytes, int startIndex, int length);
@@ -545,31 +987,79 @@ public class OHLCV_BinaryLexicalFileUnsmelter implements
         }
     }
 
-    //TODO
-    private class StringReader extends DataReader{
-        private StringBuilder strbldr; //TODO: No file writing here!!
+    /**
+     * Reads from a caller owned {@link InputStream}, which is not closed.
+     */
+    private class StreamReader extends DataReader{
+        private InputStream reader;
+
+        private StreamReader(InputStream reader){this.reader = reader;}
 
-        private StringReader(){strbldr = new StringBuilder();}
+        @Override
+        protected int readBytes(byte[] nextBytes){return readBytes(nextBytes, 0, nextBytes.length);}
 
         @Override
-        protected int readBytes(byte[] nextBytes){
-            for(byte b : nextBytes){strbldr.append((char)b);}
-            return nextBytes.length;
+        protected int readBytes(byte[] nextBytes, int startIndex, int length){
+            int readBytes=0;
+            try{readBytes = reader.read(nextBytes,startIndex,length);}
+            catch(Exception err){err.printStackTrace();}
+            return readBytes;
+        }
+
+        //InputStream.skip may skip fewer bytes than requested without reaching the end, so skipped bytes are read instead when it stalls.
+        @Override
+        protected long skip(long numberOfBytesToSkip){
+            long skipped = 0;
+            byte[] discard = null;
+            try{
+                while(skipped < numberOfBytesToSkip){
+                    long count = reader.skip(numberOfBytesToSkip - skipped);
+                    if(count <= 0){
+                        if(discard == null) discard = new byte[(int)Math.min(8192, numberOfBytesToSkip - skipped)];
+                        count = reader.read(discard, 0, (int)Math.min(discard.length, numberOfBytesToSkip - skipped));
+                        if(count < 0) break;
+                    }
+                    skipped += count;
+                }
+            }catch(Exception err){err.printStackTrace();}
+            return skipped;
         }
 
+        @Override
+        protected void finalizeData(){}
+    }
+
+    /**
+     * Reads from a caller owned {@link ReadableByteChannel}, which is not closed.
+     */
+    private class ChannelReader extends DataReader{
+        private ReadableByteChannel reader;
+
+        private ChannelReader(ReadableByteChannel reader){this.reader = reader;}
+
+        @Override
+        protected int readBytes(byte[] nextBytes){return readBytes(nextBytes, 0, nextBytes.length);}
+
         @Override
         protected int readBytes(byte[] nextBytes, int startIndex, int length){
-            int end = startIndex + length;
-            for(int i=startIndex; i<end; ++i){strbldr.append((char)nextBytes[i]);}
-            return length;
+            int readBytes=0;
+            try{readBytes = reader.read(ByteBuffer.wrap(nextBytes, startIndex, length));}
+            catch(Exception err){err.printStackTrace();}
+            return readBytes;
         }
 
         @Override
         protected long skip(long numberOfBytesToSkip){
-           return -1; //TODO
+            long skipped = 0;
+            byte[] discard = new byte[(int)Math.max(1, Math.min(8192, numberOfBytesToSkip))];
+            while(skipped < numberOfBytesToSkip){
+                int count = readBytes(discard, 0, (int)Math.min(discard.length, numberOfBytesToSkip - skipped));
+                if(count <= 0) break;
+                skipped += count;
+            }
+            return skipped;
         }
 
-        //TODO
         @Override
         protected void finalizeData(){}
     }
@@ -579,129 +1069,51 @@ public class OHLCV_BinaryLexicalFileUnsmelter implements
      * Will not close the file upon completion.
      */
     private class HeaderReaderHelperBundle{
-        OHLCV_BinaryLexical lexical;
+        OHLCV_BinaryHeader header;
         DataReader reader;
         byte lastByteValue; //value of byte containing last bit of H2
-        byte firstDataBitIndex; // IF 0, datapoint is on the next Byte, not this "lastByteValue"
 
         private HeaderReaderHelperBundle(DataReader reader){
             this.reader = reader;
         }
 
-        void readHeader(){
-            //0. Initialize fields
-            boolean[][] binH1 = new boolean[OHLCV_BinaryLexical.H1_COUNT][];
-            boolean[][] binH2 = new boolean[OHLCV_BinaryLexical.H2_COUNT][];
-
-            int byteCount; //For H1
-            if(OHLCV_BinaryLexical.H1_TOTAL_LEN%8 == 0) byteCount = (OHLCV_BinaryLexical.H1_TOTAL_LEN >>> 3);
-            else byteCount = (OHLCV_BinaryLexical.H1_TOTAL_LEN >>> 3) + 1;
-
-            byte[] byteChunk = new byte[byteCount];
-            boolean[] flatBinH1plus = new boolean[byteCount << 3];
-            boolean[] flatBinH2plus;
-
-            byteCount = reader.readBytes(byteChunk);
-
-            //1. Extract H1 bits into flat Header 1
-            for(int i=0; i<byteCount; ++i){
-                BinaryTools.setSubsetUnsignedInt(i << 3,8,byteChunk[i] & 0xFF,flatBinH1plus);
-            }
-
-            //2. Set each H1 binary array from flattened H1 array
-            int flatIndex=0;
-            for(int i=0; i<binH1.length; ++i){
-                binH1[i] = new boolean[OHLCV_BinaryLexical.getHeader1BitLength(i)];
-                for(int j=0; j<binH1[i].length; ++flatIndex, ++j){binH1[i][j] = flatBinH1plus[flatIndex];}
-            }
-
-            //3. Set the lengths of the H2 fields from the translated H1 values.
-            binH2[0] = new boolean[BinaryTools.toUnsignedInt(binH1[OHLCV_BinaryLexical.H_INDEX_SYM_LEN])];
-            binH2[1] = new boolean[BinaryTools.toUnsignedInt(binH1[OHLCV_BinaryLexical.H_INDEX_CT_LEN])];
-            binH2[2] = new boolean[BinaryTools.toUnsignedInt(binH1[OHLCV_BinaryLexical.H_INDEX_H_GAP_LEN])];
-            int h2_bit_length = binH2[0].length + binH2[1].length + binH2[2].length;
-
-            //4. Read in next batch of next bytes to include to include all of H2
-            byte excessBits = (byte)(flatBinH1plus.length - flatIndex);
-            byte h2startbyteIndex;
-            if(OHLCV_BinaryLexical.H1_TOTAL_LEN%8 == 0){ //If no overflow bits from H1 to H2
-                h2startbyteIndex = (byte)0;
-                flatIndex = 0;
-                byteCount = (h2_bit_length >>> 3);
-                byteChunk = new byte[byteCount];
-                flatBinH2plus = new boolean[byteCount << 3];
-                reader.readBytes(byteChunk);
-            }else{
-                h2startbyteIndex = (byte)1;
-                flatIndex = 8 - excessBits;
-                byte firstH2Byte = byteChunk[byteChunk.length - 1];
-                byteCount = (h2_bit_length >>> 3) + 1;
-                byteChunk = new byte[byteCount];
-                flatBinH2plus = new boolean[byteCount << 3];
-                byteChunk[0] = firstH2Byte;
-                reader.readBytes(byteChunk,1,byteCount - 1);
-            }
-
-            //5. Process new byte Array elements into new respective bin array.
-            for(int i=0; i<byteChunk.length; ++i){
-                BinaryTools.setSubsetUnsignedInt(i << 3,8,byteChunk[i] & 0xFF,flatBinH2plus);
-            }
-
-            //6. Set H2 from flattened h2 bits
-            for(int i=0; i<binH2.length; ++i){
-                for(int j=0; j<binH2[i].length; ++j, ++flatIndex){binH2[i][j]=flatBinH2plus[flatIndex];}
-            }
-
-            //7. Generate lexical
-            lexical = new OHLCV_BinaryLexical(
-                binH1[0],
-                binH1[1],
-                binH1[2],
-                binH1[3],
-                binH1[4],
-                binH1[5],
-                binH1[6],
-                binH1[7],
-                binH1[8],
-                binH1[9],
-                binH1[10],
-                binH2[0],
-                binH2[1],
-                binH2[2]
-            );
-
-            lastByteValue = byteChunk[byteChunk.length - 1];
-            firstDataBitIndex = (byte)(lexical.getHeaderBitLength()%8);
+        /**
+         * Reads exactly the header bytes, H1 first to learn the H2 lengths, and parses the header from them.
+         * @return false if the reader ended before the last header byte.
+         */
+        boolean readHeader(){
+            byte[] headerBytes = new byte[OHLCV_BinaryHeader.MAX_BYTE_LENGTH];
+            ByteBuffer headerBuffer = ByteBuffer.wrap(headerBytes);
+
+            boolean isComplete = readFully(headerBytes, 0, OHLCV_BinaryHeader.H1_BYTE_LENGTH);
+            int headerByteLength = OHLCV_BinaryHeader.getByteLengthFromH1(headerBuffer);
+            isComplete &= readFully(headerBytes, OHLCV_BinaryHeader.H1_BYTE_LENGTH, headerByteLength - OHLCV_BinaryHeader.H1_BYTE_LENGTH);
+
+            header = OHLCV_BinaryHeader.genHeaderFromPackedBytes(headerBuffer, 0);
+            lastByteValue = headerBytes[headerByteLength - 1];
+            return isComplete;
         }
 
-        void readHeader(boolean[][] cachedHeader){
-            lexical = new OHLCV_BinaryLexical(
-                cachedHeader[0],
-                cachedHeader[1],
-                cachedHeader[2],
-                cachedHeader[3],
-                cachedHeader[4],
-                cachedHeader[5],
-                cachedHeader[6],
-                cachedHeader[7],
-                cachedHeader[8],
-                cachedHeader[9],
-                cachedHeader[10],
-                cachedHeader[11],
-                cachedHeader[12],
-                cachedHeader[13]
-            );
-
-            BitByteTrack headerBytes = new BitByteTrack(lexical.getHeaderBitLength());
-            firstDataBitIndex = headerBytes.getBitIndex();
-
-            byte[] byteArr= new byte[1];
-
-            if(firstDataBitIndex != 0) reader.skip(headerBytes.getByteIndex());
-            else reader.skip(headerBytes.getByteIndex() - 1);
+        /**
+         * Skips the header bytes of {@code cachedHeader}, keeping only the last one.
+         */
+        void readHeader(OHLCV_BinaryHeader cachedHeader){
+            header = cachedHeader;
 
+            byte[] byteArr = new byte[1];
+            reader.skip(header.getHeaderByteLength() - 1);
             reader.readBytes(byteArr);
             lastByteValue = byteArr[0];
         }
+
+        private boolean readFully(byte[] dest, int startIndex, int length){
+            while(length > 0){
+                int readCount = reader.readBytes(dest, startIndex, length);
+                if(readCount <= 0) return false;
+                startIndex += readCount;
+                length -= readCount;
+            }
+            return true;
+        }
     }
-}
\ No newline at end of file
+}
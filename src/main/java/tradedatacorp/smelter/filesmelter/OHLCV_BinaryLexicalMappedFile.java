@@ -0,0 +1,407 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.filesmelter;
+
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryHeader;
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLexical;
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLayout;
+import tradedatacorp.tools.binarytools.BinaryTools;
+import tradedatacorp.tools.stick.StickColumns;
+import tradedatacorp.tools.stick.primitive.StickDouble;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A read-only, random access view of a binary file encoded with {@link OHLCV_BinaryLexical}.
+ * The file is mapped into memory once and the typed {@link OHLCV_BinaryHeader} is parsed once upon construction.
+ * Each data point is decoded on demand directly from its bit offset: {@code headerBitLength + index * dataBitLength}.
+ * This is intended for many small reads against the same file, where reopening the file and re-reading the header on every call dominates.
+ * <p>
+ * Reads do not alter any shared state, so a single instance can be used by multiple threads concurrently.
+ * A single mapping is limited to files of at most {@link Integer#MAX_VALUE} bytes.
+ * </p>
+ */
+public class OHLCV_BinaryLexicalMappedFile{
+    private Path filePath;
+    private ByteBuffer mappedData;
+    private OHLCV_BinaryHeader header;
+    private FileTime lastModifiedTime;
+    private OHLCV_BinaryLayout layout; //Immutable, shared by every decode task.
+    private long headerBitLength;
+    private int dataBitLength;
+    private int dataCount;
+
+    /**
+     * The maximum number of data points a single fork join task will decode before splitting.
+     */
+    public static final int PARALLEL_DECODE_THRESHOLD = 8192;
+
+    /**
+     * The minimum number of data points a stream spliterator will split off, smaller ranges are decoded by a single thread.
+     */
+    public static final int STREAM_SPLIT_THRESHOLD = 1024;
+
+    /**
+     * Maps {@code originalBinaryFile} into memory and parses its typed header straight from the mapping.
+     *
+     * @param originalBinaryFile The path to the {@link OHLCV_BinaryLexical} file.
+     * @throws IOException if the file cannot be mapped, is larger than a single mapping or is shorter than its header.
+     */
+    public OHLCV_BinaryLexicalMappedFile(Path originalBinaryFile) throws IOException{
+        filePath = originalBinaryFile;
+        //Observed before mapping, so a concurrent write leaves this view stale rather than current.
+        lastModifiedTime = Files.getLastModifiedTime(originalBinaryFile);
+        try(FileChannel channel = FileChannel.open(originalBinaryFile, StandardOpenOption.READ)){
+            long size = channel.size();
+            if(size > Integer.MAX_VALUE) throw new IOException(originalBinaryFile+" is "+size+" bytes, a single mapping is limited to "+Integer.MAX_VALUE+" bytes.");
+            mappedData = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        int byteLength = mappedData.capacity();
+        if(byteLength < OHLCV_BinaryHeader.H1_BYTE_LENGTH || byteLength < OHLCV_BinaryHeader.getByteLengthFromH1(mappedData))
+            throw new IOException(originalBinaryFile+" is shorter than an OHLCV_BinaryLexical header. Length: "+byteLength+" bytes.");
+
+        header = OHLCV_BinaryHeader.genHeaderFromPackedBytes(mappedData, 0);
+        headerBitLength = header.getHeaderBitLength();
+        layout = header.getLayout();
+        dataBitLength = layout.getDataBitLength();
+
+        //Never trust the header count beyond the bits that actually exist in the file.
+        long availableDataPoints = dataBitLength == 0 ? 0 : (((long)byteLength << 3) - headerBitLength) / dataBitLength;
+        dataCount = (int)Math.min(header.getDataCount(), Math.max(0, availableDataPoints));
+    }
+
+    /**
+     * Returns the path of the mapped file.
+     * @return the path of the mapped file.
+     */
+    public Path getFilePath(){return filePath;}
+
+    /**
+     * Returns a copy of the lexical parsed from the header of the mapped file.
+     * @return a copy of the lexical parsed from the header.
+     */
+    public OHLCV_BinaryLexical getLexical(){return header.genLexical();}
+
+    /**
+     * Returns the typed header parsed from the mapped file.
+     * @return the immutable header parsed upon construction.
+     */
+    public OHLCV_BinaryHeader getHeader(){return header;}
+
+    /**
+     * Returns true if this view still matches the file: the size and last modified time are unchanged
+     * and the data count field of the mapping still holds the parsed count.
+     * The mapping shares the bytes of the file, so a count commit that keeps the size and modified time (see {@link OHLCV_BinaryLexicalPreallocatedFile})
+     * is detected without reading the file.
+     * @return true if this view can still be used for reads, false if the file should be mapped again.
+     */
+    public boolean isCurrent(){
+        BasicFileAttributes attributes;
+        try{attributes = Files.readAttributes(filePath, BasicFileAttributes.class);}
+        catch(IOException err){return false;}
+        return attributes.size() == mappedData.capacity()
+            && attributes.lastModifiedTime().equals(lastModifiedTime)
+            && BinaryTools.toUnsignedLongFromByteBufferSubset(mappedData, header.getDataCountBitIndex(), header.getDataCountBitLength()) == header.getDataCount();
+    }
+
+    /**
+     * Returns the number of data points that can be read from this file.
+     * @return the number of data points that can be read from this file.
+     */
+    public int size(){return dataCount;}
+
+    /**
+     * Returns the file bit index of the first bit of the data point at {@code index}.
+     * @param index The zero-based index of the data point.
+     * @return the file bit index of the first (UTC) bit of the data point.
+     */
+    public long getDataBitIndex(int index){return headerBitLength + (long)index * dataBitLength;}
+
+    /**
+     * Decodes and returns the single data point at {@code index}.
+     *
+     * @param index The zero-based index of the data point.
+     * @return the decoded {@link StickDouble}.
+     * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #size()}.
+     */
+    public StickDouble get(int index){
+        if(index < 0 || index >= dataCount) throw new IndexOutOfBoundsException("index: "+index+" size: "+dataCount);
+        return layout.getRefinedDataPacked(mappedData, getDataBitIndex(index));
+    }
+
+    /**
+     * Decodes the data points between two specified indices (inclusive).
+     * If the range exceeds the available data, returns as many as possible.
+     *
+     * @param fromIndex The starting data index (inclusive).
+     * @param toIndex The ending data index (inclusive).
+     * @return An array of {@link StickDouble} elements from the specified range.
+     */
+    public StickDouble[] getArrayFromTo(int fromIndex, int toIndex){
+        return getArrayFromQuantity(fromIndex, toIndex - fromIndex + 1);
+    }
+
+    /**
+     * Decodes a specified quantity of data points starting at a given index.
+     * If the range exceeds the available data, returns as many as possible.
+     *
+     * @param fromIndex The starting data index (inclusive).
+     * @param quantity The number of data points to decode.
+     * @return An array of {@link StickDouble} elements from the specified range.
+     * @throws IllegalArgumentException if {@code fromIndex} or {@code quantity} is negative.
+     */
+    public StickDouble[] getArrayFromQuantity(int fromIndex, int quantity){
+        if(fromIndex < 0 || quantity < 0) throw new IllegalArgumentException("fromIndex and quantity must be non-negative. fromIndex: "+fromIndex+" quantity: "+quantity);
+        if(fromIndex >= dataCount) return new StickDouble[0];
+        if(quantity > dataCount - fromIndex) quantity = dataCount - fromIndex;
+        return layout.getRefinedDataArrayPacked(mappedData, getDataBitIndex(fromIndex), quantity);
+    }
+
+    /**
+     * Decodes a specified quantity of data points starting at a given index in parallel.
+     * Every data point has the same bit length, so the range is split into index sub-ranges without scanning.
+     * Each task decodes its own sub-range from its own bit offset and writes directly to its slots of the result, so the result is in file order.
+     * If the range exceeds the available data, returns as many as possible.
+     *
+     * @param fromIndex The starting data index (inclusive).
+     * @param quantity The number of data points to decode.
+     * @param pool The pool that will execute the decode tasks.
+     * @return An array of {@link StickDouble} elements from the specified range.
+     * @throws IllegalArgumentException if {@code fromIndex} or {@code quantity} is negative.
+     */
+    public StickDouble[] getArrayFromQuantityParallel(int fromIndex, int quantity, ForkJoinPool pool){
+        if(fromIndex < 0 || quantity < 0) throw new IllegalArgumentException("fromIndex and quantity must be non-negative. fromIndex: "+fromIndex+" quantity: "+quantity);
+        if(fromIndex >= dataCount) return new StickDouble[0];
+        if(quantity > dataCount - fromIndex) quantity = dataCount - fromIndex;
+
+        StickDouble[] r = new StickDouble[quantity];
+        pool.invoke(new DecodeRangeTask(r, fromIndex, 0, quantity));
+        return r;
+    }
+
+    /**
+     * Decodes every data point of this file in parallel using the common {@link ForkJoinPool}.
+     * @see #getArrayFromQuantityParallel(int, int, ForkJoinPool)
+     * @return An array of all {@link StickDouble} elements in file order.
+     */
+    public StickDouble[] getArrayParallel(){return getArrayFromQuantityParallel(0, dataCount, ForkJoinPool.commonPool());}
+
+    /**
+     * Decodes a specified quantity of data points starting at a given index into a columnar container.
+     * If the range exceeds the available data, returns as many as possible.
+     *
+     * @param fromIndex The starting data index (inclusive).
+     * @param quantity The number of data points to decode.
+     * @return A {@link StickColumns} containing the specified range.
+     * @throws IllegalArgumentException if {@code fromIndex} or {@code quantity} is negative.
+     */
+    public StickColumns getColumnsFromQuantity(int fromIndex, int quantity){
+        return getColumnsFromQuantity(fromIndex, quantity, StickColumns.MASK_ALL);
+    }
+
+    /**
+     * Decodes only the fields of {@code fieldMask} of a specified quantity of data points starting at a given index into a columnar container.
+     * The other fields are skipped and their columns are 0, see {@link OHLCV_BinaryLayout#addRefinedColumnsPacked(ByteBuffer, long, int, StickColumns, int)}.
+     * If the range exceeds the available data, returns as many as possible.
+     *
+     * @param fromIndex The starting data index (inclusive).
+     * @param quantity The number of data points to decode.
+     * @param fieldMask An OR of the {@code StickColumns.MASK_*} constants, such as {@code MASK_UTC | MASK_C}.
+     * @return A {@link StickColumns} containing the specified range.
+     * @throws IllegalArgumentException if {@code fromIndex} or {@code quantity} is negative, or {@code fieldMask} is not a valid field mask.
+     */
+    public StickColumns getColumnsFromQuantity(int fromIndex, int quantity, int fieldMask){
+        if(fromIndex < 0 || quantity < 0) throw new IllegalArgumentException("fromIndex and quantity must be non-negative. fromIndex: "+fromIndex+" quantity: "+quantity);
+        StickColumns.checkFieldMask(fieldMask);
+        if(fromIndex >= dataCount) return new StickColumns(0);
+        if(quantity > dataCount - fromIndex) quantity = dataCount - fromIndex;
+        return layout.getRefinedColumnsPacked(mappedData, getDataBitIndex(fromIndex), quantity, fieldMask);
+    }
+
+    /**
+     * Decodes and returns only the UTC field of the data point at {@code index}.
+     *
+     * @param index The zero-based index of the data point.
+     * @return the UTC value of the data point.
+     * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #size()}.
+     */
+    public long getUTC(int index){
+        if(index < 0 || index >= dataCount) throw new IndexOutOfBoundsException("index: "+index+" size: "+dataCount);
+        return layout.getUTCPacked(mappedData, getDataBitIndex(index));
+    }
+
+    /**
+     * Returns the index of the first data point with a UTC value greater than or equal to {@code utc}.
+     * Data points must be stored in ascending UTC order. Only the UTC fields of probed data points are decoded.
+     *
+     * @param utc The UTC value to search for.
+     * @return the index of the first data point where UTC &gt;= {@code utc}, or {@link #size()} if there is none.
+     */
+    public int getLowerBoundIndexOfUTC(long utc){
+        int low = 0;
+        int high = dataCount;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(layout.getUTCPacked(mappedData, getDataBitIndex(mid)) < utc) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first data point with a UTC value strictly greater than {@code utc}.
+     * Data points must be stored in ascending UTC order. Only the UTC fields of probed data points are decoded.
+     *
+     * @param utc The UTC value to search for.
+     * @return the index of the first data point where UTC &gt; {@code utc}, or {@link #size()} if there is none.
+     */
+    public int getUpperBoundIndexOfUTC(long utc){
+        int low = 0;
+        int high = dataCount;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(layout.getUTCPacked(mappedData, getDataBitIndex(mid)) <= utc) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Decodes all data points with a UTC value between {@code utcStart} and {@code utcEnd} (inclusive).
+     * The range is located with a binary search over the UTC fields, then only the matching slice is fully decoded.
+     *
+     * @param utcStart The earliest UTC value (inclusive).
+     * @param utcEnd The latest UTC value (inclusive).
+     * @return An array of {@link StickDouble} elements within the UTC range, empty if there are none.
+     */
+    public StickDouble[] getArrayFromUTC(long utcStart, long utcEnd){
+        if(utcEnd < utcStart) return new StickDouble[0];
+        int fromIndex = getLowerBoundIndexOfUTC(utcStart);
+        int toIndex = getUpperBoundIndexOfUTC(utcEnd); //exclusive
+        return getArrayFromQuantity(fromIndex, toIndex - fromIndex);
+    }
+
+    /**
+     * Returns a sequential stream of every data point of this file, see {@link #streamFromQuantity}.
+     * @return a lazily decoded stream of all {@link StickDouble} elements in file order.
+     */
+    public Stream<StickDouble> stream(){return streamFromQuantity(0, dataCount);}
+
+    /**
+     * Returns a sequential stream of a specified quantity of data points starting at a given index.
+     * Each data point is decoded only when the stream consumes it, so nothing is decoded before the first result and no list of the range is built.
+     * The spliterator is SIZED, SUBSIZED, ORDERED, IMMUTABLE and NONNULL, and splits by index range,
+     * so {@code .parallel()} decodes disjoint ranges of the mapping on separate threads.
+     * If the range exceeds the available data, streams as many as possible.
+     *
+     * @param fromIndex The starting data index (inclusive).
+     * @param quantity The number of data points to stream.
+     * @return a lazily decoded stream of {@link StickDouble} elements in file order.
+     * @throws IllegalArgumentException if {@code fromIndex} or {@code quantity} is negative.
+     */
+    public Stream<StickDouble> streamFromQuantity(int fromIndex, int quantity){
+        if(fromIndex < 0 || quantity < 0) throw new IllegalArgumentException("fromIndex and quantity must be non-negative. fromIndex: "+fromIndex+" quantity: "+quantity);
+        if(fromIndex >= dataCount) return StreamSupport.stream(new StickSpliterator(0, 0), false);
+        if(quantity > dataCount - fromIndex) quantity = dataCount - fromIndex;
+        return StreamSupport.stream(new StickSpliterator(fromIndex, fromIndex + quantity), false);
+    }
+
+    /**
+     * Decodes data points {@code [index, fence)} on demand. Splitting hands the lower half of the remaining range to a new spliterator.
+     */
+    private class StickSpliterator implements Spliterator<StickDouble>{
+        private int index;
+        private final int fence; //exclusive
+
+        private StickSpliterator(int index, int fence){
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super StickDouble> action){
+            if(index >= fence) return false;
+            action.accept(layout.getRefinedDataPacked(mappedData, getDataBitIndex(index)));
+            ++index;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super StickDouble> action){
+            long bitIndex = getDataBitIndex(index);
+            int count = fence - index;
+            index = fence;
+            for(int i=0; i<count; ++i){
+                action.accept(layout.getRefinedDataPacked(mappedData, bitIndex));
+                bitIndex += dataBitLength;
+            }
+        }
+
+        @Override
+        public Spliterator<StickDouble> trySplit(){
+            int remaining = fence - index;
+            if(remaining < STREAM_SPLIT_THRESHOLD << 1) return null;
+            int mid = index + (remaining >>> 1);
+            StickSpliterator prefix = new StickSpliterator(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize(){return fence - index;}
+
+        @Override
+        public int characteristics(){return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;}
+    }
+
+    /**
+     * Decodes data points {@code [fromIndex, fromIndex + quantity)} into {@code result[resultIndex...]}, splitting in half until the range is at most {@link #PARALLEL_DECODE_THRESHOLD}.
+     */
+    private class DecodeRangeTask extends RecursiveAction{
+        private final StickDouble[] result;
+        private final int fromIndex;
+        private final int resultIndex;
+        private final int quantity;
+
+        private DecodeRangeTask(StickDouble[] result, int fromIndex, int resultIndex, int quantity){
+            this.result = result;
+            this.fromIndex = fromIndex;
+            this.resultIndex = resultIndex;
+            this.quantity = quantity;
+        }
+
+        @Override
+        protected void compute(){
+            if(quantity <= PARALLEL_DECODE_THRESHOLD){
+                long bitIndex = getDataBitIndex(fromIndex);
+                for(int i=0; i<quantity; ++i){
+                    result[resultIndex + i] = layout.getRefinedDataPacked(mappedData, bitIndex);
+                    bitIndex += dataBitLength;
+                }
+                return;
+            }
+
+            int half = quantity >>> 1;
+            invokeAll(
+                new DecodeRangeTask(result, fromIndex, resultIndex, half),
+                new DecodeRangeTask(result, fromIndex + half, resultIndex + half, quantity - half)
+            );
+        }
+    }
+}
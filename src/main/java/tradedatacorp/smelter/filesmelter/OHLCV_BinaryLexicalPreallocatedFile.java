@@ -0,0 +1,262 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.filesmelter;
+
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryHeader;
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLexical;
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLayout;
+import tradedatacorp.tools.binarytools.BinaryTools;
+import tradedatacorp.tools.stick.primitive.StickDouble;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A fixed capacity {@link OHLCV_BinaryLexical} file for live ingest.
+ * <p>The file is created once at its full size: a header followed by {@code capacity} zeroed data point slots.
+ * Data points are written into their slots and only become visible to readers when {@link #commit()} is called,
+ * which forces the data to the device, then patches the data count (h2_data_ct) of the header and forces again.
+ * Readers ({@link OHLCV_BinaryLexicalFileUnsmelter}, {@link OHLCV_BinaryLexicalMappedFile}) only decode the committed data count,
+ * so they never see a partially written data point and the file never grows or changes size while it is filled.</p>
+ * <p>After a crash, reopening the file with {@link #openPreallocatedFile(Path)} resumes at the committed data count,
+ * uncommitted slots are simply overwritten.</p>
+ * <p>Writes and commits are synchronized on this instance. Only one instance per file should be open for writing.</p>
+ */
+public class OHLCV_BinaryLexicalPreallocatedFile implements Closeable{
+    /**
+     * The number of seconds in a day, used by {@link #genDailyFile} to size the file from the interval.
+     */
+    public static final int SECONDS_PER_DAY = 86400;
+
+    private static final int ZERO_FILL_CHUNK_SIZE = 1 << 16;
+
+    private Path filePath;
+    private FileChannel channel;
+    private OHLCV_BinaryHeader header;
+    private OHLCV_BinaryLayout layout;
+    private int capacity;
+    private int committedCount;
+    private int writtenCount;
+
+    private OHLCV_BinaryLexicalPreallocatedFile(Path filePath, FileChannel channel, OHLCV_BinaryHeader header) throws IOException{
+        this.filePath = filePath;
+        this.channel = channel;
+        this.header = header;
+        layout = header.getLayout();
+        long slotBits = (channel.size() << 3) - header.getHeaderBitLength();
+        capacity = (int)Math.min(Integer.MAX_VALUE, Math.max(0, slotBits / layout.getDataBitLength()));
+        committedCount = Math.min(header.getDataCount(), capacity);
+        writtenCount = committedCount;
+    }
+
+    /**
+     * Creates (or overwrites) {@code file} with room for {@code capacity} data points and 0 committed data points.
+     * The header is written from {@code lexical} with a data count field wide enough for {@code capacity},
+     * and a header gap that aligns the first data point to a byte.
+     *
+     * @param file The file that will be created.
+     * @param lexical The lexical that defines the symbol, interval and data point layout. It is not altered.
+     * @param capacity The number of data point slots.
+     * @return the open file, null if the file could not be created.
+     * @throws IllegalArgumentException if {@code capacity} is not positive.
+     */
+    public static OHLCV_BinaryLexicalPreallocatedFile genPreallocatedFile(Path file, OHLCV_BinaryLexical lexical, int capacity){
+        if(capacity < 1) throw new IllegalArgumentException("capacity must be positive. Received: "+capacity);
+        OHLCV_BinaryLexical capacityLexical = genCapacityLexical(lexical, capacity);
+        boolean[] headerBits = capacityLexical.genBinaryHeaderFlat(0);
+        long fileByteLength = (headerBits.length + (long)capacity * capacityLexical.getDataBitLength() + 7) >>> 3;
+
+        FileChannel channel = null;
+        try{
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            //1. Zero fill every slot so the blocks are allocated now rather than on each write.
+            ByteBuffer zeros = ByteBuffer.allocate((int)Math.min(ZERO_FILL_CHUNK_SIZE, fileByteLength));
+            for(long position=0; position<fileByteLength; position += zeros.capacity()){
+                zeros.clear().limit((int)Math.min(zeros.capacity(), fileByteLength - position));
+                while(zeros.hasRemaining()) channel.write(zeros, position + zeros.position());
+            }
+
+            //2. Write the header with a data count of 0.
+            ByteBuffer headerBytes = ByteBuffer.allocate((headerBits.length + 7) >>> 3);
+            for(int i=0; i<headerBits.length; ++i){
+                if(headerBits[i]) BinaryTools.setByteBufferSubsetUnsignedLong(i, 1, 1, headerBytes);
+            }
+            while(headerBytes.hasRemaining()) channel.write(headerBytes, headerBytes.position());
+            channel.force(true);
+
+            OHLCV_BinaryHeaderCache.getSharedCache().invalidate(file);
+            return new OHLCV_BinaryLexicalPreallocatedFile(file, channel, OHLCV_BinaryHeader.genHeaderFromLexical(capacityLexical));
+        }catch(IOException err){
+            err.printStackTrace();
+            closeQuietly(channel);
+            return null;
+        }
+    }
+
+    /**
+     * Creates (or overwrites) {@code file} with room for a day of data points, {@code ceil(SECONDS_PER_DAY / interval)}.
+     * @see #genPreallocatedFile(Path, OHLCV_BinaryLexical, int)
+     *
+     * @param file The file that will be created.
+     * @param lexical The lexical that defines the symbol, interval (seconds) and data point layout.
+     * @return the open file, null if the file could not be created.
+     * @throws IllegalArgumentException if the interval of {@code lexical} is not positive.
+     */
+    public static OHLCV_BinaryLexicalPreallocatedFile genDailyFile(Path file, OHLCV_BinaryLexical lexical){
+        int interval = lexical.getInterval();
+        if(interval < 1) throw new IllegalArgumentException("interval must be positive. Received: "+interval);
+        return genPreallocatedFile(file, lexical, (SECONDS_PER_DAY + interval - 1) / interval);
+    }
+
+    /**
+     * Opens an existing preallocated file for writing, resuming after its committed data count.
+     * The capacity is the number of whole data point slots after the header.
+     *
+     * @param file The preallocated file.
+     * @return the open file, null if the file could not be opened.
+     * @throws IllegalArgumentException if the file is shorter than its header.
+     */
+    public static OHLCV_BinaryLexicalPreallocatedFile openPreallocatedFile(Path file){
+        FileChannel channel = null;
+        try{
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new OHLCV_BinaryLexicalPreallocatedFile(file, channel, OHLCV_BinaryLexicalFileSmelter.readPackedHeader(channel, file));
+        }catch(IOException err){
+            err.printStackTrace();
+            closeQuietly(channel);
+            return null;
+        }catch(IllegalArgumentException err){
+            closeQuietly(channel);
+            throw err;
+        }
+    }
+
+    /**
+     * Writes {@code dataStick} into the next slot. It is not visible to readers until {@link #commit()}.
+     *
+     * @param dataStick The data point to write.
+     * @throws IllegalArgumentException if every slot has been written.
+     */
+    public void write(StickDouble dataStick){write(new StickDouble[]{dataStick});}
+
+    /**
+     * Writes {@code dataStickArray} into the next slots in order. They are not visible to readers until {@link #commit()}.
+     * The bits of the previous slot that share the first byte are preserved.
+     *
+     * @param dataStickArray The data points to write.
+     * @throws IllegalArgumentException if there are fewer free slots than data points, nothing is written.
+     */
+    public synchronized void write(StickDouble[] dataStickArray){
+        if(dataStickArray.length == 0) return;
+        if(dataStickArray.length > capacity - writtenCount)
+            throw new IllegalArgumentException(dataStickArray.length+" data points exceed the "+(capacity - writtenCount)+" free slots of "+filePath);
+
+        int dataBitLength = layout.getDataBitLength();
+        long startBitIndex = header.getHeaderBitLength() + (long)writtenCount * dataBitLength;
+        long byteIndex = startBitIndex >>> 3;
+        long bitIndex = startBitIndex & 7;
+        ByteBuffer slots = ByteBuffer.allocate((int)((bitIndex + (long)dataStickArray.length * dataBitLength + 7) >>> 3));
+
+        try{
+            if(bitIndex != 0){
+                ByteBuffer firstByte = ByteBuffer.allocate(1);
+                channel.read(firstByte, byteIndex);
+                slots.put(0, (byte)(firstByte.get(0) & (0xFF << (8 - bitIndex))));
+            }
+            for(StickDouble stick : dataStickArray){
+                layout.setPackedDataStick(stick, slots, bitIndex);
+                bitIndex += dataBitLength;
+            }
+            while(slots.hasRemaining()) channel.write(slots, byteIndex + slots.position());
+        }catch(IOException err){
+            err.printStackTrace();
+            return;
+        }
+        writtenCount += dataStickArray.length;
+    }
+
+    /**
+     * Makes every written data point visible to readers: forces the data, writes the data count, then forces the data count.
+     * If the process stops before the data count is forced, readers and {@link #openPreallocatedFile} see the previous data count.
+     */
+    public synchronized void commit(){
+        if(writtenCount == committedCount) return;
+        try{
+            channel.force(false);
+            OHLCV_BinaryLexicalFileSmelter.setPackedDataCount(channel, header, writtenCount);
+            channel.force(false);
+        }catch(IOException err){
+            err.printStackTrace();
+            return;
+        }
+        committedCount = writtenCount;
+    }
+
+    /**
+     * Closes the file. Data points written since the last {@link #commit()} are not committed.
+     */
+    @Override
+    public synchronized void close(){closeQuietly(channel);}
+
+    /**
+     * Returns the path of the file.
+     * @return the path of the file.
+     */
+    public Path getFilePath(){return filePath;}
+
+    /**
+     * Returns the typed header of the file. The data count of the returned header is the data count when the file was opened.
+     * @return the typed header of the file.
+     */
+    public OHLCV_BinaryHeader getHeader(){return header;}
+
+    /**
+     * Returns the total number of data point slots.
+     * @return the total number of data point slots.
+     */
+    public int getCapacity(){return capacity;}
+
+    /**
+     * Returns the number of data points visible to readers.
+     * @return the committed data count.
+     */
+    public synchronized int getCommittedCount(){return committedCount;}
+
+    /**
+     * Returns the number of data points written, including those not yet committed.
+     * @return the written data count.
+     */
+    public synchronized int getWrittenCount(){return writtenCount;}
+
+    /**
+     * Returns a lexical equal to {@code lexical} with a data count field of at least the bits of {@code capacity},
+     * and a header gap that ends the header on a byte.
+     */
+    private static OHLCV_BinaryLexical genCapacityLexical(OHLCV_BinaryLexical lexical, int capacity){
+        boolean[][] binaryHeader = lexical.getBinaryHeader();
+        int ctLenFieldLength = binaryHeader[OHLCV_BinaryLexical.H_INDEX_CT_LEN].length;
+        int gapLenFieldLength = binaryHeader[OHLCV_BinaryLexical.H_INDEX_H_GAP_LEN].length;
+
+        int ctLen = Math.max(BinaryTools.toUnsignedInt(binaryHeader[OHLCV_BinaryLexical.H_INDEX_CT_LEN]), 32 - Integer.numberOfLeadingZeros(capacity));
+        int gapLen = -(OHLCV_BinaryLexical.H1_TOTAL_LEN + binaryHeader[OHLCV_BinaryLexical.H_INDEX_SYM].length + ctLen) & 7;
+
+        binaryHeader[OHLCV_BinaryLexical.H_INDEX_CT_LEN] = BinaryTools.genBoolArrayFromUnsignedInt(ctLen, ctLenFieldLength);
+        binaryHeader[OHLCV_BinaryLexical.H_INDEX_DATA_CT] = BinaryTools.genBoolArrayFromUnsignedInt(0, ctLen);
+        binaryHeader[OHLCV_BinaryLexical.H_INDEX_H_GAP_LEN] = BinaryTools.genBoolArrayFromUnsignedInt(gapLen, gapLenFieldLength);
+        binaryHeader[OHLCV_BinaryLexical.H_INDEX_H_GAP] = BinaryTools.genBoolArrayFromUnsignedInt(0, gapLen);
+        return OHLCV_BinaryHeader.genHeaderFromBinaryHeader(binaryHeader).genLexical();
+    }
+
+    private static void closeQuietly(FileChannel channel){
+        if(channel == null) return;
+        try{channel.close();}
+        catch(IOException err){err.printStackTrace();}
+    }
+}
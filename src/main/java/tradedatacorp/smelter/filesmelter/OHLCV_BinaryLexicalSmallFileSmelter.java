@@ -226,8 +226,7 @@ public class OHLCV_BinaryLexicalSmallFileSmelter implements StringSmelterStatefu
             }
 
             //3. Set boolean[] header based on binaryLexical settings and localCrubible size.
-            binaryTranslator.setDataCount(hotCrucible.size());
-            header = binaryTranslator.getBinaryHeaderFlat();
+            header = binaryTranslator.genBinaryHeaderFlat(hotCrucible.size());
             moltenData = new ArrayDeque<Byte>(((dataQueue.size() + 1) >>> 3) + ((header.length + 1) >>> 3));
         }
 
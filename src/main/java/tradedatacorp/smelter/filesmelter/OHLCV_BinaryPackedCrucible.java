@@ -0,0 +1,205 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.filesmelter;
+
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLayout;
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLexical;
+import tradedatacorp.tools.binarytools.BinaryTools;
+import tradedatacorp.tools.stick.primitive.StickDouble;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+/**
+ * A growable staging buffer of data points already packed IAW an {@link OHLCV_BinaryLayout}.
+ * <p>Each added stick is packed directly into a single byte buffer at {@code firstBitOffset + index * dataBitLength},
+ * so staging costs {@code dataBitLength/8} bytes per stick instead of a {@code boolean[]} of {@code dataBitLength} bytes.
+ * The buffer may be allocated off-heap ({@link ByteBuffer#allocateDirect}) to keep large staged batches out of the garbage collected heap.</p>
+ * <p>{@code firstBitOffset} is the bit offset of the first data point within its byte of the target file ({@code headerBitLength % 8}),
+ * so the packed bytes can be written directly after the header with only the partial header byte merged into the first byte.</p>
+ * <p>All methods are synchronized on this instance.</p>
+ */
+public class OHLCV_BinaryPackedCrucible{
+    /**
+     * The default number of data points the buffer is first sized for.
+     */
+    public static final int DEFAULT_INITIAL_CAPACITY = 64;
+
+    private final OHLCV_BinaryLayout layout;
+    private final int firstBitOffset;
+    private final boolean isDirect;
+    private ByteBuffer packedData;
+    private int size;
+
+    /**
+     * Constructs an empty crucible.
+     *
+     * @param layout The layout every data point is packed with.
+     * @param firstBitOffset The bit offset of the first data point within its first byte, between 0 and 7 inclusively.
+     * @param initialCapacity The number of data points the buffer is first sized for, it doubles as needed.
+     * @param isDirect If true the buffer is allocated off-heap.
+     */
+    public OHLCV_BinaryPackedCrucible(OHLCV_BinaryLayout layout, int firstBitOffset, int initialCapacity, boolean isDirect){
+        if(firstBitOffset < 0 || firstBitOffset > 7)
+            throw new IllegalArgumentException("firstBitOffset must be between 0 and 7 inclusively. Received: "+firstBitOffset);
+        if(initialCapacity < 1) throw new IllegalArgumentException("initialCapacity must be positive. Received: "+initialCapacity);
+        this.layout = layout;
+        this.firstBitOffset = firstBitOffset;
+        this.isDirect = isDirect;
+        packedData = allocate(getByteLength(initialCapacity));
+        size = 0;
+    }
+
+    /**
+     * Constructs an empty crucible whose data points directly follow the header of {@code lexical}.
+     *
+     * @param lexical The lexical whose layout and header bit length are used. It is not altered.
+     * @param isDirect If true the buffer is allocated off-heap.
+     */
+    public OHLCV_BinaryPackedCrucible(OHLCV_BinaryLexical lexical, boolean isDirect){
+        this(lexical.getLayout(), lexical.getHeaderBitLength() & 7, DEFAULT_INITIAL_CAPACITY, isDirect);
+    }
+
+    /**
+     * Packs {@code dataStick} after the last data point.
+     * @param dataStick The data point to add.
+     */
+    public synchronized void add(StickDouble dataStick){
+        ensureCapacity(size + 1L);
+        layout.setPackedDataStick(dataStick, packedData, getBitIndex(size));
+        ++size;
+    }
+
+    /**
+     * Packs every {@code dataStickArray} element after the last data point in order.
+     * @param dataStickArray The data points to add.
+     */
+    public synchronized void add(StickDouble[] dataStickArray){
+        ensureCapacity((long)size + dataStickArray.length);
+        for(StickDouble dataStick : dataStickArray){
+            layout.setPackedDataStick(dataStick, packedData, getBitIndex(size));
+            ++size;
+        }
+    }
+
+    /**
+     * Packs every {@code dataStickCollection} element after the last data point in iteration order.
+     * @param dataStickCollection The data points to add.
+     */
+    public synchronized void add(Collection<? extends StickDouble> dataStickCollection){
+        ensureCapacity((long)size + dataStickCollection.size());
+        for(StickDouble dataStick : dataStickCollection){
+            layout.setPackedDataStick(dataStick, packedData, getBitIndex(size));
+            ++size;
+        }
+    }
+
+    /**
+     * Copies a single data point, already packed with the same layout, from {@code source} after the last data point.
+     * The bits are copied up to 64 at a time, the data point is not decoded.
+     *
+     * @param source The buffer holding the packed data point. Absolute indexing is used.
+     * @param sourceBitIndex The bit index of the first bit of the data point within {@code source}.
+     */
+    public synchronized void addPacked(ByteBuffer source, long sourceBitIndex){
+        ensureCapacity(size + 1L);
+        long bitIndex = getBitIndex(size);
+        int remainingBits = layout.getDataBitLength();
+        while(remainingBits > 0){
+            int length = Math.min(64, remainingBits);
+            BinaryTools.setByteBufferSubsetUnsignedLong(bitIndex, length, BinaryTools.toUnsignedLongFromByteBufferSubset(source, sourceBitIndex, length), packedData);
+            bitIndex += length;
+            sourceBitIndex += length;
+            remainingBits -= length;
+        }
+        ++size;
+    }
+
+    /**
+     * Returns the number of staged data points.
+     * @return the number of staged data points.
+     */
+    public synchronized int size(){return size;}
+
+    /**
+     * Returns true if no data points are staged.
+     * @return true if no data points are staged.
+     */
+    public synchronized boolean isEmpty(){return size == 0;}
+
+    /**
+     * Returns the number of bytes that contain at least 1 bit of {@code firstBitOffset} or a staged data point.
+     * @return the number of used bytes of the buffer.
+     */
+    public synchronized int getByteLength(){return getByteLength(size);}
+
+    /**
+     * Returns true if the buffer is allocated off-heap.
+     * @return true if the buffer is allocated off-heap.
+     */
+    public boolean isDirect(){return isDirect;}
+
+    /**
+     * Returns the bit offset of the first data point within its first byte.
+     * @return the bit offset of the first data point.
+     */
+    public int getFirstBitOffset(){return firstBitOffset;}
+
+    /**
+     * Returns a read-only view of the used bytes of the buffer, from index 0 to {@link #getByteLength()}.
+     * The first {@code firstBitOffset} bits are set to the leftmost bits of {@code leadingByte} (the partial last header byte),
+     * and the unused bits of the last byte are set to 0. The view is only valid until the next call to a method of this crucible.
+     *
+     * @param leadingByte The byte whose leftmost {@code firstBitOffset} bits precede the first data point.
+     * @return a read-only view of the packed bytes, positioned at 0.
+     */
+    public synchronized ByteBuffer genPackedView(byte leadingByte){
+        int byteLength = getByteLength(size);
+        if(firstBitOffset != 0){
+            int leadingMask = 0xFF << (8 - firstBitOffset);
+            packedData.put(0, (byte)((leadingByte & leadingMask) | (packedData.get(0) & ~leadingMask)));
+        }
+
+        int lastBits = (int)(getBitIndex(size) & 7);
+        if(lastBits != 0){
+            int lastIndex = byteLength - 1;
+            packedData.put(lastIndex, (byte)(packedData.get(lastIndex) & (0xFF << (8 - lastBits))));
+        }
+
+        ByteBuffer view = packedData.asReadOnlyBuffer();
+        view.limit(byteLength).position(0);
+        return view;
+    }
+
+    /**
+     * Removes every staged data point. The buffer is kept for reuse.
+     */
+    public synchronized void clear(){size = 0;}
+
+    private long getBitIndex(int index){return firstBitOffset + (long)index * layout.getDataBitLength();}
+
+    private int getByteLength(long dataCount){
+        long byteLength = (firstBitOffset + dataCount * layout.getDataBitLength() + 7) >>> 3;
+        if(byteLength > Integer.MAX_VALUE) throw new IllegalArgumentException(dataCount+" data points exceed the maximum buffer size.");
+        return (int)byteLength;
+    }
+
+    //Doubles the buffer until it holds dataCount data points, the used bytes are copied.
+    private void ensureCapacity(long dataCount){
+        int required = getByteLength(dataCount);
+        if(required <= packedData.capacity()) return;
+
+        long newCapacity = Math.max(required, (long)packedData.capacity() << 1);
+        ByteBuffer grown = allocate((int)Math.min(Integer.MAX_VALUE, newCapacity));
+        ByteBuffer used = packedData.duplicate();
+        used.limit(getByteLength(size)).position(0);
+        grown.put(used).clear();
+        packedData = grown;
+    }
+
+    private ByteBuffer allocate(int byteLength){
+        return isDirect ? ByteBuffer.allocateDirect(byteLength) : ByteBuffer.allocate(byteLength);
+    }
+}
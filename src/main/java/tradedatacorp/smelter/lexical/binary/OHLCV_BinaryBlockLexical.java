@@ -0,0 +1,495 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.lexical.binary;
+
+import tradedatacorp.smelter.lexical.Lexical;
+import tradedatacorp.tools.binarytools.BinaryTools;
+import tradedatacorp.tools.stick.StickColumns;
+import tradedatacorp.tools.stick.primitive.StickDouble;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>A block structured (frame of reference) binary format for OHLCV sticks.
+ * Sticks are grouped into blocks of {@code h1_blk_len} sticks. Every block starts with a small block header holding,
+ * for each field, the minimum value within the block and the number of bits needed for the largest offset from that minimum.
+ * Sticks within the block store only their offsets, so low priced or low volume symbols and quiet periods use few bits,
+ * without choosing any field length up front.</p>
+ * <p>Prices and volume are fixed point integers with {@code h1_p_digits} and {@code h1_v_digits} decimal digits.
+ * Every block starts on a byte boundary and a table of block byte offsets follows the header,
+ * so any stick is located with 1 table read and 1 block header read regardless of the position of the stick.</p>
+ * <p>Content layout:</p>
+ * <table>
+ * <caption>Content</caption>
+ * <tr><th>Section</th><th>Bit Length</th><th>Description</th></tr>
+ * <tr><td>h1_freeform</td><td>10</td><td>Free form bits to be set by the user.</td></tr>
+ * <tr><td>h1_int</td><td>25</td><td>The number of seconds for the time frame.</td></tr>
+ * <tr><td>h1_ct_len</td><td>5</td><td>The number of bits of field h2_data_ct.</td></tr>
+ * <tr><td>h1_blk_len</td><td>16</td><td>The number of sticks of every block except the last block.</td></tr>
+ * <tr><td>h1_p_digits</td><td>5</td><td>The number of decimal digits of every price.</td></tr>
+ * <tr><td>h1_v_digits</td><td>5</td><td>The number of decimal digits of the volume.</td></tr>
+ * <tr><td>h1_h_gap_len</td><td>3</td><td>The number of bits of field h2_h_gap.</td></tr>
+ * <tr><td>h1_sym_len</td><td>7</td><td>The number of bits of the symbol. This is 8 times the number of characters.</td></tr>
+ * <tr><td>h2_sym</td><td>h1_sym_len</td><td>8 bit character string of the Symbol.</td></tr>
+ * <tr><td>h2_data_ct</td><td>h1_ct_len</td><td>The number of sticks of the content.</td></tr>
+ * <tr><td>h2_h_gap</td><td>h1_h_gap_len</td><td>Ignored bits for byte alignment.</td></tr>
+ * <tr><td>Block table</td><td>32 per block</td><td>The byte offset of each block from the end of the block table.</td></tr>
+ * <tr><td>Blocks</td><td>variable</td><td>For each of UTC, O, H, L, C, V: minimum (64) and bit length (7). Then every stick as offsets from the minimums. Padded to a byte.</td></tr>
+ * </table>
+ * <p>Read methods expect the first byte of the content at absolute index 0 of the buffer, such as a mapped file.</p>
+ */
+public class OHLCV_BinaryBlockLexical implements Lexical, Cloneable{
+    private static final byte[] H1_LEN = new byte[]{10, 25, 5, 16, 5, 5, 3, 7};
+
+    /**
+     * The index of the free form field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_FREE_FORM = 0;
+
+    /**
+     * The index of the interval field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_INT = 1;
+
+    /**
+     * The index of the data count length field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_CT_LEN = 2;
+
+    /**
+     * The index of the block length field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_BLK_LEN = 3;
+
+    /**
+     * The index of the price digits field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_P_DIGITS = 4;
+
+    /**
+     * The index of the volume digits field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_V_DIGITS = 5;
+
+    /**
+     * The index of the header gap length field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_H_GAP_LEN = 6;
+
+    /**
+     * The index of the symbol length field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_SYM_LEN = 7;
+
+    /**
+     * The index of the symbol field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_SYM = 8;
+
+    /**
+     * The index of the data count field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_DATA_CT = 9;
+
+    /**
+     * The index of the header gap field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_H_GAP = 10;
+
+    /**
+     * The number of header 1 fields.
+     */
+    public static final byte H1_COUNT = 8;
+
+    /**
+     * The number of bits of each block table entry.
+     */
+    public static final byte BLOCK_OFFSET_LEN = 32;
+
+    /**
+     * The number of bits of the minimum of each field within a block header.
+     */
+    public static final byte BLOCK_MIN_LEN = 64;
+
+    /**
+     * The number of bits of the offset bit length of each field within a block header.
+     */
+    public static final byte BLOCK_WIDTH_LEN = 7;
+
+    /**
+     * The default number of sticks per block.
+     */
+    public static final int DEFAULT_BLOCK_LENGTH = 128;
+
+    /**
+     * The maximum number of decimal digits for prices and volume.
+     */
+    public static final byte MAX_DIGITS = 15;
+
+    private static final int FIELD_COUNT = 6; //UTC, O, H, L, C, V
+    private static final int BLOCK_HEADER_LEN = FIELD_COUNT * (BLOCK_MIN_LEN + BLOCK_WIDTH_LEN);
+    private static final byte DATA_CT_LEN = 31;
+
+    private static final long[] tenToPow;
+
+    static{
+        tenToPow = new long[MAX_DIGITS + 1];
+        tenToPow[0] = 1;
+        for(int i=1; i<tenToPow.length; ++i){tenToPow[i] = tenToPow[i-1]*10;}
+    }
+
+    //Binary Header
+    private boolean[][] header;
+
+    //Translated Header
+    private int t_h1_int;
+    private int t_h1_ct_len;
+    private int t_h1_blk_len;
+    private int t_h1_p_digits;
+    private int t_h1_v_digits;
+    private String t_h2_sym;
+    private int t_h2_data_ct;
+
+    private double priceScale;
+    private double volumeScale;
+
+    /**
+     * Constructs a block lexical with 0 sticks.
+     *
+     * @param symbol The ticker symbol this lexical will represent. Must be at most 15 characters.
+     * @param interval The interval (in seconds) for each data point.
+     * @param blockLength The number of sticks per block. Must be between 1 and 65535 inclusively.
+     * @param priceDigits The number of decimal digits of every price. Must be between 0 and {@link #MAX_DIGITS}.
+     * @param volumeDigits The number of decimal digits of the volume. Must be between 0 and {@link #MAX_DIGITS}.
+     * @throws IllegalArgumentException if a parameter is out of range.
+     */
+    public OHLCV_BinaryBlockLexical(String symbol, int interval, int blockLength, byte priceDigits, byte volumeDigits){
+        this(new int[]{0, interval, DATA_CT_LEN, blockLength, priceDigits, volumeDigits, 0, symbol.length() << 3}, symbol, 0);
+
+        int remainder = getHeaderBitLength() % 8;
+        if(remainder != 0){
+            header[H_INDEX_H_GAP_LEN] = BinaryTools.genBoolArrayFromUnsignedInt(8 - remainder, H1_LEN[H_INDEX_H_GAP_LEN]);
+            header[H_INDEX_H_GAP] = new boolean[8 - remainder];
+        }
+    }
+
+    private OHLCV_BinaryBlockLexical(int[] translatedH1, String symbol, int dataCount){
+        if(translatedH1[H_INDEX_BLK_LEN] < 1 || translatedH1[H_INDEX_BLK_LEN] > 65535)
+            throw new IllegalArgumentException("blockLength must be between 1 and 65535 inclusively. Received: "+translatedH1[H_INDEX_BLK_LEN]);
+        if(translatedH1[H_INDEX_SYM_LEN] >= (1 << H1_LEN[H_INDEX_SYM_LEN]))
+            throw new IllegalArgumentException("symbol must be at most "+(((1 << H1_LEN[H_INDEX_SYM_LEN]) - 1) >>> 3)+" characters. Received: "+symbol);
+        for(int i : new int[]{H_INDEX_P_DIGITS, H_INDEX_V_DIGITS}){
+            if(translatedH1[i] < 0 || translatedH1[i] > MAX_DIGITS)
+                throw new IllegalArgumentException("The number of digits must be between 0 and "+MAX_DIGITS+" inclusively. Received: "+translatedH1[i]);
+        }
+
+        header = new boolean[H1_COUNT + 3][];
+        for(int i=0; i<H1_COUNT; ++i){header[i] = BinaryTools.genBoolArrayFromUnsignedInt(translatedH1[i], H1_LEN[i]);}
+        header[H_INDEX_SYM] = BinaryTools.genBoolArrayFrom8BitCharString(symbol);
+        header[H_INDEX_DATA_CT] = BinaryTools.genBoolArrayFromUnsignedInt(dataCount, translatedH1[H_INDEX_CT_LEN]);
+        header[H_INDEX_H_GAP] = new boolean[translatedH1[H_INDEX_H_GAP_LEN]];
+
+        t_h1_int = translatedH1[H_INDEX_INT];
+        t_h1_ct_len = translatedH1[H_INDEX_CT_LEN];
+        t_h1_blk_len = translatedH1[H_INDEX_BLK_LEN];
+        t_h1_p_digits = translatedH1[H_INDEX_P_DIGITS];
+        t_h1_v_digits = translatedH1[H_INDEX_V_DIGITS];
+        t_h2_sym = symbol;
+        t_h2_data_ct = dataCount;
+
+        priceScale = tenToPow[t_h1_p_digits];
+        volumeScale = tenToPow[t_h1_v_digits];
+    }
+
+    /**
+     * Creates a block lexical with {@link #DEFAULT_BLOCK_LENGTH} sticks per block.
+     *
+     * @param symbol The ticker symbol this lexical will represent.
+     * @param interval The interval (in seconds) for each data point.
+     * @param priceDigits The number of decimal digits of every price.
+     * @param volumeDigits The number of decimal digits of the volume.
+     * @return a new OHLCV_BinaryBlockLexical instance.
+     */
+    public static OHLCV_BinaryBlockLexical genBlockLexical(String symbol, int interval, byte priceDigits, byte volumeDigits){
+        return new OHLCV_BinaryBlockLexical(symbol, interval, DEFAULT_BLOCK_LENGTH, priceDigits, volumeDigits);
+    }
+
+    /**
+     * Creates an OHLCV_BinaryBlockLexical instance from the header at the start of {@code content}.
+     * The position, limit and mark of the {@code content} are not altered.
+     *
+     * @param content The content, the first bit of the header is the most significant bit at absolute index 0.
+     * @return a new OHLCV_BinaryBlockLexical instance equivalent to the lexical that wrote the content.
+     */
+    public static OHLCV_BinaryBlockLexical genLexicalFromPackedHeader(ByteBuffer content){
+        int[] translatedH1 = new int[H1_COUNT];
+        long bitIndex = 0;
+        for(int i=0; i<H1_COUNT; ++i){
+            translatedH1[i] = (int)BinaryTools.toUnsignedLongFromByteBufferSubset(content, bitIndex, H1_LEN[i]);
+            bitIndex += H1_LEN[i];
+        }
+
+        String symbol = BinaryTools.genStringFrom8BitBoolCharRep(BinaryTools.genBoolArrayFromByteBufferSubset(content, bitIndex, translatedH1[H_INDEX_SYM_LEN]));
+        bitIndex += translatedH1[H_INDEX_SYM_LEN];
+        int dataCount = (int)BinaryTools.toUnsignedLongFromByteBufferSubset(content, bitIndex, translatedH1[H_INDEX_CT_LEN]);
+
+        return new OHLCV_BinaryBlockLexical(translatedH1, symbol, dataCount);
+    }
+
+    //Encode
+    /**
+     * Encodes {@code dataArray} into a new content: header, block table and blocks.
+     * The data count of this lexical is set to {@code dataArray.length}.
+     *
+     * @param dataArray The sticks to encode, in order.
+     * @return A new heap {@link ByteBuffer} with position 0 and limit at the end of the content.
+     */
+    public ByteBuffer genPackedContent(StickDouble[] dataArray){
+        setDataCount(dataArray.length);
+        int blockCount = getBlockCount();
+
+        //Fixed point values of each field, then the minimum and offset bit length of each field of each block.
+        long[][] values = new long[FIELD_COUNT][dataArray.length];
+        for(int i=0; i<dataArray.length; ++i){
+            StickDouble stick = dataArray[i];
+            values[0][i] = stick.getUTC();
+            values[1][i] = Math.round(stick.getO() * priceScale);
+            values[2][i] = Math.round(stick.getH() * priceScale);
+            values[3][i] = Math.round(stick.getL() * priceScale);
+            values[4][i] = Math.round(stick.getC() * priceScale);
+            values[5][i] = Math.round(stick.getV() * volumeScale);
+        }
+
+        long[][] blockMin = new long[blockCount][FIELD_COUNT];
+        int[][] blockWidth = new int[blockCount][FIELD_COUNT];
+        int[] blockByteOffset = new int[blockCount + 1];
+        for(int b=0; b<blockCount; ++b){
+            int from = b * t_h1_blk_len;
+            int to = Math.min(dataArray.length, from + t_h1_blk_len);
+            int recordLength = 0;
+            for(int f=0; f<FIELD_COUNT; ++f){
+                long min = Long.MAX_VALUE;
+                long max = Long.MIN_VALUE;
+                for(int i=from; i<to; ++i){
+                    min = Math.min(min, values[f][i]);
+                    max = Math.max(max, values[f][i]);
+                }
+                //The range can exceed Long.MAX_VALUE, as an unsigned value max - min is exact since max >= min.
+                //Offsets and the decoder wrap the same way, so min + offset restores every value.
+                long range = max - min;
+                blockMin[b][f] = min;
+                blockWidth[b][f] = 64 - Long.numberOfLeadingZeros(range);
+                recordLength += blockWidth[b][f];
+            }
+            long blockBits = BLOCK_HEADER_LEN + (long)recordLength * (to - from);
+            blockByteOffset[b + 1] = Math.toIntExact(blockByteOffset[b] + ((blockBits + 7) >>> 3));
+        }
+
+        int headerBytes = getHeaderBitLength() >>> 3;
+        int dataStart = headerBytes + blockCount * (BLOCK_OFFSET_LEN >>> 3);
+        ByteBuffer r = ByteBuffer.allocate(Math.addExact(dataStart, blockByteOffset[blockCount]));
+
+        //Header, h2_h_gap is left as the zeros of the new buffer.
+        long bitIndex = 0;
+        for(int i=0; i<H1_COUNT; ++i){
+            BinaryTools.setByteBufferSubsetUnsignedLong(bitIndex, H1_LEN[i], BinaryTools.toUnsignedInt(header[i]), r);
+            bitIndex += H1_LEN[i];
+        }
+        for(int i=0; i<t_h2_sym.length(); ++i){
+            BinaryTools.setByteBufferSubsetUnsignedLong(bitIndex, 8, t_h2_sym.charAt(i), r);
+            bitIndex += 8;
+        }
+        BinaryTools.setByteBufferSubsetUnsignedLong(bitIndex, t_h1_ct_len, t_h2_data_ct, r);
+
+        //Block table
+        for(int b=0; b<blockCount; ++b){r.putInt(headerBytes + b * (BLOCK_OFFSET_LEN >>> 3), blockByteOffset[b]);}
+
+        //Blocks
+        for(int b=0; b<blockCount; ++b){
+            bitIndex = (long)(dataStart + blockByteOffset[b]) << 3;
+            for(int f=0; f<FIELD_COUNT; ++f){
+                BinaryTools.setByteBufferSubsetUnsignedLong(bitIndex, BLOCK_MIN_LEN, blockMin[b][f], r);
+                bitIndex += BLOCK_MIN_LEN;
+                BinaryTools.setByteBufferSubsetUnsignedLong(bitIndex, BLOCK_WIDTH_LEN, blockWidth[b][f], r);
+                bitIndex += BLOCK_WIDTH_LEN;
+            }
+
+            int to = Math.min(dataArray.length, (b + 1) * t_h1_blk_len);
+            for(int i=b * t_h1_blk_len; i<to; ++i){
+                for(int f=0; f<FIELD_COUNT; ++f){
+                    BinaryTools.setByteBufferSubsetUnsignedLong(bitIndex, blockWidth[b][f], values[f][i] - blockMin[b][f], r);
+                    bitIndex += blockWidth[b][f];
+                }
+            }
+        }
+
+        return r;
+    }
+
+    //Decode
+    /**
+     * Decodes the single stick at {@code index}. Only the block table entry and block header of its block are read.
+     *
+     * @param content The content written by {@code genPackedContent}. Absolute indexing is used.
+     * @param index The zero-based index of the stick.
+     * @return the decoded {@link StickDouble}.
+     * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #getDataCount()}.
+     */
+    public StickDouble getRefinedData(ByteBuffer content, int index){
+        if(index < 0 || index >= t_h2_data_ct) throw new IndexOutOfBoundsException("index: "+index+" size: "+t_h2_data_ct);
+        StickColumns r = new StickColumns(1);
+        addRefinedColumns(content, index, 1, r);
+        return r.getStick(0);
+    }
+
+    /**
+     * Decodes a specified quantity of sticks starting at a given index.
+     * If the range exceeds the available data, returns as many as possible.
+     *
+     * @param content The content written by {@code genPackedContent}. Absolute indexing is used.
+     * @param fromIndex The starting data index (inclusive).
+     * @param quantity The number of sticks to decode.
+     * @return A {@link StickColumns} containing the specified range.
+     * @throws IllegalArgumentException if {@code fromIndex} or {@code quantity} is negative.
+     */
+    public StickColumns getRefinedColumns(ByteBuffer content, int fromIndex, int quantity){
+        if(fromIndex < 0 || quantity < 0) throw new IllegalArgumentException("fromIndex and quantity must be non-negative. fromIndex: "+fromIndex+" quantity: "+quantity);
+        if(fromIndex >= t_h2_data_ct) return new StickColumns(0);
+        if(quantity > t_h2_data_ct - fromIndex) quantity = t_h2_data_ct - fromIndex;
+
+        StickColumns r = new StickColumns(quantity);
+        addRefinedColumns(content, fromIndex, quantity, r);
+        return r;
+    }
+
+    /**
+     * Decodes a specified quantity of sticks starting at a given index.
+     * @see #getRefinedColumns(ByteBuffer, int, int)
+     * @param content The content written by {@code genPackedContent}. Absolute indexing is used.
+     * @param fromIndex The starting data index (inclusive).
+     * @param quantity The number of sticks to decode.
+     * @return An array of {@link StickDouble} elements from the specified range.
+     */
+    public StickDouble[] getRefinedDataArray(ByteBuffer content, int fromIndex, int quantity){
+        return getRefinedColumns(content, fromIndex, quantity).genStickArray();
+    }
+
+    /**
+     * @return a deep copy of this lexical.
+     */
+    @Override
+    public OHLCV_BinaryBlockLexical clone(){
+        synchronized (this){
+            int[] translatedH1 = new int[H1_COUNT];
+            for(int i=0; i<H1_COUNT; ++i){translatedH1[i] = BinaryTools.toUnsignedInt(header[i]);}
+            return new OHLCV_BinaryBlockLexical(translatedH1, t_h2_sym, t_h2_data_ct);
+        }
+    }
+
+    //Get methods
+    /**
+     * Returns a deep copy of the current state of binary header.
+     * @return A deep copy of the binary header, where each index represents a specific field as defined by {@code H_INDEX_*}.
+     */
+    public boolean[][] getBinaryHeader(){
+        boolean[][] clone = new boolean[header.length][];
+        for(int i=0; i<header.length; ++i){clone[i] = BinaryTools.genClone(header[i]);}
+        return clone;
+    }
+
+    /**
+     * Returns the total number of bits of the header, including the header gap. This does not include the block table.
+     * @return the total number of bits of the header.
+     */
+    public int getHeaderBitLength(){
+        int r = 0;
+        for(boolean[] field : header){r += field.length;}
+        return r;
+    }
+
+    /**
+     * Returns the number of blocks of the content.
+     * @return {@code ceil(getDataCount() / getBlockLength())}.
+     */
+    public int getBlockCount(){return (int)(((long)t_h2_data_ct + t_h1_blk_len - 1) / t_h1_blk_len);}
+
+    /**
+     * Returns the number of sticks of every block except the last block.
+     * @return the number of sticks per block.
+     */
+    public int getBlockLength(){return t_h1_blk_len;}
+
+    /**
+     * Returns the interval (seconds) of each data point.
+     * @return the interval (seconds) of each data point.
+     */
+    public int getInterval(){return t_h1_int;}
+
+    /**
+     * Returns the ticker symbol.
+     * @return the ticker symbol.
+     */
+    public String getSymbol(){return t_h2_sym;}
+
+    /**
+     * Returns the number of sticks the header represents.
+     * @return the number of sticks the header represents.
+     */
+    public int getDataCount(){return t_h2_data_ct;}
+
+    /**
+     * Alters the data count of header.
+     * @param numberOfDataPoints The new number of sticks the header represents.
+     */
+    public void setDataCount(int numberOfDataPoints){
+        if(numberOfDataPoints < 0)
+            throw new IllegalArgumentException("numberOfDataPoints must be greater than or equal to 0. Received: "+numberOfDataPoints);
+        t_h2_data_ct = numberOfDataPoints;
+        BinaryTools.setUnsignedIntToBoolArray(numberOfDataPoints, header[H_INDEX_DATA_CT]);
+    }
+
+    //Private helpers
+    //Decodes sticks [fromIndex, fromIndex + quantity) into columns, reading each block header once.
+    private void addRefinedColumns(ByteBuffer content, int fromIndex, int quantity, StickColumns columns){
+        int headerBytes = getHeaderBitLength() >>> 3;
+        int dataStart = headerBytes + getBlockCount() * (BLOCK_OFFSET_LEN >>> 3);
+        long[] min = new long[FIELD_COUNT];
+        int[] width = new int[FIELD_COUNT];
+        long[] value = new long[FIELD_COUNT];
+
+        int index = fromIndex;
+        int end = fromIndex + quantity;
+        while(index < end){
+            int block = index / t_h1_blk_len;
+            long bitIndex = (long)(dataStart + content.getInt(headerBytes + block * (BLOCK_OFFSET_LEN >>> 3))) << 3;
+
+            int recordLength = 0;
+            for(int f=0; f<FIELD_COUNT; ++f){
+                min[f] = BinaryTools.toUnsignedLongFromByteBufferSubset(content, bitIndex, BLOCK_MIN_LEN);
+                bitIndex += BLOCK_MIN_LEN;
+                width[f] = (int)BinaryTools.toUnsignedLongFromByteBufferSubset(content, bitIndex, BLOCK_WIDTH_LEN);
+                bitIndex += BLOCK_WIDTH_LEN;
+                recordLength += width[f];
+            }
+
+            int blockEnd = Math.min(end, (block + 1) * t_h1_blk_len);
+            bitIndex += (long)(index - block * t_h1_blk_len) * recordLength;
+            for(; index<blockEnd; ++index){
+                for(int f=0; f<FIELD_COUNT; ++f){
+                    value[f] = min[f] + BinaryTools.toUnsignedLongFromByteBufferSubset(content, bitIndex, width[f]);
+                    bitIndex += width[f];
+                }
+                columns.add(
+                    value[0],
+                    value[1]/priceScale,
+                    value[2]/priceScale,
+                    value[3]/priceScale,
+                    value[4]/priceScale,
+                    value[5]/volumeScale
+                );
+            }
+        }
+    }
+}
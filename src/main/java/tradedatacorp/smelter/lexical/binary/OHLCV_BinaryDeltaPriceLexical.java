@@ -0,0 +1,782 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.lexical.binary;
+
+import tradedatacorp.tools.binarytools.BinaryTools;
+import tradedatacorp.tools.stick.StickColumns;
+import tradedatacorp.tools.stick.primitive.StickDouble;
+import tradedatacorp.tools.stick.primitive.CandleStickFixedDouble;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+/**
+ * <p>A {@link BinaryLexical} for OHLCV sticks where prices are stored as small signed deltas instead of independent full width values.
+ * Prices are fixed point integers with {@code h1_p_digits} decimal digits. Per stick:</p>
+ * <ul>
+ * <li>Open is the zig-zag encoded delta from the Close of the previous stick (the base price of the header for the first stick).</li>
+ * <li>High, Low and Close are zig-zag encoded deltas from the Open of the same stick.</li>
+ * <li>Volume is an unsigned fixed point integer with {@code h1_v_digits} decimal digits.</li>
+ * </ul>
+ * <p>Zig-zag maps signed deltas to unsigned values (0, -1, 1, -2, 2 ... to 0, 1, 2, 3, 4 ...) so small deltas of either sign need few bits.
+ * Adjacent candles are highly correlated, so the widths fitted from the data with {@link #genFittedLexical} are usually a fraction of
+ * the 46 bits per price of the Standard {@link OHLCV_BinaryLexical} layout.</p>
+ * <p>Below is a table representing the Header. Data points are directly next to each other with no spacing.</p>
+ * <table>
+ * <caption>Header Fields</caption>
+ * <tr><th>Field</th><th>Bit Length</th><th>Description</th></tr>
+ * <tr><td>h1_freeform</td><td>10</td><td>Free form bits to be set by the user.</td></tr>
+ * <tr><td>h1_int</td><td>25</td><td>The number of seconds for the time frame.</td></tr>
+ * <tr><td>h1_ct_len</td><td>5</td><td>The number of bits of field h2_data_ct.</td></tr>
+ * <tr><td>h1_data_len</td><td>9</td><td>The total number of bits of a single stick.</td></tr>
+ * <tr><td>h1_h_gap_len</td><td>3</td><td>The number of bits of field h2_h_gap.</td></tr>
+ * <tr><td>h1_utc_len</td><td>6</td><td>The number of bits of the unsigned UTC of each stick.</td></tr>
+ * <tr><td>h1_p_digits</td><td>5</td><td>The number of decimal digits of every price.</td></tr>
+ * <tr><td>h1_od_len</td><td>6</td><td>The number of bits of the Open delta.</td></tr>
+ * <tr><td>h1_hd_len</td><td>6</td><td>The number of bits of the High delta.</td></tr>
+ * <tr><td>h1_ld_len</td><td>6</td><td>The number of bits of the Low delta.</td></tr>
+ * <tr><td>h1_cd_len</td><td>6</td><td>The number of bits of the Close delta.</td></tr>
+ * <tr><td>h1_v_digits</td><td>5</td><td>The number of decimal digits of the volume.</td></tr>
+ * <tr><td>h1_v_len</td><td>6</td><td>The number of bits of the unsigned volume.</td></tr>
+ * <tr><td>h1_sym_len</td><td>7</td><td>The number of bits of the symbol. This is 8 times the number of characters.</td></tr>
+ * <tr><td>h2_sym</td><td>h1_sym_len</td><td>8 bit character string of the Symbol.</td></tr>
+ * <tr><td>h2_data_ct</td><td>h1_ct_len</td><td>The number of sticks stored in the data section of content.</td></tr>
+ * <tr><td>h2_base_price</td><td>64</td><td>The fixed point price the Open of the first stick is relative to.</td></tr>
+ * <tr><td>h2_h_gap</td><td>h1_h_gap_len</td><td>Ignored bits for byte alignment of the data section.</td></tr>
+ * </table>
+ * <p>Since each Open depends on the previous Close, data points must be decoded in order from a known previous Close.
+ * Single data point methods are relative to the base price.</p>
+ */
+public class OHLCV_BinaryDeltaPriceLexical implements BinaryLexical<StickDouble>, Cloneable{
+    /**
+     * The bit length of each header 1 field, indexed by {@code H_INDEX_*}.
+     */
+    private static final byte[] H1_LEN = new byte[]{10, 25, 5, 9, 3, 6, 5, 6, 6, 6, 6, 5, 6, 7};
+
+    /**
+     * The index of the free form field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_FREE_FORM = 0;
+
+    /**
+     * The index of the interval field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_INT = 1;
+
+    /**
+     * The index of the data count length field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_CT_LEN = 2;
+
+    /**
+     * The index of the data length field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_DATA_LEN = 3;
+
+    /**
+     * The index of the header gap length field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_H_GAP_LEN = 4;
+
+    /**
+     * The index of the UTC length field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_UTC_LEN = 5;
+
+    /**
+     * The index of the price digits field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_P_DIGITS = 6;
+
+    /**
+     * The index of the Open delta length field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_OD_LEN = 7;
+
+    /**
+     * The index of the High delta length field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_HD_LEN = 8;
+
+    /**
+     * The index of the Low delta length field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_LD_LEN = 9;
+
+    /**
+     * The index of the Close delta length field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_CD_LEN = 10;
+
+    /**
+     * The index of the volume digits field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_V_DIGITS = 11;
+
+    /**
+     * The index of the volume length field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_V_LEN = 12;
+
+    /**
+     * The index of the symbol length field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_SYM_LEN = 13;
+
+    /**
+     * The index of the symbol field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_SYM = 14;
+
+    /**
+     * The index of the data count field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_DATA_CT = 15;
+
+    /**
+     * The index of the base price field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_BASE_PRICE = 16;
+
+    /**
+     * The index of the header gap field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_H_GAP = 17;
+
+    /**
+     * The number of header 1 fields.
+     */
+    public static final byte H1_COUNT = 14;
+
+    /**
+     * The number of bits of header 1.
+     */
+    public static final int H1_TOTAL_LEN = 105;
+
+    /**
+     * The number of bits of the base price header field.
+     */
+    public static final byte BASE_PRICE_LEN = 64;
+
+    /**
+     * The maximum number of decimal digits for prices and volume.
+     */
+    public static final byte MAX_DIGITS = 15;
+
+    //Data point field indexes
+    private static final int FIELD_UTC = 0;
+    private static final int FIELD_O = 1;
+    private static final int FIELD_H = 2;
+    private static final int FIELD_L = 3;
+    private static final int FIELD_C = 4;
+    private static final int FIELD_V = 5;
+    private static final int FIELD_COUNT = 6;
+
+    private static final long[] tenToPow;
+
+    static{
+        tenToPow = new long[MAX_DIGITS + 1];
+        tenToPow[0] = 1;
+        for(int i=1; i<tenToPow.length; ++i){tenToPow[i] = tenToPow[i-1]*10;}
+    }
+
+    //Binary Header
+    private boolean[][] header;
+
+    //Translated Header
+    private int t_h1_freeform;
+    private int t_h1_int;
+    private int t_h1_ct_len;
+    private int t_h1_data_len;
+    private int t_h1_p_digits;
+    private int t_h1_v_digits;
+    private String t_h2_sym;
+    private int t_h2_data_ct;
+    private long t_h2_base_price; //fixed point
+
+    private int[] fieldLength; //UTC, O, H, L, C, V
+    private double priceDivisor;
+    private double volumeDivisor;
+
+    /**
+     * Constructs a delta price lexical from translated header values.
+     * The header gap is calculated so the data section starts on a byte boundary.
+     *
+     * @param symbol The ticker symbol this lexical will represent. Must be at most 15 characters.
+     * @param interval The interval (in seconds) for each data point.
+     * @param freeFormValue Must be between 0 and 1023 (inclusively). A free form value of the users choosing.
+     * @param countLength The number of bits of the data count.
+     * @param utcLength The number of bits of the UTC of each stick.
+     * @param priceDigits The number of decimal digits of every price. Must be between 0 and {@link #MAX_DIGITS}.
+     * @param openDeltaLength The number of bits of the zig-zag delta of Open from the previous Close.
+     * @param highDeltaLength The number of bits of the zig-zag delta of High from Open.
+     * @param lowDeltaLength The number of bits of the zig-zag delta of Low from Open.
+     * @param closeDeltaLength The number of bits of the zig-zag delta of Close from Open.
+     * @param volumeDigits The number of decimal digits of the volume. Must be between 0 and {@link #MAX_DIGITS}.
+     * @param volumeLength The number of bits of the volume.
+     * @param basePrice The price the Open of the first stick is relative to.
+     * @throws IllegalArgumentException if a length is not between 1 and 63, a number of digits is out of range, a stick exceeds 511 bits or the symbol exceeds 15 characters.
+     */
+    public OHLCV_BinaryDeltaPriceLexical(
+        String symbol,
+        int interval,
+        int freeFormValue,
+        byte countLength,
+        byte utcLength,
+        byte priceDigits,
+        byte openDeltaLength,
+        byte highDeltaLength,
+        byte lowDeltaLength,
+        byte closeDeltaLength,
+        byte volumeDigits,
+        byte volumeLength,
+        double basePrice
+    ){
+        this(
+            new int[]{
+                freeFormValue,
+                interval,
+                countLength,
+                utcLength + openDeltaLength + highDeltaLength + lowDeltaLength + closeDeltaLength + volumeLength,
+                0, //h_gap_len, calculated below
+                utcLength,
+                priceDigits,
+                openDeltaLength,
+                highDeltaLength,
+                lowDeltaLength,
+                closeDeltaLength,
+                volumeDigits,
+                volumeLength,
+                symbol.length() << 3
+            },
+            symbol,
+            0,
+            Math.round(basePrice * tenToPow[checkDigits(priceDigits)])
+        );
+
+        int remainder = getHeaderBitLength() % 8;
+        if(remainder != 0){
+            int gapLength = 8 - remainder;
+            header[H_INDEX_H_GAP_LEN] = BinaryTools.genBoolArrayFromUnsignedInt(gapLength, H1_LEN[H_INDEX_H_GAP_LEN]);
+            header[H_INDEX_H_GAP] = new boolean[gapLength];
+        }
+    }
+
+    private OHLCV_BinaryDeltaPriceLexical(int[] translatedH1, String symbol, int dataCount, long fixedBasePrice){
+        for(int i=H_INDEX_UTC_LEN; i<=H_INDEX_V_LEN; ++i){
+            if(i == H_INDEX_P_DIGITS || i == H_INDEX_V_DIGITS) checkDigits(translatedH1[i]);
+            else if(translatedH1[i] < 1 || translatedH1[i] > 63)
+                throw new IllegalArgumentException("Field lengths must be between 1 and 63 inclusively. Header index: "+i+" Received: "+translatedH1[i]);
+        }
+        if(translatedH1[H_INDEX_DATA_LEN] >= (1 << H1_LEN[H_INDEX_DATA_LEN]))
+            throw new IllegalArgumentException("A stick must be less than 512 bits. Received: "+translatedH1[H_INDEX_DATA_LEN]);
+        if(translatedH1[H_INDEX_SYM_LEN] >= (1 << H1_LEN[H_INDEX_SYM_LEN]))
+            throw new IllegalArgumentException("symbol must be at most "+(((1 << H1_LEN[H_INDEX_SYM_LEN]) - 1) >>> 3)+" characters. Received: "+symbol);
+
+        header = new boolean[H1_COUNT + 4][];
+        for(int i=0; i<H1_COUNT; ++i){header[i] = BinaryTools.genBoolArrayFromUnsignedInt(translatedH1[i], H1_LEN[i]);}
+        header[H_INDEX_SYM] = BinaryTools.genBoolArrayFrom8BitCharString(symbol);
+        header[H_INDEX_DATA_CT] = BinaryTools.genBoolArrayFromUnsignedInt(dataCount, translatedH1[H_INDEX_CT_LEN]);
+        header[H_INDEX_BASE_PRICE] = BinaryTools.genBoolArrayFromUnsignedLong(fixedBasePrice, BASE_PRICE_LEN);
+        header[H_INDEX_H_GAP] = new boolean[translatedH1[H_INDEX_H_GAP_LEN]];
+
+        t_h1_freeform = translatedH1[H_INDEX_FREE_FORM];
+        t_h1_int = translatedH1[H_INDEX_INT];
+        t_h1_ct_len = translatedH1[H_INDEX_CT_LEN];
+        t_h1_data_len = translatedH1[H_INDEX_DATA_LEN];
+        t_h1_p_digits = translatedH1[H_INDEX_P_DIGITS];
+        t_h1_v_digits = translatedH1[H_INDEX_V_DIGITS];
+        t_h2_sym = symbol;
+        t_h2_data_ct = dataCount;
+        t_h2_base_price = fixedBasePrice;
+
+        fieldLength = new int[]{
+            translatedH1[H_INDEX_UTC_LEN],
+            translatedH1[H_INDEX_OD_LEN],
+            translatedH1[H_INDEX_HD_LEN],
+            translatedH1[H_INDEX_LD_LEN],
+            translatedH1[H_INDEX_CD_LEN],
+            translatedH1[H_INDEX_V_LEN]
+        };
+        priceDivisor = tenToPow[t_h1_p_digits];
+        volumeDivisor = tenToPow[t_h1_v_digits];
+    }
+
+    /**
+     * Creates a delta price lexical with the minimum field lengths that can represent every stick of {@code dataArray}.
+     * The base price is the Open of the first stick, so the Open delta of the first stick is 0.
+     *
+     * @param symbol The ticker symbol this lexical will represent.
+     * @param interval The interval (in seconds) for each data point.
+     * @param dataArray The sticks that will be written, in order.
+     * @param priceDigits The number of decimal digits of every price. Must be between 0 and {@link #MAX_DIGITS}.
+     * @param volumeDigits The number of decimal digits of the volume. Must be between 0 and {@link #MAX_DIGITS}.
+     * @return a new OHLCV_BinaryDeltaPriceLexical instance that can encode every stick of {@code dataArray}.
+     */
+    public static OHLCV_BinaryDeltaPriceLexical genFittedLexical(String symbol, int interval, StickDouble[] dataArray, byte priceDigits, byte volumeDigits){
+        long priceScale = tenToPow[checkDigits(priceDigits)];
+        long volumeScale = tenToPow[checkDigits(volumeDigits)];
+        long previousClose = dataArray.length == 0 ? 0 : Math.round(dataArray[0].getO() * priceScale);
+        double basePrice = dataArray.length == 0 ? 0 : dataArray[0].getO();
+
+        //Bitwise OR of every value, the highest set bit is the required length.
+        long utcBits = 0, openBits = 0, highBits = 0, lowBits = 0, closeBits = 0, volumeBits = 0;
+        for(StickDouble stick : dataArray){
+            long open = Math.round(stick.getO() * priceScale);
+            utcBits |= stick.getUTC();
+            openBits |= zigZag(open - previousClose);
+            highBits |= zigZag(Math.round(stick.getH() * priceScale) - open);
+            lowBits |= zigZag(Math.round(stick.getL() * priceScale) - open);
+            closeBits |= zigZag(Math.round(stick.getC() * priceScale) - open);
+            volumeBits |= Math.round(stick.getV() * volumeScale);
+            previousClose = Math.round(stick.getC() * priceScale);
+        }
+
+        return new OHLCV_BinaryDeltaPriceLexical(
+            symbol,
+            interval,
+            0,
+            (byte)Math.max(1, 32 - Integer.numberOfLeadingZeros(dataArray.length)),
+            getMinimumLength(utcBits),
+            priceDigits,
+            getMinimumLength(openBits),
+            getMinimumLength(highBits),
+            getMinimumLength(lowBits),
+            getMinimumLength(closeBits),
+            volumeDigits,
+            getMinimumLength(volumeBits),
+            basePrice
+        );
+    }
+
+    /**
+     * Creates an OHLCV_BinaryDeltaPriceLexical instance from a packed header within a {@link ByteBuffer}.
+     * The position, limit and mark of the {@code buffer} are not altered.
+     *
+     * @param buffer The source of the header bits. Absolute indexing is used.
+     * @param startBitIndex The bit index of the first bit of H1 (normally 0).
+     * @return a new OHLCV_BinaryDeltaPriceLexical instance equivalent to the lexical that wrote the header.
+     */
+    public static OHLCV_BinaryDeltaPriceLexical genLexicalFromPackedHeader(ByteBuffer buffer, long startBitIndex){
+        int[] translatedH1 = new int[H1_COUNT];
+        for(int i=0; i<H1_COUNT; ++i){
+            translatedH1[i] = (int)BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, startBitIndex, H1_LEN[i]);
+            startBitIndex += H1_LEN[i];
+        }
+
+        String symbol = BinaryTools.genStringFrom8BitBoolCharRep(BinaryTools.genBoolArrayFromByteBufferSubset(buffer, startBitIndex, translatedH1[H_INDEX_SYM_LEN]));
+        startBitIndex += translatedH1[H_INDEX_SYM_LEN];
+        int dataCount = (int)BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, startBitIndex, translatedH1[H_INDEX_CT_LEN]);
+        startBitIndex += translatedH1[H_INDEX_CT_LEN];
+        long fixedBasePrice = BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, startBitIndex, BASE_PRICE_LEN);
+
+        return new OHLCV_BinaryDeltaPriceLexical(translatedH1, symbol, dataCount, fixedBasePrice);
+    }
+
+    // BinaryLexical Overrides
+    /**
+     * Returns a deep copy of the current state of binary header.
+     * @return A deep copy of the binary header, where each index represents a specific field as defined by {@code H_INDEX_*}.
+     */
+    @Override
+    public boolean[][] getBinaryHeader(){
+        boolean[][] clone = new boolean[header.length][];
+        for(int i=0; i<header.length; ++i){clone[i] = BinaryTools.genClone(header[i]);}
+        return clone;
+    }
+
+    /**
+     * Returns a deep, flattened copy of the current state of binary header.
+     * @return A deep, flattened copy of the binary header as a single one-dimensional boolean array.
+     */
+    @Override
+    public boolean[] getBinaryHeaderFlat(){return BinaryTools.genConcatenatedBoolArrays(header);}
+
+    /**
+     * Returns a single datapoint relative to the base price.
+     * @param singleData A Data Stick that will have all fields converted to boolean array.
+     * @return 2D boolean array that has 6 elements: UTC, Open delta, High delta, Low delta, Close delta, Volume.
+     */
+    @Override
+    public boolean[][] getBinaryData(StickDouble singleData){
+        long[] values = genFieldValues(t_h2_base_price, singleData);
+        boolean[][] r = new boolean[FIELD_COUNT][];
+        for(int f=0; f<FIELD_COUNT; ++f){r[f] = BinaryTools.genBoolArrayFromUnsignedLong(values[f], fieldLength[f]);}
+        return r;
+    }
+
+    /**
+     * Returns a single flattened datapoint relative to the base price.
+     * @param singleData A Data Stick that will have all fields converted to boolean array.
+     * @return A flattened array of {@code getDataBitLength()} bits.
+     */
+    @Override
+    public boolean[] getBinaryDataFlat(StickDouble singleData){return BinaryTools.genConcatenatedBoolArrays(getBinaryData(singleData));}
+
+    /**
+     * Returns an inflated binary array of all Stick elements in the {@code dataArray}.
+     * The Open of the first stick is relative to the base price and every other Open is relative to the previous Close.
+     * @param dataArray An array of elements that will be converted into binary.
+     * @return A 3 dimensional array where the first element is a Stick, the second element is the field and the third element is the bit.
+     */
+    @Override
+    public boolean[][][] getBinaryDataPoints(StickDouble[] dataArray){
+        boolean[][][] r = new boolean[dataArray.length][FIELD_COUNT][];
+        long previousClose = t_h2_base_price;
+
+        for(int i=0; i<dataArray.length; ++i){
+            long[] values = genFieldValues(previousClose, dataArray[i]);
+            for(int f=0; f<FIELD_COUNT; ++f){r[i][f] = BinaryTools.genBoolArrayFromUnsignedLong(values[f], fieldLength[f]);}
+            previousClose = toFixedPrice(dataArray[i].getC());
+        }
+
+        return r;
+    }
+
+    /**
+     * Returns an inflated binary array of all Stick elements in the {@code dataCollection}.
+     * @see #getBinaryDataPoints(StickDouble[])
+     * @param dataCollection A collection of elements that will be converted into binary.
+     * @return A 3 dimensional array where the first element is a Stick, the second element is the field and the third element is the bit.
+     */
+    @Override
+    public boolean[][][] getBinaryDataPoints(Collection<StickDouble> dataCollection){return getBinaryDataPoints(dataCollection.toArray(new StickDouble[0]));}
+
+    /**
+     * Returns a flattened binary array of all Stick elements in the {@code dataArray}.
+     * @see #getBinaryDataPoints(StickDouble[])
+     * @param dataArray An array of elements that will be converted into binary.
+     * @return A flattened array of all datapoints.
+     */
+    @Override
+    public boolean[] getBinaryDataPointsFlat(StickDouble[] dataArray){return BinaryTools.genConcatenatedBoolArrays(getBinaryDataPoints(dataArray));}
+
+    /**
+     * Returns a flattened binary array of all Stick elements in the {@code dataCollection}.
+     * @see #getBinaryDataPoints(StickDouble[])
+     * @param dataCollection A collection of elements that will be converted into binary.
+     * @return A flattened array of all datapoints.
+     */
+    @Override
+    public boolean[] getBinaryDataPointsFlat(Collection<StickDouble> dataCollection){return getBinaryDataPointsFlat(dataCollection.toArray(new StickDouble[0]));}
+
+    /**
+     * Returns a {@link StickDouble} instance from an inflated binary datapoint, relative to the base price.
+     * This is the reverse of {@code getBinaryData}.
+     * @param singleBinaryData A single inflated datapoint.
+     * @return A StickDouble instance.
+     */
+    @Override
+    public StickDouble getRefinedData(boolean[][] singleBinaryData){
+        long[] values = new long[FIELD_COUNT];
+        for(int f=0; f<FIELD_COUNT; ++f){values[f] = BinaryTools.toUnsignedLong(singleBinaryData[f]);}
+        return genStick(t_h2_base_price, values);
+    }
+
+    /**
+     * Returns a {@link StickDouble} instance from a flattened binary datapoint, relative to the base price.
+     * This is the reverse of {@code getBinaryDataFlat}.
+     * @param singleFlatBinaryData A single flattened datapoint.
+     * @return A StickDouble instance.
+     */
+    @Override
+    public StickDouble getRefinedDataFlat(boolean[] singleFlatBinaryData){
+        return genStick(t_h2_base_price, genFieldValues(singleFlatBinaryData, 0));
+    }
+
+    /**
+     * Returns an array of {@link StickDouble} elements from an array of inflated sticks, starting with the first stick of the content.
+     * This is the reverse of {@code getBinaryDataPoints}.
+     * @param binaryDataArray A 3 dimensional array of all datapoints.
+     * @return An array of StickDouble instances.
+     */
+    @Override
+    public StickDouble[] getRefinedDataArray(boolean[][][] binaryDataArray){
+        StickDouble[] r = new StickDouble[binaryDataArray.length];
+        long[] values = new long[FIELD_COUNT];
+        long previousClose = t_h2_base_price;
+
+        for(int i=0; i<r.length; ++i){
+            for(int f=0; f<FIELD_COUNT; ++f){values[f] = BinaryTools.toUnsignedLong(binaryDataArray[i][f]);}
+            r[i] = genStick(previousClose, values);
+            previousClose = getFixedClose(previousClose, values);
+        }
+
+        return r;
+    }
+
+    /**
+     * Returns an array of {@link StickDouble} elements from a flattened array of sticks, starting with the first stick of the content.
+     * This is the reverse of {@code getBinaryDataPointsFlat}.
+     * @param binaryFlatDataArray A flattened array of all datapoints. length be a multiple of {@code getDataBitLength()}.
+     * @return An array of StickDouble instances.
+     */
+    @Override
+    public StickDouble[] getRefinedDataArrayFlat(boolean[] binaryFlatDataArray){
+        StickDouble[] r = new StickDouble[binaryFlatDataArray.length / t_h1_data_len];
+        long previousClose = t_h2_base_price;
+
+        for(int i=0; i<r.length; ++i){
+            long[] values = genFieldValues(binaryFlatDataArray, i * t_h1_data_len);
+            r[i] = genStick(previousClose, values);
+            previousClose = getFixedClose(previousClose, values);
+        }
+
+        return r;
+    }
+
+    // Packed methods
+    /**
+     * Returns all Stick elements in the {@code dataArray} packed consecutively into 64 bit words.
+     * The Open of the first stick is relative to the base price and every other Open is relative to the previous Close.
+     * @param dataArray An array of elements that will be packed.
+     * @return An array of {@code ceil(dataArray.length * getDataBitLength()/64)} words. Unused bits of the last word are 0.
+     */
+    public long[] getBinaryDataPointsPacked(StickDouble[] dataArray){
+        long[] words = new long[(int)(((long)t_h1_data_len * dataArray.length + 63) >>> 6)];
+        long nextBitIndex = 0;
+        long previousClose = t_h2_base_price;
+
+        for(StickDouble stick : dataArray){
+            long[] values = genFieldValues(previousClose, stick);
+            for(int f=0; f<FIELD_COUNT; ++f){
+                BinaryTools.setWordSubsetUnsignedLong(nextBitIndex, fieldLength[f], values[f], words);
+                nextBitIndex += fieldLength[f];
+            }
+            previousClose = toFixedPrice(stick.getC());
+        }
+
+        return words;
+    }
+
+    /**
+     * Packs a single stick into {@code buffer} starting at bit {@code startBitIndex}, relative to the Close of the previous stick.
+     * Absolute indexing is used, the position and limit of {@code buffer} are not altered.
+     * @param stick The stick to be packed.
+     * @param previousClose The Close of the previous stick, or {@link #getBasePrice()} for the first stick of the content.
+     * @param buffer The packed destination. Must be large enough to hold the stick.
+     * @param startBitIndex The bit index of the first bit of the stick.
+     * @throws IllegalArgumentException if a field of {@code stick} does not fit in its length.
+     */
+    public void setPackedDataStick(StickDouble stick, double previousClose, ByteBuffer buffer, long startBitIndex){
+        long[] values = genFieldValues(toFixedPrice(previousClose), stick);
+        for(int f=0; f<FIELD_COUNT; ++f){
+            BinaryTools.setByteBufferSubsetUnsignedLong(startBitIndex, fieldLength[f], values[f], buffer);
+            startBitIndex += fieldLength[f];
+        }
+    }
+
+    /**
+     * Returns an array of {@link StickDouble} elements from consecutive sticks packed into 64 bit words.
+     * @param words The packed source, the first stick of the content starts at bit index 0.
+     * @param dataCount The number of sticks to decode.
+     * @return An array of {@code dataCount} decoded sticks.
+     */
+    public StickDouble[] getRefinedDataArrayPacked(long[] words, int dataCount){
+        StickDouble[] r = new StickDouble[dataCount];
+        long[] values = new long[FIELD_COUNT];
+        long nextBitIndex = 0;
+        long previousClose = t_h2_base_price;
+
+        for(int i=0; i<dataCount; ++i){
+            for(int f=0; f<FIELD_COUNT; ++f){
+                values[f] = BinaryTools.toUnsignedLongFromWordSubset(words, nextBitIndex, fieldLength[f]);
+                nextBitIndex += fieldLength[f];
+            }
+            r[i] = genStick(previousClose, values);
+            previousClose = getFixedClose(previousClose, values);
+        }
+
+        return r;
+    }
+
+    /**
+     * Returns a {@link StickColumns} instance decoded from consecutive sticks packed into a {@link ByteBuffer}.
+     * Absolute indexing is used, the position and limit of {@code buffer} are not altered.
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick.
+     * @param dataCount The number of sticks to decode.
+     * @param previousClose The Close of the stick before the first decoded stick, or {@link #getBasePrice()} when decoding from the first stick of the content.
+     * @return A full {@link StickColumns} of {@code dataCount} decoded sticks.
+     */
+    public StickColumns getRefinedColumnsPacked(ByteBuffer buffer, long startBitIndex, int dataCount, double previousClose){
+        StickColumns r = new StickColumns(dataCount);
+        long fixedPreviousClose = toFixedPrice(previousClose);
+
+        for(int i=0; i<dataCount; ++i){
+            long utc = BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, startBitIndex, fieldLength[FIELD_UTC]);
+            startBitIndex += fieldLength[FIELD_UTC];
+            long open = fixedPreviousClose + unZigZag(BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, startBitIndex, fieldLength[FIELD_O]));
+            startBitIndex += fieldLength[FIELD_O];
+            long high = open + unZigZag(BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, startBitIndex, fieldLength[FIELD_H]));
+            startBitIndex += fieldLength[FIELD_H];
+            long low = open + unZigZag(BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, startBitIndex, fieldLength[FIELD_L]));
+            startBitIndex += fieldLength[FIELD_L];
+            long close = open + unZigZag(BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, startBitIndex, fieldLength[FIELD_C]));
+            startBitIndex += fieldLength[FIELD_C];
+            long volume = BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, startBitIndex, fieldLength[FIELD_V]);
+            startBitIndex += fieldLength[FIELD_V];
+
+            r.add(utc, open/priceDivisor, high/priceDivisor, low/priceDivisor, close/priceDivisor, volume/volumeDivisor);
+            fixedPreviousClose = close;
+        }
+
+        return r;
+    }
+
+    /**
+     * Returns an array of {@link StickDouble} elements from the first {@code dataCount} sticks of the content packed into a {@link ByteBuffer}.
+     * @see #getRefinedColumnsPacked(ByteBuffer, long, int, double)
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick of the content.
+     * @param dataCount The number of sticks to decode.
+     * @return An array of {@code dataCount} decoded sticks.
+     */
+    public StickDouble[] getRefinedDataArrayPacked(ByteBuffer buffer, long startBitIndex, int dataCount){
+        return getRefinedColumnsPacked(buffer, startBitIndex, dataCount, getBasePrice()).genStickArray();
+    }
+
+    /**
+     * @return a deep copy of this lexical.
+     */
+    @Override
+    public OHLCV_BinaryDeltaPriceLexical clone(){
+        synchronized (this){
+            int[] translatedH1 = new int[H1_COUNT];
+            for(int i=0; i<H1_COUNT; ++i){translatedH1[i] = BinaryTools.toUnsignedInt(header[i]);}
+            return new OHLCV_BinaryDeltaPriceLexical(translatedH1, t_h2_sym, t_h2_data_ct, t_h2_base_price);
+        }
+    }
+
+    //Get methods
+    /**
+     * Returns the total number of bits of the header, including the header gap.
+     * @return the total number of bits of the header.
+     */
+    public int getHeaderBitLength(){
+        int r = 0;
+        for(boolean[] field : header){r += field.length;}
+        return r;
+    }
+
+    /**
+     * @return the free form value of the header.
+     */
+    public int getFreeFormValue(){return t_h1_freeform;}
+
+    /**
+     * Returns the interval (seconds) of each data point.
+     * @return the interval (seconds) of each data point.
+     */
+    public int getInterval(){return t_h1_int;}
+
+    /**
+     * Returns the number of bits for each data point.
+     * @return the number of bits for each data point.
+     */
+    public int getDataBitLength(){return t_h1_data_len;}
+
+    /**
+     * Returns the number of decimal digits of every price.
+     * @return the number of decimal digits of every price.
+     */
+    public int getPriceDigits(){return t_h1_p_digits;}
+
+    /**
+     * Returns the number of decimal digits of the volume.
+     * @return the number of decimal digits of the volume.
+     */
+    public int getVolumeDigits(){return t_h1_v_digits;}
+
+    /**
+     * Returns the price the Open of the first stick is relative to.
+     * @return the base price.
+     */
+    public double getBasePrice(){return t_h2_base_price/priceDivisor;}
+
+    /**
+     * Returns the ticker symbol.
+     * @return the ticker symbol.
+     */
+    public String getSymbol(){return t_h2_sym;}
+
+    /**
+     * Returns the number of data points the header represents.
+     * @return the number of data points the header represents.
+     */
+    public int getDataCount(){return t_h2_data_ct;}
+
+    /**
+     * Alters the data count of header. There must be enough count bits to set to the new value.
+     * @param numberOfDataPoints The new number of data points the header represents.
+     */
+    public void setDataCount(int numberOfDataPoints){
+        if(numberOfDataPoints < 0 || (t_h1_ct_len < 31 && numberOfDataPoints >= (1 << t_h1_ct_len)))
+            throw new IllegalArgumentException("numberOfDataPoints must be between 0 and 2^"+t_h1_ct_len+" - 1. Received: "+numberOfDataPoints);
+        t_h2_data_ct = numberOfDataPoints;
+        BinaryTools.setUnsignedIntToBoolArray(numberOfDataPoints, header[H_INDEX_DATA_CT]);
+    }
+
+    //Private helpers
+    private static int checkDigits(int digits){
+        if(digits < 0 || digits > MAX_DIGITS)
+            throw new IllegalArgumentException("The number of digits must be between 0 and "+MAX_DIGITS+" inclusively. Received: "+digits);
+        return digits;
+    }
+
+    private static byte getMinimumLength(long orOfValues){
+        return (byte)Math.max(1, 64 - Long.numberOfLeadingZeros(orOfValues));
+    }
+
+    private static long zigZag(long value){return (value << 1) ^ (value >> 63);}
+
+    private static long unZigZag(long value){return (value >>> 1) ^ -(value & 1);}
+
+    private long toFixedPrice(double price){return Math.round(price * tenToPow[t_h1_p_digits]);}
+
+    //Returns UTC, the zig-zag deltas of O, H, L, C and the fixed point volume of stick.
+    private long[] genFieldValues(long previousClose, StickDouble stick){
+        long open = toFixedPrice(stick.getO());
+        long[] values = new long[]{
+            stick.getUTC(),
+            zigZag(open - previousClose),
+            zigZag(toFixedPrice(stick.getH()) - open),
+            zigZag(toFixedPrice(stick.getL()) - open),
+            zigZag(toFixedPrice(stick.getC()) - open),
+            Math.round(stick.getV() * tenToPow[t_h1_v_digits])
+        };
+
+        for(int f=0; f<FIELD_COUNT; ++f){
+            if(values[f] < 0 || (fieldLength[f] < 64 && (values[f] >>> fieldLength[f]) != 0))
+                throw new IllegalArgumentException("Field "+f+" of stick at UTC "+stick.getUTC()+" does not fit in "+fieldLength[f]+" bits. Encoded value: "+values[f]);
+        }
+        return values;
+    }
+
+    private long[] genFieldValues(boolean[] flat, int startIndex){
+        long[] values = new long[FIELD_COUNT];
+        for(int f=0; f<FIELD_COUNT; ++f){
+            values[f] = BinaryTools.toUnsignedLongFromBoolSubset(flat, startIndex, fieldLength[f]);
+            startIndex += fieldLength[f];
+        }
+        return values;
+    }
+
+    private long getFixedClose(long previousClose, long[] values){
+        return previousClose + unZigZag(values[FIELD_O]) + unZigZag(values[FIELD_C]);
+    }
+
+    private StickDouble genStick(long previousClose, long[] values){
+        long open = previousClose + unZigZag(values[FIELD_O]);
+        return new CandleStickFixedDouble(
+            values[FIELD_UTC],
+            open/priceDivisor,
+            (open + unZigZag(values[FIELD_H]))/priceDivisor,
+            (open + unZigZag(values[FIELD_L]))/priceDivisor,
+            (open + unZigZag(values[FIELD_C]))/priceDivisor,
+            values[FIELD_V]/volumeDivisor
+        );
+    }
+}
@@ -0,0 +1,300 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.lexical.binary;
+
+import tradedatacorp.tools.binarytools.BinaryTools;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An immutable, typed view of the header of an {@link OHLCV_BinaryLexical} file.
+ * <p>The header is parsed once from its packed bytes into translated values and the shared {@link OHLCV_BinaryLayout} of its data points,
+ * so it can be cached and handed between threads and reads of the same file instead of carrying a raw {@code boolean[][]} header.
+ * Packed headers are read field by field as unsigned values, and headers with the same field lengths share a single layout.
+ * The equivalent lexical is only built the first time {@link #genLexical()} or {@link #getBinaryHeader()} is called.</p>
+ */
+public final class OHLCV_BinaryHeader{
+    /**
+     * The number of bytes that always contain H1, {@code ceil(H1_TOTAL_LEN/8)}.
+     */
+    public static final int H1_BYTE_LENGTH = (OHLCV_BinaryLexical.H1_TOTAL_LEN + 7) >>> 3;
+
+    /**
+     * The largest possible number of bytes of a header. H2 is at most 127 symbol bits, 31 data count bits and 7 gap bits.
+     */
+    public static final int MAX_BYTE_LENGTH = (OHLCV_BinaryLexical.H1_TOTAL_LEN + 127 + 31 + 7 + 7) >>> 3;
+
+    private final int[] h1Values; //translated H1 values indexed by OHLCV_BinaryLexical.H_INDEX_*, never mutated or shared
+    private final OHLCV_BinaryLayout layout;
+    private final String symbol;
+    private final int dataCount;
+    private final int headerGapValue;
+    private final int headerBitLength;
+    private final int dataCountBitIndex;
+    private volatile OHLCV_BinaryLexical lexical; //built on first use, never mutated or shared
+
+    private OHLCV_BinaryHeader(int[] h1Values, String symbol, int dataCount, int headerGapValue, OHLCV_BinaryLayout layout, OHLCV_BinaryLexical lexical){
+        this.h1Values = h1Values;
+        this.symbol = symbol;
+        this.dataCount = dataCount;
+        this.headerGapValue = headerGapValue;
+        this.layout = layout != null ? layout : OHLCV_BinaryLayout.getSharedLayout(
+            (byte)h1Values[OHLCV_BinaryLexical.H_INDEX_UTC_LEN],
+            (byte)h1Values[OHLCV_BinaryLexical.H_INDEX_PW_LEN],
+            (byte)h1Values[OHLCV_BinaryLexical.H_INDEX_PF_LEN],
+            (byte)h1Values[OHLCV_BinaryLexical.H_INDEX_VW_LEN],
+            (byte)h1Values[OHLCV_BinaryLexical.H_INDEX_VF_LEN],
+            OHLCV_BinaryLexical.getMaxFractionDigits(h1Values[OHLCV_BinaryLexical.H_INDEX_PF_LEN]),
+            OHLCV_BinaryLexical.getMaxFractionDigits(h1Values[OHLCV_BinaryLexical.H_INDEX_VF_LEN])
+        );
+        this.lexical = lexical;
+
+        dataCountBitIndex = OHLCV_BinaryLexical.H1_TOTAL_LEN + h1Values[OHLCV_BinaryLexical.H_INDEX_SYM_LEN];
+        headerBitLength = dataCountBitIndex + h1Values[OHLCV_BinaryLexical.H_INDEX_CT_LEN] + h1Values[OHLCV_BinaryLexical.H_INDEX_H_GAP_LEN];
+    }
+
+    /**
+     * Creates a header from the current state of {@code lexical}. Later changes to {@code lexical} do not alter the header.
+     *
+     * @param lexical The lexical whose header will be copied.
+     * @return a new OHLCV_BinaryHeader instance.
+     */
+    public static OHLCV_BinaryHeader genHeaderFromLexical(OHLCV_BinaryLexical lexical){
+        OHLCV_BinaryLexical copy = lexical.clone();
+        boolean[][] binaryHeader = copy.getBinaryHeader();
+        return new OHLCV_BinaryHeader(
+            genH1Values(binaryHeader),
+            copy.getSymbol(),
+            copy.getDataCount(),
+            toUnsignedInt(binaryHeader[OHLCV_BinaryLexical.H_INDEX_H_GAP]),
+            copy.getLayout(),
+            copy
+        );
+    }
+
+    /**
+     * Creates a header from a binary header, as returned by {@link OHLCV_BinaryLexical#getBinaryHeader()}.
+     *
+     * @param binaryHeader The binary header, where each index represents a field as defined by {@code OHLCV_BinaryLexical.H_INDEX_*}.
+     * @return a new OHLCV_BinaryHeader instance.
+     */
+    public static OHLCV_BinaryHeader genHeaderFromBinaryHeader(boolean[][] binaryHeader){
+        return new OHLCV_BinaryHeader(
+            genH1Values(binaryHeader),
+            BinaryTools.genStringFrom8BitBoolCharRep(binaryHeader[OHLCV_BinaryLexical.H_INDEX_SYM]),
+            toUnsignedInt(binaryHeader[OHLCV_BinaryLexical.H_INDEX_DATA_CT]),
+            toUnsignedInt(binaryHeader[OHLCV_BinaryLexical.H_INDEX_H_GAP]),
+            null,
+            null
+        );
+    }
+
+    /**
+     * Parses a header directly from its packed bytes. The position, limit and mark of the {@code buffer} are not altered.
+     * Every field is read as an unsigned value straight from {@code buffer}, no binary header or lexical is built.
+     *
+     * @param buffer The source of the header bits. Absolute indexing is used.
+     * @param startBitIndex The bit index of the first bit of H1 (normally 0).
+     * @return a new OHLCV_BinaryHeader instance.
+     */
+    public static OHLCV_BinaryHeader genHeaderFromPackedBytes(ByteBuffer buffer, long startBitIndex){
+        int[] h1Values = new int[OHLCV_BinaryLexical.H1_COUNT];
+        for(int i=0; i<OHLCV_BinaryLexical.H1_COUNT; ++i){
+            int length = OHLCV_BinaryLexical.getHeader1BitLength(i);
+            h1Values[i] = (int)BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, startBitIndex, length);
+            startBitIndex += length;
+        }
+
+        //8 bits per character, trailing bits of a partial character are ignored the same as genStringFrom8BitBoolCharRep.
+        int symbolBitLength = h1Values[OHLCV_BinaryLexical.H_INDEX_SYM_LEN];
+        char[] symbol = new char[symbolBitLength >>> 3];
+        for(int i=0; i<symbol.length; ++i){
+            symbol[i] = (char)BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, startBitIndex + (i << 3), 8);
+        }
+        startBitIndex += symbolBitLength;
+
+        int dataCountBitLength = h1Values[OHLCV_BinaryLexical.H_INDEX_CT_LEN];
+        int dataCount = (int)BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, startBitIndex, dataCountBitLength);
+        startBitIndex += dataCountBitLength;
+        int headerGapValue = (int)BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, startBitIndex, h1Values[OHLCV_BinaryLexical.H_INDEX_H_GAP_LEN]);
+
+        return new OHLCV_BinaryHeader(h1Values, new String(symbol), dataCount, headerGapValue, null, null);
+    }
+
+    /**
+     * Packs this header into {@code buffer} with {@code dataCount} as the data count, the inverse of {@link #genHeaderFromPackedBytes}.
+     * Every H1 field, the data count and the header gap are written with a single unsigned write each, the symbol with one write per character.
+     * Only the bits of the header are altered, neighbouring bits are preserved.
+     *
+     * @param buffer The destination. Absolute indexing is used, the position and limit are not altered.
+     * @param startBitIndex The bit index of the first bit of H1.
+     * @param dataCount The value written to the data count field (h2_data_ct), only its low {@link #getDataCountBitLength()} bits are kept the same as {@link OHLCV_BinaryLexical#genBinaryHeaderFlat(int)}.
+     * @return the bit index after the last bit of the header.
+     * @throws IllegalArgumentException if {@code dataCount} is negative.
+     */
+    public long setPackedHeader(ByteBuffer buffer, long startBitIndex, long dataCount){
+        if(dataCount < 0)
+            throw new IllegalArgumentException("dataCount must be greater than or equal to 0. Received: "+dataCount);
+
+        for(int i=0; i<OHLCV_BinaryLexical.H1_COUNT; ++i){
+            int length = OHLCV_BinaryLexical.getHeader1BitLength(i);
+            BinaryTools.setByteBufferSubsetUnsignedLong(startBitIndex, length, h1Values[i], buffer);
+            startBitIndex += length;
+        }
+
+        //8 bits per character, a partial trailing character keeps its leading bits the same as the binary header.
+        int symbolBitLength = h1Values[OHLCV_BinaryLexical.H_INDEX_SYM_LEN];
+        for(int i=0; i<symbolBitLength; i += 8){
+            int length = Math.min(8, symbolBitLength - i);
+            int character = (i >>> 3) < symbol.length() ? symbol.charAt(i >>> 3) & 0xFF : 0;
+            BinaryTools.setByteBufferSubsetUnsignedLong(startBitIndex + i, length, character >>> (8 - length), buffer);
+        }
+        startBitIndex += symbolBitLength;
+
+        int dataCountBitLength = getDataCountBitLength();
+        BinaryTools.setByteBufferSubsetUnsignedLong(startBitIndex, dataCountBitLength, dataCount, buffer);
+        startBitIndex += dataCountBitLength;
+        int gapBitLength = h1Values[OHLCV_BinaryLexical.H_INDEX_H_GAP_LEN];
+        BinaryTools.setByteBufferSubsetUnsignedLong(startBitIndex, gapBitLength, headerGapValue, buffer);
+        return startBitIndex + gapBitLength;
+    }
+
+    /**
+     * Returns the total number of header bytes given only the first {@link #H1_BYTE_LENGTH} bytes of a header.
+     * This lets a stream reader read exactly the bytes of the header before parsing it.
+     *
+     * @param h1Bytes A buffer holding at least the first {@link #H1_BYTE_LENGTH} bytes of the header at absolute index 0.
+     * @return {@code ceil(headerBitLength/8)}.
+     */
+    public static int getByteLengthFromH1(ByteBuffer h1Bytes){
+        long bitIndex = 0;
+        int h2BitLength = 0;
+        for(int i=0; i<OHLCV_BinaryLexical.H1_COUNT; ++i){
+            int length = OHLCV_BinaryLexical.getHeader1BitLength(i);
+            if(i == OHLCV_BinaryLexical.H_INDEX_CT_LEN || i == OHLCV_BinaryLexical.H_INDEX_H_GAP_LEN || i == OHLCV_BinaryLexical.H_INDEX_SYM_LEN){
+                h2BitLength += (int)BinaryTools.toUnsignedLongFromByteBufferSubset(h1Bytes, bitIndex, length);
+            }
+            bitIndex += length;
+        }
+        return (OHLCV_BinaryLexical.H1_TOTAL_LEN + h2BitLength + 7) >>> 3;
+    }
+
+    /**
+     * Returns a new lexical equivalent to the lexical that wrote this header.
+     * @return a new, independent OHLCV_BinaryLexical instance.
+     */
+    public OHLCV_BinaryLexical genLexical(){return getLexical().clone();}
+
+    /**
+     * Returns a deep copy of the binary header.
+     * @return A deep copy of the binary header, where each index represents a field as defined by {@code OHLCV_BinaryLexical.H_INDEX_*}.
+     */
+    public boolean[][] getBinaryHeader(){return getLexical().getBinaryHeader();}
+
+    /**
+     * Returns the immutable layout of every data point of the file.
+     * @return the layout of every data point.
+     */
+    public OHLCV_BinaryLayout getLayout(){return layout;}
+
+    /**
+     * Returns the ticker symbol.
+     * @return the ticker symbol.
+     */
+    public String getSymbol(){return symbol;}
+
+    /**
+     * Returns the interval (seconds) of each data point.
+     * @return the interval (seconds) of each data point.
+     */
+    public int getInterval(){return h1Values[OHLCV_BinaryLexical.H_INDEX_INT];}
+
+    /**
+     * Returns the free form value set by the writer of the file.
+     * @return the free form value.
+     */
+    public byte getFreeFormValue(){return (byte)h1Values[OHLCV_BinaryLexical.H_INDEX_FREE_FORM];}
+
+    /**
+     * Returns the number of data points the header represents.
+     * @return the number of data points the header represents.
+     */
+    public int getDataCount(){return dataCount;}
+
+    /**
+     * Returns the bit index of the data count field (h2_data_ct) from the start of the header.
+     * Used to patch the data count in place when data points are appended to a file.
+     * @return the bit index of the data count field.
+     */
+    public int getDataCountBitIndex(){return dataCountBitIndex;}
+
+    /**
+     * Returns the number of bits of the data count field (h2_data_ct). The data count must be less than {@code 2^getDataCountBitLength()}.
+     * @return the number of bits of the data count field.
+     */
+    public int getDataCountBitLength(){return h1Values[OHLCV_BinaryLexical.H_INDEX_CT_LEN];}
+
+    /**
+     * Returns the total number of bits of the header, the first data point starts at this bit index.
+     * @return the total number of bits of the header.
+     */
+    public int getHeaderBitLength(){return headerBitLength;}
+
+    /**
+     * Returns the number of bytes that contain at least 1 bit of the header.
+     * @return {@code ceil(getHeaderBitLength()/8)}.
+     */
+    public int getHeaderByteLength(){return (headerBitLength + 7) >>> 3;}
+
+    /**
+     * Returns the total number of bits of a single data point.
+     * @return the number of bits of a single data point.
+     */
+    public int getDataBitLength(){return layout.getDataBitLength();}
+
+    //Private helpers
+    private static int[] genH1Values(boolean[][] binaryHeader){
+        int[] h1Values = new int[OHLCV_BinaryLexical.H1_COUNT];
+        for(int i=0; i<OHLCV_BinaryLexical.H1_COUNT; ++i){h1Values[i] = toUnsignedInt(binaryHeader[i]);}
+        return h1Values;
+    }
+
+    //An empty field (such as a 0 bit header gap) is 0.
+    private static int toUnsignedInt(boolean[] field){
+        return field.length == 0 ? 0 : BinaryTools.toUnsignedInt(field);
+    }
+
+    //A benign race, concurrent first calls may each build an equal lexical.
+    private OHLCV_BinaryLexical getLexical(){
+        OHLCV_BinaryLexical r = lexical;
+        if(r == null) lexical = r = genLexicalFromValues();
+        return r;
+    }
+
+    private OHLCV_BinaryLexical genLexicalFromValues(){
+        boolean[][] binH1 = new boolean[OHLCV_BinaryLexical.H1_COUNT][];
+        for(int i=0; i<OHLCV_BinaryLexical.H1_COUNT; ++i){
+            binH1[i] = BinaryTools.genBoolArrayFromUnsignedInt(h1Values[i], OHLCV_BinaryLexical.getHeader1BitLength(i));
+        }
+
+        return new OHLCV_BinaryLexical(
+            binH1[OHLCV_BinaryLexical.H_INDEX_FREE_FORM],
+            binH1[OHLCV_BinaryLexical.H_INDEX_INT],
+            binH1[OHLCV_BinaryLexical.H_INDEX_CT_LEN],
+            binH1[OHLCV_BinaryLexical.H_INDEX_DATA_LEN],
+            binH1[OHLCV_BinaryLexical.H_INDEX_H_GAP_LEN],
+            binH1[OHLCV_BinaryLexical.H_INDEX_UTC_LEN],
+            binH1[OHLCV_BinaryLexical.H_INDEX_PW_LEN],
+            binH1[OHLCV_BinaryLexical.H_INDEX_PF_LEN],
+            binH1[OHLCV_BinaryLexical.H_INDEX_VW_LEN],
+            binH1[OHLCV_BinaryLexical.H_INDEX_VF_LEN],
+            binH1[OHLCV_BinaryLexical.H_INDEX_SYM_LEN],
+            Arrays.copyOf(BinaryTools.genBoolArrayFrom8BitCharString(symbol), h1Values[OHLCV_BinaryLexical.H_INDEX_SYM_LEN]),
+            BinaryTools.genBoolArrayFromUnsignedInt(dataCount, h1Values[OHLCV_BinaryLexical.H_INDEX_CT_LEN]),
+            BinaryTools.genBoolArrayFromUnsignedInt(headerGapValue, h1Values[OHLCV_BinaryLexical.H_INDEX_H_GAP_LEN])
+        );
+    }
+}
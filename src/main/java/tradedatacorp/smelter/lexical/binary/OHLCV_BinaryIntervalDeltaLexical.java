@@ -0,0 +1,483 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.lexical.binary;
+
+import tradedatacorp.tools.binarytools.BinaryTools;
+import tradedatacorp.tools.stick.StickColumns;
+import tradedatacorp.tools.stick.primitive.StickDouble;
+import tradedatacorp.tools.stick.primitive.CandleStickFixedDouble;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+/**
+ * <p>A variant of {@link OHLCV_BinaryLexical} where each stick does not carry its full UTC timestamp.
+ * The UTC of the first stick is stored once in the header as the base UTC, and the UTC field of every stick stores
+ * the number of intervals ({@code h1_int}) since the previous stick (the first stick is relative to the base UTC).
+ * For a gapless series every stick stores the same small count, so the UTC field shrinks from 44 bits (Standard) to a few bits.</p>
+ * <p>All other fields, lengths and the bit order of data points are identical to {@link OHLCV_BinaryLexical},
+ * and the field {@code h1_utc_len} is the bit length of the interval count.
+ * The header is the {@link OHLCV_BinaryLexical} header with a single additional field before the header gap:</p>
+ * <table>
+ * <caption>Additional Header Field</caption>
+ * <tr><th>Field</th><th>Bit Length</th><th>Full Name</th><th>Description</th></tr>
+ * <tr><td>h2_base_utc</td><td>64</td><td>Base UTC</td><td>The unsigned UTC timestamp (milliseconds) the interval count of the first stick is relative to.</td></tr>
+ * </table>
+ * <p>The interval is in seconds and UTC values are in milliseconds, so one interval is {@code h1_int * 1000} UTC units.
+ * Every UTC must be on the interval grid of the previous stick and sticks must be in ascending UTC order.
+ * Since each UTC depends on the previous stick, data points must be decoded in order from a known previous UTC.
+ * Single data point methods are relative to the base UTC.</p>
+ * <p>Content written with this lexical is NOT readable by {@link OHLCV_BinaryLexical} readers.</p>
+ */
+public class OHLCV_BinaryIntervalDeltaLexical implements BinaryLexical<StickDouble>, Cloneable{
+    /**
+     * The number of bits of the base UTC header field.
+     */
+    public static final byte BASE_UTC_LEN = 64;
+
+    /**
+     * The index of the base UTC field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_BASE_UTC = 13;
+
+    /**
+     * The index of the header gap field within {@code getBinaryHeader()}.
+     */
+    public static final byte H_INDEX_H_GAP = 14;
+
+    private static final long UTC_PER_INTERVAL_SECOND = 1000L;
+
+    private OHLCV_BinaryLexical layout; //The UTC field of this layout holds the interval count.
+    private long baseUTC;
+    private long utcPerInterval;
+    private long maxIntervalDelta;
+
+    /**
+     * Constructs an interval delta lexical from an existing layout.
+     * The UTC length of {@code layout} is the bit length of the interval count of every stick.
+     * The header gap of {@code layout} is kept, the base UTC field is a multiple of 8 bits so byte alignment is unchanged.
+     *
+     * @param layout The field lengths, symbol and interval. A copy is kept.
+     * @param baseUTC The UTC timestamp (milliseconds) the first stick is relative to.
+     * @throws IllegalArgumentException if the interval of {@code layout} is not positive or the UTC length is 0.
+     */
+    public OHLCV_BinaryIntervalDeltaLexical(OHLCV_BinaryLexical layout, long baseUTC){
+        if(layout.getInterval() <= 0)
+            throw new IllegalArgumentException("interval must be greater than 0. Received: "+layout.getInterval());
+        byte deltaLen = (byte)BinaryTools.toUnsignedInt(layout.getBinaryHeader()[OHLCV_BinaryLexical.H_INDEX_UTC_LEN]);
+        if(deltaLen == 0)
+            throw new IllegalArgumentException("The UTC (interval count) length must be greater than 0.");
+
+        this.layout = layout.clone();
+        this.baseUTC = baseUTC;
+        utcPerInterval = layout.getInterval() * UTC_PER_INTERVAL_SECOND;
+        maxIntervalDelta = deltaLen == 64 ? Long.MAX_VALUE : (1L << deltaLen) - 1;
+    }
+
+    /**
+     * Creates an interval delta lexical with the Standard price and volume lengths (31/15 bits for OHLC, and 31/15 for volume).
+     * The header gap is calculated so the data section starts on a byte boundary.
+     *
+     * @param symbol The ticker symbol this lexical will represent.
+     * @param interval The interval (in seconds) for each data point.
+     * @param baseUTC The UTC timestamp (milliseconds) the first stick is relative to.
+     * @param deltaLength The number of bits of the interval count. The largest gap between 2 sticks is {@code 2^deltaLength - 1} intervals.
+     * @return a new OHLCV_BinaryIntervalDeltaLexical instance.
+     */
+    public static OHLCV_BinaryIntervalDeltaLexical genStandardIntervalDeltaLexical(String symbol, int interval, long baseUTC, byte deltaLength){
+        OHLCV_BinaryLexical layout = new OHLCV_BinaryLexical(
+            (byte)0, // byte T_freeform,
+            (byte)16, //int T_ct_len That is 65535 maximum stick data
+            interval, // int T_int,
+            (byte)0, // byte T_h_gap_len, calculated below
+            deltaLength, // byte T_utc_len, interval count
+            (byte)31, // byte T_pw_len,
+            (byte)15, // byte T_pf_len,
+            (byte)31, // byte T_vw_len,
+            (byte)15, // byte T_vf_len,
+            symbol // String T_sym
+        );
+        int remainder = (layout.getHeaderBitLength() + BASE_UTC_LEN) % 8;
+        layout.setHeaderGap((byte)(remainder == 0 ? 0 : 8 - remainder));
+        return new OHLCV_BinaryIntervalDeltaLexical(layout, baseUTC);
+    }
+
+    /**
+     * Creates an interval delta lexical with the Standard price and volume lengths, where the base UTC is the UTC of the first stick
+     * and the interval count length is the minimum needed for the largest gap within {@code dataArray}.
+     *
+     * @param symbol The ticker symbol this lexical will represent.
+     * @param interval The interval (in seconds) for each data point.
+     * @param dataArray The sticks that will be written, in ascending UTC order.
+     * @return a new OHLCV_BinaryIntervalDeltaLexical instance that can encode every stick of {@code dataArray}.
+     * @throws IllegalArgumentException if a stick is not in ascending order or not on the interval grid of the previous stick.
+     */
+    public static OHLCV_BinaryIntervalDeltaLexical genStandardIntervalDeltaLexical(String symbol, int interval, StickDouble[] dataArray){
+        if(interval <= 0) throw new IllegalArgumentException("interval must be greater than 0. Received: "+interval);
+        long step = interval * UTC_PER_INTERVAL_SECOND;
+        long base = dataArray.length == 0 ? 0 : dataArray[0].getUTC();
+        long previousUTC = base;
+        long maxDelta = 1;
+
+        for(StickDouble stick : dataArray){
+            long difference = stick.getUTC() - previousUTC;
+            if(difference < 0 || difference % step != 0)
+                throw new IllegalArgumentException("UTC "+stick.getUTC()+" is not a whole number of intervals after the previous UTC "+previousUTC);
+            maxDelta = Math.max(maxDelta, difference / step);
+            previousUTC = stick.getUTC();
+        }
+
+        return genStandardIntervalDeltaLexical(symbol, interval, base, (byte)(64 - Long.numberOfLeadingZeros(maxDelta)));
+    }
+
+    /**
+     * Creates an OHLCV_BinaryIntervalDeltaLexical instance from a packed header within a {@link ByteBuffer}.
+     * The position, limit and mark of the {@code buffer} are not altered.
+     *
+     * @param buffer The source of the header bits. Absolute indexing is used.
+     * @param startBitIndex The bit index of the first bit of H1 (normally 0).
+     * @return a new OHLCV_BinaryIntervalDeltaLexical instance equivalent to the lexical that wrote the header.
+     */
+    public static OHLCV_BinaryIntervalDeltaLexical genLexicalFromPackedHeader(ByteBuffer buffer, long startBitIndex){
+        //The gap length is known from H1, only the position of the gap differs from OHLCV_BinaryLexical.
+        OHLCV_BinaryLexical layout = OHLCV_BinaryLexical.genLexicalFromPackedHeader(buffer, startBitIndex);
+        int gapLength = layout.getBinaryHeader()[OHLCV_BinaryLexical.H_INDEX_H_GAP].length;
+        long baseUTC = BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, startBitIndex + layout.getHeaderBitLength() - gapLength, BASE_UTC_LEN);
+        return new OHLCV_BinaryIntervalDeltaLexical(layout, baseUTC);
+    }
+
+    // BinaryLexical Overrides
+    /**
+     * Returns a deep copy of the current state of binary header.
+     * @return A deep copy of the binary header. Indexes 0 to 12 are the same as {@link OHLCV_BinaryLexical}, followed by {@link #H_INDEX_BASE_UTC} and {@link #H_INDEX_H_GAP}.
+     */
+    @Override
+    public boolean[][] getBinaryHeader(){
+        boolean[][] layoutHeader = layout.getBinaryHeader();
+        boolean[][] r = new boolean[layoutHeader.length + 1][];
+
+        for(int i=0; i<OHLCV_BinaryLexical.H_INDEX_H_GAP; ++i){r[i] = layoutHeader[i];}
+        r[H_INDEX_BASE_UTC] = BinaryTools.genBoolArrayFromUnsignedLong(baseUTC, BASE_UTC_LEN);
+        r[H_INDEX_H_GAP] = layoutHeader[OHLCV_BinaryLexical.H_INDEX_H_GAP];
+
+        return r;
+    }
+
+    /**
+     * Returns a deep, flattened copy of the current state of binary header.
+     * @return A deep, flattened copy of the binary header as a single one-dimensional boolean array.
+     */
+    @Override
+    public boolean[] getBinaryHeaderFlat(){return BinaryTools.genConcatenatedBoolArrays(getBinaryHeader());}
+
+    /**
+     * Returns a single datapoint where the UTC field is the number of intervals since the base UTC.
+     * @param singleData A Data Stick that will have all fields converted to boolean array.
+     * @return 2D boolean array that has 11 elements IAW the {@link OHLCV_BinaryLexical} Data Point Fields.
+     */
+    @Override
+    public boolean[][] getBinaryData(StickDouble singleData){return layout.getBinaryData(genIntervalDeltaStick(baseUTC, singleData));}
+
+    /**
+     * Returns a single flattened datapoint where the UTC field is the number of intervals since the base UTC.
+     * @param singleData A Data Stick that will have all fields converted to boolean array.
+     * @return A flattened array of {@code getDataBitLength()} bits.
+     */
+    @Override
+    public boolean[] getBinaryDataFlat(StickDouble singleData){return layout.getBinaryDataFlat(genIntervalDeltaStick(baseUTC, singleData));}
+
+    /**
+     * Returns an inflated binary array of all Stick elements in the {@code dataArray}.
+     * The first stick is relative to the base UTC and every other stick is relative to the previous stick.
+     * @param dataArray An array of elements in ascending UTC order.
+     * @return A 3 dimensional array IAW {@link OHLCV_BinaryLexical#getBinaryDataPoints(StickDouble[])}.
+     */
+    @Override
+    public boolean[][][] getBinaryDataPoints(StickDouble[] dataArray){return layout.getBinaryDataPoints(genIntervalDeltaSticks(dataArray));}
+
+    /**
+     * Returns an inflated binary array of all Stick elements in the {@code dataCollection}.
+     * The first stick is relative to the base UTC and every other stick is relative to the previous stick.
+     * @param dataCollection A collection of elements in ascending UTC order.
+     * @return A 3 dimensional array IAW {@link OHLCV_BinaryLexical#getBinaryDataPoints(Collection)}.
+     */
+    @Override
+    public boolean[][][] getBinaryDataPoints(Collection<StickDouble> dataCollection){return getBinaryDataPoints(dataCollection.toArray(new StickDouble[0]));}
+
+    /**
+     * Returns a flattened binary array of all Stick elements in the {@code dataArray}.
+     * The first stick is relative to the base UTC and every other stick is relative to the previous stick.
+     * @param dataArray An array of elements in ascending UTC order.
+     * @return A flattened array of all datapoints.
+     */
+    @Override
+    public boolean[] getBinaryDataPointsFlat(StickDouble[] dataArray){return layout.getBinaryDataPointsFlat(genIntervalDeltaSticks(dataArray));}
+
+    /**
+     * Returns a flattened binary array of all Stick elements in the {@code dataCollection}.
+     * The first stick is relative to the base UTC and every other stick is relative to the previous stick.
+     * @param dataCollection A collection of elements in ascending UTC order.
+     * @return A flattened array of all datapoints.
+     */
+    @Override
+    public boolean[] getBinaryDataPointsFlat(Collection<StickDouble> dataCollection){return getBinaryDataPointsFlat(dataCollection.toArray(new StickDouble[0]));}
+
+    /**
+     * Returns a {@link StickDouble} instance from an inflated binary datapoint, relative to the base UTC.
+     * This is the reverse of {@code getBinaryData}.
+     * @param singleBinaryData A single inflated datapoint.
+     * @return A StickDouble instance.
+     */
+    @Override
+    public StickDouble getRefinedData(boolean[][] singleBinaryData){return genAbsoluteStick(baseUTC, layout.getRefinedData(singleBinaryData));}
+
+    /**
+     * Returns a {@link StickDouble} instance from a flattened binary datapoint, relative to the base UTC.
+     * This is the reverse of {@code getBinaryDataFlat}.
+     * @param singleFlatBinaryData A single flattened datapoint.
+     * @return A StickDouble instance.
+     */
+    @Override
+    public StickDouble getRefinedDataFlat(boolean[] singleFlatBinaryData){return genAbsoluteStick(baseUTC, layout.getRefinedDataFlat(singleFlatBinaryData));}
+
+    /**
+     * Returns an array of {@link StickDouble} elements from an array of inflated sticks.
+     * This is the reverse of {@code getBinaryDataPoints}.
+     * @param binaryDataArray A 3 dimensional array of all datapoints, starting with the first stick of the content.
+     * @return An array of StickDouble instances.
+     */
+    @Override
+    public StickDouble[] getRefinedDataArray(boolean[][][] binaryDataArray){
+        StickDouble[] r = new StickDouble[binaryDataArray.length];
+        long previousUTC = baseUTC;
+
+        for(int i=0; i<r.length; ++i){
+            r[i] = genAbsoluteStick(previousUTC, layout.getRefinedData(binaryDataArray[i]));
+            previousUTC = r[i].getUTC();
+        }
+
+        return r;
+    }
+
+    /**
+     * Returns an array of {@link StickDouble} elements from a flattened array of sticks.
+     * This is the reverse of {@code getBinaryDataPointsFlat}.
+     * @param binaryFlatDataArray A flattened array of all datapoints, starting with the first stick of the content.
+     * @return An array of StickDouble instances.
+     */
+    @Override
+    public StickDouble[] getRefinedDataArrayFlat(boolean[] binaryFlatDataArray){
+        StickDouble[] r = layout.getRefinedDataArrayFlat(binaryFlatDataArray);
+        long previousUTC = baseUTC;
+
+        for(int i=0; i<r.length; ++i){
+            r[i] = genAbsoluteStick(previousUTC, r[i]);
+            previousUTC = r[i].getUTC();
+        }
+
+        return r;
+    }
+
+    // Packed methods
+    /**
+     * Returns all Stick elements in the {@code dataArray} packed consecutively into 64 bit words.
+     * The first stick is relative to the base UTC and every other stick is relative to the previous stick.
+     * @param dataArray An array of elements in ascending UTC order.
+     * @return An array of {@code ceil(dataArray.length * getDataBitLength()/64)} words. Unused bits of the last word are 0.
+     */
+    public long[] getBinaryDataPointsPacked(StickDouble[] dataArray){return layout.getBinaryDataPointsPacked(genIntervalDeltaSticks(dataArray));}
+
+    /**
+     * Packs a single stick into {@code buffer} starting at bit {@code startBitIndex}, relative to the UTC of the previous stick.
+     * Absolute indexing is used, the position and limit of {@code buffer} are not altered.
+     * @param stick The stick to be packed.
+     * @param previousUTC The UTC of the previous stick, or the base UTC for the first stick of the content.
+     * @param buffer The packed destination. Must be large enough to hold the stick.
+     * @param startBitIndex The bit index of the first bit of the stick.
+     * @throws IllegalArgumentException if {@code stick} cannot be represented relative to {@code previousUTC}.
+     */
+    public void setPackedDataStick(StickDouble stick, long previousUTC, ByteBuffer buffer, long startBitIndex){
+        layout.setPackedDataStick(genIntervalDeltaStick(previousUTC, stick), buffer, startBitIndex);
+    }
+
+    /**
+     * Returns an array of {@link StickDouble} elements from consecutive sticks packed into 64 bit words.
+     * @param words The packed source, the first stick of the content starts at bit index 0.
+     * @param dataCount The number of sticks to decode.
+     * @return An array of {@code dataCount} decoded sticks.
+     */
+    public StickDouble[] getRefinedDataArrayPacked(long[] words, int dataCount){
+        StickDouble[] r = layout.getRefinedDataArrayPacked(words, dataCount);
+        long previousUTC = baseUTC;
+
+        for(int i=0; i<r.length; ++i){
+            r[i] = genAbsoluteStick(previousUTC, r[i]);
+            previousUTC = r[i].getUTC();
+        }
+
+        return r;
+    }
+
+    /**
+     * Returns a {@link StickColumns} instance decoded from consecutive sticks packed into a {@link ByteBuffer}.
+     * The interval counts are bulk decoded into the UTC column and then converted to UTC values with a single running sum.
+     * Absolute indexing is used, the position and limit of {@code buffer} are not altered.
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick.
+     * @param dataCount The number of sticks to decode.
+     * @param previousUTC The UTC of the stick before the first decoded stick, or the base UTC when decoding from the first stick of the content.
+     * @return A full {@link StickColumns} of {@code dataCount} decoded sticks.
+     */
+    public StickColumns getRefinedColumnsPacked(ByteBuffer buffer, long startBitIndex, int dataCount, long previousUTC){
+        StickColumns r = layout.getRefinedColumnsPacked(buffer, startBitIndex, dataCount);
+        long[] utc = r.UTC;
+
+        for(int i=0; i<dataCount; ++i){
+            previousUTC += utc[i] * utcPerInterval;
+            utc[i] = previousUTC;
+        }
+
+        return r;
+    }
+
+    /**
+     * Returns a {@link StickColumns} instance decoded from the first {@code dataCount} sticks of the content.
+     * @see #getRefinedColumnsPacked(ByteBuffer, long, int, long)
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick of the content.
+     * @param dataCount The number of sticks to decode.
+     * @return A full {@link StickColumns} of {@code dataCount} decoded sticks.
+     */
+    public StickColumns getRefinedColumnsPacked(ByteBuffer buffer, long startBitIndex, int dataCount){
+        return getRefinedColumnsPacked(buffer, startBitIndex, dataCount, baseUTC);
+    }
+
+    /**
+     * Returns an array of {@link StickDouble} elements from consecutive sticks packed into a {@link ByteBuffer}.
+     * @see #getRefinedColumnsPacked(ByteBuffer, long, int, long)
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick.
+     * @param dataCount The number of sticks to decode.
+     * @param previousUTC The UTC of the stick before the first decoded stick, or the base UTC when decoding from the first stick of the content.
+     * @return An array of {@code dataCount} decoded sticks.
+     */
+    public StickDouble[] getRefinedDataArrayPacked(ByteBuffer buffer, long startBitIndex, int dataCount, long previousUTC){
+        return getRefinedColumnsPacked(buffer, startBitIndex, dataCount, previousUTC).genStickArray();
+    }
+
+    /**
+     * Returns an array of {@link StickDouble} elements from the first {@code dataCount} sticks of the content.
+     * @see #getRefinedColumnsPacked(ByteBuffer, long, int, long)
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick of the content.
+     * @param dataCount The number of sticks to decode.
+     * @return An array of {@code dataCount} decoded sticks.
+     */
+    public StickDouble[] getRefinedDataArrayPacked(ByteBuffer buffer, long startBitIndex, int dataCount){
+        return getRefinedDataArrayPacked(buffer, startBitIndex, dataCount, baseUTC);
+    }
+
+    /**
+     * @return a deep copy of this lexical.
+     */
+    @Override
+    public OHLCV_BinaryIntervalDeltaLexical clone(){
+        synchronized (this){
+            return new OHLCV_BinaryIntervalDeltaLexical(layout, baseUTC);
+        }
+    }
+
+    //Get methods
+    /**
+     * Returns the UTC timestamp (milliseconds) the first stick is relative to.
+     * @return the base UTC.
+     */
+    public long getBaseUTC(){return baseUTC;}
+
+    /**
+     * Returns the number of UTC units (milliseconds) of a single interval.
+     * @return the number of milliseconds of a single interval.
+     */
+    public long getUTCPerInterval(){return utcPerInterval;}
+
+    /**
+     * Returns the largest number of intervals between 2 consecutive sticks that can be represented.
+     * @return the largest representable interval count.
+     */
+    public long getMaxIntervalDelta(){return maxIntervalDelta;}
+
+    /**
+     * Returns the total number of bits of the header, including the base UTC and header gap.
+     * @return the total number of bits of the header.
+     */
+    public int getHeaderBitLength(){return layout.getHeaderBitLength() + BASE_UTC_LEN;}
+
+    /**
+     * Returns the interval (seconds) of each data point.
+     * @return the interval (seconds) of each data point.
+     */
+    public int getInterval(){return layout.getInterval();}
+
+    /**
+     * Returns the number of bits for each data point.
+     * @return the number of bits for each data point.
+     */
+    public int getDataBitLength(){return layout.getDataBitLength();}
+
+    /**
+     * Returns the ticker symbol.
+     * @return the ticker symbol.
+     */
+    public String getSymbol(){return layout.getSymbol();}
+
+    /**
+     * Returns the number of data points the header represents.
+     * @return the number of data points the header represents.
+     */
+    public int getDataCount(){return layout.getDataCount();}
+
+    /**
+     * Alters the data count of header. There must be enough count bits to set to the new value.
+     * @param numberOfDataPoints The new number of data points the header represents.
+     */
+    public void setDataCount(int numberOfDataPoints){layout.setDataCount(numberOfDataPoints);}
+
+    //Private helpers
+    //Returns a copy of stick where the UTC is replaced by the number of intervals since previousUTC.
+    private StickDouble genIntervalDeltaStick(long previousUTC, StickDouble stick){
+        long difference = stick.getUTC() - previousUTC;
+        if(difference < 0 || difference % utcPerInterval != 0)
+            throw new IllegalArgumentException("UTC "+stick.getUTC()+" is not a whole number of intervals after the previous UTC "+previousUTC);
+        long delta = difference / utcPerInterval;
+        if(delta > maxIntervalDelta)
+            throw new IllegalArgumentException("UTC "+stick.getUTC()+" is "+delta+" intervals after the previous UTC, the maximum is "+maxIntervalDelta);
+
+        return new CandleStickFixedDouble(delta, stick.getO(), stick.getH(), stick.getL(), stick.getC(), stick.getV());
+    }
+
+    private StickDouble[] genIntervalDeltaSticks(StickDouble[] dataArray){
+        StickDouble[] r = new StickDouble[dataArray.length];
+        long previousUTC = baseUTC;
+
+        for(int i=0; i<r.length; ++i){
+            r[i] = genIntervalDeltaStick(previousUTC, dataArray[i]);
+            previousUTC = dataArray[i].getUTC();
+        }
+
+        return r;
+    }
+
+    //Returns a copy of deltaStick where the interval count is replaced by the absolute UTC.
+    private StickDouble genAbsoluteStick(long previousUTC, StickDouble deltaStick){
+        return new CandleStickFixedDouble(
+            previousUTC + deltaStick.getUTC() * utcPerInterval,
+            deltaStick.getO(),
+            deltaStick.getH(),
+            deltaStick.getL(),
+            deltaStick.getC(),
+            deltaStick.getV()
+        );
+    }
+}
@@ -0,0 +1,638 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.lexical.binary;
+
+import tradedatacorp.tools.binarytools.BinaryTools;
+import tradedatacorp.tools.stick.StickColumns;
+import tradedatacorp.tools.stick.primitive.StickDouble;
+import tradedatacorp.tools.stick.primitive.CandleStickFixedDouble;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The per data point layout of an {@link OHLCV_BinaryLexical}: the bit length of every field, the fraction digits and a packed decoder precomputed once.
+ * <p>Every field of a packed stick is at a fixed bit offset from the first bit of the stick,
+ * so for every phase of that first bit within a 64 bit word (or a byte) the index, shifts and mask of each field are known ahead of time.
+ * Decoding a stick is then a fixed sequence of loads, shifts and masks with no per field offset or length arithmetic.
+ * The fraction divisors are also resolved once.</p>
+ * <p>Instances are immutable. The per file header values (data count, header gap) stay on the {@link OHLCV_BinaryLexical},
+ * so a single layout may be shared by any number of threads encoding and decoding data points without locks.</p>
+ */
+public final class OHLCV_BinaryLayout{
+    private static final long[] tenToPow;
+    private static final ConcurrentHashMap<Long, OHLCV_BinaryLayout> sharedLayouts = new ConcurrentHashMap<Long, OHLCV_BinaryLayout>();
+
+    static{
+        tenToPow = new long[16];
+        tenToPow[0] = 1;
+        for(int i=1; i<tenToPow.length; ++i){tenToPow[i] = tenToPow[i-1]*10;}
+    }
+
+    private static final int FIELD_COUNT = 11; //UTC followed by the whole and fraction of O, H, L, C, V
+    private static final int FIELD_UTC = 0;
+    private static final int FIELD_O = 1;
+    private static final int FIELD_H = 3;
+    private static final int FIELD_L = 5;
+    private static final int FIELD_C = 7;
+    private static final int FIELD_V = 9;
+
+    private final byte utcLen;
+    private final byte pwLen;
+    private final byte pfLen;
+    private final byte vwLen;
+    private final byte vfLen;
+    private final int priceDigits;
+    private final int volumeDigits;
+    private final int dataBitLength;
+
+    private final int[] fieldOffset;
+    private final int[] fieldLength;
+    private final long[] fieldMask;
+    private final double priceDivisor;
+    private final double volumeDivisor;
+    private final boolean wordAligned; //true if the stick length is a multiple of 64 and no field straddles a word at phase 0
+
+    //long[] source, indexed by [startBitIndex & 63][field]
+    private final int[][] wordIndex;
+    private final int[][] wordLeftShift;
+    private final int[][] wordRightShift;
+    private final boolean[][] wordStraddle;
+
+    //ByteBuffer source, indexed by [startBitIndex & 7][field]
+    private final int[][] byteIndex;
+    private final int[][] byteRightShift;
+    private final boolean[][] byteFitsInLong;
+
+    /**
+     * Constructs a layout from the field lengths of a header. Use {@link OHLCV_BinaryLexical#getLayout()} to get the layout of a lexical.
+     *
+     * @param utcLen The number of bits of the UTC field.
+     * @param pwLen The number of bits of the whole part of each price.
+     * @param pfLen The number of bits of the fraction part of each price.
+     * @param vwLen The number of bits of the whole part of the volume.
+     * @param vfLen The number of bits of the fraction part of the volume.
+     * @param priceMaxFractionDigit The number of decimal digits of the fraction part of each price.
+     * @param volumeMaxFractionDigit The number of decimal digits of the fraction part of the volume.
+     */
+    OHLCV_BinaryLayout(byte utcLen, byte pwLen, byte pfLen, byte vwLen, byte vfLen, int priceMaxFractionDigit, int volumeMaxFractionDigit){
+        this.utcLen = utcLen;
+        this.pwLen = pwLen;
+        this.pfLen = pfLen;
+        this.vwLen = vwLen;
+        this.vfLen = vfLen;
+        this.priceDigits = priceMaxFractionDigit;
+        this.volumeDigits = volumeMaxFractionDigit;
+        dataBitLength = utcLen + ((pwLen + pfLen) << 2) + vwLen + vfLen;
+
+        fieldLength = new int[]{utcLen, pwLen, pfLen, pwLen, pfLen, pwLen, pfLen, pwLen, pfLen, vwLen, vfLen};
+        fieldOffset = new int[FIELD_COUNT];
+        fieldMask = new long[FIELD_COUNT];
+        for(int f=0, offset=0; f<FIELD_COUNT; ++f){
+            fieldOffset[f] = offset;
+            fieldMask[f] = fieldLength[f] == 64 ? -1L : (1L << fieldLength[f]) - 1;
+            offset += fieldLength[f];
+        }
+        priceDivisor = tenToPow[priceMaxFractionDigit];
+        volumeDivisor = tenToPow[volumeMaxFractionDigit];
+
+        wordIndex = new int[64][FIELD_COUNT];
+        wordLeftShift = new int[64][FIELD_COUNT];
+        wordRightShift = new int[64][FIELD_COUNT];
+        wordStraddle = new boolean[64][FIELD_COUNT];
+        for(int phase=0; phase<64; ++phase){
+            for(int f=0; f<FIELD_COUNT; ++f){
+                int bit = phase + fieldOffset[f];
+                int shift = bit & 63;
+                wordIndex[phase][f] = bit >>> 6;
+                wordStraddle[phase][f] = shift + fieldLength[f] > 64;
+                if(wordStraddle[phase][f]){
+                    wordLeftShift[phase][f] = shift + fieldLength[f] - 64;
+                    wordRightShift[phase][f] = 128 - shift - fieldLength[f];
+                }else{
+                    wordRightShift[phase][f] = 64 - shift - fieldLength[f];
+                }
+            }
+        }
+
+        boolean noStraddle = true;
+        for(int f=0; f<FIELD_COUNT; ++f){noStraddle &= !wordStraddle[0][f];}
+        wordAligned = noStraddle && ((fieldOffset[FIELD_COUNT - 1] + fieldLength[FIELD_COUNT - 1]) & 63) == 0;
+
+        byteIndex = new int[8][FIELD_COUNT];
+        byteRightShift = new int[8][FIELD_COUNT];
+        byteFitsInLong = new boolean[8][FIELD_COUNT];
+        for(int phase=0; phase<8; ++phase){
+            for(int f=0; f<FIELD_COUNT; ++f){
+                int bit = phase + fieldOffset[f];
+                int shift = bit & 7;
+                byteIndex[phase][f] = bit >>> 3;
+                byteFitsInLong[phase][f] = shift + fieldLength[f] <= 64;
+                byteRightShift[phase][f] = 64 - shift - fieldLength[f];
+            }
+        }
+    }
+
+    /**
+     * Returns the shared layout of the given field lengths, constructing it only the first time those field lengths are requested.
+     * Layouts are immutable, so every header parsed from a file with the same field lengths shares a single set of decode tables.
+     * @see #OHLCV_BinaryLayout(byte, byte, byte, byte, byte, int, int)
+     */
+    static OHLCV_BinaryLayout getSharedLayout(byte utcLen, byte pwLen, byte pfLen, byte vwLen, byte vfLen, int priceMaxFractionDigit, int volumeMaxFractionDigit){
+        long key = utcLen;
+        key = (key << 6) | pwLen;
+        key = (key << 6) | pfLen;
+        key = (key << 6) | vwLen;
+        key = (key << 6) | vfLen;
+        key = (key << 6) | priceMaxFractionDigit;
+        key = (key << 6) | volumeMaxFractionDigit;
+        return sharedLayouts.computeIfAbsent(key,
+            k -> new OHLCV_BinaryLayout(utcLen, pwLen, pfLen, vwLen, vfLen, priceMaxFractionDigit, volumeMaxFractionDigit));
+    }
+
+    /**
+     * Returns the total number of bits of a single data point.
+     * @return the number of bits of a single data point.
+     */
+    public int getDataBitLength(){return dataBitLength;}
+
+    /**
+     * Returns the number of bits of the UTC field of a data point.
+     * @return the number of bits of the UTC field.
+     */
+    public byte getUTCBitLength(){return utcLen;}
+
+    /**
+     * Returns the number of bits of the whole part of each price.
+     * @return the number of bits of the whole part of each price.
+     */
+    public byte getPriceWholeBitLength(){return pwLen;}
+
+    /**
+     * Returns the number of bits of the fraction part of each price.
+     * @return the number of bits of the fraction part of each price.
+     */
+    public byte getPriceFractionBitLength(){return pfLen;}
+
+    /**
+     * Returns the number of bits of the whole part of the volume.
+     * @return the number of bits of the whole part of the volume.
+     */
+    public byte getVolumeWholeBitLength(){return vwLen;}
+
+    /**
+     * Returns the number of bits of the fraction part of the volume.
+     * @return the number of bits of the fraction part of the volume.
+     */
+    public byte getVolumeFractionBitLength(){return vfLen;}
+
+    /**
+     * Returns the maximimum number of decimal places that will be returned for Open, High, Low and Close data fields.
+     * @return the maximimum number of decimal places of each price.
+     */
+    public int getBase10PriceDigits(){return priceDigits;}
+
+    /**
+     * Returns the maximimum number of decimal places that will be returned for Volume.
+     * @return the maximimum number of decimal places of the volume.
+     */
+    public int getBase10VolumeDigits(){return volumeDigits;}
+
+    /**
+     * Returns true if the data point length is a multiple of 64 bits and no field of a data point straddles a 64 bit word boundary.
+     * When the data section starts on a word (or byte) boundary, every field of every data point can be decoded with a single 8 byte read.
+     * @return true if every field of a data point is within a single 64 bit word.
+     */
+    public boolean isWordAligned(){return wordAligned;}
+
+    /**
+     * @param other The object to compare.
+     * @return true if {@code other} is a layout with the same field lengths and digits, so the data points of both layouts are bit identical.
+     */
+    @Override
+    public boolean equals(Object other){
+        if(this == other) return true;
+        if(!(other instanceof OHLCV_BinaryLayout)) return false;
+        OHLCV_BinaryLayout layout = (OHLCV_BinaryLayout)other;
+        return utcLen == layout.utcLen && pwLen == layout.pwLen && pfLen == layout.pfLen && vwLen == layout.vwLen && vfLen == layout.vfLen &&
+            priceDigits == layout.priceDigits && volumeDigits == layout.volumeDigits;
+    }
+
+    /**
+     * @return a hash code consistent with {@code equals}.
+     */
+    @Override
+    public int hashCode(){
+        int r = utcLen;
+        r = 31*r + pwLen;
+        r = 31*r + pfLen;
+        r = 31*r + vwLen;
+        r = 31*r + vfLen;
+        r = 31*r + priceDigits;
+        return 31*r + volumeDigits;
+    }
+
+    /**
+     * Returns a single datapoint packed into 64 bit words. This is the packed equivalent of {@code getBinaryDataFlat}.
+     * The bit at index 0 of the flattened datapoint is the most significant bit of the first word.
+     * @param singleData A Data Stick that will have all fields packed IAW Data Point.
+     * @return An array of {@code ceil(dataBitLength/64)} words. Unused bits of the last word are 0.
+     */
+    public long[] getBinaryDataPacked(StickDouble singleData){
+        long[] words = new long[(dataBitLength + 63) >>> 6];
+        setPackedDataStick(singleData, words, 0);
+        return words;
+    }
+
+    /**
+     * Returns all Stick elements in the {@code dataArray} packed consecutively into 64 bit words.
+     * This is the packed equivalent of {@code getBinaryDataPointsFlat}.
+     * @param dataArray An array of elements that will be packed.
+     * @return An array of {@code ceil(dataArray.length * dataBitLength/64)} words. Unused bits of the last word are 0.
+     */
+    public long[] getBinaryDataPointsPacked(StickDouble[] dataArray){
+        long[] words = new long[(int)(((long)dataBitLength * dataArray.length + 63) >>> 6)];
+        long nextBitIndex = 0;
+
+        for(StickDouble singleData : dataArray){
+            setPackedDataStick(singleData, words, nextBitIndex);
+            nextBitIndex += dataBitLength;
+        }
+
+        return words;
+    }
+
+    /**
+     * Returns all Stick elements in the {@code dataCollection} packed consecutively into 64 bit words.
+     * This is the packed equivalent of {@code getBinaryDataPointsFlat}.
+     * @param dataCollection A collection of elements that will be packed.
+     * @return An array of {@code ceil(dataCollection.size() * dataBitLength/64)} words. Unused bits of the last word are 0.
+     */
+    public long[] getBinaryDataPointsPacked(Collection<StickDouble> dataCollection){
+        long[] words = new long[(int)(((long)dataBitLength * dataCollection.size() + 63) >>> 6)];
+        long nextBitIndex = 0;
+
+        for(StickDouble singleData : dataCollection){
+            setPackedDataStick(singleData, words, nextBitIndex);
+            nextBitIndex += dataBitLength;
+        }
+
+        return words;
+    }
+
+    /**
+     * Packs a single stick into {@code words} starting at bit {@code startBitIndex}. Only the {@code dataBitLength} bits of the stick are altered.
+     * @param stick The stick to be packed.
+     * @param words The packed destination. Must be large enough to hold the stick.
+     * @param startBitIndex The bit index of the first bit (most significant bit of UTC) of the stick.
+     */
+    public void setPackedDataStick(StickDouble stick, long[] words, long startBitIndex){
+        BinaryTools.setWordSubsetUnsignedLong(startBitIndex, utcLen, stick.getUTC(), words);
+        startBitIndex += utcLen;
+
+        startBitIndex = setPackedWholeFraction(stick.getO(), pwLen, pfLen, priceDigits, words, startBitIndex); //Open
+        startBitIndex = setPackedWholeFraction(stick.getH(), pwLen, pfLen, priceDigits, words, startBitIndex); //High
+        startBitIndex = setPackedWholeFraction(stick.getL(), pwLen, pfLen, priceDigits, words, startBitIndex); //Low
+        startBitIndex = setPackedWholeFraction(stick.getC(), pwLen, pfLen, priceDigits, words, startBitIndex); //Close
+        setPackedWholeFraction(stick.getV(), vwLen, vfLen, volumeDigits, words, startBitIndex); //Volume
+    }
+
+    /**
+     * Packs a single stick into {@code buffer} starting at bit {@code startBitIndex}. Only the {@code dataBitLength} bits of the stick are altered.
+     * Absolute indexing is used, the position and limit of {@code buffer} are not altered.
+     * @param stick The stick to be packed.
+     * @param buffer The packed destination. Must be large enough to hold the stick.
+     * @param startBitIndex The bit index of the first bit (most significant bit of UTC) of the stick.
+     */
+    public void setPackedDataStick(StickDouble stick, ByteBuffer buffer, long startBitIndex){
+        BinaryTools.setByteBufferSubsetUnsignedLong(startBitIndex, utcLen, stick.getUTC(), buffer);
+        startBitIndex += utcLen;
+
+        startBitIndex = setPackedWholeFraction(stick.getO(), pwLen, pfLen, priceDigits, buffer, startBitIndex); //Open
+        startBitIndex = setPackedWholeFraction(stick.getH(), pwLen, pfLen, priceDigits, buffer, startBitIndex); //High
+        startBitIndex = setPackedWholeFraction(stick.getL(), pwLen, pfLen, priceDigits, buffer, startBitIndex); //Low
+        startBitIndex = setPackedWholeFraction(stick.getC(), pwLen, pfLen, priceDigits, buffer, startBitIndex); //Close
+        setPackedWholeFraction(stick.getV(), vwLen, vfLen, volumeDigits, buffer, startBitIndex); //Volume
+    }
+
+    /**
+     * Returns a {@link StickDouble} instance from packed 64 bit words. This is the reverse of {@code setPackedDataStick}.
+     * @param words The packed source.
+     * @param startBitIndex The bit index of the first bit (most significant bit of UTC) of the stick.
+     * @return A StickDouble instance decoded from the packed bits.
+     */
+    public StickDouble getRefinedDataPacked(long[] words, long startBitIndex){
+        return decode(words, startBitIndex);
+    }
+
+    /**
+     * Returns a {@link StickDouble} instance from packed bits within a {@link ByteBuffer}. This is the reverse of {@code setPackedDataStick}.
+     * Absolute indexing is used, the position and limit of {@code buffer} are not altered.
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit (most significant bit of UTC) of the stick.
+     * @return A StickDouble instance decoded from the packed bits.
+     */
+    public StickDouble getRefinedDataPacked(ByteBuffer buffer, long startBitIndex){
+        return decode(buffer, startBitIndex);
+    }
+
+    /**
+     * Decodes a single packed stick within a {@link ByteBuffer} and appends its fields to {@code columns}. No stick object is created.
+     * Absolute indexing is used, the position and limit of {@code buffer} are not altered.
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit (most significant bit of UTC) of the stick.
+     * @param columns The destination, must not be full.
+     */
+    public void addRefinedDataPacked(ByteBuffer buffer, long startBitIndex, StickColumns columns){
+        decodeTo(buffer, startBitIndex, columns, StickColumns.MASK_ALL);
+    }
+
+    /**
+     * Decodes only the fields of {@code fieldMask} of a single packed stick and appends them to {@code columns}, the other columns are set to 0.
+     * Every field is at a fixed offset from the first bit of the stick, so unselected fields are skipped without reading them.
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit (most significant bit of UTC) of the stick.
+     * @param columns The destination, must not be full.
+     * @param fieldMask An OR of the {@code StickColumns.MASK_*} constants.
+     * @throws IllegalArgumentException if {@code fieldMask} is not a valid field mask.
+     */
+    public void addRefinedDataPacked(ByteBuffer buffer, long startBitIndex, StickColumns columns, int fieldMask){
+        decodeTo(buffer, startBitIndex, columns, StickColumns.checkFieldMask(fieldMask));
+    }
+
+    /**
+     * Returns a {@link StickColumns} instance decoded from consecutive sticks packed into a {@link ByteBuffer}.
+     * This is the columnar equivalent of {@code getRefinedDataArrayPacked}.
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick.
+     * @param dataCount The number of sticks to decode.
+     * @return A full {@link StickColumns} of {@code dataCount} decoded sticks.
+     */
+    public StickColumns getRefinedColumnsPacked(ByteBuffer buffer, long startBitIndex, int dataCount){
+        return getRefinedColumnsPacked(buffer, startBitIndex, dataCount, StickColumns.MASK_ALL);
+    }
+
+    /**
+     * Returns a {@link StickColumns} instance of only the fields of {@code fieldMask} decoded from consecutive sticks packed into a {@link ByteBuffer}.
+     * @see #addRefinedColumnsPacked(ByteBuffer, long, int, StickColumns, int)
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick.
+     * @param dataCount The number of sticks to decode.
+     * @param fieldMask An OR of the {@code StickColumns.MASK_*} constants.
+     * @return A full {@link StickColumns} of {@code dataCount} sticks, unselected columns are 0.
+     * @throws IllegalArgumentException if {@code fieldMask} is not a valid field mask.
+     */
+    public StickColumns getRefinedColumnsPacked(ByteBuffer buffer, long startBitIndex, int dataCount, int fieldMask){
+        StickColumns r = new StickColumns(dataCount);
+        addRefinedColumnsPacked(buffer, startBitIndex, dataCount, r, fieldMask);
+        return r;
+    }
+
+    /**
+     * Decodes consecutive packed sticks within a {@link ByteBuffer} and appends them to {@code columns}, one field (column) at a time.
+     * Sticks are decoded in blocks of {@link OHLCV_BinaryLexical#BULK_UNPACK_BLOCK_SIZE}, within a block every pass extracts a single field from every stick
+     * with the packed reader of the decoder plan while the block of source bytes stays in cache.
+     * Absolute indexing is used, the position and limit of {@code buffer} are not altered.
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick.
+     * @param dataCount The number of sticks to decode.
+     * @param columns The destination, must have room for {@code dataCount} more sticks.
+     * @throws IllegalStateException if {@code columns} does not have room for {@code dataCount} more sticks.
+     */
+    public void addRefinedColumnsPacked(ByteBuffer buffer, long startBitIndex, int dataCount, StickColumns columns){
+        addRefinedColumnsPacked(buffer, startBitIndex, dataCount, columns, StickColumns.MASK_ALL);
+    }
+
+    /**
+     * Decodes only the fields of {@code fieldMask} of consecutive packed sticks and appends them to {@code columns}, the other columns are set to 0.
+     * Only the passes of the selected fields are run, so a close only scan reads 2 of the 11 packed fields of each stick.
+     * @see #addRefinedColumnsPacked(ByteBuffer, long, int, StickColumns)
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick.
+     * @param dataCount The number of sticks to decode.
+     * @param columns The destination, must have room for {@code dataCount} more sticks.
+     * @param fieldMask An OR of the {@code StickColumns.MASK_*} constants.
+     * @throws IllegalStateException if {@code columns} does not have room for {@code dataCount} more sticks.
+     * @throws IllegalArgumentException if {@code fieldMask} is not a valid field mask.
+     */
+    public void addRefinedColumnsPacked(ByteBuffer buffer, long startBitIndex, int dataCount, StickColumns columns, int fieldMask){
+        StickColumns.checkFieldMask(fieldMask);
+        int size = columns.getSize();
+        if(dataCount > columns.getCapacity() - size)
+            throw new IllegalStateException("StickColumns does not have room for "+dataCount+" sticks. size: "+size+" capacity: "+columns.getCapacity());
+
+        for(int done=0; done<dataCount; ){
+            int count = Math.min(OHLCV_BinaryLexical.BULK_UNPACK_BLOCK_SIZE, dataCount - done);
+            unpackColumns(buffer, startBitIndex, dataBitLength, count, columns, size + done, fieldMask);
+            startBitIndex += (long)count * dataBitLength;
+            done += count;
+        }
+        columns.setSize(size + dataCount);
+    }
+
+    /**
+     * Decodes only the UTC field of consecutive packed sticks within a {@link ByteBuffer} into {@code dest}. No other field is decoded.
+     * Absolute indexing is used, the position and limit of {@code buffer} are not altered.
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick.
+     * @param dataCount The number of sticks to decode.
+     * @param dest The destination of the UTC values.
+     * @param destIndex The index of {@code dest} the UTC value of the first stick is written to.
+     */
+    public void getUTCArrayPacked(ByteBuffer buffer, long startBitIndex, int dataCount, long[] dest, int destIndex){
+        unpack(buffer, startBitIndex, dataBitLength, dataCount, FIELD_UTC, dest, destIndex);
+    }
+
+    /**
+     * Returns only the UTC field of a packed stick within a {@link ByteBuffer}. No other field is decoded.
+     * Absolute indexing is used, the position and limit of {@code buffer} are not altered.
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit (most significant bit of UTC) of the stick.
+     * @return The UTC value of the stick.
+     */
+    public long getUTCPacked(ByteBuffer buffer, long startBitIndex){
+        return decodeUTC(buffer, startBitIndex);
+    }
+
+    /**
+     * Returns an array of {@link StickDouble} elements from consecutive sticks packed into 64 bit words.
+     * This is the packed equivalent of {@code getRefinedDataArrayFlat}.
+     * @param words The packed source, the first stick starts at bit index 0.
+     * @param dataCount The number of sticks to decode.
+     * @return An array of {@code dataCount} decoded sticks.
+     */
+    public StickDouble[] getRefinedDataArrayPacked(long[] words, int dataCount){
+        StickDouble[] r = new StickDouble[dataCount];
+        long nextBitIndex = 0;
+
+        for(int i=0; i<dataCount; ++i){
+            r[i] = getRefinedDataPacked(words, nextBitIndex);
+            nextBitIndex += dataBitLength;
+        }
+
+        return r;
+    }
+
+    /**
+     * Returns an array of {@link StickDouble} elements from consecutive sticks packed into a {@link ByteBuffer}.
+     * This is the packed equivalent of {@code getRefinedDataArrayFlat}.
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick.
+     * @param dataCount The number of sticks to decode.
+     * @return An array of {@code dataCount} decoded sticks.
+     */
+    public StickDouble[] getRefinedDataArrayPacked(ByteBuffer buffer, long startBitIndex, int dataCount){
+        StickDouble[] r = new StickDouble[dataCount];
+
+        for(int i=0; i<dataCount; ++i){
+            r[i] = getRefinedDataPacked(buffer, startBitIndex);
+            startBitIndex += dataBitLength;
+        }
+
+        return r;
+    }
+
+    //Private helpers
+    //The whole and fraction parts are calculated the same as splitWholeFraction to keep packed and boolean encodings bit identical.
+    private static long setPackedWholeFraction(double value, byte wholeLen, byte fractionLen, int maxDigits, long[] words, long startBitIndex){
+        int whole = (int)Math.abs(value);
+        int fraction = (int)Math.round(tenToPow[maxDigits]*(value - whole));
+
+        BinaryTools.setWordSubsetUnsignedLong(startBitIndex, wholeLen, Integer.toUnsignedLong(whole), words);
+        startBitIndex += wholeLen;
+        BinaryTools.setWordSubsetUnsignedLong(startBitIndex, fractionLen, Integer.toUnsignedLong(fraction), words);
+        return startBitIndex + fractionLen;
+    }
+
+    private static long setPackedWholeFraction(double value, byte wholeLen, byte fractionLen, int maxDigits, ByteBuffer buffer, long startBitIndex){
+        int whole = (int)Math.abs(value);
+        int fraction = (int)Math.round(tenToPow[maxDigits]*(value - whole));
+
+        BinaryTools.setByteBufferSubsetUnsignedLong(startBitIndex, wholeLen, Integer.toUnsignedLong(whole), buffer);
+        startBitIndex += wholeLen;
+        BinaryTools.setByteBufferSubsetUnsignedLong(startBitIndex, fractionLen, Integer.toUnsignedLong(fraction), buffer);
+        return startBitIndex + fractionLen;
+    }
+
+    private long read(long[] words, int baseWord, int phase, int field){
+        if(fieldLength[field] == 0) return 0L;
+        int i = baseWord + wordIndex[phase][field];
+        long r = wordStraddle[phase][field] ?
+            (words[i] << wordLeftShift[phase][field]) | (words[i + 1] >>> wordRightShift[phase][field]) :
+            words[i] >>> wordRightShift[phase][field];
+        return r & fieldMask[field];
+    }
+
+    //fastLimit is the last byte index a getLong may start at, or -1 if the buffer is not big endian.
+    private long read(ByteBuffer buffer, long startBitIndex, int baseByte, int phase, int field, int fastLimit){
+        int i = baseByte + byteIndex[phase][field];
+        if(byteFitsInLong[phase][field] && i <= fastLimit){
+            return (buffer.getLong(i) >>> byteRightShift[phase][field]) & fieldMask[field];
+        }
+        return BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, startBitIndex + fieldOffset[field], fieldLength[field]);
+    }
+
+    private static int getFastLimit(ByteBuffer buffer){
+        return buffer.order() == ByteOrder.BIG_ENDIAN ? buffer.limit() - 8 : -1;
+    }
+
+    //Whole and fraction values are truncated to int the same as getRefinedDataFlat.
+    private double readWholeFraction(long[] words, int baseWord, int phase, int field, double divisor){
+        int whole = (int)read(words, baseWord, phase, field);
+        int fraction = (int)read(words, baseWord, phase, field + 1);
+        return whole + (double)fraction/divisor;
+    }
+
+    private double readWholeFraction(ByteBuffer buffer, long startBitIndex, int baseByte, int phase, int field, int fastLimit, double divisor){
+        int whole = (int)read(buffer, startBitIndex, baseByte, phase, field, fastLimit);
+        int fraction = (int)read(buffer, startBitIndex, baseByte, phase, field + 1, fastLimit);
+        return whole + (double)fraction/divisor;
+    }
+
+    private StickDouble decode(long[] words, long startBitIndex){
+        int baseWord = (int)(startBitIndex >>> 6);
+        int phase = (int)(startBitIndex & 63);
+
+        return new CandleStickFixedDouble(
+            read(words, baseWord, phase, FIELD_UTC),
+            readWholeFraction(words, baseWord, phase, FIELD_O, priceDivisor),
+            readWholeFraction(words, baseWord, phase, FIELD_H, priceDivisor),
+            readWholeFraction(words, baseWord, phase, FIELD_L, priceDivisor),
+            readWholeFraction(words, baseWord, phase, FIELD_C, priceDivisor),
+            readWholeFraction(words, baseWord, phase, FIELD_V, volumeDivisor)
+        );
+    }
+
+    private StickDouble decode(ByteBuffer buffer, long startBitIndex){
+        int baseByte = (int)(startBitIndex >>> 3);
+        int phase = (int)(startBitIndex & 7);
+        int fastLimit = getFastLimit(buffer);
+
+        return new CandleStickFixedDouble(
+            read(buffer, startBitIndex, baseByte, phase, FIELD_UTC, fastLimit),
+            readWholeFraction(buffer, startBitIndex, baseByte, phase, FIELD_O, fastLimit, priceDivisor),
+            readWholeFraction(buffer, startBitIndex, baseByte, phase, FIELD_H, fastLimit, priceDivisor),
+            readWholeFraction(buffer, startBitIndex, baseByte, phase, FIELD_L, fastLimit, priceDivisor),
+            readWholeFraction(buffer, startBitIndex, baseByte, phase, FIELD_C, fastLimit, priceDivisor),
+            readWholeFraction(buffer, startBitIndex, baseByte, phase, FIELD_V, fastLimit, volumeDivisor)
+        );
+    }
+
+    //Unselected fields are not read and are added as 0.
+    private void decodeTo(ByteBuffer buffer, long startBitIndex, StickColumns columns, int fieldMask){
+        int baseByte = (int)(startBitIndex >>> 3);
+        int phase = (int)(startBitIndex & 7);
+        int fastLimit = getFastLimit(buffer);
+
+        columns.add(
+            (fieldMask & StickColumns.MASK_UTC) == 0 ? 0L : read(buffer, startBitIndex, baseByte, phase, FIELD_UTC, fastLimit),
+            (fieldMask & StickColumns.MASK_O) == 0 ? 0 : readWholeFraction(buffer, startBitIndex, baseByte, phase, FIELD_O, fastLimit, priceDivisor),
+            (fieldMask & StickColumns.MASK_H) == 0 ? 0 : readWholeFraction(buffer, startBitIndex, baseByte, phase, FIELD_H, fastLimit, priceDivisor),
+            (fieldMask & StickColumns.MASK_L) == 0 ? 0 : readWholeFraction(buffer, startBitIndex, baseByte, phase, FIELD_L, fastLimit, priceDivisor),
+            (fieldMask & StickColumns.MASK_C) == 0 ? 0 : readWholeFraction(buffer, startBitIndex, baseByte, phase, FIELD_C, fastLimit, priceDivisor),
+            (fieldMask & StickColumns.MASK_V) == 0 ? 0 : readWholeFraction(buffer, startBitIndex, baseByte, phase, FIELD_V, fastLimit, volumeDivisor)
+        );
+    }
+
+    //Decodes a single field of count consecutive sticks. One field per pass keeps the offset, length and mask of the field fixed for the whole loop.
+    private void unpack(ByteBuffer buffer, long startBitIndex, int stride, int count, int field, long[] dest, int destIndex){
+        int fastLimit = getFastLimit(buffer);
+        for(int i=0; i<count; ++i){
+            dest[destIndex + i] = read(buffer, startBitIndex, (int)(startBitIndex >>> 3), (int)(startBitIndex & 7), field, fastLimit);
+            startBitIndex += stride;
+        }
+    }
+
+    private void unpackWholeFraction(ByteBuffer buffer, long startBitIndex, int stride, int count, int field, double divisor, double[] dest, int destIndex){
+        int fastLimit = getFastLimit(buffer);
+        for(int i=0; i<count; ++i){
+            dest[destIndex + i] = readWholeFraction(buffer, startBitIndex, (int)(startBitIndex >>> 3), (int)(startBitIndex & 7), field, fastLimit, divisor);
+            startBitIndex += stride;
+        }
+    }
+
+    //Only the passes of selected fields are run, unselected columns are zeroed so reused containers hold no stale values.
+    private void unpackColumns(ByteBuffer buffer, long startBitIndex, int stride, int count, StickColumns columns, int destIndex, int fieldMask){
+        if((fieldMask & StickColumns.MASK_UTC) != 0) unpack(buffer, startBitIndex, stride, count, FIELD_UTC, columns.UTC, destIndex);
+        else Arrays.fill(columns.UTC, destIndex, destIndex + count, 0L);
+        unpackWholeFractionColumn(buffer, startBitIndex, stride, count, FIELD_O, priceDivisor, columns.O, destIndex, (fieldMask & StickColumns.MASK_O) != 0);
+        unpackWholeFractionColumn(buffer, startBitIndex, stride, count, FIELD_H, priceDivisor, columns.H, destIndex, (fieldMask & StickColumns.MASK_H) != 0);
+        unpackWholeFractionColumn(buffer, startBitIndex, stride, count, FIELD_L, priceDivisor, columns.L, destIndex, (fieldMask & StickColumns.MASK_L) != 0);
+        unpackWholeFractionColumn(buffer, startBitIndex, stride, count, FIELD_C, priceDivisor, columns.C, destIndex, (fieldMask & StickColumns.MASK_C) != 0);
+        unpackWholeFractionColumn(buffer, startBitIndex, stride, count, FIELD_V, volumeDivisor, columns.V, destIndex, (fieldMask & StickColumns.MASK_V) != 0);
+    }
+
+    private void unpackWholeFractionColumn(ByteBuffer buffer, long startBitIndex, int stride, int count, int field, double divisor, double[] dest, int destIndex, boolean isSelected){
+        if(isSelected) unpackWholeFraction(buffer, startBitIndex, stride, count, field, divisor, dest, destIndex);
+        else Arrays.fill(dest, destIndex, destIndex + count, 0);
+    }
+
+    private long decodeUTC(ByteBuffer buffer, long startBitIndex){
+        return read(buffer, startBitIndex, (int)(startBitIndex >>> 3), (int)(startBitIndex & 7), FIELD_UTC, getFastLimit(buffer));
+    }
+}
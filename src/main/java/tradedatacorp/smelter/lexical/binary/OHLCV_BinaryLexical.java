@@ -5,12 +5,16 @@
 package tradedatacorp.smelter.lexical.binary;
 
 import tradedatacorp.tools.binarytools.BinaryTools;
+import tradedatacorp.tools.stick.StickColumns;
 import tradedatacorp.tools.stick.primitive.StickDouble;
 import tradedatacorp.tools.stick.primitive.CandleStickDouble;
 import tradedatacorp.tools.stick.primitive.CandleStickFixedDouble;
 
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * A BinaryLexical implementation for translating {@link StickDouble} instances into binary arrays.
@@ -403,6 +407,21 @@ public class OHLCV_BinaryLexical implements BinaryLexical<StickDouble>, Cloneabl
         H1_VF_LEN_LEN +
         H1_SYM_LEN_LEN;
 
+    /**
+     * The number of sticks decoded per block by the column at a time packed decode methods.
+     */
+    public static final int BULK_UNPACK_BLOCK_SIZE = 1024;
+
+    /**
+     * The maximum number of sticks scanned by a single task of {@code genFittedLexical}. Larger inputs are split in half and scanned in parallel.
+     */
+    public static final int PARALLEL_FIT_THRESHOLD = 8192;
+
+    /**
+     * The maximum number of decimal fraction digits {@code genFittedLexical} will fit. Whole and fraction values are int values.
+     */
+    public static final byte MAX_FIT_FRACTION_DIGITS = 9;
+
     //Binary Header
     private boolean[][] header;
 
@@ -450,6 +469,7 @@ public class OHLCV_BinaryLexical implements BinaryLexical<StickDouble>, Cloneabl
     //Cache/memoization variables for speedy reference
     private int base10PriceMaxFractionDigit;  //used internally as a cache for splitWholeFraction functions
     private int base10VolumeMaxFractionDigit; //used internally as a cache for splitWholeFraction functions
+    private OHLCV_BinaryLayout layout;        //immutable per data point layout, see getLayout()
 
     //Constructor
     private static byte constructorGapCalculator(String symbol, int count_len){
@@ -544,6 +564,7 @@ public class OHLCV_BinaryLexical implements BinaryLexical<StickDouble>, Cloneabl
         //Cache/memoization
         base10PriceMaxFractionDigit  = maxFractionFrombits[t_h1_pf_len];
         base10VolumeMaxFractionDigit = maxFractionFrombits[t_h1_vf_len];
+        layout = new OHLCV_BinaryLayout(t_h1_utc_len, t_h1_pw_len, t_h1_pf_len, t_h1_vw_len, t_h1_vf_len, base10PriceMaxFractionDigit, base10VolumeMaxFractionDigit);
     }
 
     private void constructHeaderFromTranslatedValues(
@@ -613,6 +634,7 @@ public class OHLCV_BinaryLexical implements BinaryLexical<StickDouble>, Cloneabl
         //Cache/memoization
         base10PriceMaxFractionDigit  = maxFractionFrombits[t_h1_pf_len];
         base10VolumeMaxFractionDigit = maxFractionFrombits[t_h1_vf_len];
+        layout = new OHLCV_BinaryLayout(t_h1_utc_len, t_h1_pw_len, t_h1_pf_len, t_h1_vw_len, t_h1_vf_len, base10PriceMaxFractionDigit, base10VolumeMaxFractionDigit);
 
         //Header 10: sym_len
         t_h1_sym_len = (byte)(T_sym.length() << 3);
@@ -732,6 +754,50 @@ public class OHLCV_BinaryLexical implements BinaryLexical<StickDouble>, Cloneabl
         return genStandardAlignedLexical(symbol,interval,(byte)0);
     }
 
+    /**
+     * Creates an OHLCV_BinaryLexical instance where every field of every data point is within a single 64 bit word.
+     * The data point is exactly 192 bits (3 words): 44 bits for UTC, 20/8 bits for OHLC and 22/14 bits for volume.
+     * <pre>
+     * word 0: UTC(44) Open whole(20)
+     * word 1: Open fraction(8) High whole(20) High fraction(8) Low whole(20) Low fraction(8)
+     * word 2: Close whole(20) Close fraction(8) Volume whole(22) Volume fraction(14)
+     * </pre>
+     * The header gap is calculated so the data section starts on a byte boundary, so every field of every data point is decoded with a single 8 byte read and fixed shifts.
+     * This trades price range and precision (whole prices up to 1,048,575 with 2 decimal digits, volume up to 4,194,303 with 4 decimal digits) for decode speed.
+     * Data points remain directly next to each other, so this is a valid layout for every existing reader.
+     *
+     * @param symbol The ticker symbol this lexical will represent.
+     * @param interval The interval (in seconds) for each data point.
+     * @param freeFormValue Must be between 0 and 1023 (inclusively). A free form value of the users choosing.
+     * @return a new OHLCV_BinaryLexical instance configured for 64 bit word aligned fields.
+     */
+    public static OHLCV_BinaryLexical genFastLexical(String symbol, int interval, byte freeFormValue){
+        return new OHLCV_BinaryLexical(
+            freeFormValue, // byte T_freeform,
+            (byte)16, //int T_ct_len That is 65535 maximum stick data
+            interval, // int T_int,
+            constructorGapCalculator(symbol,16), // byte T_h_gap_len, T_ct_len
+            (byte)44, // byte T_utc_len,
+            (byte)20, // byte T_pw_len,
+            (byte)8, // byte T_pf_len,
+            (byte)22, // byte T_vw_len,
+            (byte)14, // byte T_vf_len,
+            symbol // String T_sym
+        );
+    }
+
+    /**
+     * Creates an OHLCV_BinaryLexical instance where every field of every data point is within a single 64 bit word.
+     * @see #genFastLexical(String, int, byte)
+     *
+     * @param symbol The ticker symbol this lexical will represent.
+     * @param interval The interval (in seconds) for each data point.
+     * @return a new OHLCV_BinaryLexical instance configured for 64 bit word aligned fields.
+     */
+    public static OHLCV_BinaryLexical genFastLexical(String symbol, int interval){
+        return genFastLexical(symbol,interval,(byte)0);
+    }
+
     /**
      * Creates an OHLCV_BinaryLexical instance with "standard" alignment but allows you to specify the header gap length.
      * Useful for cases where you need to control byte alignment or padding between header and data.
@@ -811,6 +877,106 @@ public class OHLCV_BinaryLexical implements BinaryLexical<StickDouble>, Cloneabl
         return genMiniLexical(symbol, interval, (byte)0, gapLength);
     }
 
+    /**
+     * Creates an OHLCV_BinaryLexical instance with the smallest field lengths that represent every stick of {@code dataArray} losslessly.
+     * One scan finds the largest UTC, the largest whole price and volume, and the fewest fraction digits (up to {@link #MAX_FIT_FRACTION_DIGITS})
+     * where every price and volume decodes to exactly the same double. The data count length fits {@code dataArray.length} and the
+     * header gap aligns the data section to a byte. Inputs larger than {@link #PARALLEL_FIT_THRESHOLD} are scanned in parallel on {@code pool}.
+     *
+     * @param symbol The ticker symbol this lexical will represent.
+     * @param interval The interval (in seconds) for each data point.
+     * @param dataArray The sticks that will be written with the returned lexical.
+     * @param pool The pool used to scan large inputs.
+     * @return a new OHLCV_BinaryLexical instance fitted to {@code dataArray}.
+     * @throws IllegalArgumentException if a UTC is negative, a price or volume is negative, the whole part does not fit in 31 bits,
+     * or no fraction of up to {@link #MAX_FIT_FRACTION_DIGITS} digits decodes to exactly the same double.
+     */
+    public static OHLCV_BinaryLexical genFittedLexical(String symbol, int interval, StickDouble[] dataArray, ForkJoinPool pool){
+        FitScanTask scan = new FitScanTask(dataArray, 0, dataArray.length);
+        long[] fit = dataArray.length > PARALLEL_FIT_THRESHOLD ? pool.invoke(scan) : scan.compute();
+        byte ctLen = (byte)Math.max(1, 32 - Integer.numberOfLeadingZeros(dataArray.length));
+
+        return new OHLCV_BinaryLexical(
+            (byte)0, // byte T_freeform,
+            ctLen, // byte T_ct_len
+            interval, // int T_int,
+            constructorGapCalculator(symbol, ctLen), // byte T_h_gap_len, T_ct_len
+            getFittedBitLength(fit[FitScanTask.MAX_UTC]), // byte T_utc_len,
+            getFittedBitLength(fit[FitScanTask.MAX_PRICE_WHOLE]), // byte T_pw_len,
+            bitsNeededForMaxFraction[(int)fit[FitScanTask.PRICE_DIGITS]], // byte T_pf_len,
+            getFittedBitLength(fit[FitScanTask.MAX_VOLUME_WHOLE]), // byte T_vw_len,
+            bitsNeededForMaxFraction[(int)fit[FitScanTask.VOLUME_DIGITS]], // byte T_vf_len,
+            symbol // String T_sym
+        );
+    }
+
+    /**
+     * Creates an OHLCV_BinaryLexical instance with the smallest field lengths that represent every stick of {@code dataArray} losslessly,
+     * scanning large inputs on the common {@link ForkJoinPool}.
+     * @see #genFittedLexical(String, int, StickDouble[], ForkJoinPool)
+     *
+     * @param symbol The ticker symbol this lexical will represent.
+     * @param interval The interval (in seconds) for each data point.
+     * @param dataArray The sticks that will be written with the returned lexical.
+     * @return a new OHLCV_BinaryLexical instance fitted to {@code dataArray}.
+     */
+    public static OHLCV_BinaryLexical genFittedLexical(String symbol, int interval, StickDouble[] dataArray){
+        return genFittedLexical(symbol, interval, dataArray, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an OHLCV_BinaryLexical instance with the smallest field lengths that represent every stick of {@code dataCollection} losslessly.
+     * @see #genFittedLexical(String, int, StickDouble[], ForkJoinPool)
+     *
+     * @param symbol The ticker symbol this lexical will represent.
+     * @param interval The interval (in seconds) for each data point.
+     * @param dataCollection The sticks that will be written with the returned lexical.
+     * @return a new OHLCV_BinaryLexical instance fitted to {@code dataCollection}.
+     */
+    public static OHLCV_BinaryLexical genFittedLexical(String symbol, int interval, Collection<? extends StickDouble> dataCollection){
+        return genFittedLexical(symbol, interval, dataCollection.toArray(new StickDouble[0]));
+    }
+
+    /**
+     * Creates an OHLCV_BinaryLexical instance from a packed header (H1 followed by H2) within a {@link ByteBuffer}.
+     * This is the same header layout that is written to the start of a file, so a mapped or read file can be passed directly.
+     * The position, limit and mark of the {@code buffer} are not altered.
+     *
+     * @param buffer The source of the header bits. Absolute indexing is used.
+     * @param startBitIndex The bit index of the first bit of H1 (normally 0).
+     * @return a new OHLCV_BinaryLexical instance equivalent to the lexical that wrote the header.
+     */
+    public static OHLCV_BinaryLexical genLexicalFromPackedHeader(ByteBuffer buffer, long startBitIndex){
+        boolean[][] binH1 = new boolean[H1_COUNT][];
+        for(int i=0; i<H1_COUNT; ++i){
+            binH1[i] = BinaryTools.genBoolArrayFromByteBufferSubset(buffer, startBitIndex, H1_LEN[i]);
+            startBitIndex += H1_LEN[i];
+        }
+
+        boolean[] binSym = BinaryTools.genBoolArrayFromByteBufferSubset(buffer, startBitIndex, BinaryTools.toUnsignedInt(binH1[H_INDEX_SYM_LEN]));
+        startBitIndex += binSym.length;
+        boolean[] binDataCt = BinaryTools.genBoolArrayFromByteBufferSubset(buffer, startBitIndex, BinaryTools.toUnsignedInt(binH1[H_INDEX_CT_LEN]));
+        startBitIndex += binDataCt.length;
+        boolean[] binHGap = BinaryTools.genBoolArrayFromByteBufferSubset(buffer, startBitIndex, BinaryTools.toUnsignedInt(binH1[H_INDEX_H_GAP_LEN]));
+
+        return new OHLCV_BinaryLexical(
+            binH1[H_INDEX_FREE_FORM],
+            binH1[H_INDEX_INT],
+            binH1[H_INDEX_CT_LEN],
+            binH1[H_INDEX_DATA_LEN],
+            binH1[H_INDEX_H_GAP_LEN],
+            binH1[H_INDEX_UTC_LEN],
+            binH1[H_INDEX_PW_LEN],
+            binH1[H_INDEX_PF_LEN],
+            binH1[H_INDEX_VW_LEN],
+            binH1[H_INDEX_VF_LEN],
+            binH1[H_INDEX_SYM_LEN],
+            binSym,
+            binDataCt,
+            binHGap
+        );
+    }
+
     /**
      * Constructs an OHLCV_BinaryLexical instance by directly providing the binary header fields.
      * This constructor is intended for cases where the binary header representation is already available,
@@ -933,6 +1099,20 @@ public class OHLCV_BinaryLexical implements BinaryLexical<StickDouble>, Cloneabl
     @Override
     public boolean[] getBinaryHeaderFlat(){return BinaryTools.genConcatenatedBoolArrays(header);}
 
+    /**
+     * Returns a flattened copy of the binary header with {@code dataCount} as h2_data_ct. The state of this lexical is not altered,
+     * so the header of a file can be generated from a shared lexical without {@code setDataCount}.
+     * @param dataCount The number of data points of the header.
+     * @return A flattened copy of the binary header representing {@code dataCount} data points.
+     */
+    public boolean[] genBinaryHeaderFlat(int dataCount){
+        if(dataCount < 0)
+            throw new IllegalArgumentException("dataCount must be greater than or equal to 0. Received: "+dataCount);
+        boolean[][] fileHeader = header.clone();
+        fileHeader[H_INDEX_DATA_CT] = BinaryTools.genBoolArrayFromUnsignedInt(dataCount, t_h1_ct_len);
+        return BinaryTools.genConcatenatedBoolArrays(fileHeader);
+    }
+
     /**
      * Returns a single datapoint representing a Data Point Field defined in class header.
      * @param singleData A Data Stick that will have all fields converted to boolean array IAW Data Point.
@@ -1235,6 +1415,202 @@ public class OHLCV_BinaryLexical implements BinaryLexical<StickDouble>, Cloneabl
         return r;
     }
 
+    // Packed methods, these only depend on the immutable layout and delegate to getLayout()
+    /**
+     * Returns a single datapoint packed into 64 bit words. This is the packed equivalent of {@code getBinaryDataFlat}.
+     * The bit at index 0 of the flattened datapoint is the most significant bit of the first word.
+     * @param singleData A Data Stick that will have all fields packed IAW Data Point.
+     * @return An array of {@code ceil(t_h1_data_len/64)} words. Unused bits of the last word are 0.
+     */
+    public long[] getBinaryDataPacked(StickDouble singleData){
+        return layout.getBinaryDataPacked(singleData);
+    }
+
+    /**
+     * Returns all Stick elements in the {@code dataArray} packed consecutively into 64 bit words.
+     * This is the packed equivalent of {@code getBinaryDataPointsFlat}.
+     * @param dataArray An array of elements that will be packed.
+     * @return An array of {@code ceil(dataArray.length * t_h1_data_len/64)} words. Unused bits of the last word are 0.
+     */
+    public long[] getBinaryDataPointsPacked(StickDouble[] dataArray){
+        return layout.getBinaryDataPointsPacked(dataArray);
+    }
+
+    /**
+     * Returns all Stick elements in the {@code dataCollection} packed consecutively into 64 bit words.
+     * This is the packed equivalent of {@code getBinaryDataPointsFlat}.
+     * @param dataCollection A collection of elements that will be packed.
+     * @return An array of {@code ceil(dataCollection.size() * t_h1_data_len/64)} words. Unused bits of the last word are 0.
+     */
+    public long[] getBinaryDataPointsPacked(Collection<StickDouble> dataCollection){
+        return layout.getBinaryDataPointsPacked(dataCollection);
+    }
+
+    /**
+     * Packs a single stick into {@code words} starting at bit {@code startBitIndex}. Only the {@code t_h1_data_len} bits of the stick are altered.
+     * @param stick The stick to be packed.
+     * @param words The packed destination. Must be large enough to hold the stick.
+     * @param startBitIndex The bit index of the first bit (most significant bit of UTC) of the stick.
+     */
+    public void setPackedDataStick(StickDouble stick, long[] words, long startBitIndex){
+        layout.setPackedDataStick(stick, words, startBitIndex);
+    }
+
+    /**
+     * Packs a single stick into {@code buffer} starting at bit {@code startBitIndex}. Only the {@code t_h1_data_len} bits of the stick are altered.
+     * Absolute indexing is used, the position and limit of {@code buffer} are not altered.
+     * @param stick The stick to be packed.
+     * @param buffer The packed destination. Must be large enough to hold the stick.
+     * @param startBitIndex The bit index of the first bit (most significant bit of UTC) of the stick.
+     */
+    public void setPackedDataStick(StickDouble stick, ByteBuffer buffer, long startBitIndex){
+        layout.setPackedDataStick(stick, buffer, startBitIndex);
+    }
+
+    /**
+     * Returns a {@link StickDouble} instance from packed 64 bit words. This is the reverse of {@code setPackedDataStick}.
+     * @param words The packed source.
+     * @param startBitIndex The bit index of the first bit (most significant bit of UTC) of the stick.
+     * @return A StickDouble instance decoded from the packed bits.
+     */
+    public StickDouble getRefinedDataPacked(long[] words, long startBitIndex){
+        return layout.getRefinedDataPacked(words, startBitIndex);
+    }
+
+    /**
+     * Returns a {@link StickDouble} instance from packed bits within a {@link ByteBuffer}. This is the reverse of {@code setPackedDataStick}.
+     * Absolute indexing is used, the position and limit of {@code buffer} are not altered.
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit (most significant bit of UTC) of the stick.
+     * @return A StickDouble instance decoded from the packed bits.
+     */
+    public StickDouble getRefinedDataPacked(ByteBuffer buffer, long startBitIndex){
+        return layout.getRefinedDataPacked(buffer, startBitIndex);
+    }
+
+    /**
+     * Decodes a single packed stick within a {@link ByteBuffer} and appends its fields to {@code columns}. No stick object is created.
+     * Absolute indexing is used, the position and limit of {@code buffer} are not altered.
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit (most significant bit of UTC) of the stick.
+     * @param columns The destination, must not be full.
+     */
+    public void addRefinedDataPacked(ByteBuffer buffer, long startBitIndex, StickColumns columns){
+        layout.addRefinedDataPacked(buffer, startBitIndex, columns);
+    }
+
+    /**
+     * Decodes only the fields of {@code fieldMask} of a single packed stick and appends them to {@code columns}, the other columns are set to 0.
+     * @see OHLCV_BinaryLayout#addRefinedDataPacked(ByteBuffer, long, StickColumns, int)
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit (most significant bit of UTC) of the stick.
+     * @param columns The destination, must not be full.
+     * @param fieldMask An OR of the {@code StickColumns.MASK_*} constants.
+     */
+    public void addRefinedDataPacked(ByteBuffer buffer, long startBitIndex, StickColumns columns, int fieldMask){
+        layout.addRefinedDataPacked(buffer, startBitIndex, columns, fieldMask);
+    }
+
+    /**
+     * Returns a {@link StickColumns} instance decoded from consecutive sticks packed into a {@link ByteBuffer}.
+     * This is the columnar equivalent of {@code getRefinedDataArrayPacked}.
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick.
+     * @param dataCount The number of sticks to decode.
+     * @return A full {@link StickColumns} of {@code dataCount} decoded sticks.
+     */
+    public StickColumns getRefinedColumnsPacked(ByteBuffer buffer, long startBitIndex, int dataCount){
+        return layout.getRefinedColumnsPacked(buffer, startBitIndex, dataCount);
+    }
+
+    /**
+     * Returns a {@link StickColumns} instance of only the fields of {@code fieldMask} decoded from consecutive sticks packed into a {@link ByteBuffer}.
+     * @see OHLCV_BinaryLayout#addRefinedColumnsPacked(ByteBuffer, long, int, StickColumns, int)
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick.
+     * @param dataCount The number of sticks to decode.
+     * @param fieldMask An OR of the {@code StickColumns.MASK_*} constants.
+     * @return A full {@link StickColumns} of {@code dataCount} sticks, unselected columns are 0.
+     */
+    public StickColumns getRefinedColumnsPacked(ByteBuffer buffer, long startBitIndex, int dataCount, int fieldMask){
+        return layout.getRefinedColumnsPacked(buffer, startBitIndex, dataCount, fieldMask);
+    }
+
+    /**
+     * Decodes consecutive packed sticks within a {@link ByteBuffer} and appends them to {@code columns}, one field (column) at a time.
+     * Sticks are decoded in blocks of {@link #BULK_UNPACK_BLOCK_SIZE}, within a block every pass extracts a single field from every stick
+     * with the packed reader of the decoder plan while the block of source bytes stays in cache.
+     * Absolute indexing is used, the position and limit of {@code buffer} are not altered.
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick.
+     * @param dataCount The number of sticks to decode.
+     * @param columns The destination, must have room for {@code dataCount} more sticks.
+     * @throws IllegalStateException if {@code columns} does not have room for {@code dataCount} more sticks.
+     */
+    public void addRefinedColumnsPacked(ByteBuffer buffer, long startBitIndex, int dataCount, StickColumns columns){
+        layout.addRefinedColumnsPacked(buffer, startBitIndex, dataCount, columns);
+    }
+
+    /**
+     * Decodes only the fields of {@code fieldMask} of consecutive packed sticks and appends them to {@code columns}, the other columns are set to 0.
+     * @see OHLCV_BinaryLayout#addRefinedColumnsPacked(ByteBuffer, long, int, StickColumns, int)
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick.
+     * @param dataCount The number of sticks to decode.
+     * @param columns The destination, must have room for {@code dataCount} more sticks.
+     * @param fieldMask An OR of the {@code StickColumns.MASK_*} constants.
+     */
+    public void addRefinedColumnsPacked(ByteBuffer buffer, long startBitIndex, int dataCount, StickColumns columns, int fieldMask){
+        layout.addRefinedColumnsPacked(buffer, startBitIndex, dataCount, columns, fieldMask);
+    }
+
+    /**
+     * Decodes only the UTC field of consecutive packed sticks within a {@link ByteBuffer} into {@code dest}. No other field is decoded.
+     * Absolute indexing is used, the position and limit of {@code buffer} are not altered.
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick.
+     * @param dataCount The number of sticks to decode.
+     * @param dest The destination of the UTC values.
+     * @param destIndex The index of {@code dest} the UTC value of the first stick is written to.
+     */
+    public void getUTCArrayPacked(ByteBuffer buffer, long startBitIndex, int dataCount, long[] dest, int destIndex){
+        layout.getUTCArrayPacked(buffer, startBitIndex, dataCount, dest, destIndex);
+    }
+
+    /**
+     * Returns only the UTC field of a packed stick within a {@link ByteBuffer}. No other field is decoded.
+     * Absolute indexing is used, the position and limit of {@code buffer} are not altered.
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit (most significant bit of UTC) of the stick.
+     * @return The UTC value of the stick.
+     */
+    public long getUTCPacked(ByteBuffer buffer, long startBitIndex){
+        return layout.getUTCPacked(buffer, startBitIndex);
+    }
+
+    /**
+     * Returns an array of {@link StickDouble} elements from consecutive sticks packed into 64 bit words.
+     * This is the packed equivalent of {@code getRefinedDataArrayFlat}.
+     * @param words The packed source, the first stick starts at bit index 0.
+     * @param dataCount The number of sticks to decode.
+     * @return An array of {@code dataCount} decoded sticks.
+     */
+    public StickDouble[] getRefinedDataArrayPacked(long[] words, int dataCount){
+        return layout.getRefinedDataArrayPacked(words, dataCount);
+    }
+
+    /**
+     * Returns an array of {@link StickDouble} elements from consecutive sticks packed into a {@link ByteBuffer}.
+     * This is the packed equivalent of {@code getRefinedDataArrayFlat}.
+     * @param buffer The packed source.
+     * @param startBitIndex The bit index of the first bit of the first stick.
+     * @param dataCount The number of sticks to decode.
+     * @return An array of {@code dataCount} decoded sticks.
+     */
+    public StickDouble[] getRefinedDataArrayPacked(ByteBuffer buffer, long startBitIndex, int dataCount){
+        return layout.getRefinedDataArrayPacked(buffer, startBitIndex, dataCount);
+    }
+
     // OHLCV_BinaryLexical methods
     /**
      * @return a deep copy of this lexical.
@@ -1446,6 +1822,8 @@ public class OHLCV_BinaryLexical implements BinaryLexical<StickDouble>, Cloneabl
         startIndex+=t_h1_vf_len;
     }
 
+    private static byte getFittedBitLength(long maxValue){return (byte)Math.max(1, 64 - Long.numberOfLeadingZeros(maxValue));}
+
     private void updateHeaderLengths(){
         int newUpdatedHeader2Length = 0;
         for(int i=11; i<header.length; ++i){
@@ -1462,6 +1840,9 @@ public class OHLCV_BinaryLexical implements BinaryLexical<StickDouble>, Cloneabl
      */
     public static byte getHeader1BitLength(int index){return H1_LEN[index];}
 
+    //The number of base 10 fraction digits a fraction field of fractionBitLength bits holds, the same as the lexical constructors.
+    static int getMaxFractionDigits(int fractionBitLength){return maxFractionFrombits[fractionBitLength];}
+
     /**
      * Returns total number of bits of entire header.
      * @return total number of bits of entire header.
@@ -1492,6 +1873,20 @@ public class OHLCV_BinaryLexical implements BinaryLexical<StickDouble>, Cloneabl
      */
     public int getDataBitLength(){return t_h1_data_len;} //H3
 
+    /**
+     * Returns true if the data point length is a multiple of 64 bits and no field of a data point straddles a 64 bit word boundary.
+     * When the data section starts on a word (or byte) boundary, every field of every data point can be decoded with a single 8 byte read.
+     * @return true if every field of a data point is within a single 64 bit word.
+     */
+    public boolean isWordAligned(){return layout.isWordAligned();}
+
+    /**
+     * Returns the immutable per data point layout of this lexical. The layout does not change with {@code setDataCount} or {@code setHeaderGap},
+     * so it may be shared by many threads encoding and decoding data points without locking or cloning this lexical.
+     * @return the layout of every data point.
+     */
+    public OHLCV_BinaryLayout getLayout(){return layout;}
+
     /**
      * Returns the string of header index 11. This returns a string of the ticker symbol.
      * @return translated header index 11 integer value.
@@ -1531,4 +1926,78 @@ public class OHLCV_BinaryLexical implements BinaryLexical<StickDouble>, Cloneabl
             updateHeaderLengths();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Scans sticks {@code [fromIndex, toIndex)} for the largest values and fraction digits of {@code genFittedLexical}, splitting in half until the range is at most {@link #PARALLEL_FIT_THRESHOLD}.
+     * The result is indexed by {@code MAX_UTC}, {@code MAX_PRICE_WHOLE}, {@code PRICE_DIGITS}, {@code MAX_VOLUME_WHOLE} and {@code VOLUME_DIGITS}.
+     */
+    private static final class FitScanTask extends RecursiveTask<long[]>{
+        private static final int MAX_UTC = 0;
+        private static final int MAX_PRICE_WHOLE = 1;
+        private static final int PRICE_DIGITS = 2;
+        private static final int MAX_VOLUME_WHOLE = 3;
+        private static final int VOLUME_DIGITS = 4;
+
+        private final StickDouble[] dataArray;
+        private final int fromIndex;
+        private final int toIndex;
+
+        private FitScanTask(StickDouble[] dataArray, int fromIndex, int toIndex){
+            this.dataArray = dataArray;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        @Override
+        protected long[] compute(){
+            if(toIndex - fromIndex > PARALLEL_FIT_THRESHOLD){
+                int middle = (fromIndex + toIndex) >>> 1;
+                FitScanTask left = new FitScanTask(dataArray, fromIndex, middle);
+                left.fork();
+                long[] r = new FitScanTask(dataArray, middle, toIndex).compute();
+                long[] l = left.join();
+                for(int i=0; i<r.length; ++i){r[i] = Math.max(r[i], l[i]);}
+                return r;
+            }
+
+            long[] r = new long[5];
+            for(int i=fromIndex; i<toIndex; ++i){
+                StickDouble stick = dataArray[i];
+                r[MAX_UTC] = Math.max(r[MAX_UTC], getUTC(stick.getUTC()));
+                scanPrice(r, stick.getO());
+                scanPrice(r, stick.getH());
+                scanPrice(r, stick.getL());
+                scanPrice(r, stick.getC());
+                r[MAX_VOLUME_WHOLE] = Math.max(r[MAX_VOLUME_WHOLE], getWhole(stick.getV()));
+                r[VOLUME_DIGITS] = getFractionDigits(stick.getV(), (int)r[VOLUME_DIGITS]);
+            }
+            return r;
+        }
+
+        private static void scanPrice(long[] r, double price){
+            r[MAX_PRICE_WHOLE] = Math.max(r[MAX_PRICE_WHOLE], getWhole(price));
+            r[PRICE_DIGITS] = getFractionDigits(price, (int)r[PRICE_DIGITS]);
+        }
+
+        private static long getUTC(long utc){
+            if(utc < 0) throw new IllegalArgumentException("UTC must not be negative to be fitted. Received: "+utc);
+            return utc;
+        }
+
+        private static int getWhole(double value){
+            if(!(value >= 0 && value < 2147483648.0))
+                throw new IllegalArgumentException("Prices and volume must be between 0 and 2147483647 (whole) to be fitted. Received: "+value);
+            return (int)value;
+        }
+
+        //The fewest digits, no fewer than minDigits, where the fraction decodes to exactly the same double as getRefinedDataFlat.
+        private static int getFractionDigits(double value, int minDigits){
+            int whole = (int)value;
+            for(int digits=minDigits; digits<=MAX_FIT_FRACTION_DIGITS; ++digits){
+                int fraction = (int)Math.round(tenToPow[digits]*(value - whole));
+                if(whole + (double)fraction/tenToPow[digits] == value) return digits;
+            }
+            throw new IllegalArgumentException("Prices and volume must have at most "+MAX_FIT_FRACTION_DIGITS+" fraction digits to be fitted. Received: "+value);
+        }
+    }
+}
@@ -4,6 +4,9 @@
  */
 package tradedatacorp.tools.binarytools;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
  * A utility class providing stateless static methods for converting between 
  * binary representations (arrays or collections) and integers.
@@ -663,4 +666,176 @@ public class BinaryTools{
 
         return strBldr.toString();
     }
-}
\ No newline at end of file
+
+    /**
+     * Calculates a base-10 unsigned long integer from a subset of bits packed into an array of 64 bit words.
+     * Bits are packed most significant bit first. Bit index 0 is the most significant bit of {@code words[0]},
+     * bit index 64 is the most significant bit of {@code words[1]} and so on.
+     * This is the packed equivalent of {@code toUnsignedLongFromBoolSubset}.
+     * @param words The packed bits. Does not represent any particular type of format.
+     * @param startBitIndex The bit index of the most significant bit in the subset to be used for the calculation.
+     * @param length The total number of consecutive bits to be used. Must be between 0 and 64 inclusively.
+     * @return The base-10 long integer to be calculated. A length of 0 returns 0.
+     * <p>Examples:</p><pre><code>
+     * long[] exampleWords = new long[]{0xA000_0000_0000_0000L}; //1010 0000 ... rep
+     * Example 1: toUnsignedLongFromWordSubset(exampleWords, 0, 4); //returns 10L. subset bits: 1010
+     * Example 2: toUnsignedLongFromWordSubset(exampleWords, 1, 3); //returns 2L. subset bits: 010
+     * </code></pre>
+     */
+    public static long toUnsignedLongFromWordSubset(long[] words, long startBitIndex, int length){
+        if(length == 0) return 0L;
+        int wordIndex = (int)(startBitIndex >>> 6);
+        int bitOffset = (int)(startBitIndex & 63);
+        int availableBits = 64 - bitOffset;
+
+        long r = words[wordIndex] << bitOffset;
+        if(length > availableBits) r |= words[wordIndex + 1] >>> availableBits;
+        return r >>> (64 - length);
+    }
+
+    /**
+     * This mutates a specific subset of packed 64 bit words to a value that represents an unsigned base-10 value.
+     * Bits are packed most significant bit first, the same layout as {@code toUnsignedLongFromWordSubset}.
+     * This is the packed equivalent of {@code setSubsetUnsignedLong}. Bits outside of the subset are not altered.
+     * @param inclusiveStartBitIndex The bit index of the most significant bit in {@code words} that will be mutated.
+     * @param bitLength The length of the subset that will be mutated. Must be between 0 and 64 inclusively.
+     * @param value The unsigned value that will be converted to the subset. Bits beyond {@code bitLength} are ignored.
+     * @param words The instance that will be mutated.
+     * <p>Example:</p><pre><code>
+     * long[] words = new long[1];
+     * setWordSubsetUnsignedLong(1, 3, 7L, words); //words[0] is now 0111 0000 ... == 0x7000_0000_0000_0000L
+     * </code></pre>
+     */
+    public static void setWordSubsetUnsignedLong(long inclusiveStartBitIndex, int bitLength, long value, long[] words){
+        if(bitLength == 0) return;
+        int wordIndex = (int)(inclusiveStartBitIndex >>> 6);
+        int bitOffset = (int)(inclusiveStartBitIndex & 63);
+        int availableBits = 64 - bitOffset;
+        long mask = (bitLength == 64 ? -1L : (1L << bitLength) - 1);
+        value &= mask;
+
+        if(bitLength <= availableBits){
+            int shift = availableBits - bitLength;
+            words[wordIndex] = (words[wordIndex] & ~(mask << shift)) | (value << shift);
+        }else{
+            int overflowBits = bitLength - availableBits; //Bits that spill into the next word
+            words[wordIndex] = (words[wordIndex] & ~(mask >>> overflowBits)) | (value >>> overflowBits);
+            words[wordIndex + 1] = (words[wordIndex + 1] & (-1L >>> overflowBits)) | (value << (64 - overflowBits));
+        }
+    }
+
+    /**
+     * Calculates a base-10 unsigned long integer from a subset of bits within a {@link ByteBuffer}.
+     * Bits are read most significant bit first. Bit index 0 is the most significant bit of the byte at absolute index 0.
+     * The position, limit and mark of the {@code buffer} are not altered.
+     * @param buffer The source of bits. Absolute indexing is used.
+     * @param startBitIndex The bit index of the most significant bit in the subset to be used for the calculation.
+     * @param length The total number of consecutive bits to be used. Must be between 0 and 64 inclusively.
+     * @return The base-10 long integer to be calculated. A length of 0 returns 0.
+     * <p>Examples:</p><pre><code>
+     * ByteBuffer exampleBuffer = ByteBuffer.wrap(new byte[]{(byte)0b1010_1100, (byte)0b0100_0000});
+     * Example 1: toUnsignedLongFromByteBufferSubset(exampleBuffer, 0, 4); //returns 10L. subset bits: 1010
+     * Example 2: toUnsignedLongFromByteBufferSubset(exampleBuffer, 6, 4); //returns 1L. subset bits: 0001
+     * </code></pre>
+     */
+    public static long toUnsignedLongFromByteBufferSubset(ByteBuffer buffer, long startBitIndex, int length){
+        if(length == 0) return 0L;
+        int byteIndex = (int)(startBitIndex >>> 3);
+        int bitOffset = (int)(startBitIndex & 7);
+
+        //Fast path: the subset is within a single 8 byte read.
+        if(bitOffset + length <= 64 && byteIndex + 8 <= buffer.limit() && buffer.order() == ByteOrder.BIG_ENDIAN){
+            return (buffer.getLong(byteIndex) << bitOffset) >>> (64 - length);
+        }
+
+        long r = buffer.get(byteIndex) & (0xFF >>> bitOffset);
+        int collectedBits = 8 - bitOffset;
+        if(collectedBits >= length) return r >>> (collectedBits - length);
+
+        int neededBits;
+        int nextByte;
+        while(collectedBits < length){
+            ++byteIndex;
+            nextByte = buffer.get(byteIndex) & 0xFF;
+            neededBits = length - collectedBits;
+            if(neededBits >= 8){
+                r = (r << 8) | nextByte;
+                collectedBits += 8;
+            }else{
+                r = (r << neededBits) | (nextByte >>> (8 - neededBits));
+                collectedBits = length;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * This mutates a specific subset of bits within a {@link ByteBuffer} to a value that represents an unsigned base-10 value.
+     * Bits are written most significant bit first, the same layout as {@code toUnsignedLongFromByteBufferSubset}.
+     * Bits outside of the subset are not altered. The position, limit and mark of the {@code buffer} are not altered.
+     * @param inclusiveStartBitIndex The bit index of the most significant bit in {@code buffer} that will be mutated.
+     * @param bitLength The length of the subset that will be mutated. Must be between 0 and 64 inclusively.
+     * @param value The unsigned value that will be converted to the subset. Bits beyond {@code bitLength} are ignored.
+     * @param buffer The instance that will be mutated. Absolute indexing is used.
+     * <p>Example:</p><pre><code>
+     * ByteBuffer buffer = ByteBuffer.allocate(2);
+     * setByteBufferSubsetUnsignedLong(6, 4, 15L, buffer); //buffer bytes are now 0000 0011, 1100 0000
+     * </code></pre>
+     */
+    public static void setByteBufferSubsetUnsignedLong(long inclusiveStartBitIndex, int bitLength, long value, ByteBuffer buffer){
+        if(bitLength == 0) return;
+        if(bitLength < 64) value &= (1L << bitLength) - 1;
+        int byteIndex = (int)(inclusiveStartBitIndex >>> 3);
+        int bitOffset = (int)(inclusiveStartBitIndex & 7);
+        int firstByteBits = 8 - bitOffset;
+        int mask;
+
+        //1. Subset is entirely within the first byte.
+        if(bitLength <= firstByteBits){
+            int shift = firstByteBits - bitLength;
+            mask = ((1 << bitLength) - 1) << shift;
+            buffer.put(byteIndex, (byte)((buffer.get(byteIndex) & ~mask) | (((int)value << shift) & mask)));
+            return;
+        }
+
+        //2. Fill the right side of the first byte.
+        int remainingBits = bitLength - firstByteBits;
+        mask = (1 << firstByteBits) - 1;
+        buffer.put(byteIndex, (byte)((buffer.get(byteIndex) & ~mask) | ((int)(value >>> remainingBits) & mask)));
+        ++byteIndex;
+
+        //3. Full middle bytes.
+        while(remainingBits >= 8){
+            remainingBits -= 8;
+            buffer.put(byteIndex, (byte)(value >>> remainingBits));
+            ++byteIndex;
+        }
+
+        //4. Fill the left side of the last byte.
+        if(remainingBits > 0){
+            mask = 0xFF >>> remainingBits; //bits to preserve
+            buffer.put(byteIndex, (byte)((buffer.get(byteIndex) & mask) | (((int)value << (8 - remainingBits)) & 0xFF)));
+        }
+    }
+
+    /**
+     * Returns a new boolean array that is a copy of a subset of bits within a {@link ByteBuffer}.
+     * Bits are read most significant bit first, the same layout as {@code toUnsignedLongFromByteBufferSubset}.
+     * The position, limit and mark of the {@code buffer} are not altered.
+     * @param buffer The source of bits. Absolute indexing is used.
+     * @param startBitIndex The bit index of the first bit in the subset.
+     * @param length The total number of consecutive bits to copy. There is no upper limit.
+     * @return A boolean array of size {@code length}, where index 0 is the bit at {@code startBitIndex}.
+     * <p>Example:</p><pre><code>
+     * ByteBuffer exampleBuffer = ByteBuffer.wrap(new byte[]{(byte)0b1010_1100, (byte)0b0100_0000});
+     * genBoolArrayFromByteBufferSubset(exampleBuffer, 6, 4); //returns {F,F,F,T}
+     * </code></pre>
+     */
+    public static boolean[] genBoolArrayFromByteBufferSubset(ByteBuffer buffer, long startBitIndex, int length){
+        boolean[] r = new boolean[length];
+        for(int i=0; i<length; ++i, ++startBitIndex){
+            r[i] = ((buffer.get((int)(startBitIndex >>> 3)) >>> (7 - (int)(startBitIndex & 7))) & 1) == 1;
+        }
+        return r;
+    }
+}
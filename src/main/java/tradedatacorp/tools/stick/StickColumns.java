@@ -0,0 +1,196 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.tools.stick;
+
+import tradedatacorp.tools.stick.primitive.StickDouble;
+import tradedatacorp.tools.stick.primitive.CandleStickFixedDouble;
+
+/**
+ * A fixed capacity, columnar (struct of arrays) container of OHLCV stick data.
+ * Each field of every stick is stored in its own primitive array, index {@code i} of every array belongs to the same stick.
+ * This avoids one object per stick and keeps scans of a single field contiguous in memory.
+ * <p>
+ * The field arrays are exposed directly for scanning. Only indexes less than {@link #getSize()} are meaningful.
+ * </p>
+ * <p>
+ * Decoders that accept a field mask (an OR of the {@code MASK_*} constants) fill only the selected columns, the other columns are left 0.
+ * </p>
+ */
+public class StickColumns{
+    /**
+     * Field mask bit of the {@link #UTC} column.
+     */
+    public static final int MASK_UTC = 1;
+
+    /**
+     * Field mask bit of the {@link #O} column.
+     */
+    public static final int MASK_O = 1 << 1;
+
+    /**
+     * Field mask bit of the {@link #H} column.
+     */
+    public static final int MASK_H = 1 << 2;
+
+    /**
+     * Field mask bit of the {@link #L} column.
+     */
+    public static final int MASK_L = 1 << 3;
+
+    /**
+     * Field mask bit of the {@link #C} column.
+     */
+    public static final int MASK_C = 1 << 4;
+
+    /**
+     * Field mask bit of the {@link #V} column.
+     */
+    public static final int MASK_V = 1 << 5;
+
+    /**
+     * Field mask of every column.
+     */
+    public static final int MASK_ALL = MASK_UTC | MASK_O | MASK_H | MASK_L | MASK_C | MASK_V;
+
+    /**
+     * The UTC times in milliseconds of each stick.
+     */
+    public final long[] UTC;
+
+    /**
+     * The opening prices of each stick.
+     */
+    public final double[] O;
+
+    /**
+     * The highest prices of each stick.
+     */
+    public final double[] H;
+
+    /**
+     * The lowest prices of each stick.
+     */
+    public final double[] L;
+
+    /**
+     * The closing prices of each stick.
+     */
+    public final double[] C;
+
+    /**
+     * The volumes of each stick.
+     */
+    public final double[] V;
+
+    private int size;
+
+    /**
+     * Constructs an empty container that can hold up to {@code capacity} sticks.
+     * @param capacity The maximum number of sticks. Must not be negative.
+     */
+    public StickColumns(int capacity){
+        if(capacity < 0) throw new IllegalArgumentException("capacity must be non-negative: "+capacity);
+        UTC = new long[capacity];
+        O = new double[capacity];
+        H = new double[capacity];
+        L = new double[capacity];
+        C = new double[capacity];
+        V = new double[capacity];
+        size = 0;
+    }
+
+    /**
+     * Constructs a full container from an array of sticks.
+     * @param stickArray The sticks that will be copied in order.
+     */
+    public StickColumns(StickDouble[] stickArray){
+        this(stickArray.length);
+        for(StickDouble stick : stickArray){add(stick);}
+    }
+
+    /**
+     * Checks that {@code fieldMask} only contains {@code MASK_*} bits.
+     * @param fieldMask The field mask to check.
+     * @return {@code fieldMask}.
+     * @throws IllegalArgumentException if {@code fieldMask} contains any other bit.
+     */
+    public static int checkFieldMask(int fieldMask){
+        if((fieldMask & ~MASK_ALL) != 0) throw new IllegalArgumentException("Invalid field mask: "+Integer.toBinaryString(fieldMask));
+        return fieldMask;
+    }
+
+    /**
+     * Returns the number of sticks within this container.
+     * @return the number of sticks within this container.
+     */
+    public int getSize(){return size;}
+
+    /**
+     * Returns the maximum number of sticks this container can hold.
+     * @return the maximum number of sticks this container can hold.
+     */
+    public int getCapacity(){return UTC.length;}
+
+    /**
+     * Sets the number of sticks within this container. Intended for bulk writers that fill the public field arrays directly.
+     * Shrinking the size discards the sticks at the end, growing the size exposes whatever values are in the field arrays.
+     * @param newSize The new number of sticks. Must be between 0 and {@link #getCapacity()} inclusively.
+     */
+    public void setSize(int newSize){
+        if(newSize < 0 || newSize > UTC.length) throw new IllegalArgumentException("newSize must be between 0 and "+UTC.length+". Received: "+newSize);
+        size = newSize;
+    }
+
+    /**
+     * Appends a single stick from its field values.
+     * @param utc The UTC timestamp (milliseconds).
+     * @param open The opening price.
+     * @param high The highest price.
+     * @param low The lowest price.
+     * @param close The closing price.
+     * @param volume The volume.
+     * @throws IllegalStateException if this container is full.
+     */
+    public void add(long utc, double open, double high, double low, double close, double volume){
+        if(size == UTC.length) throw new IllegalStateException("StickColumns is full. capacity: "+UTC.length);
+        UTC[size] = utc;
+        O[size] = open;
+        H[size] = high;
+        L[size] = low;
+        C[size] = close;
+        V[size] = volume;
+        ++size;
+    }
+
+    /**
+     * Appends a copy of the field values of {@code stick}.
+     * @param stick The stick that will be copied.
+     * @throws IllegalStateException if this container is full.
+     */
+    public void add(StickDouble stick){
+        add(stick.getUTC(), stick.getO(), stick.getH(), stick.getL(), stick.getC(), stick.getV());
+    }
+
+    /**
+     * Returns a new stick object with the field values at {@code index}.
+     * @param index The index of the stick.
+     * @return a new {@link CandleStickFixedDouble} with the values at {@code index}.
+     * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #getSize()}.
+     */
+    public StickDouble getStick(int index){
+        if(index < 0 || index >= size) throw new IndexOutOfBoundsException("index: "+index+" size: "+size);
+        return new CandleStickFixedDouble(UTC[index], O[index], H[index], L[index], C[index], V[index]);
+    }
+
+    /**
+     * Returns a new array of stick objects of every stick within this container.
+     * @return a new array of size {@link #getSize()}.
+     */
+    public StickDouble[] genStickArray(){
+        StickDouble[] r = new StickDouble[size];
+        for(int i=0; i<size; ++i){r[i] = getStick(i);}
+        return r;
+    }
+}
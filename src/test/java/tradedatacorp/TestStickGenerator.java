@@ -0,0 +1,96 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import tradedatacorp.tools.stick.primitive.StickDouble;
+import tradedatacorp.tools.stick.primitive.CandleStickFixedDouble;
+
+/**
+ * This class is only used by unit tests to generate and compare sticks of one minute data points.
+ */
+public class TestStickGenerator{
+    private TestStickGenerator(){}
+
+    /**
+     * Returns {@code count} one minute sticks with prices and volume that rise with every stick.
+     * @param count The number of sticks.
+     * @return {@code count} sticks in UTC order.
+     */
+    public static StickDouble[] genSticks(int count){
+        StickDouble[] sticks = new StickDouble[count];
+        for(int i=0; i<count; ++i){
+            sticks[i] = new CandleStickFixedDouble(1743046200000L + 60000L*i, 87054.01 + i, 87103.15 + i, 87001.12 + i, 87090.44 + i, 0.25*i);
+        }
+        return sticks;
+    }
+
+    /**
+     * Returns {@code count} one minute sticks from fixed point values with few distinct values per block,
+     * a price level shift at {@code count/2} and a constant volume in the first {@code count/10} sticks.
+     * @param count The number of sticks.
+     * @return {@code count} sticks in UTC order.
+     */
+    public static StickDouble[] genLevelShiftSticks(int count){
+        StickDouble[] sticks = new StickDouble[count];
+        for(int i=0; i<count; ++i){
+            long base = (i < count/2 ? 8700000 : 50) + i % 7;
+            long volume = i < count/10 ? 1500 : i * 37 % 1000;
+            sticks[i] = new CandleStickFixedDouble(1743046200000L + 60000L*i, base/100.0, (base + 5)/100.0, (base - 3)/100.0, (base + 2)/100.0, volume/1000.0);
+        }
+        return sticks;
+    }
+
+    /**
+     * Returns {@code count} one minute sticks with prices that repeat every 50 sticks and volume that repeats every 1000 sticks,
+     * so the values stay small for any {@code count}.
+     * @param count The number of sticks.
+     * @return {@code count} sticks in UTC order.
+     */
+    public static StickDouble[] genCyclicSticks(int count){
+        StickDouble[] sticks = new StickDouble[count];
+        for(int i=0; i<count; ++i){
+            sticks[i] = new CandleStickFixedDouble(1743046200000L + 60000L*i, 100.5 + i%50, 101.25 + i%50, 99.75 + i%50, 100 + i%50, i%1000);
+        }
+        return sticks;
+    }
+
+    /**
+     * Returns {@code count} sticks every 60 seconds with UTC in seconds and a one hour gap before index {@code gapIndex}.
+     * @param count The number of sticks.
+     * @param gapIndex The index of the first stick after the gap.
+     * @return {@code count} sticks in UTC order.
+     */
+    public static StickDouble[] genGapSticks(int count, int gapIndex){
+        StickDouble[] sticks = new StickDouble[count];
+        for(int i=0; i<count; ++i){
+            long utc = 1743046200L + 60L*i + (i >= gapIndex ? 3600L : 0L);
+            sticks[i] = new CandleStickFixedDouble(utc, 10 + i, 11 + i, 9 + i, 10.5 + i, i);
+        }
+        return sticks;
+    }
+
+    /**
+     * Asserts both arrays have the same length and every stick is equal by {@link StickDouble#isEqual}.
+     * @param expected The expected sticks.
+     * @param actual The sticks to check.
+     * @param message The prefix of every failure message.
+     */
+    public static void assertSticks(StickDouble[] expected, StickDouble[] actual, String message){
+        assertEquals(expected.length, actual.length, message);
+        for(int i=0; i<expected.length; ++i){assertTrue(StickDouble.isEqual(expected[i], actual[i]), message+" index: "+i);}
+    }
+
+    /**
+     * Asserts both arrays have the same length and every stick is equal by {@link StickDouble#isEqual}.
+     * @param expected The expected sticks.
+     * @param actual The sticks to check.
+     */
+    public static void assertSticks(StickDouble[] expected, StickDouble[] actual){
+        assertSticks(expected, actual, "sticks");
+    }
+}
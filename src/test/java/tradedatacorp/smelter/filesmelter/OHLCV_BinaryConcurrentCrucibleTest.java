@@ -0,0 +1,122 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.filesmelter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tradedatacorp.TestStickGenerator.genSticks;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLexical;
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLayout;
+import tradedatacorp.tools.stick.primitive.StickDouble;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+public class OHLCV_BinaryConcurrentCrucibleTest{
+    OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3);
+    OHLCV_BinaryLayout layout = lexical.getLayout();
+    StickDouble[] sticks = genSticks(4000);
+
+    //Each thread adds every threadCount-th stick in UTC order, single sticks and arrays alternating.
+    private static void addFromThreads(int threadCount, StickDouble[] sticks, Consumer<StickDouble> addOne, Consumer<StickDouble[]> addMany){
+        Thread[] threads = new Thread[threadCount];
+        for(int t=0; t<threadCount; ++t){
+            final int lane = t;
+            threads[t] = new Thread(() -> {
+                StickDouble[] batch = new StickDouble[2];
+                for(int i=lane, b=0; i<sticks.length; i+=threadCount){
+                    if(b == 0 && i + threadCount < sticks.length){
+                        batch[0] = sticks[i];
+                        b = 1;
+                    }else if(b == 1){
+                        batch[1] = sticks[i];
+                        addMany.accept(batch.clone());
+                        b = 0;
+                    }else addOne.accept(sticks[i]);
+                }
+            });
+        }
+        for(Thread thread : threads) thread.start();
+        for(Thread thread : threads){
+            try{thread.join();}
+            catch(InterruptedException err){err.printStackTrace();}
+        }
+    }
+
+    private void assertDrained(OHLCV_BinaryPackedCrucible destination, StickDouble[] original){
+        StickDouble[] expected = lexical.getRefinedDataArrayFlat(lexical.getBinaryDataPointsFlat(original));
+        ByteBuffer view = destination.genPackedView((byte)0);
+        StickDouble[] actual = layout.getRefinedDataArrayPacked(view, destination.getFirstBitOffset(), destination.size());
+        assertEquals(expected.length, actual.length);
+        for(int i=0; i<expected.length; ++i){assertTrue(StickDouble.isEqual(expected[i], actual[i]), "index: "+i);}
+    }
+
+    @Nested
+    @DisplayName("Drain tests")
+    class DrainTest{
+        @Test
+        public void singleProducerKeepsInsertionOrder(){
+            //Reversed UTC order, a single lane must not be reordered.
+            StickDouble[] reversed = new StickDouble[sticks.length];
+            for(int i=0; i<sticks.length; ++i){reversed[i] = sticks[sticks.length - 1 - i];}
+
+            OHLCV_BinaryConcurrentCrucible crucible = new OHLCV_BinaryConcurrentCrucible(layout, false);
+            crucible.add(reversed[0]);
+            crucible.add(Arrays.copyOfRange(reversed, 1, 2000));
+            crucible.add(Arrays.asList(Arrays.copyOfRange(reversed, 2000, reversed.length)));
+            assertEquals(reversed.length, crucible.size());
+
+            OHLCV_BinaryPackedCrucible destination = new OHLCV_BinaryPackedCrucible(lexical, false);
+            assertEquals(reversed.length, crucible.drainTo(destination));
+            assertEquals(0, crucible.size());
+            assertDrained(destination, reversed);
+        }
+
+        @Test
+        public void producersAreMergedByUTC(){
+            for(boolean isDirect : new boolean[]{false, true}){
+                OHLCV_BinaryConcurrentCrucible crucible = new OHLCV_BinaryConcurrentCrucible(layout, isDirect);
+                addFromThreads(8, sticks, crucible::add, crucible::add);
+                assertEquals(sticks.length, crucible.size());
+                assertEquals(8, crucible.getLaneCount());
+
+                OHLCV_BinaryPackedCrucible destination = new OHLCV_BinaryPackedCrucible(layout, 3, 1, isDirect);
+                assertEquals(sticks.length, crucible.drainTo(destination));
+                assertDrained(destination, sticks);
+
+                //The producer threads are done, their empty lanes are released by the next drain.
+                assertEquals(0, crucible.drainTo(destination));
+                assertEquals(0, crucible.getLaneCount());
+            }
+        }
+
+        @Test
+        public void smelterMatchesArrayWrite(@TempDir Path tmpDir){
+            Path arrayFile = tmpDir.resolve("testArray.brclmb");
+            Path concurrentFile = tmpDir.resolve("testConcurrent.brclmb");
+            new OHLCV_BinaryLexicalFileSmelter(lexical).smeltToFile(sticks, arrayFile);
+
+            OHLCV_BinaryLexicalFileSmelter smelter = new OHLCV_BinaryLexicalFileSmelter(lexical);
+            addFromThreads(6, sticks, smelter::addData, smelter::addData);
+            assertEquals(sticks.length, smelter.getCrucibleSize());
+            smelter.smeltToFile(concurrentFile);
+            assertEquals(0, smelter.getCrucibleSize());
+
+            boolean ismatch = false;
+            try{ismatch = Files.mismatch(arrayFile,concurrentFile) == -1;}
+            catch(Exception err){err.printStackTrace();}
+            assertTrue(ismatch);
+        }
+    }
+}
@@ -8,6 +8,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static tradedatacorp.TestStickGenerator.genSticks;
+import static tradedatacorp.TestStickGenerator.genCyclicSticks;
 
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.DisplayName;
@@ -24,8 +26,15 @@ import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLexical;
 import tradedatacorp.tools.stick.primitive.StickDouble;
 import tradedatacorp.tools.stick.primitive.CandleStickFixedDouble;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
 
 public class OHLCV_BinaryLexicalFileSmelterTest{
     private static TestResourceFetcher testFileFetcher;
@@ -157,4 +166,289 @@ public class OHLCV_BinaryLexicalFileSmelterTest{
             }
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Single pass packed writer")
+    class TestsForPackedWriter{
+        private StickDouble[] threeSticks = new StickDouble[]{
+            new CandleStickFixedDouble(12, 4, 9, 2, 5, 10.5),
+            new CandleStickFixedDouble(13, 4.1, 9.7, 2.2, 5, 15.6),
+            new CandleStickFixedDouble(14, 5.3, 8.6, 2.6, 6.7, 9.7)
+        };
+
+        @Test
+        void writeArrayToFile(@TempDir Path tmpDir){
+            OHLCV_BinaryLexicalFileSmelter smelter = new OHLCV_BinaryLexicalFileSmelter(OHLCV_BinaryLexical.genMiniLexical("TEST", 60, (byte)0));
+            Path resultFile = tmpDir.resolve("testResultArray.brclmb");
+            smelter.smeltToFile(threeSticks, resultFile);
+
+            boolean ismatch = false;
+            try{ismatch = Files.mismatch(expectedThreeDatapointsFile,resultFile) == -1;}
+            catch(Exception err){err.printStackTrace();}
+
+            assertTrue(ismatch);
+        }
+
+        @Test
+        void writeCollectionToFile(@TempDir Path tmpDir){
+            OHLCV_BinaryLexicalFileSmelter smelter = new OHLCV_BinaryLexicalFileSmelter(OHLCV_BinaryLexical.genMiniLexical("TEST", 60, (byte)0));
+            Path resultFile = tmpDir.resolve("testResultCollection.brclmb");
+            ArrayList<StickDouble> stickList = new ArrayList<StickDouble>();
+            for(StickDouble stick : threeSticks) stickList.add(stick);
+            smelter.smeltToFile(stickList, resultFile);
+
+            boolean ismatch = false;
+            try{ismatch = Files.mismatch(expectedThreeDatapointsFile,resultFile) == -1;}
+            catch(Exception err){err.printStackTrace();}
+
+            assertTrue(ismatch);
+            assertEquals(3, stickList.size());
+        }
+
+        @Test
+        void writeManyDatapointsMatchesAssemblyLine(@TempDir Path tmpDir){
+            //Large enough to flush the packed chunk several times.
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)0);
+            StickDouble[] sticks = genSticks(5000);
+
+            OHLCV_BinaryLexicalFileSmelter packedSmelter = new OHLCV_BinaryLexicalFileSmelter(lexical);
+            Path packedFile = tmpDir.resolve("testResultPacked.brclmb");
+            packedSmelter.smeltToFile(sticks, packedFile);
+
+            OHLCV_BinaryLexicalFileSmelter assemblySmelter = new OHLCV_BinaryLexicalFileSmelter(lexical);
+            Path assemblyFile = tmpDir.resolve("testResultAssembly.brclmb");
+            assemblySmelter.addData(sticks);
+            ArrayDeque<boolean[]> flatQueue = new ArrayDeque<boolean[]>();
+            for(StickDouble stick : sticks) flatQueue.add(lexical.getBinaryDataFlat(stick));
+            assemblySmelter.writeDataToNewFile(assemblyFile, flatQueue, true);
+
+            boolean ismatch = false;
+            try{ismatch = Files.mismatch(packedFile,assemblyFile) == -1;}
+            catch(Exception err){err.printStackTrace();}
+
+            assertTrue(ismatch);
+            assertEquals((lexical.getHeaderBitLength() + 5000L*lexical.getDataBitLength() + 7)/8, packedFile.toFile().length());
+        }
+    }
+
+    @Nested
+    @DisplayName("Parallel packed writer")
+    class TestsForParallelWriter{
+        private void assertParallelMatchesSerial(OHLCV_BinaryLexical lexical, int count, Path tmpDir){
+            StickDouble[] sticks = genCyclicSticks(count);
+
+            OHLCV_BinaryLexicalFileSmelter smelter = new OHLCV_BinaryLexicalFileSmelter(lexical);
+            Path serialFile = tmpDir.resolve("testSerial"+count+".brclmb");
+            Path parallelFile = tmpDir.resolve("testParallel"+count+".brclmb");
+            smelter.smeltToFile(sticks, serialFile);
+
+            ForkJoinPool pool = new ForkJoinPool(3);
+            smelter.smeltToFileParallel(sticks, parallelFile, pool);
+            pool.shutdown();
+
+            boolean ismatch = false;
+            try{ismatch = Files.mismatch(serialFile,parallelFile) == -1;}
+            catch(Exception err){err.printStackTrace();}
+
+            assertTrue(ismatch, "count: "+count);
+        }
+
+        @Test
+        void writeSegmentsWithUnalignedEdges(@TempDir Path tmpDir){
+            //Standard data length is 274 bits, so segment edges fall in the middle of bytes.
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3);
+            assertParallelMatchesSerial(lexical, 0, tmpDir);
+            assertParallelMatchesSerial(lexical, 1, tmpDir);
+            assertParallelMatchesSerial(lexical, OHLCV_BinaryLexicalFileSmelter.PARALLEL_ENCODE_SEGMENT_SIZE, tmpDir);
+            assertParallelMatchesSerial(lexical, 13*OHLCV_BinaryLexicalFileSmelter.PARALLEL_ENCODE_SEGMENT_SIZE + 5, tmpDir);
+        }
+
+        @Test
+        void writeMiniThreeDatapoints(@TempDir Path tmpDir){
+            OHLCV_BinaryLexicalFileSmelter smelter = new OHLCV_BinaryLexicalFileSmelter(OHLCV_BinaryLexical.genMiniLexical("TEST", 60, (byte)0));
+            Path resultFile = tmpDir.resolve("testResultParallelThree.brclmb");
+            smelter.smeltToFileParallel(new StickDouble[]{
+                new CandleStickFixedDouble(12, 4, 9, 2, 5, 10.5),
+                new CandleStickFixedDouble(13, 4.1, 9.7, 2.2, 5, 15.6),
+                new CandleStickFixedDouble(14, 5.3, 8.6, 2.6, 6.7, 9.7)
+            }, resultFile);
+
+            boolean ismatch = false;
+            try{ismatch = Files.mismatch(expectedThreeDatapointsFile,resultFile) == -1;}
+            catch(Exception err){err.printStackTrace();}
+
+            assertTrue(ismatch);
+        }
+
+        @Test
+        void failedSegmentLeavesNoFile(@TempDir Path tmpDir){
+            OHLCV_BinaryLexicalFileSmelter smelter = new OHLCV_BinaryLexicalFileSmelter(OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3));
+            Path resultFile = tmpDir.resolve("testParallelFailed.brclmb");
+            StickDouble[] sticks = genCyclicSticks(5*OHLCV_BinaryLexicalFileSmelter.PARALLEL_ENCODE_SEGMENT_SIZE);
+            sticks[3*OHLCV_BinaryLexicalFileSmelter.PARALLEL_ENCODE_SEGMENT_SIZE + 1] = null;
+
+            ForkJoinPool pool = new ForkJoinPool(2);
+            assertThrows(NullPointerException.class, () -> smelter.smeltToFileParallel(sticks, resultFile, pool));
+            pool.shutdown();
+            assertFalse(Files.exists(resultFile));
+        }
+    }
+
+    @Nested
+    @DisplayName("In place append")
+    class TestsForAppend{
+        private void assertAppendMatchesRewrite(OHLCV_BinaryLexical lexical, int count, Path tmpDir){
+            StickDouble[] sticks = genCyclicSticks(count);
+            int half = count/2;
+            OHLCV_BinaryLexicalFileSmelter smelter = new OHLCV_BinaryLexicalFileSmelter(lexical);
+            Path rewrittenFile = tmpDir.resolve("testRewritten"+count+".brclmb");
+            Path appendedFile = tmpDir.resolve("testAppended"+count+".brclmb");
+            smelter.smeltToFile(sticks, rewrittenFile);
+
+            smelter.appendToFile(Arrays.copyOfRange(sticks, 0, half), appendedFile); //Created
+            smelter.appendToFile(sticks[half], appendedFile);
+            smelter.appendToFile(Arrays.copyOfRange(sticks, half + 1, count - 1), appendedFile);
+            smelter.appendToFile(new ArrayList<StickDouble>(Arrays.asList(sticks[count - 1])), appendedFile);
+            smelter.appendToFile(new StickDouble[0], appendedFile);
+
+            boolean ismatch = false;
+            try{ismatch = Files.mismatch(rewrittenFile,appendedFile) == -1;}
+            catch(Exception err){err.printStackTrace();}
+
+            assertTrue(ismatch, "data bit length: "+lexical.getDataBitLength());
+            assertEquals(count, new OHLCV_BinaryLexicalFileUnsmelter().unsmeltFileToArray(appendedFile).length);
+        }
+
+        @Test
+        void appendMatchesRewrite(@TempDir Path tmpDir){
+            //The mini data count field is 3 bits.
+            assertAppendMatchesRewrite(OHLCV_BinaryLexical.genMiniLexical("TEST", 60, (byte)0), 7, tmpDir);
+            assertAppendMatchesRewrite(OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3), 20, tmpDir);
+        }
+
+        @Test
+        void appendToResourceFile(@TempDir Path tmpDir) throws Exception{
+            Path appendedFile = tmpDir.resolve("testAppendedThree.brclmb");
+            Files.copy(expectedTwoDatapointsFile, appendedFile);
+            OHLCV_BinaryLexicalFileSmelter smelter = new OHLCV_BinaryLexicalFileSmelter(OHLCV_BinaryLexical.genMiniLexical("TEST", 60, (byte)0));
+            smelter.appendToFile(new CandleStickFixedDouble(14, 5.3, 8.6, 2.6, 6.7, 9.7), appendedFile);
+
+            assertEquals(-1, Files.mismatch(expectedThreeDatapointsFile, appendedFile));
+        }
+
+        @Test
+        void invalidAppends(@TempDir Path tmpDir){
+            StickDouble[] sticks = genCyclicSticks(3);
+            Path file = tmpDir.resolve("testInvalidAppend.brclmb");
+            OHLCV_BinaryLexical fitted = OHLCV_BinaryLexical.genFittedLexical("BTCUSD", 60, sticks);
+            OHLCV_BinaryLexicalFileSmelter smelter = new OHLCV_BinaryLexicalFileSmelter(fitted);
+            smelter.smeltToFile(sticks, file);
+
+            //A fitted data count field of 2 bits holds at most 3 data points.
+            assertThrows(IllegalArgumentException.class, () -> smelter.appendToFile(sticks[0], file));
+            OHLCV_BinaryLexicalFileSmelter otherLayout = new OHLCV_BinaryLexicalFileSmelter(OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3));
+            assertThrows(IllegalArgumentException.class, () -> otherLayout.appendToFile(sticks[0], file));
+            assertEquals(3, new OHLCV_BinaryLexicalFileUnsmelter().unsmeltFileToArray(file).length);
+        }
+    }
+
+    @Nested
+    @DisplayName("Packed crucible")
+    class TestsForPackedCrucible{
+        @Test
+        void crucibleMatchesArrayWrite(@TempDir Path tmpDir){
+            //Standard data length is 274 bits and the header is not byte aligned.
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3);
+            StickDouble[] sticks = genSticks(3000);
+            Path arrayFile = tmpDir.resolve("testArray.brclmb");
+            new OHLCV_BinaryLexicalFileSmelter(lexical).smeltToFile(sticks, arrayFile);
+
+            for(boolean isOffHeap : new boolean[]{false, true}){
+                OHLCV_BinaryLexicalFileSmelter smelter = new OHLCV_BinaryLexicalFileSmelter(lexical, isOffHeap);
+                Path crucibleFile = tmpDir.resolve("testCrucible"+isOffHeap+".brclmb");
+                smelter.addData(sticks[0]);
+                smelter.addData(Arrays.copyOfRange(sticks, 1, 1000));
+                smelter.addData(new ArrayList<StickDouble>(Arrays.asList(Arrays.copyOfRange(sticks, 1000, sticks.length))));
+                assertEquals(sticks.length, smelter.getCrucibleSize());
+                smelter.smeltToFile(crucibleFile);
+                assertEquals(0, smelter.getCrucibleSize());
+
+                boolean ismatch = false;
+                try{ismatch = Files.mismatch(arrayFile,crucibleFile) == -1;}
+                catch(Exception err){err.printStackTrace();}
+                assertTrue(ismatch, "off heap: "+isOffHeap);
+
+                smelter.addData(sticks);
+                assertEquals(new OHLCV_BinaryLexicalFileSmelter(lexical).smeltToString(sticks), smelter.smeltToString());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests for byte outputs")
+    class TestsForByteOutput{
+        @Test
+        void bytesMatchFile(@TempDir Path tmpDir){
+            //Standard data length is 274 bits and the header is not byte aligned, the mini lexical is.
+            for(OHLCV_BinaryLexical lexical : new OHLCV_BinaryLexical[]{
+                OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3),
+                OHLCV_BinaryLexical.genMiniLexical("BTCUSD", 60, (byte)3)
+            }){
+                StickDouble[] sticks = new StickDouble[5];
+                for(int i=0; i<sticks.length; ++i){sticks[i] = new CandleStickFixedDouble(12 + i, 4 + i, 9 + i, 2 + i, 5 + i, 10.5 + i);}
+                OHLCV_BinaryLexicalFileSmelter smelter = new OHLCV_BinaryLexicalFileSmelter(lexical);
+                Path file = tmpDir.resolve("testBytes"+lexical.getDataBitLength()+".brclmb");
+                smelter.smeltToFile(sticks, file);
+
+                byte[] expected = null;
+                try{expected = Files.readAllBytes(file);}
+                catch(Exception err){err.printStackTrace();}
+
+                assertTrue(Arrays.equals(expected, smelter.smeltToBytes(sticks)));
+                assertTrue(Arrays.equals(expected, smelter.smeltToBytes(new ArrayList<StickDouble>(Arrays.asList(sticks)))));
+                assertEquals(ByteBuffer.wrap(expected), smelter.smeltToByteBuffer(sticks));
+
+                ByteArrayOutputStream stream = new ByteArrayOutputStream();
+                smelter.smeltToChannel(sticks, Channels.newChannel(stream));
+                assertTrue(Arrays.equals(expected, stream.toByteArray()));
+
+                byte[] single = null;
+                Path singleFile = tmpDir.resolve("testSingle"+lexical.getDataBitLength()+".brclmb");
+                smelter.smeltToFile(sticks[0], singleFile);
+                try{single = Files.readAllBytes(singleFile);}
+                catch(Exception err){err.printStackTrace();}
+                assertTrue(Arrays.equals(single, smelter.smeltToBytes(sticks[0])));
+            }
+        }
+
+        @Test
+        void crucibleBytesMatchFile(@TempDir Path tmpDir){
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3);
+            StickDouble[] sticks = genSticks(20000);
+            Path file = tmpDir.resolve("testCrucibleBytes.brclmb");
+            OHLCV_BinaryLexicalFileSmelter smelter = new OHLCV_BinaryLexicalFileSmelter(lexical);
+            smelter.smeltToFile(sticks, file);
+            byte[] expected = null;
+            try{expected = Files.readAllBytes(file);}
+            catch(Exception err){err.printStackTrace();}
+
+            //The streamed array output spans several flushes of the reusable chunk.
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            smelter.smeltToChannel(sticks, Channels.newChannel(stream));
+            assertTrue(Arrays.equals(expected, stream.toByteArray()));
+
+            smelter.addData(sticks);
+            assertTrue(Arrays.equals(expected, smelter.smeltToBytes()));
+            assertEquals(0, smelter.getCrucibleSize());
+
+            smelter.addData(sticks);
+            assertEquals(ByteBuffer.wrap(expected), smelter.smeltToByteBuffer());
+
+            smelter.addData(sticks);
+            stream.reset();
+            smelter.smeltToChannel(Channels.newChannel(stream));
+            assertTrue(Arrays.equals(expected, stream.toByteArray()));
+            assertEquals(0, smelter.getCrucibleSize());
+        }
+    }
+}
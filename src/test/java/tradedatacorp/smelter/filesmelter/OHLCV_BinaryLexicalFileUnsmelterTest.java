@@ -5,17 +5,33 @@
 package tradedatacorp.smelter.filesmelter;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static tradedatacorp.TestStickGenerator.assertSticks;
+import static tradedatacorp.TestStickGenerator.genSticks;
 
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.io.TempDir;
 
 import tradedatacorp.TestResourceFetcher;
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryHeader;
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLexical;
+import tradedatacorp.tools.binarytools.BinaryTools;
+import tradedatacorp.tools.stick.StickColumns;
 import tradedatacorp.tools.stick.primitive.StickDouble;
 import tradedatacorp.tools.stick.primitive.CandleStickFixedDouble;
 
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 
@@ -1441,4 +1457,221 @@ public class OHLCV_BinaryLexicalFileUnsmelterTest{
             assertEquals(expectedStick2.getV(),actualStick2.getV());
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Multiple chunk unsmelt tests")
+    class TestsForManyDatapoints{
+        private Path genFile(Path tmpDir, OHLCV_BinaryLexical lexical, StickDouble[] sticks){
+            Path file = tmpDir.resolve("testManyDatapoints.brclmb");
+            OHLCV_BinaryLexicalFileSmelter smelter = new OHLCV_BinaryLexicalFileSmelter(lexical);
+            smelter.smeltToFile(sticks, file);
+            return file;
+        }
+
+        @Test
+        public void unsmeltAllAcrossChunks(@TempDir Path tmpDir){
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3);
+            StickDouble[] sticks = genSticks(1000);
+            Path file = genFile(tmpDir, lexical, sticks);
+            StickDouble[] expected = lexical.getRefinedDataArrayFlat(lexical.getBinaryDataPointsFlat(sticks));
+
+            //Chunk sizes smaller than, close to, and larger than a single data point.
+            for(int chunkSize : new int[]{1, 35, 64, 4096}){
+                OHLCV_BinaryLexicalFileUnsmelter reader = new OHLCV_BinaryLexicalFileUnsmelter(chunkSize);
+                StickDouble[] actual = reader.unsmeltFileToArray(file);
+                assertEquals(expected.length, actual.length);
+                for(int i=0; i<expected.length; ++i){
+                    assertTrue(StickDouble.isEqual(expected[i], actual[i]), "chunk size: "+chunkSize+" index: "+i);
+                }
+            }
+        }
+
+        @Test
+        public void unsmeltColumnsAcrossChunks(@TempDir Path tmpDir){
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3);
+            StickDouble[] sticks = genSticks(1000);
+            Path file = genFile(tmpDir, lexical, sticks);
+            StickDouble[] expected = lexical.getRefinedDataArrayFlat(lexical.getBinaryDataPointsFlat(sticks));
+            OHLCV_BinaryLexicalFileUnsmelter reader = new OHLCV_BinaryLexicalFileUnsmelter(64);
+
+            StickColumns allColumns = reader.unsmeltFileToColumns(file);
+            assertEquals(expected.length, allColumns.getSize());
+            for(int i=0; i<expected.length; ++i){
+                assertTrue(StickDouble.isEqual(expected[i], allColumns.getStick(i)), "index: "+i);
+            }
+
+            StickColumns partialColumns = reader.unsmeltFileToColumnsFromQuantity(file, 990, 50);
+            assertEquals(10, partialColumns.getSize());
+            assertEquals(expected[990].getUTC(), partialColumns.UTC[0]);
+            assertEquals(expected[999].getV(), partialColumns.V[9]);
+        }
+
+        @Test
+        public void unsmeltPartialAcrossChunks(@TempDir Path tmpDir){
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3);
+            StickDouble[] sticks = genSticks(1000);
+            Path file = genFile(tmpDir, lexical, sticks);
+            StickDouble[] expected = lexical.getRefinedDataArrayFlat(lexical.getBinaryDataPointsFlat(sticks));
+            OHLCV_BinaryLexicalFileUnsmelter reader = new OHLCV_BinaryLexicalFileUnsmelter(64);
+
+            for(int fromIndex : new int[]{0, 1, 7, 8, 499, 998}){
+                StickDouble[] actual = reader.unsmeltFileToArrayFromQuantity(file, fromIndex, 300, true);
+                int expectedQuantity = Math.min(300, expected.length - fromIndex);
+                assertEquals(expectedQuantity, actual.length);
+                for(int i=0; i<expectedQuantity; ++i){
+                    assertTrue(StickDouble.isEqual(expected[fromIndex + i], actual[i]), "from index: "+fromIndex+" index: "+i);
+                }
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Typed header and header cache tests")
+    class HeaderCacheTest{
+        @Test
+        public void typedHeaderMatchesBinaryHeader(){
+            Path file = testFileFetcher.getFilePath("smelter/filesmelter/ThreeDatapoints.brclmb");
+            OHLCV_BinaryHeader streamed = new OHLCV_BinaryLexicalFileUnsmelter(64, null).unsmeltFileTypedHeader(file);
+            OHLCV_BinaryHeader cached = new OHLCV_BinaryLexicalFileUnsmelter(64, new OHLCV_BinaryHeaderCache(4)).unsmeltFileTypedHeader(file);
+
+            for(OHLCV_BinaryHeader header : new OHLCV_BinaryHeader[]{streamed, cached}){
+                assertEquals(3, header.getDataCount());
+                boolean[][] binaryHeader = header.getBinaryHeader();
+                for(int i=0; i<binaryHeader.length; ++i){
+                    assertTrue(BinaryTools.isEqualBoolArray(cachedThreeDatapointsHeader[i], binaryHeader[i]), "field: "+i);
+                }
+            }
+            assertEquals(streamed.getLayout(), cached.getLayout());
+            assertEquals(streamed.getHeaderBitLength(), cached.getHeaderBitLength());
+            assertEquals(cached.getHeaderBitLength(), OHLCV_BinaryHeader.genHeaderFromBinaryHeader(cachedThreeDatapointsHeader).getHeaderBitLength());
+        }
+
+        @Test
+        public void packedHeaderMatchesLexical(){
+            OHLCV_BinaryLexical[] lexicals = new OHLCV_BinaryLexical[]{
+                OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3),
+                OHLCV_BinaryLexical.genStandardAlignedLexical("ETHUSD", 300),
+                OHLCV_BinaryLexical.genFittedLexical("BTCUSD", 60, genSticks(7))
+            };
+            for(OHLCV_BinaryLexical lexical : lexicals){
+                ByteBuffer content = ByteBuffer.wrap(new OHLCV_BinaryLexicalFileSmelter(lexical).smeltToBytes(genSticks(7)));
+                OHLCV_BinaryHeader header = OHLCV_BinaryHeader.genHeaderFromPackedBytes(content, 0);
+                lexical.setDataCount(7);
+
+                assertEquals(lexical.getSymbol(), header.getSymbol());
+                assertEquals(lexical.getInterval(), header.getInterval());
+                assertEquals(7, header.getDataCount());
+                assertEquals(lexical.getHeaderBitLength(), header.getHeaderBitLength());
+                assertEquals(lexical.getLayout(), header.getLayout());
+                assertSame(header.getLayout(), OHLCV_BinaryHeader.genHeaderFromPackedBytes(content, 0).getLayout());
+
+                boolean[][] expectedHeader = lexical.getBinaryHeader();
+                boolean[][] binaryHeader = header.getBinaryHeader();
+                for(int i=0; i<expectedHeader.length; ++i){
+                    assertTrue(BinaryTools.isEqualBoolArray(expectedHeader[i], binaryHeader[i]), "field: "+i);
+                }
+                assertTrue(BinaryTools.isEqualBoolArray(lexical.getBinaryHeaderFlat(), header.genLexical().getBinaryHeaderFlat()));
+            }
+        }
+
+        @Test
+        public void cacheHitAndInvalidation(@TempDir Path tmpDir){
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3);
+            Path file = tmpDir.resolve("testHeaderCache.brclmb");
+            new OHLCV_BinaryLexicalFileSmelter(lexical).smeltToFile(genSticks(10), file);
+
+            OHLCV_BinaryHeaderCache cache = new OHLCV_BinaryHeaderCache(4);
+            OHLCV_BinaryLexicalFileUnsmelter reader = new OHLCV_BinaryLexicalFileUnsmelter(64, cache);
+            OHLCV_BinaryHeader first = reader.unsmeltFileTypedHeader(file);
+            assertSame(first, cache.getHeader(file));
+            assertSame(first, cache.getHeader(tmpDir.resolve(".").resolve("testHeaderCache.brclmb")));
+            assertEquals(1, cache.size());
+            assertEquals(10, reader.unsmeltFileToArray(file).length);
+            assertEquals(4, reader.unsmeltFileToArrayFromQuantity(file, 6, 100, first).length);
+
+            //A rewrite with a different size is detected without an explicit invalidation.
+            new OHLCV_BinaryLexicalFileSmelter(lexical).smeltToFile(genSticks(25), file);
+            StickDouble[] rewritten = reader.unsmeltFileToArray(file);
+            assertEquals(25, rewritten.length);
+            assertNotSame(first, cache.getHeader(file));
+            assertEquals(25, cache.getHeader(file).getDataCount());
+
+            cache.invalidate(file);
+            assertEquals(0, cache.size());
+        }
+
+        @Test
+        public void capacityIsBounded(@TempDir Path tmpDir){
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3);
+            OHLCV_BinaryHeaderCache cache = new OHLCV_BinaryHeaderCache(2);
+            for(int i=0; i<5; ++i){
+                Path file = tmpDir.resolve("testHeaderCache"+i+".brclmb");
+                new OHLCV_BinaryLexicalFileSmelter(lexical).smeltToFile(genSticks(i + 1), file);
+                assertEquals(i + 1, cache.getHeader(file).getDataCount());
+                assertTrue(cache.size() <= 2);
+            }
+            cache.clear();
+            assertEquals(0, cache.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("In-memory and stream unsmelt tests")
+    class InMemoryTest{
+        @Test
+        public void everySourceMatchesFile(){
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3);
+            StickDouble[] sticks = genSticks(1000);
+            byte[] content = new OHLCV_BinaryLexicalFileSmelter(lexical).smeltToBytes(sticks);
+            StickDouble[] expected = lexical.getRefinedDataArrayFlat(lexical.getBinaryDataPointsFlat(sticks));
+            OHLCV_BinaryLexicalFileUnsmelter reader = new OHLCV_BinaryLexicalFileUnsmelter(64);
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(content.length + 3);
+            direct.position(3);
+            direct.put(content).position(3);
+
+            assertSticks(expected, reader.unsmeltBytesToArray(content), "bytes");
+            assertSticks(expected, reader.unsmeltBytesToCollection(content).toArray(new StickDouble[0]), "bytes collection");
+            assertSticks(expected, reader.unsmeltBufferToArray(direct), "direct buffer");
+            assertEquals(3, direct.position());
+            assertSticks(expected, reader.unsmeltBufferToCollection(direct).toArray(new StickDouble[0]), "direct buffer collection");
+            assertSticks(expected, reader.unsmeltStreamToArray(new ByteArrayInputStream(content)), "stream");
+            assertSticks(expected, reader.unsmeltStreamToCollection(new ByteArrayInputStream(content)).toArray(new StickDouble[0]), "stream collection");
+            assertSticks(expected, reader.unsmeltChannelToArray(Channels.newChannel(new ByteArrayInputStream(content))), "channel");
+            assertSticks(expected, reader.unsmeltChannelToCollection(Channels.newChannel(new ByteArrayInputStream(content))).toArray(new StickDouble[0]), "channel collection");
+
+            assertEquals(1000, reader.unsmeltBufferTypedHeader(direct).getDataCount());
+            assertSticks(Arrays.copyOfRange(expected, 990, 1000), reader.unsmeltBufferToArrayFromQuantity(direct, 990, 100), "from quantity");
+            assertEquals(0, reader.unsmeltBufferToArrayFromQuantity(direct, 2000, 10).length);
+        }
+
+        @Test
+        public void resourceFileBytes(){
+            Path file = testFileFetcher.getFilePath("smelter/filesmelter/ThreeDatapoints.brclmb");
+            OHLCV_BinaryLexicalFileUnsmelter reader = new OHLCV_BinaryLexicalFileUnsmelter();
+            byte[] content = null;
+            try{content = Files.readAllBytes(file);}
+            catch(Exception err){err.printStackTrace();}
+
+            StickDouble[] fromFile = reader.unsmeltFileToArray(file);
+            assertSticks(fromFile, reader.unsmeltBytesToArray(content), "bytes");
+            assertSticks(fromFile, reader.unsmeltStreamToArray(new ByteArrayInputStream(content)), "stream");
+            assertSticks(expectedStickList, reader.unsmeltBytesToArray(content), "expected");
+        }
+
+        @Test
+        public void truncatedSources(){
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3);
+            byte[] content = new OHLCV_BinaryLexicalFileSmelter(lexical).smeltToBytes(genSticks(10));
+            OHLCV_BinaryLexicalFileUnsmelter reader = new OHLCV_BinaryLexicalFileUnsmelter();
+
+            //Only complete data points are decoded.
+            byte[] partial = Arrays.copyOf(content, content.length - lexical.getDataBitLength() / 8);
+            assertEquals(9, reader.unsmeltBytesToArray(partial).length);
+
+            byte[] headerOnly = Arrays.copyOf(content, 5);
+            assertThrows(IllegalArgumentException.class, () -> reader.unsmeltBytesToArray(headerOnly));
+            assertThrows(IllegalArgumentException.class, () -> reader.unsmeltStreamToArray(new ByteArrayInputStream(headerOnly)));
+        }
+    }
+}
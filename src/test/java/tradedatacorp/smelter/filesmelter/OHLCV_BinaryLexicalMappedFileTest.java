@@ -0,0 +1,355 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.filesmelter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static tradedatacorp.TestStickGenerator.genGapSticks;
+import static tradedatacorp.TestStickGenerator.genSticks;
+import static tradedatacorp.TestStickGenerator.genCyclicSticks;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.io.TempDir;
+
+import tradedatacorp.TestResourceFetcher;
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLexical;
+import tradedatacorp.tools.binarytools.BinaryTools;
+import tradedatacorp.tools.stick.StickColumns;
+import tradedatacorp.tools.stick.primitive.StickDouble;
+import tradedatacorp.tools.stick.primitive.CandleStickFixedDouble;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+public class OHLCV_BinaryLexicalMappedFileTest{
+    private static TestResourceFetcher testFileFetcher;
+    private static CandleStickFixedDouble[] expectedStickList;
+
+    @BeforeAll
+    static void initialize(){
+        testFileFetcher = new TestResourceFetcher();
+        expectedStickList = new CandleStickFixedDouble[]{
+            new CandleStickFixedDouble(12, 4, 9, 2, 5, 10.5),       //Index: 0
+            new CandleStickFixedDouble(13, 4.1, 9.7, 2.2, 5, 15.6), //Index: 1
+            new CandleStickFixedDouble(14, 5.3, 8.6, 2.6, 6.7, 9.7) //Index: 2
+        };
+    }
+
+    @Nested
+    @DisplayName("ThreeDatapoints mapped file tests")
+    class TestsForThreeDatapoints{
+        private Path filepath = testFileFetcher.getFilePath("smelter/filesmelter/ThreeDatapoints.brclmb");
+
+        @Test
+        public void headerMatchesUnsmelter() throws IOException{
+            OHLCV_BinaryLexicalMappedFile mappedFile = new OHLCV_BinaryLexicalMappedFile(filepath);
+            boolean[][] expectedHeader = new OHLCV_BinaryLexicalFileUnsmelter().unsmeltFileHeader(filepath);
+            boolean[][] actualHeader = mappedFile.getLexical().getBinaryHeader();
+
+            assertEquals(expectedHeader.length, actualHeader.length);
+            for(int i=0; i<expectedHeader.length; ++i){
+                assertTrue(BinaryTools.isEqualBoolArray(expectedHeader[i], actualHeader[i]), "header field mismatch at index: "+i);
+            }
+            assertEquals(3, mappedFile.size());
+            assertEquals("TEST", mappedFile.getLexical().getSymbol());
+        }
+
+        @Test
+        public void getEachIndex() throws IOException{
+            OHLCV_BinaryLexicalMappedFile mappedFile = new OHLCV_BinaryLexicalMappedFile(filepath);
+            for(int i=0; i<expectedStickList.length; ++i){
+                assertTrue(StickDouble.isEqual(expectedStickList[i], mappedFile.get(i)), "index: "+i);
+            }
+        }
+
+        @Test
+        public void getRange() throws IOException{
+            OHLCV_BinaryLexicalMappedFile mappedFile = new OHLCV_BinaryLexicalMappedFile(filepath);
+            StickDouble[] actual = mappedFile.getArrayFromTo(1, 5);
+
+            assertEquals(2, actual.length);
+            assertTrue(StickDouble.isEqual(expectedStickList[1], actual[0]));
+            assertTrue(StickDouble.isEqual(expectedStickList[2], actual[1]));
+            assertEquals(0, mappedFile.getArrayFromQuantity(3, 1).length);
+        }
+
+        @Test
+        public void invalidIndexes() throws IOException{
+            OHLCV_BinaryLexicalMappedFile mappedFile = new OHLCV_BinaryLexicalMappedFile(filepath);
+            assertThrows(IndexOutOfBoundsException.class, () -> mappedFile.get(-1));
+            assertThrows(IndexOutOfBoundsException.class, () -> mappedFile.get(3));
+            assertThrows(IllegalArgumentException.class, () -> mappedFile.getArrayFromQuantity(0, -1));
+        }
+    }
+
+    @Nested
+    @DisplayName("Large mapped file tests")
+    class TestsForManyDatapoints{
+        @Test
+        public void randomAccessMatchesFullUnsmelt(@TempDir Path tmpDir) throws IOException{
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)5);
+            StickDouble[] sticks = genSticks(2000);
+            Path file = tmpDir.resolve("testMappedFile.brclmb");
+            new OHLCV_BinaryLexicalFileSmelter(lexical).smeltToFile(sticks, file);
+
+            StickDouble[] expected = new OHLCV_BinaryLexicalFileUnsmelter().unsmeltFileToArray(file);
+            OHLCV_BinaryLexicalMappedFile mappedFile = new OHLCV_BinaryLexicalMappedFile(file);
+
+            assertEquals(expected.length, mappedFile.size());
+            for(int i=expected.length - 1; i>=0; i -= 7){
+                assertTrue(StickDouble.isEqual(expected[i], mappedFile.get(i)), "index: "+i);
+            }
+
+            StickDouble[] range = mappedFile.getArrayFromQuantity(1234, 100);
+            for(int i=0; i<range.length; ++i){
+                assertTrue(StickDouble.isEqual(expected[1234 + i], range[i]), "range index: "+i);
+            }
+
+            StickColumns columns = mappedFile.getColumnsFromQuantity(1234, 100);
+            assertEquals(100, columns.getSize());
+            for(int i=0; i<columns.getSize(); ++i){
+                assertTrue(StickDouble.isEqual(expected[1234 + i], columns.getStick(i)), "column index: "+i);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Parallel decode tests")
+    class TestsForParallelDecode{
+        @Test
+        public void parallelMatchesSerial(@TempDir Path tmpDir) throws IOException{
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)1);
+            int count = 3*OHLCV_BinaryLexicalMappedFile.PARALLEL_DECODE_THRESHOLD + 17;
+            StickDouble[] sticks = genCyclicSticks(count);
+            Path file = tmpDir.resolve("testParallel.brclmb");
+            new OHLCV_BinaryLexicalFileSmelter(lexical).smeltToFile(sticks, file);
+
+            OHLCV_BinaryLexicalFileUnsmelter reader = new OHLCV_BinaryLexicalFileUnsmelter(4096);
+            StickDouble[] expected = reader.unsmeltFileToArray(file);
+            ForkJoinPool pool = new ForkJoinPool(4);
+            StickDouble[] actual = reader.unsmeltFileToArrayParallel(file, pool);
+            pool.shutdown();
+
+            assertEquals(count, expected.length);
+            assertEquals(count, actual.length);
+            for(int i=0; i<count; ++i){
+                assertTrue(StickDouble.isEqual(expected[i], actual[i]), "index: "+i);
+            }
+
+            StickDouble[] range = new OHLCV_BinaryLexicalMappedFile(file).getArrayFromQuantityParallel(5, count, ForkJoinPool.commonPool());
+            assertEquals(count - 5, range.length);
+            assertTrue(StickDouble.isEqual(expected[count - 1], range[range.length - 1]));
+        }
+    }
+
+    @Nested
+    @DisplayName("UTC binary search tests")
+    class TestsForUTCSearch{
+        private Path genFile(Path tmpDir, StickDouble[] sticks){
+            Path file = tmpDir.resolve("testUTCSearch.brclmb");
+            new OHLCV_BinaryLexicalFileSmelter(OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)0)).smeltToFile(sticks, file);
+            return file;
+        }
+
+        @Test
+        public void boundsOfExactAndMissingValues(@TempDir Path tmpDir) throws IOException{
+            StickDouble[] sticks = genGapSticks(1000, 500);
+            OHLCV_BinaryLexicalMappedFile mappedFile = new OHLCV_BinaryLexicalMappedFile(genFile(tmpDir, sticks));
+
+            assertEquals(0, mappedFile.getLowerBoundIndexOfUTC(0));
+            assertEquals(0, mappedFile.getLowerBoundIndexOfUTC(sticks[0].getUTC()));
+            assertEquals(1, mappedFile.getUpperBoundIndexOfUTC(sticks[0].getUTC()));
+            assertEquals(500, mappedFile.getLowerBoundIndexOfUTC(sticks[499].getUTC() + 1));
+            assertEquals(500, mappedFile.getUpperBoundIndexOfUTC(sticks[500].getUTC() - 1));
+            assertEquals(1000, mappedFile.getLowerBoundIndexOfUTC(Long.MAX_VALUE));
+            assertEquals(sticks[321].getUTC(), mappedFile.getUTC(321));
+        }
+
+        @Test
+        public void arrayFromUTC(@TempDir Path tmpDir) throws IOException{
+            StickDouble[] sticks = genGapSticks(1000, 500);
+            OHLCV_BinaryLexicalMappedFile mappedFile = new OHLCV_BinaryLexicalMappedFile(genFile(tmpDir, sticks));
+
+            StickDouble[] actual = mappedFile.getArrayFromUTC(sticks[490].getUTC() - 30, sticks[509].getUTC());
+            assertEquals(20, actual.length);
+            for(int i=0; i<actual.length; ++i){
+                assertTrue(StickDouble.isEqual(sticks[490 + i], actual[i]), "index: "+i);
+            }
+
+            assertEquals(0, mappedFile.getArrayFromUTC(sticks[499].getUTC() + 1, sticks[500].getUTC() - 1).length);
+            assertEquals(0, mappedFile.getArrayFromUTC(sticks[10].getUTC(), sticks[9].getUTC()).length);
+            assertEquals(1000, mappedFile.getArrayFromUTC(Long.MIN_VALUE, Long.MAX_VALUE).length);
+        }
+
+        @Test
+        public void unsmelterFromUTC(@TempDir Path tmpDir){
+            StickDouble[] sticks = genGapSticks(1000, 500);
+            Path file = genFile(tmpDir, sticks);
+            OHLCV_BinaryLexicalFileUnsmelter reader = new OHLCV_BinaryLexicalFileUnsmelter();
+
+            StickDouble[] actualArray = reader.unsmeltFileToArrayFromUTC(file, sticks[100].getUTC(), sticks[199].getUTC());
+            assertEquals(100, actualArray.length);
+            assertTrue(StickDouble.isEqual(sticks[100], actualArray[0]));
+            assertTrue(StickDouble.isEqual(sticks[199], actualArray[99]));
+            assertEquals(100, reader.unsmeltFileToCollectionFromUTC(file, sticks[100].getUTC(), sticks[199].getUTC()).size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Lazy stream tests")
+    class TestsForStream{
+        @Test
+        public void streamMatchesArray(@TempDir Path tmpDir){
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)1);
+            int count = 10*OHLCV_BinaryLexicalMappedFile.STREAM_SPLIT_THRESHOLD + 7;
+            Path file = tmpDir.resolve("testStream.brclmb");
+            new OHLCV_BinaryLexicalFileSmelter(lexical).smeltToFile(genCyclicSticks(count), file);
+
+            OHLCV_BinaryLexicalFileUnsmelter reader = new OHLCV_BinaryLexicalFileUnsmelter();
+            StickDouble[] expected = reader.unsmeltFileToArray(file);
+
+            StickDouble[] sequential = reader.unsmeltFileToStream(file).toArray(StickDouble[]::new);
+            StickDouble[] parallel = reader.unsmeltFileToStream(file).parallel().toArray(StickDouble[]::new);
+            assertEquals(count, sequential.length);
+            assertEquals(count, parallel.length);
+            for(int i=0; i<count; ++i){
+                assertTrue(StickDouble.isEqual(expected[i], sequential[i]), "sequential index: "+i);
+                assertTrue(StickDouble.isEqual(expected[i], parallel[i]), "parallel index: "+i);
+            }
+
+            StickDouble[] range = reader.unsmeltFileToStreamFromQuantity(file, count - 5, 100).toArray(StickDouble[]::new);
+            assertEquals(5, range.length);
+            assertTrue(StickDouble.isEqual(expected[count - 1], range[4]));
+            assertEquals(0, reader.unsmeltFileToStreamFromQuantity(file, count, 10).count());
+            assertThrows(IllegalArgumentException.class, () -> reader.unsmeltFileToStreamFromQuantity(file, -1, 10));
+        }
+
+        @Test
+        public void decodesLazilyAndSplitsByIndex(@TempDir Path tmpDir) throws IOException{
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)1);
+            int count = 4*OHLCV_BinaryLexicalMappedFile.STREAM_SPLIT_THRESHOLD;
+            StickDouble[] sticks = genCyclicSticks(count);
+            Path file = tmpDir.resolve("testStreamSplit.brclmb");
+            new OHLCV_BinaryLexicalFileSmelter(lexical).smeltToFile(sticks, file);
+            OHLCV_BinaryLexicalMappedFile mappedFile = new OHLCV_BinaryLexicalMappedFile(file);
+
+            //Only consumed data points are decoded.
+            AtomicInteger decoded = new AtomicInteger();
+            Stream<StickDouble> stream = mappedFile.stream().peek(stick -> decoded.incrementAndGet());
+            assertEquals(sticks[2].getUTC(), stream.skip(2).findFirst().get().getUTC());
+            assertEquals(3, decoded.get());
+
+            Spliterator<StickDouble> suffix = mappedFile.stream().spliterator();
+            assertTrue(suffix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL));
+            assertEquals(count, suffix.getExactSizeIfKnown());
+
+            Spliterator<StickDouble> prefix = suffix.trySplit();
+            assertEquals(count / 2, prefix.getExactSizeIfKnown());
+            assertEquals(count / 2, suffix.getExactSizeIfKnown());
+            suffix.tryAdvance(stick -> assertEquals(sticks[count / 2].getUTC(), stick.getUTC()));
+            prefix.tryAdvance(stick -> assertEquals(sticks[0].getUTC(), stick.getUTC()));
+
+            //Ranges below twice the threshold are not split.
+            assertEquals(null, mappedFile.streamFromQuantity(0, 2*OHLCV_BinaryLexicalMappedFile.STREAM_SPLIT_THRESHOLD - 1).spliterator().trySplit());
+        }
+    }
+
+    @Nested
+    @DisplayName("Field projection tests")
+    class TestsForFieldProjection{
+        private void assertProjected(StickColumns full, StickColumns projected, int fieldMask){
+            assertEquals(full.getSize(), projected.getSize());
+            for(int i=0; i<full.getSize(); ++i){
+                assertEquals((fieldMask & StickColumns.MASK_UTC) == 0 ? 0 : full.UTC[i], projected.UTC[i], "UTC index: "+i);
+                assertEquals((fieldMask & StickColumns.MASK_O) == 0 ? 0 : full.O[i], projected.O[i], "O index: "+i);
+                assertEquals((fieldMask & StickColumns.MASK_H) == 0 ? 0 : full.H[i], projected.H[i], "H index: "+i);
+                assertEquals((fieldMask & StickColumns.MASK_L) == 0 ? 0 : full.L[i], projected.L[i], "L index: "+i);
+                assertEquals((fieldMask & StickColumns.MASK_C) == 0 ? 0 : full.C[i], projected.C[i], "C index: "+i);
+                assertEquals((fieldMask & StickColumns.MASK_V) == 0 ? 0 : full.V[i], projected.V[i], "V index: "+i);
+            }
+        }
+
+        @Test
+        public void decodesOnlyMaskedFields(@TempDir Path tmpDir) throws IOException{
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)1);
+            int count = 2500;
+            Path file = tmpDir.resolve("testProjection.brclmb");
+            new OHLCV_BinaryLexicalFileSmelter(lexical).smeltToFile(genSticks(count), file);
+            OHLCV_BinaryLexicalMappedFile mappedFile = new OHLCV_BinaryLexicalMappedFile(file);
+            OHLCV_BinaryLexicalFileUnsmelter reader = new OHLCV_BinaryLexicalFileUnsmelter();
+            StickColumns full = mappedFile.getColumnsFromQuantity(0, count);
+
+            for(int fieldMask : new int[]{StickColumns.MASK_C, StickColumns.MASK_UTC | StickColumns.MASK_V, StickColumns.MASK_ALL, 0}){
+                assertProjected(full, mappedFile.getColumnsFromQuantity(0, count, fieldMask), fieldMask);
+                assertProjected(full, reader.unsmeltFileToColumns(file, fieldMask), fieldMask);
+            }
+
+            int fieldMask = StickColumns.MASK_UTC | StickColumns.MASK_C;
+            StickColumns range = reader.unsmeltFileToColumnsFromQuantity(file, count - 3, 10, fieldMask);
+            assertEquals(3, range.getSize());
+            assertEquals(full.UTC[count - 1], range.UTC[2]);
+            assertEquals(full.C[count - 1], range.C[2]);
+            assertEquals(0, range.H[2]);
+
+            assertThrows(IllegalArgumentException.class, () -> mappedFile.getColumnsFromQuantity(0, count, 1 << 6));
+            assertThrows(IllegalArgumentException.class, () -> reader.unsmeltFileToColumns(file, -1));
+        }
+    }
+
+    @Nested
+    @DisplayName("Mapped view validation and reuse tests")
+    class TestsForMappedFileReuse{
+        @Test
+        public void shortFileThrowsIOException(@TempDir Path tmpDir) throws IOException{
+            Path file = tmpDir.resolve("testShort.brclmb");
+            Files.write(file, new byte[]{1, 2, 3});
+            IOException err = assertThrows(IOException.class, () -> new OHLCV_BinaryLexicalMappedFile(file));
+            assertTrue(err.getMessage().contains("shorter than an OHLCV_BinaryLexical header"), err.getMessage());
+            assertNull(new OHLCV_BinaryLexicalFileUnsmelter().getMappedFile(file));
+        }
+
+        @Test
+        public void unsmelterReusesCurrentMapping(@TempDir Path tmpDir) throws IOException{
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)2);
+            Path file = tmpDir.resolve("testReuse.brclmb");
+            StickDouble[] sticks = genSticks(40);
+            OHLCV_BinaryLexicalFileUnsmelter reader = new OHLCV_BinaryLexicalFileUnsmelter();
+
+            try(OHLCV_BinaryLexicalPreallocatedFile preallocated = OHLCV_BinaryLexicalPreallocatedFile.genPreallocatedFile(file, lexical, 100)){
+                preallocated.write(Arrays.copyOfRange(sticks, 0, 30));
+                preallocated.commit();
+                OHLCV_BinaryLexicalMappedFile mappedFile = reader.getMappedFile(file);
+                assertEquals(30, mappedFile.size());
+                assertTrue(mappedFile.isCurrent());
+                assertSame(mappedFile, reader.getMappedFile(tmpDir.resolve(".").resolve("testReuse.brclmb")));
+                assertEquals(30, reader.unsmeltFileToArrayParallel(file).length);
+                assertSame(mappedFile, reader.getMappedFile(file));
+
+                //A commit only rewrites the count bits, the size does not change.
+                preallocated.write(Arrays.copyOfRange(sticks, 30, 40));
+                preallocated.commit();
+                assertFalse(mappedFile.isCurrent());
+                OHLCV_BinaryLexicalMappedFile remapped = reader.getMappedFile(file);
+                assertNotSame(mappedFile, remapped);
+                assertEquals(40, remapped.size());
+                assertEquals(40, reader.unsmeltFileToStream(file).count());
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.filesmelter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static tradedatacorp.TestStickGenerator.assertSticks;
+import static tradedatacorp.TestStickGenerator.genSticks;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLexical;
+import tradedatacorp.tools.stick.primitive.StickDouble;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+public class OHLCV_BinaryLexicalPreallocatedFileTest{
+    OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3);
+    StickDouble[] sticks = genSticks(30);
+
+    @Nested
+    @DisplayName("Layout tests")
+    class LayoutTest{
+        @Test
+        public void dailyCapacityAndFixedSize(@TempDir Path tmpDir){
+            Path file = tmpDir.resolve("testDaily.brclmb");
+            OHLCV_BinaryLexicalPreallocatedFile daily = OHLCV_BinaryLexicalPreallocatedFile.genDailyFile(file, lexical);
+            long fileSize = file.toFile().length();
+
+            assertEquals(1440, daily.getCapacity());
+            assertEquals(0, daily.getHeader().getHeaderBitLength() % 8);
+            assertTrue(daily.getHeader().getDataCountBitLength() >= 11);
+            assertEquals(fileSize, (daily.getHeader().getHeaderBitLength() + 1440L * lexical.getDataBitLength() + 7) / 8);
+
+            daily.write(sticks);
+            daily.commit();
+            daily.close();
+            assertEquals(fileSize, file.toFile().length());
+        }
+
+        @Test
+        public void invalidValues(@TempDir Path tmpDir){
+            Path file = tmpDir.resolve("testInvalid.brclmb");
+            assertThrows(IllegalArgumentException.class, () -> OHLCV_BinaryLexicalPreallocatedFile.genPreallocatedFile(file, lexical, 0));
+
+            OHLCV_BinaryLexicalPreallocatedFile small = OHLCV_BinaryLexicalPreallocatedFile.genPreallocatedFile(file, lexical, 4);
+            small.write(Arrays.copyOf(sticks, 3));
+            assertThrows(IllegalArgumentException.class, () -> small.write(Arrays.copyOf(sticks, 2)));
+            small.write(sticks[3]);
+            assertThrows(IllegalArgumentException.class, () -> small.write(sticks[4]));
+            assertEquals(4, small.getWrittenCount());
+            small.close();
+        }
+    }
+
+    @Nested
+    @DisplayName("Commit and recovery tests")
+    class CommitTest{
+        @Test
+        public void readersSeeOnlyCommitted(@TempDir Path tmpDir) throws IOException{
+            Path file = tmpDir.resolve("testCommitted.brclmb");
+            OHLCV_BinaryLexicalPreallocatedFile preallocated = OHLCV_BinaryLexicalPreallocatedFile.genPreallocatedFile(file, lexical, 100);
+            OHLCV_BinaryLexicalFileUnsmelter reader = new OHLCV_BinaryLexicalFileUnsmelter();
+            StickDouble[] expected = lexical.getRefinedDataArrayFlat(lexical.getBinaryDataPointsFlat(sticks));
+
+            preallocated.write(Arrays.copyOf(sticks, 10));
+            assertEquals(0, reader.unsmeltFileToArray(file).length);
+            assertEquals(0, new OHLCV_BinaryLexicalMappedFile(file).size());
+
+            preallocated.commit();
+            assertEquals(10, preallocated.getCommittedCount());
+            assertSticks(Arrays.copyOf(expected, 10), reader.unsmeltFileToArray(file));
+
+            for(int i=10; i<sticks.length; ++i){preallocated.write(sticks[i]);}
+            preallocated.commit();
+            preallocated.close();
+            assertSticks(expected, reader.unsmeltFileToArray(file));
+            assertSticks(expected, new OHLCV_BinaryLexicalMappedFile(file).getArrayFromQuantity(0, 100));
+        }
+
+        @Test
+        public void reopenResumesAtCommittedCount(@TempDir Path tmpDir){
+            Path file = tmpDir.resolve("testRecovery.brclmb");
+            OHLCV_BinaryLexicalPreallocatedFile preallocated = OHLCV_BinaryLexicalPreallocatedFile.genPreallocatedFile(file, lexical, 100);
+            preallocated.write(Arrays.copyOf(sticks, 7));
+            preallocated.commit();
+
+            //Written but never committed, as if the process stopped.
+            preallocated.write(genSticks(5));
+            preallocated.close();
+
+            OHLCV_BinaryLexicalPreallocatedFile reopened = OHLCV_BinaryLexicalPreallocatedFile.openPreallocatedFile(file);
+            assertEquals(100, reopened.getCapacity());
+            assertEquals(7, reopened.getCommittedCount());
+            assertEquals(7, reopened.getWrittenCount());
+
+            reopened.write(Arrays.copyOfRange(sticks, 7, sticks.length));
+            reopened.commit();
+            reopened.close();
+
+            StickDouble[] expected = lexical.getRefinedDataArrayFlat(lexical.getBinaryDataPointsFlat(sticks));
+            assertSticks(expected, new OHLCV_BinaryLexicalFileUnsmelter().unsmeltFileToArray(file));
+        }
+
+        @Test
+        public void smelterAppendKeepsFreeSlots(@TempDir Path tmpDir){
+            Path file = tmpDir.resolve("testAppend.brclmb");
+            OHLCV_BinaryLexicalPreallocatedFile.genPreallocatedFile(file, lexical, 100).close();
+            long fileSize = file.toFile().length();
+
+            OHLCV_BinaryLexicalFileSmelter smelter = new OHLCV_BinaryLexicalFileSmelter(lexical);
+            smelter.appendToFile(sticks[0], file);
+            smelter.appendToFile(Arrays.copyOfRange(sticks, 1, 10), file);
+            assertEquals(fileSize, file.toFile().length());
+
+            OHLCV_BinaryLexicalPreallocatedFile reopened = OHLCV_BinaryLexicalPreallocatedFile.openPreallocatedFile(file);
+            assertEquals(100, reopened.getCapacity());
+            assertEquals(10, reopened.getCommittedCount());
+            reopened.write(Arrays.copyOfRange(sticks, 10, sticks.length));
+            reopened.commit();
+            reopened.close();
+
+            StickDouble[] expected = lexical.getRefinedDataArrayFlat(lexical.getBinaryDataPointsFlat(sticks));
+            assertSticks(expected, new OHLCV_BinaryLexicalFileUnsmelter().unsmeltFileToArray(file));
+        }
+
+        @Test
+        public void privateCacheSeesCommitWithinOneClockTick(@TempDir Path tmpDir) throws IOException{
+            Path file = tmpDir.resolve("testCachedCount.brclmb");
+            OHLCV_BinaryHeaderCache cache = new OHLCV_BinaryHeaderCache(8);
+            OHLCV_BinaryLexicalFileUnsmelter reader = new OHLCV_BinaryLexicalFileUnsmelter(64, cache);
+            try(OHLCV_BinaryLexicalPreallocatedFile preallocated = OHLCV_BinaryLexicalPreallocatedFile.genPreallocatedFile(file, lexical, 100)){
+                preallocated.write(Arrays.copyOf(sticks, 10));
+                preallocated.commit();
+                assertEquals(10, cache.getHeader(file).getDataCount());
+                FileTime committedTime = Files.getLastModifiedTime(file);
+
+                //Same size and, as within one tick of the file system clock, the same modified time.
+                preallocated.write(Arrays.copyOfRange(sticks, 10, 30));
+                preallocated.commit();
+                Files.setLastModifiedTime(file, committedTime);
+                assertEquals(30, cache.getHeader(file).getDataCount());
+                assertEquals(30, reader.unsmeltFileToArray(file).length);
+            }
+        }
+    }
+}
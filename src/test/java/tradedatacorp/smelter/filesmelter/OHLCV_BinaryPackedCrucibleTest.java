@@ -0,0 +1,76 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.filesmelter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static tradedatacorp.TestStickGenerator.genSticks;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLexical;
+import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLayout;
+import tradedatacorp.tools.stick.primitive.StickDouble;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class OHLCV_BinaryPackedCrucibleTest{
+    OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3);
+    OHLCV_BinaryLayout layout = lexical.getLayout();
+    StickDouble[] sticks = genSticks(500);
+
+    private void assertPacked(OHLCV_BinaryPackedCrucible crucible, int offset){
+        ByteBuffer view = crucible.genPackedView((byte)0xFF);
+        assertEquals((offset + (long)sticks.length * layout.getDataBitLength() + 7) / 8, view.limit());
+        if(offset != 0) assertEquals(0xFF << (8 - offset) & 0xFF, view.get(0) & (0xFF << (8 - offset)) & 0xFF);
+
+        StickDouble[] expected = lexical.getRefinedDataArrayFlat(lexical.getBinaryDataPointsFlat(sticks));
+        StickDouble[] actual = layout.getRefinedDataArrayPacked(view, offset, sticks.length);
+        for(int i=0; i<sticks.length; ++i){assertTrue(StickDouble.isEqual(expected[i], actual[i]), "index: "+i);}
+    }
+
+    @Nested
+    @DisplayName("Packing tests")
+    class PackingTest{
+        @Test
+        public void growsFromSmallCapacity(){
+            for(boolean isDirect : new boolean[]{false, true}){
+                for(int offset : new int[]{0, 5}){
+                    OHLCV_BinaryPackedCrucible crucible = new OHLCV_BinaryPackedCrucible(layout, offset, 1, isDirect);
+                    crucible.add(sticks[0]);
+                    crucible.add(Arrays.copyOfRange(sticks, 1, 300));
+                    crucible.add(new ArrayList<StickDouble>(Arrays.asList(Arrays.copyOfRange(sticks, 300, sticks.length))));
+
+                    assertEquals(sticks.length, crucible.size());
+                    assertEquals(isDirect, crucible.isDirect());
+                    assertPacked(crucible, offset);
+                }
+            }
+        }
+
+        @Test
+        public void clearAndReuse(){
+            OHLCV_BinaryPackedCrucible crucible = new OHLCV_BinaryPackedCrucible(lexical, false);
+            assertEquals(lexical.getHeaderBitLength() % 8, crucible.getFirstBitOffset());
+            crucible.add(genSticks(10));
+            crucible.clear();
+            assertTrue(crucible.isEmpty());
+
+            crucible.add(sticks);
+            assertPacked(crucible, crucible.getFirstBitOffset());
+        }
+
+        @Test
+        public void invalidValues(){
+            assertThrows(IllegalArgumentException.class, () -> new OHLCV_BinaryPackedCrucible(layout, 8, 1, false));
+            assertThrows(IllegalArgumentException.class, () -> new OHLCV_BinaryPackedCrucible(layout, 0, 0, false));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.lexical.binary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static tradedatacorp.TestStickGenerator.genLevelShiftSticks;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import tradedatacorp.tools.binarytools.BinaryTools;
+import tradedatacorp.tools.stick.StickColumns;
+import tradedatacorp.tools.stick.primitive.StickDouble;
+import tradedatacorp.tools.stick.primitive.CandleStickFixedDouble;
+
+public class OHLCV_BinaryBlockLexicalTest{
+    StickDouble[] sticks = genLevelShiftSticks(1000);
+    OHLCV_BinaryBlockLexical lexical = new OHLCV_BinaryBlockLexical("BTCUSD", 60, 100, (byte)2, (byte)3);
+    ByteBuffer content = lexical.genPackedContent(sticks);
+
+    @Nested
+    @DisplayName("Layout and header tests")
+    class LayoutTest{
+        @Test
+        public void headerRoundTrip(){
+            OHLCV_BinaryBlockLexical parsed = OHLCV_BinaryBlockLexical.genLexicalFromPackedHeader(content);
+            assertEquals(0, lexical.getHeaderBitLength() % 8);
+            assertEquals(1000, parsed.getDataCount());
+            assertEquals(10, parsed.getBlockCount());
+            assertEquals(100, parsed.getBlockLength());
+            assertEquals(60, parsed.getInterval());
+            assertEquals("BTCUSD", parsed.getSymbol());
+            assertEquals(lexical.getHeaderBitLength(), parsed.getHeaderBitLength());
+
+            boolean[][] header = lexical.getBinaryHeader();
+            boolean[][] cloned = lexical.clone().getBinaryHeader();
+            for(int i=0; i<header.length; ++i){assertTrue(BinaryTools.isEqualBoolArray(header[i], cloned[i]), "field: "+i);}
+            assertTrue(BinaryTools.isEqualBoolArray(BinaryTools.genConcatenatedBoolArrays(header), BinaryTools.genBoolArrayFromByteBufferSubset(content, 0, lexical.getHeaderBitLength())));
+        }
+
+        @Test
+        public void smallerThanStandard(){
+            OHLCV_BinaryLexical standard = OHLCV_BinaryLexical.genStandardAlignedLexical("BTCUSD", 60);
+            long standardBytes = ((long)standard.getDataBitLength() * sticks.length) / 8;
+            assertTrue(content.limit() < standardBytes / 2, "block bytes: "+content.limit()+" standard bytes: "+standardBytes);
+        }
+
+        @Test
+        public void invalidValues(){
+            assertThrows(IllegalArgumentException.class, () -> new OHLCV_BinaryBlockLexical("BTCUSD", 60, 0, (byte)2, (byte)3));
+            assertThrows(IllegalArgumentException.class, () -> new OHLCV_BinaryBlockLexical("BTCUSD", 60, 100, (byte)16, (byte)3));
+            assertThrows(IllegalArgumentException.class, () -> new OHLCV_BinaryBlockLexical("ABCDEFGHIJKLMNOP", 60, 100, (byte)2, (byte)3));
+            assertEquals("ABCDEFGHIJKLMNO", new OHLCV_BinaryBlockLexical("ABCDEFGHIJKLMNO", 60, 100, (byte)2, (byte)3).getSymbol());
+            assertThrows(IndexOutOfBoundsException.class, () -> lexical.getRefinedData(content, 1000));
+            assertThrows(IllegalArgumentException.class, () -> lexical.getRefinedColumns(content, -1, 1));
+        }
+    }
+
+    @Nested
+    @DisplayName("Round trip tests")
+    class RoundTripTest{
+        @Test
+        public void allSticks(){
+            StickDouble[] actual = OHLCV_BinaryBlockLexical.genLexicalFromPackedHeader(content).getRefinedDataArray(content, 0, sticks.length);
+            assertEquals(sticks.length, actual.length);
+            for(int i=0; i<sticks.length; ++i){assertTrue(StickDouble.isEqual(sticks[i], actual[i]), "index: "+i);}
+        }
+
+        @Test
+        public void randomAccessAcrossBlocks(){
+            for(int i : new int[]{0, 99, 100, 499, 500, 999}){
+                assertTrue(StickDouble.isEqual(sticks[i], lexical.getRefinedData(content, i)), "index: "+i);
+            }
+
+            StickColumns range = lexical.getRefinedColumns(content, 450, 1000);
+            assertEquals(550, range.getSize());
+            for(int i=0; i<range.getSize(); ++i){assertTrue(StickDouble.isEqual(sticks[450 + i], range.getStick(i)), "index: "+(450 + i));}
+            assertEquals(0, lexical.getRefinedColumns(content, 1000, 5).getSize());
+        }
+
+        @Test
+        public void singleBlockPartial(){
+            OHLCV_BinaryBlockLexical small = OHLCV_BinaryBlockLexical.genBlockLexical("BTCUSD", 60, (byte)2, (byte)3);
+            StickDouble[] few = new StickDouble[]{sticks[0], sticks[600]};
+            ByteBuffer fewContent = small.genPackedContent(few);
+            assertEquals(1, small.getBlockCount());
+            assertTrue(StickDouble.isEqual(few[1], small.getRefinedData(fewContent, 1)));
+        }
+
+        @Test
+        public void rangeWiderThanSignedLong(){
+            //max - min of every price exceeds Long.MAX_VALUE, so the offsets need all 64 bits.
+            OHLCV_BinaryBlockLexical wide = new OHLCV_BinaryBlockLexical("BTCUSD", 60, 4, (byte)0, (byte)0);
+            StickDouble[] extreme = new StickDouble[]{
+                new CandleStickFixedDouble(1743046200000L, -5e18, 5e18, -5e18, 5e18, 0),
+                new CandleStickFixedDouble(1743046260000L, 5e18, -5e18, 5e18, -5e18, 7),
+                new CandleStickFixedDouble(1743046320000L, 0, 1, -1, 2e18, 3)
+            };
+            ByteBuffer wideContent = wide.genPackedContent(extreme);
+            StickDouble[] actual = wide.getRefinedDataArray(wideContent, 0, extreme.length);
+            for(int i=0; i<extreme.length; ++i){assertTrue(StickDouble.isEqual(extreme[i], actual[i]), "index: "+i);}
+        }
+    }
+}
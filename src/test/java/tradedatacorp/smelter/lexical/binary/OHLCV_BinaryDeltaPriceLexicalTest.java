@@ -0,0 +1,108 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.lexical.binary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import tradedatacorp.tools.binarytools.BinaryTools;
+import tradedatacorp.tools.stick.primitive.StickDouble;
+import tradedatacorp.tools.stick.primitive.CandleStickFixedDouble;
+
+public class OHLCV_BinaryDeltaPriceLexicalTest{
+    StickDouble[] sticks = new StickDouble[]{
+        new CandleStickFixedDouble(1743046200000L, 87054.01, 87103.15, 87001.12, 87090.44, 12.5),
+        new CandleStickFixedDouble(1743046260000L, 87090.44, 87200.01, 87080.0, 87199.99, 0.25),
+        new CandleStickFixedDouble(1743046320000L, 87199.5, 87199.5, 86950.75, 86960.01, 3.125),
+        new CandleStickFixedDouble(1743046380000L, 86961, 87010, 86900.5, 87000, 0)
+    };
+
+    OHLCV_BinaryDeltaPriceLexical lexical = OHLCV_BinaryDeltaPriceLexical.genFittedLexical("BTCUSD", 60, sticks, (byte)2, (byte)3);
+
+    private void assertSticks(StickDouble[] actual){
+        assertEquals(sticks.length, actual.length);
+        for(int i=0; i<sticks.length; ++i){
+            assertTrue(StickDouble.isEqual(sticks[i], actual[i]), "index: "+i+" expected: "+sticks[i].getC()+" actual: "+actual[i].getC());
+        }
+    }
+
+    @Nested
+    @DisplayName("Layout and header tests")
+    class LayoutTest{
+        @Test
+        public void fittedLayoutIsSmallerThanStandard(){
+            OHLCV_BinaryLexical standard = OHLCV_BinaryLexical.genStandardAlignedLexical("BTCUSD", 60);
+            assertTrue(lexical.getDataBitLength() < standard.getDataBitLength() / 2, "data bit length: "+lexical.getDataBitLength());
+            assertEquals(87054.01, lexical.getBasePrice());
+            assertEquals(0, lexical.getHeaderBitLength() % 8);
+            assertEquals(lexical.getHeaderBitLength(), lexical.getBinaryHeaderFlat().length);
+        }
+
+        @Test
+        public void packedHeaderRoundTrip(){
+            lexical.setDataCount(4);
+            boolean[] header = lexical.getBinaryHeaderFlat();
+            ByteBuffer buffer = ByteBuffer.allocate(header.length/8);
+            for(int i=0; i<header.length; ++i){
+                BinaryTools.setByteBufferSubsetUnsignedLong(i, 1, header[i] ? 1 : 0, buffer);
+            }
+
+            OHLCV_BinaryDeltaPriceLexical parsed = OHLCV_BinaryDeltaPriceLexical.genLexicalFromPackedHeader(buffer, 0);
+            assertTrue(BinaryTools.isEqualBoolArray(header, parsed.getBinaryHeaderFlat()));
+            assertEquals(4, parsed.getDataCount());
+            assertEquals("BTCUSD", parsed.getSymbol());
+            assertEquals(lexical.getBasePrice(), parsed.getBasePrice());
+            assertTrue(BinaryTools.isEqualBoolArray(header, lexical.clone().getBinaryHeaderFlat()));
+        }
+
+        @Test
+        public void invalidValues(){
+            //A jump larger than any fitted delta.
+            StickDouble[] jump = Arrays.copyOf(sticks, sticks.length + 1);
+            jump[sticks.length] = new CandleStickFixedDouble(1743046440000L, 1, 1, 1, 1, 0);
+            assertThrows(IllegalArgumentException.class, () -> lexical.getBinaryDataPointsFlat(jump));
+            assertThrows(IllegalArgumentException.class, () -> OHLCV_BinaryDeltaPriceLexical.genFittedLexical("BTCUSD", 60, sticks, (byte)16, (byte)0));
+            assertThrows(IllegalArgumentException.class, () -> OHLCV_BinaryDeltaPriceLexical.genFittedLexical("ABCDEFGHIJKLMNOP", 60, sticks, (byte)2, (byte)0));
+            assertEquals("ABCDEFGHIJKLMNO", OHLCV_BinaryDeltaPriceLexical.genFittedLexical("ABCDEFGHIJKLMNO", 60, sticks, (byte)2, (byte)0).getSymbol());
+        }
+    }
+
+    @Nested
+    @DisplayName("Round trip tests")
+    class RoundTripTest{
+        @Test
+        public void flat(){
+            assertSticks(lexical.getRefinedDataArrayFlat(lexical.getBinaryDataPointsFlat(sticks)));
+            assertSticks(lexical.getRefinedDataArray(lexical.getBinaryDataPoints(sticks)));
+            assertTrue(StickDouble.isEqual(sticks[0], lexical.getRefinedDataFlat(lexical.getBinaryDataFlat(sticks[0]))));
+        }
+
+        @Test
+        public void packed(){
+            assertSticks(lexical.getRefinedDataArrayPacked(lexical.getBinaryDataPointsPacked(sticks), sticks.length));
+
+            int offset = 5;
+            ByteBuffer buffer = ByteBuffer.allocate((offset + lexical.getDataBitLength()*sticks.length + 7)/8);
+            double previousClose = lexical.getBasePrice();
+            for(int i=0; i<sticks.length; ++i){
+                lexical.setPackedDataStick(sticks[i], previousClose, buffer, offset + (long)i*lexical.getDataBitLength());
+                previousClose = sticks[i].getC();
+            }
+            assertSticks(lexical.getRefinedDataArrayPacked(buffer, offset, sticks.length));
+
+            //Resume from the middle of the content with the previous Close.
+            StickDouble resumed = lexical.getRefinedColumnsPacked(buffer, offset + 3L*lexical.getDataBitLength(), 1, sticks[2].getC()).getStick(0);
+            assertTrue(StickDouble.isEqual(sticks[3], resumed));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.lexical.binary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import tradedatacorp.tools.binarytools.BinaryTools;
+import tradedatacorp.tools.stick.StickColumns;
+import tradedatacorp.tools.stick.primitive.StickDouble;
+import tradedatacorp.tools.stick.primitive.CandleStickFixedDouble;
+
+public class OHLCV_BinaryIntervalDeltaLexicalTest{
+    static final long BASE_UTC = 1743046200000L;
+
+    //Every minute with a gap of 5 minutes between index 2 and 3.
+    StickDouble[] sticks = new StickDouble[]{
+        new CandleStickFixedDouble(BASE_UTC, 87054.01, 87103.15, 87001.12, 87090.44, 12.5),
+        new CandleStickFixedDouble(BASE_UTC + 60000L, 87090.44, 87200.01, 87080.0, 87199.99, 0.25),
+        new CandleStickFixedDouble(BASE_UTC + 120000L, 0, 1, 0.5, 0.25, 100000),
+        new CandleStickFixedDouble(BASE_UTC + 420000L, 5, 6, 4, 5.5, 3)
+    };
+
+    @Nested
+    @DisplayName("Layout and header tests")
+    class LayoutTest{
+        @Test
+        public void fittedLayout(){
+            OHLCV_BinaryIntervalDeltaLexical lexical = OHLCV_BinaryIntervalDeltaLexical.genStandardIntervalDeltaLexical("BTCUSD", 60, sticks);
+            OHLCV_BinaryLexical standard = OHLCV_BinaryLexical.genStandardAlignedLexical("BTCUSD", 60);
+
+            assertEquals(BASE_UTC, lexical.getBaseUTC());
+            assertEquals(60000L, lexical.getUTCPerInterval());
+            assertEquals(7, lexical.getMaxIntervalDelta()); //largest gap is 5 intervals, 3 bits
+            assertEquals(standard.getDataBitLength() - 44 + 3, lexical.getDataBitLength());
+            assertEquals(0, lexical.getHeaderBitLength() % 8);
+            assertEquals(lexical.getHeaderBitLength(), lexical.getBinaryHeaderFlat().length);
+        }
+
+        @Test
+        public void packedHeaderRoundTrip(){
+            OHLCV_BinaryIntervalDeltaLexical lexical = OHLCV_BinaryIntervalDeltaLexical.genStandardIntervalDeltaLexical("BTCUSD", 60, BASE_UTC, (byte)4);
+            lexical.setDataCount(4);
+            boolean[] header = lexical.getBinaryHeaderFlat();
+            ByteBuffer buffer = ByteBuffer.allocate(header.length/8);
+            for(int i=0; i<header.length; ++i){
+                BinaryTools.setByteBufferSubsetUnsignedLong(i, 1, header[i] ? 1 : 0, buffer);
+            }
+
+            OHLCV_BinaryIntervalDeltaLexical parsed = OHLCV_BinaryIntervalDeltaLexical.genLexicalFromPackedHeader(buffer, 0);
+            assertEquals(BASE_UTC, parsed.getBaseUTC());
+            assertEquals(4, parsed.getDataCount());
+            assertEquals("BTCUSD", parsed.getSymbol());
+            assertEquals(lexical.getDataBitLength(), parsed.getDataBitLength());
+            assertTrue(BinaryTools.isEqualBoolArray(header, parsed.getBinaryHeaderFlat()));
+        }
+
+        @Test
+        public void invalidSticks(){
+            OHLCV_BinaryIntervalDeltaLexical lexical = OHLCV_BinaryIntervalDeltaLexical.genStandardIntervalDeltaLexical("BTCUSD", 60, BASE_UTC, (byte)2);
+
+            //Gap of 5 intervals does not fit in 2 bits.
+            assertThrows(IllegalArgumentException.class, () -> lexical.getBinaryDataPointsFlat(sticks));
+            //Not on the interval grid.
+            assertThrows(IllegalArgumentException.class, () -> lexical.getBinaryDataFlat(new CandleStickFixedDouble(BASE_UTC + 1, 1, 1, 1, 1, 1)));
+            //Before the base UTC.
+            assertThrows(IllegalArgumentException.class, () -> lexical.getBinaryDataFlat(new CandleStickFixedDouble(BASE_UTC - 60000L, 1, 1, 1, 1, 1)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Round trip tests")
+    class RoundTripTest{
+        OHLCV_BinaryIntervalDeltaLexical lexical = OHLCV_BinaryIntervalDeltaLexical.genStandardIntervalDeltaLexical("BTCUSD", 60, sticks);
+        OHLCV_BinaryLexical standard = OHLCV_BinaryLexical.genStandardAlignedLexical("BTCUSD", 60);
+        StickDouble[] expected = standard.getRefinedDataArrayFlat(standard.getBinaryDataPointsFlat(sticks));
+
+        private void assertSticks(StickDouble[] actual){
+            assertEquals(expected.length, actual.length);
+            for(int i=0; i<expected.length; ++i){
+                assertTrue(StickDouble.isEqual(expected[i], actual[i]), "index: "+i);
+            }
+        }
+
+        @Test
+        public void flat(){
+            assertSticks(lexical.getRefinedDataArrayFlat(lexical.getBinaryDataPointsFlat(sticks)));
+            assertSticks(lexical.getRefinedDataArray(lexical.getBinaryDataPoints(sticks)));
+            assertTrue(StickDouble.isEqual(expected[0], lexical.getRefinedDataFlat(lexical.getBinaryDataFlat(sticks[0]))));
+        }
+
+        @Test
+        public void packed(){
+            assertSticks(lexical.getRefinedDataArrayPacked(lexical.getBinaryDataPointsPacked(sticks), sticks.length));
+
+            int offset = 3;
+            ByteBuffer buffer = ByteBuffer.allocate((offset + lexical.getDataBitLength()*sticks.length + 7)/8);
+            long previousUTC = lexical.getBaseUTC();
+            for(int i=0; i<sticks.length; ++i){
+                lexical.setPackedDataStick(sticks[i], previousUTC, buffer, offset + (long)i*lexical.getDataBitLength());
+                previousUTC = sticks[i].getUTC();
+            }
+            assertSticks(lexical.getRefinedDataArrayPacked(buffer, offset, sticks.length));
+
+            //Resume from the middle of the content with the previous UTC.
+            StickColumns tail = lexical.getRefinedColumnsPacked(buffer, offset + 2L*lexical.getDataBitLength(), 2, sticks[1].getUTC());
+            assertTrue(StickDouble.isEqual(expected[2], tail.getStick(0)));
+            assertTrue(StickDouble.isEqual(expected[3], tail.getStick(1)));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * @author Bruce Lamb
+ * @since 18 OCT 2026
+ */
+package tradedatacorp.smelter.lexical.binary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+
+import tradedatacorp.tools.binarytools.BinaryTools;
+import tradedatacorp.tools.stick.primitive.StickDouble;
+import tradedatacorp.tools.stick.primitive.CandleStickFixedDouble;
+
+public class OHLCV_BinaryLayoutTest{
+    OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardAlignedLexical("BTCUSD", 60);
+    StickDouble[] sticks = new StickDouble[]{
+        new CandleStickFixedDouble(1743046200000L, 87054.01, 87103.15, 87001.12, 87090.44, 12.5),
+        new CandleStickFixedDouble(1743046260000L, 87090.44, 87200.01, 87080.0, 87199.99, 0.25),
+        new CandleStickFixedDouble(1743046320000L, 87199.5, 87199.5, 86950.75, 86960.01, 3.125)
+    };
+
+    @Nested
+    @DisplayName("Layout state tests")
+    class StateTest{
+        @Test
+        public void layoutMatchesLexical(){
+            OHLCV_BinaryLayout layout = lexical.getLayout();
+            assertEquals(lexical.getDataBitLength(), layout.getDataBitLength());
+            assertEquals(lexical.getBase10PriceDigits(), layout.getBase10PriceDigits());
+            assertEquals(lexical.getBase10VolumeDigits(), layout.getBase10VolumeDigits());
+            assertEquals(44, layout.getUTCBitLength());
+            assertEquals(31, layout.getPriceWholeBitLength());
+            assertEquals(15, layout.getVolumeFractionBitLength());
+
+            assertEquals(layout, lexical.clone().getLayout());
+            assertEquals(layout.hashCode(), lexical.clone().getLayout().hashCode());
+            assertNotEquals(layout, OHLCV_BinaryLexical.genFastLexical("BTCUSD", 60).getLayout());
+        }
+
+        @Test
+        public void headerValuesDoNotChangeLayout(){
+            OHLCV_BinaryLayout layout = lexical.getLayout();
+            boolean[] header = lexical.getBinaryHeaderFlat();
+
+            boolean[] fileHeader = lexical.genBinaryHeaderFlat(3);
+            assertTrue(BinaryTools.isEqualBoolArray(header, lexical.getBinaryHeaderFlat()));
+            assertEquals(0, lexical.getDataCount());
+
+            lexical.setDataCount(3);
+            assertTrue(BinaryTools.isEqualBoolArray(fileHeader, lexical.getBinaryHeaderFlat()));
+            lexical.setHeaderGap((byte)5);
+            assertSame(layout, lexical.getLayout());
+        }
+    }
+
+    @Nested
+    @DisplayName("Shared layout tests")
+    class SharedTest{
+        @Test
+        public void concurrentEncodeDecode() throws Exception{
+            OHLCV_BinaryLayout layout = lexical.getLayout();
+            StickDouble[] expected = layout.getRefinedDataArrayPacked(layout.getBinaryDataPointsPacked(sticks), sticks.length);
+
+            ExecutorService pool = Executors.newFixedThreadPool(4);
+            ArrayList<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for(int t=0; t<8; ++t){
+                final int offset = t;
+                results.add(pool.submit(() -> {
+                    boolean isEqual = true;
+                    for(int n=0; n<500; ++n){
+                        ByteBuffer buffer = ByteBuffer.allocate((offset + layout.getDataBitLength()*sticks.length + 7)/8);
+                        for(int i=0; i<sticks.length; ++i){layout.setPackedDataStick(sticks[i], buffer, offset + (long)i*layout.getDataBitLength());}
+                        StickDouble[] decoded = layout.getRefinedDataArrayPacked(buffer, offset, sticks.length);
+                        for(int i=0; i<sticks.length; ++i){isEqual &= StickDouble.isEqual(expected[i], decoded[i]);}
+                    }
+                    return isEqual;
+                }));
+            }
+            for(Future<Boolean> result : results){assertTrue(result.get());}
+            pool.shutdown();
+        }
+    }
+}
@@ -10,13 +10,20 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.beans.Transient;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static tradedatacorp.TestStickGenerator.genSticks;
 
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
 import tradedatacorp.tools.binarytools.BinaryTools;
 import tradedatacorp.smelter.lexical.binary.OHLCV_BinaryLexical;
+import tradedatacorp.tools.stick.StickColumns;
 import tradedatacorp.tools.stick.primitive.StickDouble;
 import tradedatacorp.tools.stick.primitive.CandleStickFixedDouble;
 
@@ -502,4 +509,226 @@ int expected_h2_len =
             assertTrue(StickDouble.isEqual(stick2, reverseFlatStick2));
         }
     }
+
+    @Nested
+    @DisplayName("Packed encoding matches flat boolean encoding")
+    public class PackedEquivalenceTest{
+        StickDouble[] sticks = new StickDouble[]{
+            new CandleStickFixedDouble(1743046200000L, 87054.01, 87103.15, 87001.12, 87090.44, 12.5),
+            new CandleStickFixedDouble(1743046260000L, 87090.44, 87200.01, 87080.0, 87199.99, 0.00031),
+            new CandleStickFixedDouble(1743046320000L, 0, 1, 0.5, 0.25, 100000)
+        };
+
+        StickDouble[] miniSticks = new StickDouble[]{
+            new CandleStickFixedDouble(12, 4, 9, 2, 5, 10.5),
+            new CandleStickFixedDouble(13, 4.1, 9.7, 2.2, 5, 15.6),
+            new CandleStickFixedDouble(14, 5.3, 8.6, 2.6, 6.7, 9.7)
+        };
+
+        private void assertPackedMatchesFlat(OHLCV_BinaryLexical lexical, StickDouble[] data){
+            boolean[] flat = lexical.getBinaryDataPointsFlat(data);
+            long[] packed = lexical.getBinaryDataPointsPacked(data);
+
+            assertEquals((flat.length + 63)/64, packed.length);
+            for(int i=0; i<flat.length; ++i){
+                assertEquals(flat[i], BinaryTools.toUnsignedLongFromWordSubset(packed, i, 1) == 1, "bit mismatch at index: "+i);
+            }
+
+            StickDouble[] flatDecoded = lexical.getRefinedDataArrayFlat(flat);
+            StickDouble[] packedDecoded = lexical.getRefinedDataArrayPacked(packed, data.length);
+            for(int i=0; i<data.length; ++i){
+                assertTrue(StickDouble.isEqual(flatDecoded[i], packedDecoded[i]), "stick mismatch at index: "+i);
+            }
+        }
+
+        @Test
+        public void testStandardLexical(){
+            assertPackedMatchesFlat(first_lexical, sticks);
+        }
+
+        @Test
+        public void testMiniLexical(){
+            assertPackedMatchesFlat(OHLCV_BinaryLexical.genMiniLexical("TEST", 60, (byte)0), miniSticks);
+        }
+
+        @Test
+        public void testFatLexical(){
+            assertPackedMatchesFlat(OHLCV_BinaryLexical.genFatAlignedLexical("BTCUSD", 60), sticks);
+        }
+
+        private void assertEveryPhaseMatchesFlat(OHLCV_BinaryLexical lexical, StickDouble[] data){
+            StickDouble[] flatDecoded = lexical.getRefinedDataArrayFlat(lexical.getBinaryDataPointsFlat(data));
+            int dataBitLength = lexical.getDataBitLength();
+
+            //Every phase of the first bit within a 64 bit word.
+            for(int offset=0; offset<64; ++offset){
+                long[] words = new long[(offset + dataBitLength*data.length + 63)/64];
+                for(int i=0; i<data.length; ++i){lexical.setPackedDataStick(data[i], words, offset + (long)i*dataBitLength);}
+                for(int i=0; i<data.length; ++i){
+                    StickDouble decoded = lexical.getRefinedDataPacked(words, offset + (long)i*dataBitLength);
+                    assertTrue(StickDouble.isEqual(flatDecoded[i], decoded), "word offset: "+offset+" index: "+i);
+                }
+            }
+
+            //Every phase of the first bit within a byte, with no slack at the end of the buffer and in both byte orders.
+            for(int offset=0; offset<8; ++offset){
+                ByteBuffer buffer = ByteBuffer.allocate((offset + dataBitLength*data.length + 7)/8);
+                for(int i=0; i<data.length; ++i){lexical.setPackedDataStick(data[i], buffer, offset + (long)i*dataBitLength);}
+                for(ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}){
+                    buffer.order(order);
+                    StickDouble[] decoded = lexical.getRefinedDataArrayPacked(buffer, offset, data.length);
+                    for(int i=0; i<data.length; ++i){
+                        assertTrue(StickDouble.isEqual(flatDecoded[i], decoded[i]), "byte offset: "+offset+" index: "+i+" order: "+order);
+                        assertEquals(flatDecoded[i].getUTC(), lexical.getUTCPacked(buffer, offset + (long)i*dataBitLength));
+                    }
+                }
+            }
+        }
+
+        @Test
+        public void testDecoderPlanEveryPhase(){
+            assertEveryPhaseMatchesFlat(first_lexical, sticks);
+            assertEveryPhaseMatchesFlat(OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)3), sticks);
+            assertEveryPhaseMatchesFlat(OHLCV_BinaryLexical.genMiniLexical("TEST", 60, (byte)0), miniSticks);
+            assertEveryPhaseMatchesFlat(OHLCV_BinaryLexical.genFatAlignedLexical("BTCUSD", 60), sticks);
+            assertEveryPhaseMatchesFlat(tiny_lexical, miniSticks);
+            assertEveryPhaseMatchesFlat(OHLCV_BinaryLexical.genFastLexical("BTCUSD", 60), sticks);
+        }
+
+        @Test
+        public void testBulkColumnsMatchRowDecode(){
+            OHLCV_BinaryLexical lexical = OHLCV_BinaryLexical.genStandardLexical("BTCUSD", 60, (byte)0);
+            int count = 2*OHLCV_BinaryLexical.BULK_UNPACK_BLOCK_SIZE + 37;
+            int offset = 5;
+            ByteBuffer buffer = ByteBuffer.allocate((offset + lexical.getDataBitLength()*count + 7)/8);
+            StickDouble[] source = genSticks(count);
+            for(int i=0; i<count; ++i){lexical.setPackedDataStick(source[i], buffer, offset + (long)i*lexical.getDataBitLength());}
+            StickDouble[] expected = lexical.getRefinedDataArrayPacked(buffer, offset, count);
+
+            StickColumns columns = new StickColumns(count + 1);
+            columns.add(expected[0]);
+            lexical.addRefinedColumnsPacked(buffer, offset, count, columns);
+            assertEquals(count + 1, columns.getSize());
+            for(int i=0; i<count; ++i){
+                assertTrue(StickDouble.isEqual(expected[i], columns.getStick(i + 1)), "index: "+i);
+            }
+
+            long[] utc = new long[count];
+            lexical.getUTCArrayPacked(buffer, offset, count, utc, 0);
+            for(int i=0; i<count; ++i){assertEquals(expected[i].getUTC(), utc[i]);}
+
+            assertThrows(IllegalStateException.class, () -> lexical.addRefinedColumnsPacked(buffer, offset, 1, columns));
+        }
+
+        @Test
+        public void testByteBufferAtUnalignedOffsets(){
+            boolean[] flat = first_lexical.getBinaryDataPointsFlat(sticks);
+            StickDouble[] flatDecoded = first_lexical.getRefinedDataArrayFlat(flat);
+
+            for(int offset=0; offset<9; ++offset){
+                ByteBuffer buffer = ByteBuffer.allocate((offset + flat.length + 7)/8 + 8);
+                long startBitIndex = offset;
+                for(StickDouble stick : sticks){
+                    first_lexical.setPackedDataStick(stick, buffer, startBitIndex);
+                    startBitIndex += first_lexical.getDataBitLength();
+                }
+
+                for(int i=0; i<flat.length; ++i){
+                    assertEquals(flat[i], BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, offset + i, 1) == 1);
+                }
+
+                StickDouble[] decoded = first_lexical.getRefinedDataArrayPacked(buffer, offset, sticks.length);
+                for(int i=0; i<sticks.length; ++i){
+                    assertTrue(StickDouble.isEqual(flatDecoded[i], decoded[i]));
+                }
+                assertEquals(0, buffer.position());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Fast (word aligned) lexical tests")
+    public class FastLexicalTest{
+        OHLCV_BinaryLexical fast_lexical = OHLCV_BinaryLexical.genFastLexical("BTCUSD", 60);
+
+        @Test
+        public void testLayout(){
+            assertEquals(192, fast_lexical.getDataBitLength());
+            assertEquals(0, fast_lexical.getHeaderBitLength() % 8);
+            assertTrue(fast_lexical.isWordAligned());
+
+            assertFalse(first_lexical.isWordAligned());
+            assertFalse(OHLCV_BinaryLexical.genMiniLexical("TEST", 60, (byte)0).isWordAligned());
+            assertFalse(OHLCV_BinaryLexical.genFatAlignedLexical("BTCUSD", 60).isWordAligned());
+        }
+
+        @Test
+        public void testRoundTrip(){
+            StickDouble[] sticks = new StickDouble[]{
+                new CandleStickFixedDouble(1743046200000L, 87054.01, 87103.15, 87001.12, 87090.44, 12.5),
+                new CandleStickFixedDouble(1743046260000L, 1048575.99, 0.01, 0, 5.5, 4194303.9999)
+            };
+            long[] words = fast_lexical.getBinaryDataPointsPacked(sticks);
+            assertEquals(6, words.length);
+
+            StickDouble[] decoded = fast_lexical.getRefinedDataArrayPacked(words, sticks.length);
+            for(int i=0; i<sticks.length; ++i){
+                assertTrue(StickDouble.isEqual(sticks[i], decoded[i]), "index: "+i);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Fitted lexical tests")
+    public class FittedLexicalTest{
+        StickDouble[] sticks = new StickDouble[]{
+            new CandleStickFixedDouble(1743046200000L, 87054.01, 87103.15, 87001.12, 87090.44, 12.5),
+            new CandleStickFixedDouble(1743046260000L, 87090.44, 87200.01, 87080.0, 87199.99, 0.125)
+        };
+
+        @Test
+        public void testFittedLayout(){
+            OHLCV_BinaryLexical fitted = OHLCV_BinaryLexical.genFittedLexical("BTCUSD", 60, sticks);
+            boolean[][] header = fitted.getBinaryHeader();
+
+            assertEquals(41, BinaryTools.toUnsignedInt(header[OHLCV_BinaryLexical.H_INDEX_UTC_LEN]));
+            assertEquals(17, BinaryTools.toUnsignedInt(header[OHLCV_BinaryLexical.H_INDEX_PW_LEN])); //87200
+            assertEquals(7, BinaryTools.toUnsignedInt(header[OHLCV_BinaryLexical.H_INDEX_PF_LEN]));  //2 digits
+            assertEquals(4, BinaryTools.toUnsignedInt(header[OHLCV_BinaryLexical.H_INDEX_VW_LEN]));  //12
+            assertEquals(10, BinaryTools.toUnsignedInt(header[OHLCV_BinaryLexical.H_INDEX_VF_LEN])); //3 digits
+            assertEquals(0, fitted.getHeaderBitLength() % 8);
+            assertTrue(fitted.getDataBitLength() < first_lexical.getDataBitLength());
+            assertThrows(IllegalArgumentException.class, () -> OHLCV_BinaryLexical.genFittedLexical("BTCUSD", 60, new StickDouble[]{new CandleStickFixedDouble(0, -1, 0, 0, 0, 0)}));
+            assertThrows(IllegalArgumentException.class, () -> OHLCV_BinaryLexical.genFittedLexical("BTCUSD", 60, new StickDouble[]{new CandleStickFixedDouble(-60000L, 1, 1, 1, 1, 0)}));
+        }
+
+        @Test
+        public void testFractionDigitLimit(){
+            StickDouble[] nineDigits = new StickDouble[]{new CandleStickFixedDouble(1743046200000L, 1.123456789, 1, 1, 1, 0.000000001)};
+            OHLCV_BinaryLexical fitted = OHLCV_BinaryLexical.genFittedLexical("BTCUSD", 60, nineDigits);
+            assertEquals(30, BinaryTools.toUnsignedInt(fitted.getBinaryHeader()[OHLCV_BinaryLexical.H_INDEX_PF_LEN])); //9 digits
+            StickDouble[] decoded = fitted.getRefinedDataArrayPacked(fitted.getBinaryDataPointsPacked(nineDigits), 1);
+            assertTrue(StickDouble.isEqual(nineDigits[0], decoded[0]));
+
+            //10 digits can not be fitted losslessly.
+            assertThrows(IllegalArgumentException.class, () -> OHLCV_BinaryLexical.genFittedLexical("BTCUSD", 60, new StickDouble[]{new CandleStickFixedDouble(0, 1.1234567891, 1, 1, 1, 0)}));
+            assertThrows(IllegalArgumentException.class, () -> OHLCV_BinaryLexical.genFittedLexical("BTCUSD", 60, new StickDouble[]{new CandleStickFixedDouble(0, 1, 1, 1, 1, 0.0000000001)}));
+        }
+
+        @Test
+        public void testParallelRoundTrip(){
+            StickDouble[] many = new StickDouble[OHLCV_BinaryLexical.PARALLEL_FIT_THRESHOLD * 3];
+            for(int i=0; i<many.length; ++i){many[i] = sticks[i % sticks.length];}
+            many[many.length - 1] = new CandleStickFixedDouble(1743046320000L, 5.0001, 5, 5, 5, 1000000);
+
+            OHLCV_BinaryLexical fitted = OHLCV_BinaryLexical.genFittedLexical("BTCUSD", 60, Arrays.asList(many));
+            assertEquals(14, BinaryTools.toUnsignedInt(fitted.getBinaryHeader()[OHLCV_BinaryLexical.H_INDEX_PF_LEN])); //4 digits
+            assertEquals(20, BinaryTools.toUnsignedInt(fitted.getBinaryHeader()[OHLCV_BinaryLexical.H_INDEX_VW_LEN])); //1000000
+
+            StickDouble[] decoded = fitted.getRefinedDataArrayPacked(fitted.getBinaryDataPointsPacked(many), many.length);
+            for(int i=0; i<many.length; ++i){
+                assertTrue(StickDouble.isEqual(many[i], decoded[i]), "index: "+i);
+            }
+        }
+    }
 }
@@ -9,6 +9,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.nio.ByteBuffer;
+
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -467,4 +469,56 @@ public class BinaryToolsTest{
             assertTrue(BinaryTools.isEqualBoolArray(cat3_8bitCharBin,another_cat3_8bitCharBin));
         }
     }
+
+    @Nested
+    @DisplayName("Word and ByteBuffer packed subsets")
+    class PackedSubsetTest{
+        @Test
+        public void testWordSubsetAcrossBoundary(){
+            long[] words = new long[2];
+            BinaryTools.setWordSubsetUnsignedLong(60, 8, 0b1011_0110L, words);
+
+            assertEquals(0b1011L, words[0]);
+            assertEquals(0b0110L << 60, words[1]);
+            assertEquals(0b1011_0110L, BinaryTools.toUnsignedLongFromWordSubset(words, 60, 8));
+            assertEquals(0L, BinaryTools.toUnsignedLongFromWordSubset(words, 0, 0));
+        }
+
+        @Test
+        public void testWordSubsetPreservesNeighbours(){
+            long[] words = new long[]{-1L, -1L};
+            BinaryTools.setWordSubsetUnsignedLong(62, 4, 0, words);
+
+            assertEquals(~0b11L, words[0]);
+            assertEquals(-1L >>> 2, words[1]);
+            BinaryTools.setWordSubsetUnsignedLong(0, 64, 0x0123_4567_89AB_CDEFL, words);
+            assertEquals(0x0123_4567_89AB_CDEFL, BinaryTools.toUnsignedLongFromWordSubset(words, 0, 64));
+        }
+
+        @Test
+        public void testByteBufferSubset(){
+            ByteBuffer buffer = ByteBuffer.wrap(new byte[]{(byte)0b1010_1100, (byte)0b0100_0000});
+
+            assertEquals(1L, BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, 6, 4));
+            BinaryTools.setByteBufferSubsetUnsignedLong(6, 4, 15, buffer);
+            assertEquals((byte)0b1010_1111, buffer.get(0));
+            assertEquals((byte)0b1100_0000, buffer.get(1));
+            assertEquals(0, buffer.position());
+        }
+
+        @Test
+        public void testByteBufferMatchesWords(){
+            long[] words = new long[3];
+            ByteBuffer buffer = ByteBuffer.allocate(24);
+            long value = 0x7FFF_FFFF_FFFF_FFFFL;
+
+            for(int start=0; start<64; start += 7){
+                BinaryTools.setWordSubsetUnsignedLong(start, 63, value, words);
+                BinaryTools.setByteBufferSubsetUnsignedLong(start, 63, value, buffer);
+                assertEquals(value, BinaryTools.toUnsignedLongFromByteBufferSubset(buffer, start, 63));
+                for(int i=0; i<words.length; ++i) assertEquals(words[i], buffer.getLong(i*8));
+                value ^= (value >>> 3);
+            }
+        }
+    }
 }